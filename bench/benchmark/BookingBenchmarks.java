@@ -0,0 +1,349 @@
+package benchmark;
+
+import builder_pattern.MovieTicketBuilder;
+import catalogue.Showtime;
+import inventory.BookingResult;
+import inventory.Showing;
+import movie_factory_pattern.Genre;
+import movie_factory_pattern.Movie;
+import movie_factory_pattern.MovieFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import prototype_pattern.TicketPrototype;
+import singleton_pattern.ShowtimeCatalogue;
+import singleton_pattern.TicketBookingSystem;
+import theatre_factory_pattern.Theater;
+import theatre_factory_pattern.TheaterFactory;
+import theatre_factory_pattern.TheaterType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmark.BookingBenchmarks measures with JMH the throughput of the booking core, the
+ * availability queries and the ticket, movie and theater construction, so regressions show up
+ * as numbers.
+ * <p>
+ * Build the benchmark jar and run, for example:
+ * <pre>
+ * mvn -B -Pbenchmarks package
+ * java -jar target/benchmarks.jar BookingBenchmarks [-t threads] [-f forks] [-wi 5 -i 5]
+ * </pre>
+ * Every benchmark runs in two fresh forks with a pinned 2 GB heap, five warmup and five
+ * measurement iterations of one second; the multi-threaded ones use one thread per CPU unless
+ * -t is given. For reproducible numbers on Linux, keep the CPU frequency governor on
+ * "performance" and pass the same -t on every run, since the default depends on the machine.
+ * <p>
+ * Bookings go to showings registered for the benchmark with BOOKING_CAPACITY seats; when a
+ * showing is full a new one is registered, which happens once per million bookings.
+ * The cancellation benchmark alternates cancelling a booking and booking its seat again on
+ * CANCEL_CAPACITY seats, so half its calls are cancellations and half are bookings.
+ * <p>
+ * The catalogue benchmarks query a week of showtimes: CATALOGUE_MOVIES movies in
+ * CATALOGUE_THEATERS theaters of CATALOGUE_SCREENS screens, five screenings per screen a day.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-XX:+AlwaysPreTouch"})
+public class BookingBenchmarks {
+    // Seats of each showing registered by the booking benchmarks
+    private static final int BOOKING_CAPACITY = 1 << 20;
+
+    // Seats of each showing whose bookings the cancellation benchmark cancels and books again
+    private static final int CANCEL_CAPACITY = 1024;
+
+    // Size of the catalogue scheduled for the catalogue benchmarks
+    private static final int CATALOGUE_MOVIES = 200;
+    private static final int CATALOGUE_THEATERS = 20;
+    private static final int CATALOGUE_SCREENS = 8;
+
+    @Benchmark
+    @Threads(1)
+    public int bookTicketSingleThread(OwnShowing showing) {
+        return showing.book();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int bookTicketSpreadShowings(OwnShowing showing) {
+        return showing.book();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int bookTicketSameShowing(SharedShowingCursor cursor) {
+        return cursor.book();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int cancelTicketRebooking(CancelAndRebook rebooking) {
+        return rebooking.next();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int getAvailableTicketsByShowingId(Invocations invocations) {
+        return TicketBookingSystem.getInstance().getAvailableTickets((int) (invocations.next() % 6));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int getBookedTicketsByName(Invocations invocations) {
+        int combination = (int) (invocations.next() % 6);
+        return TicketBookingSystem.getInstance().getBookedTickets(Invocations.GENRES[combination >> 1],
+                Invocations.THEATER_TYPES[combination & 1]);
+    }
+
+    @Benchmark
+    public TicketPrototype movieTicketBuilderBuild(Invocations invocations) {
+        return new MovieTicketBuilder()
+                .setGenre(Genre.COMEDY)
+                .setTheaterType(TheaterType.IMAX)
+                .setTicketNumber((int) (invocations.next() % 50) + 1)
+                .build();
+    }
+
+    @Benchmark
+    public TicketPrototype showingGetTicket(PooledTickets pool, Invocations invocations) {
+        return pool.showing.getTicket((int) (invocations.next() % 50) + 1);
+    }
+
+    @Benchmark
+    public Movie movieFactoryCreateMovie(Invocations invocations) {
+        Genre[] genres = Invocations.GENRE_VALUES;
+        return MovieFactory.createMovie(genres[(int) (invocations.next() % genres.length)]);
+    }
+
+    @Benchmark
+    public Theater theaterFactoryCreateTheater(Invocations invocations) {
+        return TheaterFactory.createTheater(Invocations.THEATER_TYPES[(int) (invocations.next() & 1)]);
+    }
+
+    /**
+     * Asks what plays in IMAX within half an hour of some evening time of the week
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Showtime> showtimeCatalogueFindPlaying(BenchmarkCatalogue catalogue, Invocations invocations) {
+        long invocation = invocations.next();
+        LocalDateTime around = BenchmarkCatalogue.FIRST_DAY.plusDays(invocation % BenchmarkCatalogue.DAYS)
+                .atTime(18 + (int) (invocation % 4), 0);
+        return ShowtimeCatalogue.getInstance()
+                .findPlaying(null, TheaterType.IMAX, around.minusMinutes(30), around.plusMinutes(30));
+    }
+
+    /**
+     * Looks up titles by a prefix
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Movie> showtimeCatalogueFindMovies(BenchmarkCatalogue catalogue, Invocations invocations) {
+        return ShowtimeCatalogue.getInstance().findMovies(BenchmarkCatalogue.PREFIXES[(int) (invocations.next() & 3)], 10);
+    }
+
+    /**
+     * Counts the calls of the calling thread, to rotate through inputs
+     */
+    @State(Scope.Thread)
+    public static class Invocations {
+        private static final String[] GENRES = {"Action", "Comedy", "Drama"};
+        private static final String[] THEATER_TYPES = {"Cinema", "IMAX"};
+        private static final Genre[] GENRE_VALUES = Genre.values();
+
+        private long invocation;
+
+        long next() {
+            return invocation++;
+        }
+    }
+
+    /**
+     * Books consecutive seats of a showing owned by the calling thread, so threads never touch
+     * the same seat bitmap
+     */
+    @State(Scope.Thread)
+    public static class OwnShowing {
+        private final TicketBookingSystem system = TicketBookingSystem.getInstance();
+        private int showingId;
+        private int lastSeat;   // Last booked ticket number
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            showingId = system.registerShowing(Genre.ACTION, TheaterType.CINEMA, BOOKING_CAPACITY);
+            lastSeat = 0;
+        }
+
+        int book() {
+            if (lastSeat == BOOKING_CAPACITY) {
+                setUp();
+            }
+            return system.bookTicket(showingId, ++lastSeat).getAvailableTickets();
+        }
+    }
+
+    /**
+     * The showings shared by all threads of bookTicketSameShowing, one per epoch of
+     * BOOKING_CAPACITY bookings
+     */
+    @State(Scope.Benchmark)
+    public static class SharedShowings {
+        private final TicketBookingSystem system = TicketBookingSystem.getInstance();
+        private final List<Integer> showingIds = new ArrayList<>();
+
+        @Setup(Level.Iteration)
+        public synchronized void setUp() {
+            showingIds.clear();
+        }
+
+        /**
+         * Gets the shared showing of an epoch, registering it for the first thread that reaches it
+         *
+         * @param epoch Number of showings the threads filled before
+         * @return The showing ID
+         */
+        synchronized int showing(int epoch) {
+            while (showingIds.size() <= epoch) {
+                showingIds.add(system.registerShowing(Genre.ACTION, TheaterType.IMAX, BOOKING_CAPACITY));
+            }
+            return showingIds.get(epoch);
+        }
+    }
+
+    /**
+     * Books seats of the shared showings; thread t of n books the seats t, t + n, t + 2n and so
+     * on, so every thread competes for the same bitmap words and counters
+     */
+    @State(Scope.Thread)
+    public static class SharedShowingCursor {
+        private final TicketBookingSystem system = TicketBookingSystem.getInstance();
+        private SharedShowings shared;
+        private int thread;
+        private int threads;
+        private long invocation;
+        private int epoch;
+        private int showingId;
+
+        @Setup(Level.Iteration)
+        public void setUp(SharedShowings shared, ThreadParams params) {
+            this.shared = shared;
+            this.thread = params.getThreadIndex();
+            this.threads = params.getThreadCount();
+            invocation = 0;
+            epoch = 0;
+            showingId = shared.showing(0);
+        }
+
+        int book() {
+            long position = invocation++ * threads + thread;
+            int current = (int) (position / BOOKING_CAPACITY);
+            if (current != epoch) {
+                epoch = current;
+                showingId = shared.showing(current);
+            }
+            int ticketNumber = (int) (position % BOOKING_CAPACITY) + 1;
+            return system.bookTicket(showingId, ticketNumber).getAvailableTickets();
+        }
+    }
+
+    /**
+     * Cancels the booking of a seat of a showing owned by the calling thread and books the seat
+     * again on the next call, going round the seats; every cancellation uses the handle of the
+     * seat's latest booking, so each seat's generation keeps advancing
+     */
+    @State(Scope.Thread)
+    public static class CancelAndRebook {
+        private final TicketBookingSystem system = TicketBookingSystem.getInstance();
+        private final long[] handles = new long[CANCEL_CAPACITY];  // Handle of the latest booking of each seat
+        private int showingId;
+        private long invocation;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            showingId = system.registerShowing(Genre.DRAMA, TheaterType.CINEMA, CANCEL_CAPACITY);
+            for (int seat = 0; seat < CANCEL_CAPACITY; seat++) {
+                handles[seat] = system.bookTicket(showingId, seat + 1).getTicketHandle(0);
+            }
+            invocation = 0;
+        }
+
+        int next() {
+            long current = invocation++;
+            int seat = (int) ((current >> 1) % CANCEL_CAPACITY);
+            if ((current & 1) == 0) {
+                return system.cancelTicket(handles[seat]).getAvailableTickets();
+            }
+            BookingResult result = system.bookTicket(showingId, seat + 1);
+            handles[seat] = result.getTicketHandle(0);
+            return result.getAvailableTickets();
+        }
+    }
+
+    /**
+     * A showing whose ticket pool builds each seat's ticket once
+     */
+    @State(Scope.Thread)
+    public static class PooledTickets {
+        private final Showing showing = new Showing(0, Genre.COMEDY, TheaterType.IMAX, 50);
+    }
+
+    /**
+     * Schedules the catalogue of the catalogue benchmarks, once per JVM
+     */
+    @State(Scope.Benchmark)
+    public static class BenchmarkCatalogue {
+        private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 7);
+        private static final int DAYS = 7;
+        private static final String[] PREFIXES = {"bench", "Benchmark Feature 1", "benchmark feature 42", "x"};
+        private static boolean scheduled;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            synchronized (BenchmarkCatalogue.class) {
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            ShowtimeCatalogue catalogue = ShowtimeCatalogue.getInstance();
+            Genre[] genres = Genre.values();
+            TheaterType[] types = TheaterType.values();
+            Movie[] movies = new Movie[CATALOGUE_MOVIES];
+            for (int m = 0; m < movies.length; m++) {
+                movies[m] = MovieFactory.createMovie(genres[m % genres.length], "Benchmark Feature " + m, 90 + m % 60);
+            }
+            int[] capacities = new int[CATALOGUE_SCREENS];
+            Arrays.fill(capacities, 200);
+            List<ShowtimeCatalogue.Screening> screenings = new ArrayList<>();
+            for (int t = 0; t < CATALOGUE_THEATERS; t++) {
+                Theater theater = TheaterFactory.createTheater(types[t % types.length], "Benchmark Theater " + t, capacities);
+                for (int screen = 1; screen <= CATALOGUE_SCREENS; screen++) {
+                    for (int day = 0; day < DAYS; day++) {
+                        for (int slot = 0; slot < 5; slot++) {
+                            screenings.add(new ShowtimeCatalogue.Screening(movies[(t * 31 + screen * 7 + day * 5 + slot) % movies.length],
+                                    theater, screen, FIRST_DAY.plusDays(day).atTime(10 + slot * 3, 0)));
+                        }
+                    }
+                }
+            }
+            catalogue.scheduleAll(screenings);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package benchmark;
+
+import inventory.BookingJournal;
+import inventory.Showing;
+import inventory.ShowingInventory;
+import movie_factory_pattern.Genre;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import singleton_pattern.TicketBookingSystem;
+import theatre_factory_pattern.TheaterType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * benchmark.JournalBenchmarks measures with JMH what durability costs: booking throughput with
+ * the inventory.BookingJournal on, and the time a restart takes to recover RECOVERY_RECORDS
+ * journaled bookings.
+ * <pre>
+ * mvn -B -Pbenchmarks package
+ * java -jar target/benchmarks.jar JournalBenchmarks
+ * </pre>
+ * The booking benchmarks turn the journal on through the booking.journal.* system properties
+ * before the first use of the TicketBookingSystem singleton, in a temporary directory, so they
+ * need JMH forks (the default); the sync parameter selects whether bookings wait for their
+ * group commit. Many threads share each group commit, so the multi-threaded throughput shows
+ * how well the fsync cost is amortized; keep the directory on the disk being measured with
+ * -Djava.io.tmpdir.
+ * <p>
+ * The recovery benchmark writes RECOVERY_RECORDS booking records once per fork and times
+ * recovering them into an empty inventory, either replaying every record (snapshotInterval 0)
+ * or loading the snapshot and replaying the snapshotInterval records written after it, the most
+ * recovery replays when snapshots are on.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-XX:+AlwaysPreTouch"})
+public class JournalBenchmarks {
+    // Seats of each showing registered by the benchmarks
+    private static final int CAPACITY = 1_000_000;
+
+    // Booking records written for the recovery benchmark
+    private static final int RECOVERY_RECORDS = 10_000_000;
+
+    // Threads of the multi-threaded booking benchmark, enough to fill group commits on any machine
+    private static final int DURABLE_THREADS = 32;
+
+    @Benchmark
+    @Threads(1)
+    public int bookTicketDurableSingleThread(DurableShowing showing) {
+        return showing.book();
+    }
+
+    @Benchmark
+    @Threads(DURABLE_THREADS)
+    public int bookTicketDurable(DurableShowing showing) {
+        return showing.book();
+    }
+
+    /**
+     * Recovers the written journal into an empty inventory
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-XX:+AlwaysPreTouch"})
+    public ShowingInventory recover(WrittenJournal written) throws IOException {
+        ShowingInventory inventory = new ShowingInventory();
+        try (BookingJournal journal = new BookingJournal(written.directory, inventory, false, 0)) {
+            journal.recover();
+        }
+        return inventory;
+    }
+
+    /**
+     * The booking system of the fork, with its journal in a temporary directory
+     */
+    @State(Scope.Benchmark)
+    public static class DurableSystem {
+        @Param({"true", "false"})
+        public boolean sync;
+
+        private Path directory;
+        private TicketBookingSystem system;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("booking-journal-benchmark");
+            System.setProperty("booking.journal.dir", directory.toString());
+            System.setProperty("booking.journal.sync", String.valueOf(sync));
+            system = TicketBookingSystem.getInstance();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * Books consecutive seats of a showing owned by the calling thread
+     */
+    @State(Scope.Thread)
+    public static class DurableShowing {
+        private TicketBookingSystem system;
+        private int showingId;
+        private int lastSeat;   // Last booked ticket number
+
+        @Setup(Level.Iteration)
+        public void setUp(DurableSystem durable) {
+            system = durable.system;
+            register();
+        }
+
+        private void register() {
+            showingId = system.registerShowing(Genre.ACTION, TheaterType.CINEMA, CAPACITY);
+            lastSeat = 0;
+        }
+
+        int book() {
+            if (lastSeat == CAPACITY) {
+                register();
+            }
+            return system.bookTicket(showingId, ++lastSeat).getAvailableTickets();
+        }
+    }
+
+    /**
+     * A journal of RECOVERY_RECORDS bookings, written once per fork
+     */
+    @State(Scope.Benchmark)
+    public static class WrittenJournal {
+        // Booking records between two snapshots, 0 for a journal without snapshots
+        @Param({"0", "1000000"})
+        public long snapshotInterval;
+
+        private Path directory;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("booking-journal-recovery");
+            ShowingInventory inventory = new ShowingInventory();
+            try (BookingJournal journal = new BookingJournal(directory, inventory, false, 0)) {
+                journal.recover();
+                Showing showing = null;
+                for (int record = 0; record < RECOVERY_RECORDS; record++) {
+                    int seat = record % CAPACITY;
+                    if (seat == 0) {
+                        showing = inventory.register(Genre.DRAMA, TheaterType.IMAX, CAPACITY);
+                        journal.appendRegister(showing);
+                    }
+                    showing.getSeatMap().tryBook(seat);
+                    journal.appendBook(showing.getShowingId(), seat);
+                    // The last interval stays in the journal, the most a recovery replays after a snapshot
+                    if (snapshotInterval > 0 && (record + 1) % snapshotInterval == 0 && record + 1 < RECOVERY_RECORDS) {
+                        journal.snapshot();
+                    }
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteRecursively(directory);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package benchmark;
+
+import movie_factory_pattern.Genre;
+import shard.BookingNode;
+import shard.ShardRouter;
+import theatre_factory_pattern.TheaterType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * benchmark.ShardScaling measures how booking throughput through a shard.ShardRouter grows
+ * with the number of shard.BookingNode instances, and checks that rebalancing under load
+ * neither loses nor doubles bookings.
+ * <p>
+ * The nodes run in this JVM, so each node is driven by one client thread, standing in for the
+ * CPU of a separate node process. Nodes book through the singleton_pattern.TicketBookingSystem,
+ * but their showings and seat maps are disjoint and its inventory feed returns at once without
+ * subscribers, so on a machine with at least as many cores as nodes the throughput grows close
+ * to linearly; with fewer cores the extra nodes just share them and the numbers stay flat.
+ * <pre>
+ * java -cp target/benchmarks.jar benchmark.ShardScaling [--maxNodes 8] [--seconds 2] [--showings 256] [--capacity 1000000]
+ * </pre>
+ */
+public class ShardScaling {
+
+    /**
+     * Runs the scaling steps, doubling the node count up to --maxNodes, then the rebalance check
+     *
+     * @param args Options, see the class documentation
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int maxNodes = Runtime.getRuntime().availableProcessors();
+        double seconds = 2;
+        int showings = 256;
+        int capacity = 1_000_000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--maxNodes" -> maxNodes = Integer.parseInt(args[++i]);
+                case "--seconds" -> seconds = Double.parseDouble(args[++i]);
+                case "--showings" -> showings = Integer.parseInt(args[++i]);
+                case "--capacity" -> capacity = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        long durationNanos = (long) (seconds * 1e9);
+
+        System.out.printf("# %d CPUs, %.1f s per step, %d showings of %d seats%n",
+                Runtime.getRuntime().availableProcessors(), seconds, showings, capacity);
+        System.out.printf("%-6s %16s %10s %12s %20s%n", "Nodes", "bookings/s", "speedup", "efficiency", "showings per node");
+        double single = 0;
+        for (int nodes = 1; nodes <= maxNodes; nodes *= 2) {
+            ShardRouter router = new ShardRouter(createNodes(0, nodes));
+            int first = registerShowings(router, showings, capacity);
+            // A short unmeasured run lets the JIT compile the booking path first
+            drive(router, first, showings, capacity, nodes, durationNanos / 4, null);
+            double rate = drive(router, first, showings, capacity, nodes, durationNanos, null).rate;
+            if (nodes == 1) {
+                single = rate;
+            }
+            System.out.printf("%-6d %16.0f %10.2f %11.0f%% %20s%n",
+                    nodes, rate, rate / single, rate / single / nodes * 100, spread(router));
+        }
+
+        checkRebalance(maxNodes, durationNanos, showings, capacity);
+    }
+
+    /**
+     * Books under load while nodes are added one by one and one is removed again, then
+     * compares the successful bookings with the booked seats of all showings
+     */
+    private static void checkRebalance(int maxNodes, long durationNanos, int showings, int capacity)
+            throws InterruptedException {
+        List<BookingNode> extraNodes = createNodes(1, Math.max(maxNodes, 2) - 1);
+        ShardRouter router = new ShardRouter(createNodes(0, 1));
+        int first = registerShowings(router, showings, capacity);
+
+        Runnable rebalancing = () -> {
+            long pause = durationNanos / (extraNodes.size() + 2) / 1_000_000;
+            try {
+                for (BookingNode node : extraNodes) {
+                    Thread.sleep(pause);
+                    router.addNode(node);
+                }
+                Thread.sleep(pause);
+                router.removeNode(extraNodes.get(0));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Result result = drive(router, first, showings, capacity, Math.max(maxNodes, 2), durationNanos, rebalancing);
+
+        long booked = 0;
+        for (int showingId = first; showingId < first + showings; showingId++) {
+            booked += capacity - router.getAvailableTickets(showingId);
+        }
+        System.out.printf("Rebalance 1 -> %d -> %d nodes under load: %d bookings succeeded, %d seats booked, %s%n",
+                extraNodes.size() + 1, extraNodes.size(), result.succeeded, booked,
+                result.succeeded == booked ? "consistent" : "INCONSISTENT");
+    }
+
+    private static List<BookingNode> createNodes(int firstIndex, int count) {
+        List<BookingNode> nodes = new ArrayList<>();
+        for (int i = firstIndex; i < firstIndex + count; i++) {
+            nodes.add(new BookingNode("node-" + i));
+        }
+        return nodes;
+    }
+
+    /**
+     * Registers the benchmark's showings
+     *
+     * @return Showing ID of the first of them; the others follow, nothing else registers meanwhile
+     */
+    private static int registerShowings(ShardRouter router, int showings, int capacity) {
+        int first = router.registerShowing(Genre.ACTION, TheaterType.CINEMA, capacity);
+        for (int i = 1; i < showings; i++) {
+            router.registerShowing(Genre.ACTION, TheaterType.CINEMA, capacity);
+        }
+        return first;
+    }
+
+    /**
+     * Describes how evenly the showings are spread over the nodes
+     *
+     * @return Smallest and largest number of showings of a node
+     */
+    private static String spread(ShardRouter router) {
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (BookingNode node : router.getNodes()) {
+            min = Math.min(min, node.getShowingCount());
+            max = Math.max(max, node.getShowingCount());
+        }
+        return min + " - " + max;
+    }
+
+    /**
+     * Outcome of a load run
+     */
+    private static final class Result {
+        final double rate;       // Booking requests per second
+        final long succeeded;    // Requests that booked a seat
+
+        Result(double rate, long succeeded) {
+            this.rate = rate;
+            this.succeeded = succeeded;
+        }
+    }
+
+    /**
+     * Books random seats of random showings from several threads for a while
+     *
+     * @param background Run on its own thread during the load, may be null
+     * @return Throughput and number of successful bookings
+     */
+    private static Result drive(ShardRouter router, int first, int showings, int capacity, int threads,
+                                long durationNanos, Runnable background) throws InterruptedException {
+        LongAdder requests = new LongAdder();
+        LongAdder succeeded = new LongAdder();
+        Thread[] clients = new Thread[threads];
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        for (int t = 0; t < threads; t++) {
+            clients[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                long booked = 0;
+                while ((count & 1023) != 0 || System.nanoTime() < end) {
+                    int showingId = first + random.nextInt(showings);
+                    if (router.bookTicket(showingId, random.nextInt(capacity) + 1).isSuccess()) {
+                        booked++;
+                    }
+                    count++;
+                }
+                requests.add(count);
+                succeeded.add(booked);
+            }, "shard-client-" + t);
+            clients[t].start();
+        }
+        Thread backgroundThread = null;
+        if (background != null) {
+            backgroundThread = new Thread(background, "shard-rebalance");
+            backgroundThread.start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        if (backgroundThread != null) {
+            backgroundThread.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        return new Result(requests.sum() / elapsed, succeeded.sum());
+    }
+}
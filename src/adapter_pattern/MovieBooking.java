@@ -1,18 +1,90 @@
 package adapter_pattern;
 
+import inventory.BookingResult;
+import movie_factory_pattern.Genre;
+import theatre_factory_pattern.TheaterType;
+
 /**
  * Interface for booking movie tickets.
- * Provides a method to book tickets based on genre, theater type, and ticket number.
+ * Provides methods to book tickets based on genre, theater type, and ticket numbers.
+ * The typed methods report a structured inventory.BookingResult; the String methods are thin
+ * adapters that resolve the names and return the result's message.
  */
 public interface MovieBooking {
 
     /**
      * Books a ticket for a movie.
      *
+     * @param genre the genre of the movie
+     * @param theaterType the type of theater
+     * @param ticketNumber the ticket number to book
+     * @return the result of the booking
+     */
+    BookingResult bookTicket(Genre genre, TheaterType theaterType, int ticketNumber);
+
+    /**
+     * Books several tickets for a movie in one all-or-nothing operation.
+     * If any of the tickets is already booked, none of them is booked.
+     *
+     * @param genre the genre of the movie
+     * @param theaterType the type of theater
+     * @param ticketNumbers the ticket numbers to book
+     * @return the result of the booking
+     */
+    BookingResult bookTickets(Genre genre, TheaterType theaterType, int[] ticketNumbers);
+
+    /**
+     * Books the best run of adjacent tickets for a movie in one all-or-nothing operation.
+     *
+     * @param genre the genre of the movie
+     * @param theaterType the type of theater
+     * @param count the number of adjacent tickets to book
+     * @return the result of the booking
+     */
+    BookingResult bookContiguousTickets(Genre genre, TheaterType theaterType, int count);
+
+    /**
+     * Books a ticket for any registered showing, not only the default showings.
+     *
+     * @param showingId the showing ID
+     * @param ticketNumber the ticket number to book
+     * @return the result of the booking
+     */
+    BookingResult bookTicket(int showingId, int ticketNumber);
+
+    /**
+     * Books a ticket for a movie.
+     *
+     * @param genre the genre of the movie (e.g., Action, Comedy, Drama)
+     * @param theaterType the type of theater (e.g., IMAX, Standard)
+     * @param ticketNumber the ticket number to book
+     * @return a confirmation string for the booking
+     */
+    default String bookTicket(String genre, String theaterType, int ticketNumber) {
+        return bookTicket(Genre.fromName(genre), TheaterType.fromName(theaterType), ticketNumber).getMessage();
+    }
+
+    /**
+     * Books several tickets for a movie in one all-or-nothing operation.
+     *
+     * @param genre the genre of the movie (e.g., Action, Comedy, Drama)
+     * @param theaterType the type of theater (e.g., IMAX, Standard)
+     * @param ticketNumbers the ticket numbers to book
+     * @return a confirmation string for the booking
+     */
+    default String bookTickets(String genre, String theaterType, int[] ticketNumbers) {
+        return bookTickets(Genre.fromName(genre), TheaterType.fromName(theaterType), ticketNumbers).getMessage();
+    }
+
+    /**
+     * Books the best run of adjacent tickets for a movie in one all-or-nothing operation.
+     *
      * @param genre the genre of the movie (e.g., Action, Comedy, Drama)
      * @param theaterType the type of theater (e.g., IMAX, Standard)
-     * @param ticketNumber the number of tickets to book
+     * @param count the number of adjacent tickets to book
      * @return a confirmation string for the booking
      */
-    String bookTicket(String genre, String theaterType, int ticketNumber);
+    default String bookContiguousTickets(String genre, String theaterType, int count) {
+        return bookContiguousTickets(Genre.fromName(genre), TheaterType.fromName(theaterType), count).getMessage();
+    }
 }
@@ -1,6 +1,10 @@
 package adapter_pattern;
 
+import inventory.BookingResult;
+import metrics.BookingMetrics;
+import movie_factory_pattern.Genre;
 import singleton_pattern.TicketBookingSystem;
+import theatre_factory_pattern.TheaterType;
 
 /**
  * adapter_pattern.TicketBookingAdapter implements the Adapter pattern to provide a unified interface
@@ -8,6 +12,7 @@ import singleton_pattern.TicketBookingSystem;
  * <p>
  * This adapter ensures compatibility between the adapter_pattern.MovieBooking interface requirements
  * and the existing singleton_pattern.TicketBookingSystem implementation.
+ * Calls through the adapter are counted and timed by metrics.BookingMetrics when metrics are enabled.
  */
 public class TicketBookingAdapter implements MovieBooking {
     // Reference to the singleton instance of singleton_pattern.TicketBookingSystem
@@ -25,14 +30,76 @@ public class TicketBookingAdapter implements MovieBooking {
      * Adapts the ticket booking request to the singleton_pattern.TicketBookingSystem implementation
      * Implements the adapter_pattern.MovieBooking interface method
      *
-     * @param genre        The movie genre for the ticket (e.g., "Action", "Comedy", "Drama")
-     * @param theaterType  The type of theater (e.g., "Cinema", "IMAX")
-     * @param ticketNumber The number of tickets to book
-     * @return String containing the booking confirmation or error message
+     * @param genre        The movie genre for the ticket
+     * @param theaterType  The type of theater
+     * @param ticketNumber The ticket number to book
+     * @return Result containing the booking status, ticket and remaining availability
      */
     @Override
-    public String bookTicket(String genre, String theaterType, int ticketNumber) {
+    public BookingResult bookTicket(Genre genre, TheaterType theaterType, int ticketNumber) {
         // Delegates the actual booking operation to the singleton_pattern.TicketBookingSystem
-        return ticketBookingSystem.bookTicket(genre, theaterType, ticketNumber);
+        if (!BookingMetrics.ENABLED) {
+            return ticketBookingSystem.bookTicket(genre, theaterType, ticketNumber);
+        }
+        long start = BookingMetrics.startTimer();
+        BookingResult result = ticketBookingSystem.bookTicket(genre, theaterType, ticketNumber);
+        BookingMetrics.recordAdapterCall(start);
+        return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Adapts a multi-ticket booking request to the singleton_pattern.TicketBookingSystem implementation
+     *
+     * @param genre         The movie genre for the tickets
+     * @param theaterType   The type of theater
+     * @param ticketNumbers The ticket numbers to book together
+     * @return Result containing the booking status, tickets and remaining availability
+     */
+    @Override
+    public BookingResult bookTickets(Genre genre, TheaterType theaterType, int[] ticketNumbers) {
+        if (!BookingMetrics.ENABLED) {
+            return ticketBookingSystem.bookTickets(genre, theaterType, ticketNumbers);
+        }
+        long start = BookingMetrics.startTimer();
+        BookingResult result = ticketBookingSystem.bookTickets(genre, theaterType, ticketNumbers);
+        BookingMetrics.recordAdapterCall(start);
+        return result;
+    }
+
+    /**
+     * Adapts an adjacent-seats booking request to the singleton_pattern.TicketBookingSystem implementation
+     *
+     * @param genre       The movie genre for the tickets
+     * @param theaterType The type of theater
+     * @param count       The number of adjacent tickets to book
+     * @return Result containing the booking status, tickets and remaining availability
+     */
+    @Override
+    public BookingResult bookContiguousTickets(Genre genre, TheaterType theaterType, int count) {
+        if (!BookingMetrics.ENABLED) {
+            return ticketBookingSystem.bookContiguousTickets(genre, theaterType, count);
+        }
+        long start = BookingMetrics.startTimer();
+        BookingResult result = ticketBookingSystem.bookContiguousTickets(genre, theaterType, count);
+        BookingMetrics.recordAdapterCall(start);
+        return result;
+    }
+
+    /**
+     * Adapts a booking request for a showing ID to the singleton_pattern.TicketBookingSystem implementation
+     *
+     * @param showingId    The showing ID
+     * @param ticketNumber The ticket number to book
+     * @return Result containing the booking status, ticket and remaining availability
+     */
+    @Override
+    public BookingResult bookTicket(int showingId, int ticketNumber) {
+        if (!BookingMetrics.ENABLED) {
+            return ticketBookingSystem.bookTicket(showingId, ticketNumber);
+        }
+        long start = BookingMetrics.startTimer();
+        BookingResult result = ticketBookingSystem.bookTicket(showingId, ticketNumber);
+        BookingMetrics.recordAdapterCall(start);
+        return result;
+    }
+}
@@ -1,6 +1,8 @@
 package builder_pattern;
 
+import movie_factory_pattern.Genre;
 import prototype_pattern.MovieTicket;
+import theatre_factory_pattern.TheaterType;
 
 /**
  * MovieTicketBuilder implements the Builder pattern to construct MovieTicket objects.
@@ -12,6 +14,9 @@ public class MovieTicketBuilder {
     private String genre;         // Movie genre (e.g., Action, Comedy, Drama)
     private String theaterType;   // Type of theater (e.g., Cinema, IMAX)
     private int ticketNumber;     // Unique ticket identifier
+    private int showingId = -1;   // Showing the ticket is for, -1 if not known
+    private int priceCents;       // Price paid for the ticket in cents, 0 if not priced
+    private int generation;       // Booking generation of the seat, 0 for its first booking
 
     /**
      * Sets the movie genre for the ticket being built
@@ -25,6 +30,17 @@ public class MovieTicketBuilder {
         return this;
     }
 
+    /**
+     * Sets the movie genre for the ticket being built from a resolved Genre
+     *
+     * @param genre The movie genre to set
+     * @return The builder instance for method chaining
+     */
+    public MovieTicketBuilder setGenre(Genre genre) {
+        this.genre = genre.getDisplayName();
+        return this;
+    }
+
     /**
      * Sets the theater type for the ticket being built
      * Uses method chaining for fluent interface
@@ -37,6 +53,17 @@ public class MovieTicketBuilder {
         return this;
     }
 
+    /**
+     * Sets the theater type for the ticket being built from a resolved TheaterType
+     *
+     * @param theaterType The theater type to set
+     * @return The builder instance for method chaining
+     */
+    public MovieTicketBuilder setTheaterType(TheaterType theaterType) {
+        this.theaterType = theaterType.getDisplayName();
+        return this;
+    }
+
     /**
      * Sets the ticket number for the ticket being built
      * Uses method chaining for fluent interface
@@ -49,6 +76,42 @@ public class MovieTicketBuilder {
         return this;
     }
 
+    /**
+     * Sets the showing the ticket is for
+     * Uses method chaining for fluent interface
+     *
+     * @param showingId The showing ID to set
+     * @return The builder instance for method chaining
+     */
+    public MovieTicketBuilder setShowingId(int showingId) {
+        this.showingId = showingId;
+        return this;
+    }
+
+    /**
+     * Sets the price paid for the ticket
+     * Uses method chaining for fluent interface
+     *
+     * @param priceCents The price in cents to set
+     * @return The builder instance for method chaining
+     */
+    public MovieTicketBuilder setPriceCents(int priceCents) {
+        this.priceCents = priceCents;
+        return this;
+    }
+
+    /**
+     * Sets the booking generation of the seat, which tells bookings of the same seat apart
+     * Uses method chaining for fluent interface
+     *
+     * @param generation The generation to set
+     * @return The builder instance for method chaining
+     */
+    public MovieTicketBuilder setGeneration(int generation) {
+        this.generation = generation;
+        return this;
+    }
+
     /**
      * Builds and returns a new MovieTicket instance with the configured properties
      * Creates a new ticket using the Prototype pattern via MovieTicket constructor
@@ -56,6 +119,6 @@ public class MovieTicketBuilder {
      * @return A new MovieTicket instance with the specified properties
      */
     public MovieTicket build() {
-        return new MovieTicket(genre, theaterType, ticketNumber);
+        return new MovieTicket(genre, theaterType, ticketNumber, showingId, priceCents, generation);
     }
 }
\ No newline at end of file
@@ -0,0 +1,203 @@
+package catalogue;
+
+import movie_factory_pattern.Genre;
+import movie_factory_pattern.Movie;
+import theatre_factory_pattern.Theater;
+import theatre_factory_pattern.TheaterType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * catalogue.CatalogueLog is an append-only file of the changes made to
+ * singleton_pattern.ShowtimeCatalogue, kept in the directory of the inventory.BookingJournal so
+ * the catalogue survives restarts together with the showings its showtimes book.
+ * <p>
+ * Every added movie, added theater and scheduled showtime is one record: its length, its fields
+ * in DataOutputStream encoding and a CRC-32 of the fields. A showtime record keeps the showing ID
+ * it was registered under, so after a restart the showtime is found again with the bookings the
+ * journal recovered instead of being scheduled under a new, empty showing. Catalogue changes are
+ * rare, so each record is written and, with sync on, forced on its own. Reading stops at the first
+ * torn or corrupt record, which a crash can leave at the end, and the file is cut there.
+ */
+public final class CatalogueLog implements Closeable {
+    // Name of the log file in the journal directory
+    private static final String FILE_NAME = "catalogue.bin";
+
+    // Record types, the first byte of each record's fields
+    private static final byte TYPE_MOVIE = 1;
+    private static final byte TYPE_THEATER = 2;
+    private static final byte TYPE_SHOWTIME = 3;
+
+    /**
+     * Receives the records of a log in the order they were written
+     */
+    public interface Visitor {
+        void movie(Genre genre, String title, int durationMinutes);
+
+        void theater(TheaterType type, String name, int[] screenCapacities);
+
+        void showtime(int showingId, String movieTitle, String theaterName, int screen, long startMinute);
+    }
+
+    private final FileChannel channel;
+    private final boolean sync;     // Whether each record is forced to disk before append returns
+
+    private CatalogueLog(FileChannel channel, boolean sync) {
+        this.channel = channel;
+        this.sync = sync;
+    }
+
+    /**
+     * Opens the log of a directory, replaying its records first
+     *
+     * @param directory The journal directory, created if missing
+     * @param sync      Whether appends force their record to disk
+     * @param visitor   Receives every complete record
+     * @return The log, positioned after the last complete record
+     * @throws IOException if the file cannot be read or written
+     */
+    public static CatalogueLog open(Path directory, boolean sync, Visitor visitor) throws IOException {
+        Files.createDirectories(directory);
+        Path path = directory.resolve(FILE_NAME);
+        long valid = Files.exists(path) ? replay(Files.readAllBytes(path), visitor) : 0;
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            channel.truncate(valid);
+            channel.position(valid);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new CatalogueLog(channel, sync);
+    }
+
+    /**
+     * Passes the complete records of a log file to a visitor
+     *
+     * @param bytes   The file content
+     * @param visitor Receives the records
+     * @return Length of the complete records at the start of the file
+     */
+    private static long replay(byte[] bytes, Visitor visitor) throws IOException {
+        ByteBuffer file = ByteBuffer.wrap(bytes);
+        CRC32 crc = new CRC32();
+        while (file.remaining() >= Integer.BYTES) {
+            int start = file.position();
+            int length = file.getInt();
+            if (length <= 0 || length > file.remaining() - Integer.BYTES) {
+                file.position(start);
+                break;
+            }
+            crc.reset();
+            crc.update(bytes, file.position(), length);
+            if ((int) crc.getValue() != file.getInt(file.position() + length)) {
+                file.position(start);
+                break;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, file.position(), length));
+            switch (in.readByte()) {
+                case TYPE_MOVIE -> visitor.movie(Genre.values()[in.readByte()], in.readUTF(), in.readInt());
+                case TYPE_THEATER -> {
+                    TheaterType type = TheaterType.values()[in.readByte()];
+                    String name = in.readUTF();
+                    int[] screenCapacities = new int[in.readInt()];
+                    for (int i = 0; i < screenCapacities.length; i++) {
+                        screenCapacities[i] = in.readInt();
+                    }
+                    visitor.theater(type, name, screenCapacities);
+                }
+                case TYPE_SHOWTIME -> visitor.showtime(in.readInt(), in.readUTF(), in.readUTF(), in.readInt(), in.readLong());
+                default -> throw new IOException("Unknown catalogue record type at offset " + start);
+            }
+            file.position(file.position() + length + Integer.BYTES);
+        }
+        return file.position();
+    }
+
+    /**
+     * Appends an added movie
+     *
+     * @param movie The movie
+     * @throws IOException if the record cannot be written
+     */
+    public void appendMovie(Movie movie) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TYPE_MOVIE);
+        out.writeByte(movie.getGenre().ordinal());
+        out.writeUTF(movie.getTitle());
+        out.writeInt(movie.getDurationMinutes());
+        append(bytes.toByteArray());
+    }
+
+    /**
+     * Appends an added theater
+     *
+     * @param theater The theater
+     * @throws IOException if the record cannot be written
+     */
+    public void appendTheater(Theater theater) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TYPE_THEATER);
+        out.writeByte(theater.getType().ordinal());
+        out.writeUTF(theater.getName());
+        out.writeInt(theater.getScreenCount());
+        for (int screen = 1; screen <= theater.getScreenCount(); screen++) {
+            out.writeInt(theater.getScreenCapacity(screen));
+        }
+        append(bytes.toByteArray());
+    }
+
+    /**
+     * Appends a scheduled showtime
+     *
+     * @param showtime The showtime
+     * @throws IOException if the record cannot be written
+     */
+    public void appendShowtime(Showtime showtime) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TYPE_SHOWTIME);
+        out.writeInt(showtime.getShowingId());
+        out.writeUTF(showtime.getMovie().getTitle());
+        out.writeUTF(showtime.getTheater().getName());
+        out.writeInt(showtime.getScreen());
+        out.writeLong(showtime.getStartMinute());
+        append(bytes.toByteArray());
+    }
+
+    /**
+     * Writes one record and forces it if sync is on
+     *
+     * @param fields The record's fields
+     */
+    private synchronized void append(byte[] fields) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(fields);
+        ByteBuffer record = ByteBuffer.allocate(fields.length + 2 * Integer.BYTES);
+        record.putInt(fields.length).put(fields).putInt((int) crc.getValue()).flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        if (sync) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
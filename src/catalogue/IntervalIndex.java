@@ -0,0 +1,162 @@
+package catalogue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * catalogue.IntervalIndex is an immutable index of showtimes by their screening interval.
+ * <p>
+ * Showtimes are kept in an array sorted by start, next to a parallel array of the start
+ * minutes, and the index remembers the longest screening it holds. A showtime running at some
+ * point of [from, to) must then start in (from - longest, to), so a query is two binary
+ * searches over the start minutes and a scan of just that slice, checking the end of each
+ * candidate; no showtime outside the slice is looked at.
+ * <p>
+ * Adding a showtime creates a new index with one array copy, so readers never lock and
+ * always see a complete index. Adding many showtimes at once with withAll merges them in a
+ * single copy, so scheduling a catalogue in bulk is not quadratic.
+ */
+public final class IntervalIndex {
+    // Index without any showtime
+    public static final IntervalIndex EMPTY = new IntervalIndex(new long[0], new Showtime[0], 0);
+
+    private final long[] starts;            // Start minute of each showtime, ascending
+    private final Showtime[] showtimes;     // Showtimes in the order of starts
+    private final int longestMinutes;       // Longest duration of any showtime
+
+    private IntervalIndex(long[] starts, Showtime[] showtimes, int longestMinutes) {
+        this.starts = starts;
+        this.showtimes = showtimes;
+        this.longestMinutes = longestMinutes;
+    }
+
+    /**
+     * Creates an index that also holds a showtime
+     *
+     * @param showtime The showtime to add
+     * @return The new index; this index is unchanged
+     */
+    public IntervalIndex with(Showtime showtime) {
+        // Insert after showtimes starting at the same minute, keeping insertion order among them
+        int at = firstStartAfter(showtime.getStartMinute());
+        long[] newStarts = new long[starts.length + 1];
+        Showtime[] newShowtimes = new Showtime[showtimes.length + 1];
+        System.arraycopy(starts, 0, newStarts, 0, at);
+        System.arraycopy(showtimes, 0, newShowtimes, 0, at);
+        newStarts[at] = showtime.getStartMinute();
+        newShowtimes[at] = showtime;
+        System.arraycopy(starts, at, newStarts, at + 1, starts.length - at);
+        System.arraycopy(showtimes, at, newShowtimes, at + 1, showtimes.length - at);
+        return new IntervalIndex(newStarts, newShowtimes,
+                Math.max(longestMinutes, showtime.getMovie().getDurationMinutes()));
+    }
+
+    /**
+     * Creates an index that also holds several showtimes, in one merge
+     * Equal to adding them one by one with with, in list order
+     *
+     * @param added The showtimes to add
+     * @return The new index; this index is unchanged
+     */
+    public IntervalIndex withAll(List<Showtime> added) {
+        if (added.isEmpty()) {
+            return this;
+        }
+        // A stable sort keeps list order among showtimes starting at the same minute
+        Showtime[] sorted = added.toArray(new Showtime[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(Showtime::getStartMinute));
+        int size = showtimes.length + sorted.length;
+        long[] newStarts = new long[size];
+        Showtime[] newShowtimes = new Showtime[size];
+        int longest = longestMinutes;
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < size; k++) {
+            // Showtimes already in the index go first among those starting at the same minute
+            if (j == sorted.length || (i < showtimes.length && starts[i] <= sorted[j].getStartMinute())) {
+                newStarts[k] = starts[i];
+                newShowtimes[k] = showtimes[i++];
+            } else {
+                longest = Math.max(longest, sorted[j].getMovie().getDurationMinutes());
+                newStarts[k] = sorted[j].getStartMinute();
+                newShowtimes[k] = sorted[j++];
+            }
+        }
+        return new IntervalIndex(newStarts, newShowtimes, longest);
+    }
+
+    /**
+     * Adds the showtimes running at any point of a time range to a list, by start
+     *
+     * @param fromMinute Start of the range in minutes, inclusive
+     * @param toMinute   End of the range in minutes, exclusive
+     * @param out        The list to add to
+     */
+    public void collectOverlapping(long fromMinute, long toMinute, List<Showtime> out) {
+        int end = firstStartAtOrAfter(toMinute);
+        for (int i = firstStartAfter(fromMinute - longestMinutes); i < end; i++) {
+            if (showtimes[i].getEndMinute() > fromMinute) {
+                out.add(showtimes[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds the showtimes starting in a time range to a list, by start
+     *
+     * @param fromMinute Start of the range in minutes, inclusive
+     * @param toMinute   End of the range in minutes, exclusive
+     * @param out        The list to add to
+     */
+    public void collectStarting(long fromMinute, long toMinute, List<Showtime> out) {
+        int end = firstStartAtOrAfter(toMinute);
+        for (int i = firstStartAtOrAfter(fromMinute); i < end; i++) {
+            out.add(showtimes[i]);
+        }
+    }
+
+    /**
+     * Gets all showtimes of the index
+     *
+     * @return The showtimes by start, as an unmodifiable list backed by the index
+     */
+    public List<Showtime> getShowtimes() {
+        return Collections.unmodifiableList(Arrays.asList(showtimes));
+    }
+
+    public int size() {
+        return showtimes.length;
+    }
+
+    /**
+     * Finds the first showtime starting at or after a minute
+     *
+     * @param minute The minute
+     * @return Its position, size() if there is none
+     */
+    private int firstStartAtOrAfter(long minute) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < minute) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first showtime starting after a minute
+     *
+     * @param minute The minute
+     * @return Its position, size() if there is none
+     */
+    private int firstStartAfter(long minute) {
+        return minute == Long.MAX_VALUE ? starts.length : firstStartAtOrAfter(minute + 1);
+    }
+}
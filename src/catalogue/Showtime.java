@@ -0,0 +1,101 @@
+package catalogue;
+
+import movie_factory_pattern.Movie;
+import theatre_factory_pattern.Theater;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * catalogue.Showtime is one scheduled screening of a movie: what is played, in which theater
+ * and screen, when, and the showing ID under which its seats are booked.
+ * <p>
+ * Times are local wall-clock times of the theater. Indexes compare them as minutes since
+ * 1970-01-01T00:00 of that wall clock, so no time zone is involved.
+ */
+public final class Showtime {
+    private final int showingId;          // Showing ID of the seats in singleton_pattern.TicketBookingSystem
+    private final Movie movie;            // Movie played
+    private final Theater theater;        // Theater played in
+    private final int screen;             // Screen number within the theater, from 1
+    private final LocalDateTime start;    // Start of the screening
+    private final long startMinute;       // Start in minutes since the epoch of the wall clock
+    private final long endMinute;         // End in minutes since the epoch of the wall clock, exclusive
+
+    /**
+     * Creates a showtime
+     *
+     * @param showingId The showing ID of its seats
+     * @param movie     The movie played
+     * @param theater   The theater played in
+     * @param screen    The screen number, from 1
+     * @param start     Start of the screening; seconds are dropped
+     */
+    public Showtime(int showingId, Movie movie, Theater theater, int screen, LocalDateTime start) {
+        this.showingId = showingId;
+        this.movie = movie;
+        this.theater = theater;
+        this.screen = screen;
+        this.startMinute = toMinute(start);
+        this.start = toDateTime(startMinute);
+        this.endMinute = startMinute + movie.getDurationMinutes();
+    }
+
+    public int getShowingId() {
+        return showingId;
+    }
+
+    public Movie getMovie() {
+        return movie;
+    }
+
+    public Theater getTheater() {
+        return theater;
+    }
+
+    public int getScreen() {
+        return screen;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return toDateTime(endMinute);
+    }
+
+    long getStartMinute() {
+        return startMinute;
+    }
+
+    long getEndMinute() {
+        return endMinute;
+    }
+
+    /**
+     * Converts a wall-clock time to the minute index used by the catalogue indexes
+     *
+     * @param time The time
+     * @return Minutes since 1970-01-01T00:00, rounded down
+     */
+    public static long toMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Converts a minute index used by the catalogue indexes back to a wall-clock time
+     *
+     * @param minute Minutes since 1970-01-01T00:00
+     * @return The time
+     */
+    public static LocalDateTime toDateTime(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    @Override
+    public String toString() {
+        return movie.getTitle() + " at " + start + ", " + theater.getName() + " screen " + screen
+                + " (showing " + showingId + ")";
+    }
+}
@@ -0,0 +1,187 @@
+package catalogue;
+
+import movie_factory_pattern.Movie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * catalogue.TitleTrie is an immutable prefix tree of movie titles for search-as-you-type.
+ * <p>
+ * Titles are compared lower-cased. Each node keeps its child characters in a sorted array, so
+ * a lookup walks one binary search per character of the prefix and then lists the movies
+ * below the node in title order, stopping at the requested limit. The cost depends on the
+ * prefix and the number of results, not on the size of the catalogue.
+ * <p>
+ * The trie is built in one pass over the sorted titles. Adding a title with with copies only
+ * the nodes on the title's path, so the trie is updated per movie instead of rebuilt.
+ */
+public final class TitleTrie {
+    // Node without titles or children
+    private static final Node EMPTY_NODE = new Node(new char[0], new Node[0], new Movie[0]);
+
+    // Trie without any title
+    public static final TitleTrie EMPTY = new TitleTrie(EMPTY_NODE);
+
+    private final Node root;
+
+    private TitleTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Builds a trie of movies
+     *
+     * @param movies The movies, each title at most once when lower-cased
+     * @return The trie
+     */
+    public static TitleTrie of(Collection<? extends Movie> movies) {
+        String[] keys = new String[movies.size()];
+        Movie[] sorted = movies.toArray(new Movie[0]);
+        Arrays.sort(sorted, (a, b) -> key(a.getTitle()).compareTo(key(b.getTitle())));
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = key(sorted[i].getTitle());
+        }
+        return new TitleTrie(build(keys, sorted, 0, sorted.length, 0));
+    }
+
+    /**
+     * Creates a trie that also holds a movie
+     * Copies the nodes on the path of its title, sharing the rest with this trie
+     *
+     * @param movie The movie, its lower-cased title must not be in the trie yet
+     * @return The new trie; this trie is unchanged
+     */
+    public TitleTrie with(Movie movie) {
+        return new TitleTrie(root.with(key(movie.getTitle()), 0, movie));
+    }
+
+    /**
+     * Finds the movies whose title starts with a prefix, ignoring case
+     *
+     * @param prefix The prefix, the empty string matches every movie
+     * @param limit  Maximum number of movies returned
+     * @return The movies by title
+     */
+    public List<Movie> find(String prefix, int limit) {
+        List<Movie> found = new ArrayList<>(Math.min(limit, 16));
+        Node node = root;
+        String key = key(prefix);
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node != null) {
+            node.collect(found, limit);
+        }
+        return found;
+    }
+
+    private static String key(String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Builds the node of the keys in [from, to), which share their first depth characters
+     */
+    private static Node build(String[] keys, Movie[] movies, int from, int to, int depth) {
+        // Keys ending at this depth sort first
+        int childrenFrom = from;
+        while (childrenFrom < to && keys[childrenFrom].length() == depth) {
+            childrenFrom++;
+        }
+        Movie[] here = Arrays.copyOfRange(movies, from, childrenFrom);
+
+        // Group the remaining keys by their character at this depth
+        List<Character> characters = new ArrayList<>();
+        List<Node> children = new ArrayList<>();
+        for (int start = childrenFrom; start < to; ) {
+            char c = keys[start].charAt(depth);
+            int end = start + 1;
+            while (end < to && keys[end].charAt(depth) == c) {
+                end++;
+            }
+            characters.add(c);
+            children.add(build(keys, movies, start, end, depth + 1));
+            start = end;
+        }
+        char[] childCharacters = new char[characters.size()];
+        for (int i = 0; i < childCharacters.length; i++) {
+            childCharacters[i] = characters.get(i);
+        }
+        return new Node(childCharacters, children.toArray(new Node[0]), here);
+    }
+
+    /**
+     * A trie node: the movies whose key ends here and the children by next character
+     */
+    private static final class Node {
+        private final char[] characters;   // Next characters, ascending
+        private final Node[] children;     // Child per next character
+        private final Movie[] movies;      // Movies whose key ends at this node
+
+        Node(char[] characters, Node[] children, Movie[] movies) {
+            this.characters = characters;
+            this.children = children;
+            this.movies = movies;
+        }
+
+        Node child(char c) {
+            int at = Arrays.binarySearch(characters, c);
+            return at < 0 ? null : children[at];
+        }
+
+        /**
+         * Creates a copy of this node whose subtree also holds a movie
+         *
+         * @param key   The movie's key
+         * @param depth Characters of the key this node stands for
+         */
+        Node with(String key, int depth, Movie movie) {
+            if (depth == key.length()) {
+                Movie[] more = Arrays.copyOf(movies, movies.length + 1);
+                more[movies.length] = movie;
+                return new Node(characters, children, more);
+            }
+            char c = key.charAt(depth);
+            int at = Arrays.binarySearch(characters, c);
+            if (at >= 0) {
+                Node[] newChildren = children.clone();
+                newChildren[at] = children[at].with(key, depth + 1, movie);
+                return new Node(characters, newChildren, movies);
+            }
+            int insert = -at - 1;
+            char[] newCharacters = new char[characters.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(characters, 0, newCharacters, 0, insert);
+            System.arraycopy(children, 0, newChildren, 0, insert);
+            newCharacters[insert] = c;
+            newChildren[insert] = EMPTY_NODE.with(key, depth + 1, movie);
+            System.arraycopy(characters, insert, newCharacters, insert + 1, characters.length - insert);
+            System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+            return new Node(newCharacters, newChildren, movies);
+        }
+
+        /**
+         * Adds the movies of this subtree in key order until the list holds limit movies
+         *
+         * @return false if the limit was reached
+         */
+        boolean collect(List<Movie> out, int limit) {
+            for (Movie movie : movies) {
+                if (out.size() >= limit) {
+                    return false;
+                }
+                out.add(movie);
+            }
+            for (Node child : children) {
+                if (!child.collect(out, limit)) {
+                    return false;
+                }
+            }
+            return out.size() < limit;
+        }
+    }
+}
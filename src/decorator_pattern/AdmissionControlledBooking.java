@@ -0,0 +1,214 @@
+package decorator_pattern;
+
+import adapter_pattern.MovieBooking;
+import inventory.BookingResult;
+import inventory.BookingStatus;
+import metrics.BookingMetrics;
+import movie_factory_pattern.Genre;
+import theatre_factory_pattern.TheaterType;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * decorator_pattern.AdmissionControlledBooking adds admission control to any
+ * adapter_pattern.MovieBooking (Decorator pattern), so bursts of requests, such as bots during
+ * a popular release, are turned away early instead of piling up in front of the seat maps.
+ * <p>
+ * Each booking passes three checks before it reaches the wrapped booking:
+ * <ol>
+ * <li>the user's decorator_pattern.TokenBucket, so one user cannot flood the system,</li>
+ * <li>the showing's token bucket, capping the booking rate of a hot showing,</li>
+ * <li>the showing's gate: at most maxConcurrent bookings of a showing run at once, later
+ * ones wait in first-come first-served order, and once maxQueued are waiting further
+ * ones are rejected at once instead of adding to the queue.</li>
+ * </ol>
+ * Showing IDs are checked against the inventory before a gate is created, so requests for
+ * showings that do not exist reach the delegate, which reports them, and never leave state behind.
+ * User buckets live in a decorator_pattern.TokenBucketMap of at most about MAX_TRACKED_USERS
+ * users, which drops the buckets idle longest.
+ * <p>
+ * Rejections are the shared inventory.BookingResult of status RATE_LIMITED or SHOWING_BUSY
+ * and cost a few atomic operations, so overload cannot push up the latency of admitted
+ * requests. The token buckets are lock-free; only bookings that must wait for their turn park.
+ * <p>
+ * The MovieBooking methods of this class apply no per-user limit; forUser returns a view that
+ * charges a user's bucket.
+ */
+public class AdmissionControlledBooking implements MovieBooking {
+    // Users whose buckets are kept before the buckets idle longest are dropped
+    private static final int MAX_TRACKED_USERS = 100_000;
+
+    private final MovieBooking delegate;
+    private final ToIntBiFunction<Genre, TheaterType> showingIds;
+    private final IntPredicate knownShowings;
+    private final AdmissionPolicy policy;
+
+    // Token bucket of each user that booked recently, null if the user rate is unlimited
+    private final TokenBucketMap userBuckets;
+
+    // Limits of each showing that was booked, by showing ID
+    private final ConcurrentHashMap<Integer, ShowingGate> gates = new ConcurrentHashMap<>();
+
+    /**
+     * Wraps a booking implementation
+     *
+     * @param delegate      The booking implementation requests are admitted to
+     * @param showingIds    Resolves a genre and theater type to the showing ID the delegate books
+     * @param knownShowings Tells if a showing ID belongs to a registered showing
+     * @param policy        The limits
+     */
+    public AdmissionControlledBooking(MovieBooking delegate, ToIntBiFunction<Genre, TheaterType> showingIds,
+                                      IntPredicate knownShowings, AdmissionPolicy policy) {
+        this.delegate = delegate;
+        this.showingIds = showingIds;
+        this.knownShowings = knownShowings;
+        this.policy = policy;
+        this.userBuckets = policy.getUserRate() > 0
+                ? new TokenBucketMap(policy.getUserRate(), policy.getUserBurst(), MAX_TRACKED_USERS) : null;
+    }
+
+    @Override
+    public BookingResult bookTicket(Genre genre, TheaterType theaterType, int ticketNumber) {
+        return book(null, genre, theaterType, () -> delegate.bookTicket(genre, theaterType, ticketNumber));
+    }
+
+    @Override
+    public BookingResult bookTickets(Genre genre, TheaterType theaterType, int[] ticketNumbers) {
+        return book(null, genre, theaterType, () -> delegate.bookTickets(genre, theaterType, ticketNumbers));
+    }
+
+    @Override
+    public BookingResult bookContiguousTickets(Genre genre, TheaterType theaterType, int count) {
+        return book(null, genre, theaterType, () -> delegate.bookContiguousTickets(genre, theaterType, count));
+    }
+
+    @Override
+    public BookingResult bookTicket(int showingId, int ticketNumber) {
+        return book(null, showingId, () -> delegate.bookTicket(showingId, ticketNumber));
+    }
+
+    /**
+     * Gets a view of this booking that charges every request to a user's rate limit
+     *
+     * @param username The user making the requests
+     * @return The view, sharing the limits of this object
+     */
+    public MovieBooking forUser(String username) {
+        return new MovieBooking() {
+            @Override
+            public BookingResult bookTicket(Genre genre, TheaterType theaterType, int ticketNumber) {
+                return book(username, genre, theaterType, () -> delegate.bookTicket(genre, theaterType, ticketNumber));
+            }
+
+            @Override
+            public BookingResult bookTickets(Genre genre, TheaterType theaterType, int[] ticketNumbers) {
+                return book(username, genre, theaterType, () -> delegate.bookTickets(genre, theaterType, ticketNumbers));
+            }
+
+            @Override
+            public BookingResult bookContiguousTickets(Genre genre, TheaterType theaterType, int count) {
+                return book(username, genre, theaterType, () -> delegate.bookContiguousTickets(genre, theaterType, count));
+            }
+
+            @Override
+            public BookingResult bookTicket(int showingId, int ticketNumber) {
+                return book(username, showingId, () -> delegate.bookTicket(showingId, ticketNumber));
+            }
+        };
+    }
+
+    /**
+     * Admits a booking of a default showing, given by genre and theater type
+     */
+    private BookingResult book(String username, Genre genre, TheaterType theaterType, Supplier<BookingResult> booking) {
+        if (genre == null || theaterType == null) {
+            return booking.get();  // The delegate reports the invalid selection
+        }
+        return book(username, showingIds.applyAsInt(genre, theaterType), booking);
+    }
+
+    /**
+     * Admits a booking of a showing and runs it, or rejects it
+     * For bookings that do not go through the MovieBooking methods, such as holds
+     *
+     * @param username  The user making the request, null to skip the per-user limit
+     * @param showingId The showing the booking is for
+     * @param booking   Runs the booking once admitted
+     * @return The booking's result, or a rejection with status RATE_LIMITED or SHOWING_BUSY
+     */
+    public BookingResult book(String username, int showingId, Supplier<BookingResult> booking) {
+        if (username != null && userBuckets != null && !userBuckets.tryAcquire(username)) {
+            return reject(BookingStatus.RATE_LIMITED);
+        }
+        if (!knownShowings.test(showingId)) {
+            return booking.get();  // The delegate reports the invalid selection, no gate is created
+        }
+        ShowingGate gate = gates.computeIfAbsent(showingId, id -> new ShowingGate(policy));
+        if (gate.bucket != null && !gate.bucket.tryAcquire()) {
+            return reject(BookingStatus.RATE_LIMITED);
+        }
+        if (gate.turns == null) {
+            return booking.get();
+        }
+
+        // Count running plus waiting bookings; beyond the queue bound reject without waiting
+        if (gate.admitted.incrementAndGet() > policy.getMaxConcurrent() + policy.getMaxQueued()) {
+            gate.admitted.decrementAndGet();
+            return reject(BookingStatus.SHOWING_BUSY);
+        }
+        try {
+            // The timed tryAcquire of a fair semaphore queues behind earlier waiters, so turns are FIFO
+            if (!gate.turns.tryAcquire(policy.getMaxWaitMillis(), TimeUnit.MILLISECONDS)) {
+                return reject(BookingStatus.SHOWING_BUSY);
+            }
+            try {
+                return booking.get();
+            } finally {
+                gate.turns.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return reject(BookingStatus.SHOWING_BUSY);
+        } finally {
+            gate.admitted.decrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of bookings of a showing running or waiting for their turn
+     *
+     * @param showingId The showing ID
+     * @return Admitted bookings not finished yet
+     */
+    public int getAdmitted(int showingId) {
+        ShowingGate gate = gates.get(showingId);
+        return gate == null ? 0 : gate.admitted.get();
+    }
+
+    private static BookingResult reject(BookingStatus status) {
+        if (BookingMetrics.ENABLED) {
+            BookingMetrics.recordRejection(status);
+        }
+        return BookingResult.rejected(status);
+    }
+
+    /**
+     * Limits of one showing: its token bucket and its turns
+     */
+    private static final class ShowingGate {
+        final TokenBucket bucket;                           // null if the showing rate is unlimited
+        final Semaphore turns;                              // Fair, null if concurrency is unlimited
+        final AtomicInteger admitted = new AtomicInteger(); // Bookings running or waiting
+
+        ShowingGate(AdmissionPolicy policy) {
+            bucket = policy.getShowingRate() > 0 ? new TokenBucket(policy.getShowingRate(), policy.getShowingBurst()) : null;
+            turns = policy.getMaxConcurrent() > 0 ? new Semaphore(policy.getMaxConcurrent(), true) : null;
+        }
+    }
+}
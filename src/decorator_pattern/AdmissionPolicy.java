@@ -0,0 +1,86 @@
+package decorator_pattern;
+
+/**
+ * decorator_pattern.AdmissionPolicy holds the limits applied by decorator_pattern.AdmissionControlledBooking.
+ * A rate or a concurrency limit of 0 switches that limit off.
+ * <p>
+ * fromSystemProperties reads the limits from booking.admission.* system properties, so a
+ * deployment can tune them without code changes.
+ */
+public final class AdmissionPolicy {
+    private final double userRate;          // Sustained bookings per second of one user
+    private final int userBurst;            // Bookings one user may make at once
+    private final double showingRate;       // Sustained bookings per second of one showing
+    private final int showingBurst;         // Bookings of one showing allowed at once
+    private final int maxConcurrent;        // Bookings of one showing running at the same time
+    private final int maxQueued;            // Bookings of one showing waiting for their turn
+    private final long maxWaitMillis;       // Longest wait in the queue before giving up
+
+    /**
+     * Creates a policy
+     *
+     * @param userRate      Sustained bookings per second of one user, 0 for no limit
+     * @param userBurst     Bookings one user may make at once
+     * @param showingRate   Sustained bookings per second of one showing, 0 for no limit
+     * @param showingBurst  Bookings of one showing allowed at once
+     * @param maxConcurrent Bookings of one showing running at the same time, 0 for no limit
+     * @param maxQueued     Bookings of one showing waiting for their turn, beyond that they are rejected
+     * @param maxWaitMillis Longest wait in the queue before the booking is rejected
+     */
+    public AdmissionPolicy(double userRate, int userBurst, double showingRate, int showingBurst,
+                           int maxConcurrent, int maxQueued, long maxWaitMillis) {
+        this.userRate = userRate;
+        this.userBurst = userBurst;
+        this.showingRate = showingRate;
+        this.showingBurst = showingBurst;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Creates a policy from system properties, with defaults suited to interactive users
+     * booking.admission.userRate (default 10), userBurst (20), showingRate (5000),
+     * showingBurst (1000), maxConcurrent (64), maxQueued (1024) and maxWaitMillis (250)
+     *
+     * @return The policy
+     */
+    public static AdmissionPolicy fromSystemProperties() {
+        return new AdmissionPolicy(
+                Double.parseDouble(System.getProperty("booking.admission.userRate", "10")),
+                Integer.getInteger("booking.admission.userBurst", 20),
+                Double.parseDouble(System.getProperty("booking.admission.showingRate", "5000")),
+                Integer.getInteger("booking.admission.showingBurst", 1000),
+                Integer.getInteger("booking.admission.maxConcurrent", 64),
+                Integer.getInteger("booking.admission.maxQueued", 1024),
+                Long.getLong("booking.admission.maxWaitMillis", 250L));
+    }
+
+    public double getUserRate() {
+        return userRate;
+    }
+
+    public int getUserBurst() {
+        return userBurst;
+    }
+
+    public double getShowingRate() {
+        return showingRate;
+    }
+
+    public int getShowingBurst() {
+        return showingBurst;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+}
@@ -0,0 +1,74 @@
+package decorator_pattern;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * decorator_pattern.TokenBucket is a lock-free token-bucket rate limiter.
+ * It allows a sustained rate of requests plus bursts of up to a number of requests.
+ * <p>
+ * Instead of a token count and a refill timestamp, the bucket keeps the single time at which
+ * it would be full again (the generic cell rate algorithm): each request pushes that time one
+ * token interval further, and is refused if that would put it more than a burst ahead of now.
+ * The state is one long, so a request costs one clock read and one compare-and-set.
+ */
+public final class TokenBucket {
+    private final long intervalNanos;   // Time to earn one token
+    private final long burstNanos;      // Time to earn a full bucket
+
+    // Time at which the bucket is full again, in System.nanoTime() terms
+    private final AtomicLong fullAt;
+
+    /**
+     * Creates a full bucket
+     *
+     * @param ratePerSecond Sustained requests per second, positive
+     * @param burst         Requests allowed at once when the bucket is full, positive
+     */
+    public TokenBucket(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes a token if one is available
+     *
+     * @return true if the request may proceed, false if it exceeds the rate
+     */
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Checks if the bucket has refilled completely, so forgetting it changes nothing
+     *
+     * @return true if no tokens are missing
+     */
+    public boolean isFull() {
+        return fullAt.get() - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Gets how long the bucket has been full, or minus how long until it is full again
+     * The larger the value, the longer ago the bucket was last charged
+     *
+     * @return Nanoseconds since the bucket refilled, negative while tokens are missing
+     */
+    public long getIdleNanos() {
+        return System.nanoTime() - fullAt.get();
+    }
+}
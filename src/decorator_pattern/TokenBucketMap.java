@@ -0,0 +1,111 @@
+package decorator_pattern;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * decorator_pattern.TokenBucketMap keeps one decorator_pattern.TokenBucket per key, such as per
+ * user or per client address, created on the key's first request.
+ * <p>
+ * The map holds at most about maxKeys buckets: once it is that large, buckets that have refilled
+ * are dropped, which changes nothing since a dropped bucket is recreated full, and then the
+ * buckets idle longest until three quarters of maxKeys are left. Keys that keep their buckets
+ * below full therefore cannot grow the map without bound; at worst a key that paused gets a
+ * fresh burst.
+ */
+public final class TokenBucketMap {
+    private final double ratePerSecond;
+    private final int burst;
+    private final int maxKeys;          // Buckets kept before idle ones are dropped
+    private final int keysAfterSweep;   // Buckets left after dropping idle ones
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    // Set while one thread drops idle buckets
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    /**
+     * Creates an empty map
+     *
+     * @param ratePerSecond Sustained requests per second of each key, positive
+     * @param burst         Requests each key may make at once, positive
+     * @param maxKeys       Keys whose buckets are kept before the buckets idle longest are dropped
+     */
+    public TokenBucketMap(double ratePerSecond, int burst, int maxKeys) {
+        if (ratePerSecond <= 0 || burst < 1 || maxKeys < 1) {
+            throw new IllegalArgumentException("Rate, burst and maxKeys must be positive");
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxKeys = maxKeys;
+        this.keysAfterSweep = maxKeys * 3 / 4;
+    }
+
+    /**
+     * Takes a token from the bucket of a key if one is available
+     *
+     * @param key The key the request is charged to
+     * @return true if the request may proceed, false if it exceeds the key's rate
+     */
+    public boolean tryAcquire(String key) {
+        return bucket(key).tryAcquire();
+    }
+
+    /**
+     * Gets the number of keys whose buckets are kept
+     *
+     * @return Number of buckets
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Gets the bucket of a key, creating it on the first request
+     *
+     * @param key The key
+     * @return The bucket
+     */
+    private TokenBucket bucket(String key) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxKeys && sweeping.compareAndSet(false, true)) {
+            try {
+                sweep();
+            } finally {
+                sweeping.set(false);
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(ratePerSecond, burst));
+    }
+
+    /**
+     * Drops full buckets, then the buckets idle longest until keysAfterSweep are left
+     */
+    private void sweep() {
+        buckets.values().removeIf(TokenBucket::isFull);
+        int excess = buckets.size() - keysAfterSweep;
+        if (excess <= 0) {
+            return;
+        }
+        long[] idle = new long[buckets.size()];
+        int count = 0;
+        for (TokenBucket bucket : buckets.values()) {
+            if (count == idle.length) {
+                break;
+            }
+            idle[count++] = bucket.getIdleNanos();
+        }
+        if (excess >= count) {
+            buckets.clear();
+            return;
+        }
+        // Drop the excess buckets idle longest, ties may drop a few more
+        Arrays.sort(idle, 0, count);
+        long threshold = idle[count - excess];
+        buckets.values().removeIf(bucket -> bucket.getIdleNanos() >= threshold);
+    }
+}
@@ -1,84 +1,206 @@
 package gui;
 
-import builder_pattern.MovieTicketBuilder;
-import movie_factory_pattern.Movie;
-import movie_factory_pattern.MovieFactory;
-import prototype_pattern.MovieTicket;
+import inventory.BookingResult;
+import inventory.BookingStatus;
+import inventory.SeatMapSnapshot;
+import movie_factory_pattern.Genre;
+import server.BookingServer;
 import singleton_pattern.SessionManager;
 import singleton_pattern.TicketBookingSystem;
-import theatre_factory_pattern.Theater;
-import theatre_factory_pattern.TheaterFactory;
+import theatre_factory_pattern.TheaterType;
 
 import javax.swing.*;
 import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Main GUI class for the Movie Ticket Booking System
  * Implements a user interface with login, user, and admin functionalities
+ * <p>
+ * Logins, bookings and inventory queries run on a background thread and report back to the
+ * Swing event thread through SwingWorker callbacks, so the window stays responsive while the
+ * password hash or the booking journal take their time. Panels are built once and reused.
+ * Availability shown on open screens is pushed by the booking system through an
+ * inventory.InventoryListener; bursts of changes are coalesced into one update of the screen.
+ * The user panel shows the seats of the selected showing in a gui.SeatGridPanel, fed with
+ * seat map snapshots taken on the listener's thread.
  */
 public class MovieTicketBookingGUI {
     // GUI Components
     private JFrame frame;
     private JTextField ticketNumberField, usernameField;
     private JPasswordField passwordField;
-    private JComboBox<String> genreComboBox, theaterComboBox;
+    private JComboBox<Genre> genreComboBox;
+    private JComboBox<TheaterType> theaterComboBox;
     private JLabel bookedTicketsLabel;
+    private JButton loginButton, bookButton;
+
+    // Panels, built on first use and reused afterwards
+    private JPanel logPanel, menuPanel, userPanel, adminPanel, inventoryPanel;
+
+    // Available tickets fields of the inventory panel, by showing ID
+    private final Map<Integer, JTextField> availableTicketFields = new HashMap<>();
+
+    // Seats of the showing selected in the user panel
+    private SeatGridPanel seatGrid;
+
+    // Showing selected in the user panel, -1 before the panel is shown
+    // Written on the event thread, read by the inventory listener to pick the snapshot to take
+    private volatile int selectedShowingId = -1;
 
     // System Components using Singleton pattern
     private TicketBookingSystem ticketBookingSystem = TicketBookingSystem.getInstance();
     private SessionManager sessionManager = SessionManager.getInstance();
 
+    // Token of the session of the logged-in user, null when logged out
+    private String sessionToken;
+
+    // Runs logins, bookings and inventory queries off the event thread, in submission order
+    private final ExecutorService backgroundExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gui-background");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Latest pushed availability per showing ID, {available, capacity}, not yet shown
+    private final ConcurrentHashMap<Integer, int[]> pendingAvailability = new ConcurrentHashMap<>();
+
+    // Latest seat snapshot of the selected showing, {showing ID, snapshot}, not yet shown
+    private final AtomicReference<Object[]> pendingSeatSnapshot = new AtomicReference<>();
+
+    // Set while an update of the screen from pendingAvailability is queued on the event thread
+    private final AtomicBoolean availabilityUpdateQueued = new AtomicBoolean();
+
     /**
      * Constructor: Initializes the main application window
+     * Must be called on the Swing event thread
      */
     public MovieTicketBookingGUI() {
         frame = new JFrame("Movie Ticket Booking");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(500, 400);
+        frame.setSize(500, 560);
         showLogPanel();  // Display log panel first
         frame.setLayout(null);
         frame.setVisible(true);
+        ticketBookingSystem.addInventoryListener(this::onAvailabilityChanged);
+    }
+
+    /**
+     * Runs a task on the background thread and passes its result to a callback on the event thread
+     *
+     * @param task   The task, must not touch Swing components
+     * @param onDone Called on the event thread with the task's result
+     * @param <T>    Type of the result
+     */
+    private <T> void runInBackground(Callable<T> task, Consumer<T> onDone) {
+        runInBackground(task, onDone, () -> {
+        });
+    }
+
+    /**
+     * Runs a task on the background thread and passes its result to a callback on the event thread
+     *
+     * @param task    The task, must not touch Swing components
+     * @param onDone  Called on the event thread with the task's result
+     * @param always  Called on the event thread before onDone, also when the task failed,
+     *                such as to enable the button that started it again
+     * @param <T>     Type of the result
+     */
+    private <T> void runInBackground(Callable<T> task, Consumer<T> onDone, Runnable always) {
+        backgroundExecutor.execute(new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return task.call();
+            }
+
+            @Override
+            protected void done() {
+                always.run();
+                try {
+                    onDone.accept(get());
+                } catch (ExecutionException e) {
+                    showError("Request failed: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+    }
+
+    /**
+     * Replaces the window content with a panel
+     *
+     * @param panel The panel to show
+     */
+    private void showPanel(JPanel panel) {
+        if (frame.getContentPane() != panel) {
+            frame.setContentPane(panel);
+            frame.revalidate();
+            frame.repaint();
+        }
     }
 
     /**
      * Creates and displays the login panel with username and password fields
      */
     private void showLogPanel() {
-        JPanel logPanel = createPanel();
-
-        // Username label and text field
-        logPanel.add(new JLabel("Username:")).setBounds(50, 50, 100, 20);
-        usernameField = new JTextField();
-        usernameField.setBounds(150, 50, 150, 20);
-        logPanel.add(usernameField);
-
-        // Password label and password field
-        logPanel.add(new JLabel("Password:")).setBounds(50, 80, 100, 20);
-        passwordField = new JPasswordField();
-        passwordField.setBounds(150, 80, 150, 20);
-        logPanel.add(passwordField);
-
-        // Login button
-        addButton(logPanel, "Login", 150, 110, e -> loginUser());
-
-        frame.setContentPane(logPanel);
-        frame.revalidate();
-        frame.repaint();
+        if (logPanel == null) {
+            logPanel = createPanel();
+
+            // Username label and text field
+            logPanel.add(new JLabel("Username:")).setBounds(50, 50, 100, 20);
+            usernameField = new JTextField();
+            usernameField.setBounds(150, 50, 150, 20);
+            logPanel.add(usernameField);
+
+            // Password label and password field
+            logPanel.add(new JLabel("Password:")).setBounds(50, 80, 100, 20);
+            passwordField = new JPasswordField();
+            passwordField.setBounds(150, 80, 150, 20);
+            logPanel.add(passwordField);
+
+            // Login button
+            loginButton = addButton(logPanel, "Login", 150, 110, e -> loginUser());
+        }
+        passwordField.setText("");
+        showPanel(logPanel);
     }
 
     /**
      * Validates user credentials and proceeds to login panel if successful
+     * The password check is deliberately slow, so it runs in the background
      */
     private void loginUser() {
         String username = usernameField.getText();
-        String password = new String(passwordField.getPassword());
-
-        if (sessionManager.login(username, password)) {
-            JOptionPane.showMessageDialog(frame, "Login successful!");
-            showLoginPanel();
-        } else {
-            JOptionPane.showMessageDialog(frame, "Invalid username or password", "Login Failed", JOptionPane.ERROR_MESSAGE);
-        }
+        char[] password = passwordField.getPassword();
+
+        loginButton.setEnabled(false);
+        runInBackground(() -> {
+            try {
+                return sessionManager.login(username, password);
+            } finally {
+                Arrays.fill(password, '\0'); // Do not keep the password in memory
+            }
+        }, token -> {
+            sessionToken = token;
+            if (sessionToken != null) {
+                JOptionPane.showMessageDialog(frame, "Login successful!");
+                showLoginPanel();
+            } else {
+                JOptionPane.showMessageDialog(frame, "Invalid username or password", "Login Failed", JOptionPane.ERROR_MESSAGE);
+            }
+        }, () -> loginButton.setEnabled(true));
     }
 
     /**
@@ -86,23 +208,42 @@ public class MovieTicketBookingGUI {
      * Shows options for User and Admin access
      */
     private void showLoginPanel() {
-        JPanel panel = createPanel();
-        addButton(panel, "User", 150, 50, e -> showUserPanel());
-        addButton(panel, "Admin", 150, 100, e -> showAdminPanel());
-        addButton(panel, "Logout", 150, 150, e -> logoutUser());
-
-        frame.setContentPane(panel);
-        frame.revalidate();
-        frame.repaint();
+        if (menuPanel == null) {
+            menuPanel = createPanel();
+            addButton(menuPanel, "User", 150, 50, e -> showUserPanel());
+            addButton(menuPanel, "Admin", 150, 100, e -> openAdminPanel());
+            addButton(menuPanel, "Logout", 150, 150, e -> logoutUser());
+        }
+        showPanel(menuPanel);
+    }
+
+    /**
+     * Shows the admin panel if the logged-in user has the admin role
+     */
+    private void openAdminPanel() {
+        String token = sessionToken;
+        runInBackground(() -> sessionManager.isAdminSession(token), isAdmin -> {
+            if (isAdmin) {
+                showAdminPanel();
+            } else {
+                JOptionPane.showMessageDialog(frame, "Admin access required", "Access Denied", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
 
     /**
      * Handles user logout and returns to login screen
      */
     private void logoutUser() {
-        sessionManager.logout(); // Clear the session
-        JOptionPane.showMessageDialog(frame, "Logged out successfully!");
-        showLogPanel(); // Show the log panel again
+        String token = sessionToken;
+        sessionToken = null;
+        runInBackground(() -> {
+            sessionManager.logoutSession(token); // End the session
+            return null;
+        }, ignored -> {
+            JOptionPane.showMessageDialog(frame, "Logged out successfully!");
+            showLogPanel(); // Show the log panel again
+        });
     }
 
     /**
@@ -124,33 +265,79 @@ public class MovieTicketBookingGUI {
      * @param x        X coordinate
      * @param y        Y coordinate
      * @param listener Action listener for button
+     * @return Created JButton
      */
-    private void addButton(JPanel panel, String text, int x, int y, ActionListener listener) {
+    private JButton addButton(JPanel panel, String text, int x, int y, ActionListener listener) {
         JButton button = new JButton(text);
         button.setBounds(x, y, 150, 30);
         button.addActionListener(listener);
         panel.add(button);
+        return button;
     }
 
     /**
      * Displays the user panel with ticket booking options
      */
     private void showUserPanel() {
-        JPanel userPanel = createPanel();
-
-        genreComboBox = addComboBox(userPanel, "Genre:", new String[]{"Action", "Comedy", "Drama"}, 50, 50);
-        theaterComboBox = addComboBox(userPanel, "Theater Type:", new String[]{"Cinema", "IMAX"}, 50, 80);
-        ticketNumberField = addTextField(userPanel, "Ticket Number:", 50, 110);
-        bookedTicketsLabel = new JLabel("Booked Tickets: 0");
-        bookedTicketsLabel.setBounds(50, 140, 200, 20);
-        userPanel.add(bookedTicketsLabel);
+        if (userPanel == null) {
+            userPanel = createPanel();
+
+            genreComboBox = addComboBox(userPanel, "Genre:", Genre.values(), 50, 50);
+            theaterComboBox = addComboBox(userPanel, "Theater Type:", TheaterType.values(), 50, 80);
+            ticketNumberField = addTextField(userPanel, "Ticket Number:", 50, 110);
+            bookedTicketsLabel = new JLabel("Booked Tickets: 0");
+            bookedTicketsLabel.setBounds(50, 140, 200, 20);
+            userPanel.add(bookedTicketsLabel);
+
+            // Follow the availability of the selected showing
+            genreComboBox.addActionListener(e -> selectShowing());
+            theaterComboBox.addActionListener(e -> selectShowing());
+
+            bookButton = addButton(userPanel, "Book Ticket", 150, 170, e -> bookTicketForUser());
+            addButton(userPanel, "Back", 10, 10, e -> showLoginPanel());
+
+            // Clicking a free seat picks its ticket number
+            seatGrid = new SeatGridPanel(ticketNumber -> ticketNumberField.setText(String.valueOf(ticketNumber)));
+            JScrollPane seatScrollPane = new JScrollPane(seatGrid);
+            seatScrollPane.setBounds(20, 210, 450, 290);
+            userPanel.add(seatScrollPane);
+        }
+        selectShowing();
+        showPanel(userPanel);
+    }
 
-        addButton(userPanel, "Book Ticket", 150, 170, e -> bookTicketForUser());
-        addButton(userPanel, "Back", 10, 10, e -> showLoginPanel());
+    /**
+     * Switches the booked tickets label and the seat grid to the showing selected in the combo boxes
+     * Loads its current seats once; later changes arrive through onAvailabilityChanged
+     */
+    private void selectShowing() {
+        Genre genre = (Genre) genreComboBox.getSelectedItem();
+        TheaterType theaterType = (TheaterType) theaterComboBox.getSelectedItem();
+        runInBackground(() -> {
+            int showingId = ticketBookingSystem.getShowingId(genre, theaterType);
+            return new Object[]{showingId, ticketBookingSystem.getSeatSnapshot(showingId)};
+        }, showing -> {
+            // Ignore the answer if the selection changed again in the meantime
+            if (genre == genreComboBox.getSelectedItem() && theaterType == theaterComboBox.getSelectedItem()) {
+                selectedShowingId = (Integer) showing[0];
+                showSeats(selectedShowingId, (SeatMapSnapshot) showing[1]);
+            }
+        });
+    }
 
-        frame.setContentPane(userPanel);
-        frame.revalidate();
-        frame.repaint();
+    /**
+     * Shows the seats of the selected showing in the grid and the booked tickets label
+     *
+     * @param showingId The showing ID
+     * @param snapshot  Its seats, null if the showing does not exist
+     */
+    private void showSeats(int showingId, SeatMapSnapshot snapshot) {
+        if (snapshot == null) {
+            updateBookedTicketsLabel(0);
+            return;
+        }
+        seatGrid.setSnapshot(showingId, snapshot);
+        updateBookedTicketsLabel(snapshot.getCapacity() - snapshot.getAvailableCount());
     }
 
     /**
@@ -178,11 +365,12 @@ public class MovieTicketBookingGUI {
      * @param items     Combo box items
      * @param x         X coordinate
      * @param y         Y coordinate
+     * @param <T>       Type of the combo box items
      * @return Created JComboBox
      */
-    private JComboBox<String> addComboBox(JPanel panel, String labelText, String[] items, int x, int y) {
+    private <T> JComboBox<T> addComboBox(JPanel panel, String labelText, T[] items, int x, int y) {
         panel.add(new JLabel(labelText)).setBounds(x, y, 100, 20);
-        JComboBox<String> comboBox = new JComboBox<>(items);
+        JComboBox<T> comboBox = new JComboBox<>(items);
         comboBox.setBounds(x + 100, y, 150, 20);
         panel.add(comboBox);
         return comboBox;
@@ -192,116 +380,177 @@ public class MovieTicketBookingGUI {
      * Displays the admin panel with inventory management option
      */
     private void showAdminPanel() {
-        JPanel adminPanel = createPanel();
-        addButton(adminPanel, "Manage Inventory", 150, 100, e -> manageTicketInventory());
-        addButton(adminPanel, "Back", 10, 10, e -> showLoginPanel());
-        frame.setContentPane(adminPanel);
-        frame.revalidate();
-        frame.repaint();
+        if (adminPanel == null) {
+            adminPanel = createPanel();
+            addButton(adminPanel, "Manage Inventory", 150, 100, e -> manageTicketInventory());
+            addButton(adminPanel, "Back", 10, 10, e -> showLoginPanel());
+        }
+        showPanel(adminPanel);
     }
 
     /**
      * Displays the inventory management panel for admins
+     * The fields are loaded from a bulk inventory snapshot when the panel is opened and then
+     * kept current by push updates
      */
     private void manageTicketInventory() {
-        JPanel inventoryPanel = createPanel();
-
-        // Add IMAX title
-        JLabel cinemaTitleLabel = new JLabel("IMAX");
-        cinemaTitleLabel.setBounds(260, 17, 70, 20);
-        cinemaTitleLabel.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 13));
-        inventoryPanel.add(cinemaTitleLabel);
-
-        // Add Cinema title
-        JLabel imaxTitleLabel = new JLabel("Cinema");
-        imaxTitleLabel.setBounds(147, 15, 70, 20);
-        imaxTitleLabel.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 14));
-        inventoryPanel.add(imaxTitleLabel);
-
-        // Add ticket information for each genre and theater type
-        String[] genres = {"Action", "Comedy", "Drama"};
-        int yPos = 50;
-        for (String genre : genres) {
-            addTicketInfo(inventoryPanel, genre + "-Cinema", 50, yPos);
-            addTicketInfo(inventoryPanel, genre + "-IMAX", 150, yPos);
-            yPos += 80;
-        }
+        if (inventoryPanel == null) {
+            inventoryPanel = createPanel();
+
+            // Add IMAX title
+            JLabel cinemaTitleLabel = new JLabel("IMAX");
+            cinemaTitleLabel.setBounds(260, 17, 70, 20);
+            cinemaTitleLabel.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 13));
+            inventoryPanel.add(cinemaTitleLabel);
+
+            // Add Cinema title
+            JLabel imaxTitleLabel = new JLabel("Cinema");
+            imaxTitleLabel.setBounds(147, 15, 70, 20);
+            imaxTitleLabel.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 14));
+            inventoryPanel.add(imaxTitleLabel);
+
+            // Add ticket information for each genre and theater type
+            int yPos = 50;
+            for (Genre genre : Genre.values()) {
+                addTicketInfo(inventoryPanel, genre, TheaterType.CINEMA, 50, yPos);
+                addTicketInfo(inventoryPanel, genre, TheaterType.IMAX, 150, yPos);
+                yPos += 80;
+            }
 
-        JButton backButton = new JButton("Back");
-        backButton.setBounds(10, 10, 70, 20);
-        backButton.addActionListener(e -> showAdminPanel());
-        inventoryPanel.add(backButton);
+            JButton backButton = new JButton("Back");
+            backButton.setBounds(10, 10, 70, 20);
+            backButton.addActionListener(e -> showAdminPanel());
+            inventoryPanel.add(backButton);
+        }
 
-        frame.setContentPane(inventoryPanel);
-        frame.revalidate();
-        frame.repaint();
+        // Load the availability of every field from one inventory snapshot taken in the background
+        runInBackground(ticketBookingSystem::getInventorySnapshot, snapshot -> {
+            for (Map.Entry<Integer, JTextField> field : availableTicketFields.entrySet()) {
+                int showingId = field.getKey();
+                if (showingId < snapshot.getShowingCount()) {
+                    field.getValue().setText(String.valueOf(snapshot.getAvailableTickets(showingId)));
+                }
+            }
+        });
+        showPanel(inventoryPanel);
     }
 
     /**
      * Adds ticket information display for a specific genre and theater type
      *
-     * @param panel     Panel to add information to
-     * @param ticketKey Combined key of genre and theater type
-     * @param x         X coordinate
-     * @param y         Y coordinate
+     * @param panel       Panel to add information to
+     * @param genre       Movie genre
+     * @param theaterType Theater type
+     * @param x           X coordinate
+     * @param y           Y coordinate
      */
-    private void addTicketInfo(JPanel panel, String ticketKey, int x, int y) {
-        // Extract genre from ticketKey (before "-")
-        String genre = ticketKey.split("-")[0];
-        // Extract theater type from ticketKey (after "-")
-        String theaterType = ticketKey.split("-")[1];
+    private void addTicketInfo(JPanel panel, Genre genre, TheaterType theaterType, int x, int y) {
         // Create label for movie genre
-        JLabel label = new JLabel(genre);
+        JLabel label = new JLabel(genre.getDisplayName());
         label.setBounds(x, y, 100, 20);
         panel.add(label);
-        // Get available tickets for this type
-        int availableTickets = ticketBookingSystem.getAvailableTickets(genre, theaterType);
-        // Create text field to display available tickets
-        JTextField ticketField = new JTextField(String.valueOf(availableTickets));
+        // Create text field to display available tickets, filled in when the panel is opened
+        JTextField ticketField = new JTextField();
         ticketField.setBounds(x + 100, y, 50, 20);
         ticketField.setEditable(false);
         panel.add(ticketField);
+        availableTicketFields.put(ticketBookingSystem.getShowingId(genre, theaterType), ticketField);
     }
 
     /**
      * Handles the ticket booking process for users
-     * Implements the Builder pattern for ticket creation
+     * The booking runs in the background; the booking system creates the ticket with the
+     * Builder pattern and returns it in the result
      */
     private void bookTicketForUser() {
-        String genre = (String) genreComboBox.getSelectedItem();
-        String theaterType = (String) theaterComboBox.getSelectedItem();
+        Genre genre = (Genre) genreComboBox.getSelectedItem();
+        TheaterType theaterType = (TheaterType) theaterComboBox.getSelectedItem();
         int ticketNumber;
 
         try {
             ticketNumber = Integer.parseInt(ticketNumberField.getText());
-            if (ticketNumber < 1 || ticketNumber > 50) {
-                showError("Ticket number must be between 1 and 50.");
-                return;
-            }
         } catch (NumberFormatException e) {
             showError("Please enter a valid ticket number.");
             return;
         }
 
-        // Create movie and theater using respective factories
-        Movie movie = MovieFactory.createMovie(genre);
-        Theater theater = TheaterFactory.createTheater(theaterType);
-
-        if (movie != null) movie.showDetails();
-        if (theater != null) theater.showDetails();
+        bookButton.setEnabled(false);
+        // The result reports an out of range ticket number with the valid range
+        runInBackground(() -> ticketBookingSystem.bookTicket(genre, theaterType, ticketNumber), result -> {
+            if (result.isSuccess()) {
+                JOptionPane.showMessageDialog(frame, result.getMessage() + "\n" + result.getTicket());
+            } else if (result.getStatus() == BookingStatus.SOLD_OUT) {
+                offerWaitlist(genre, theaterType);
+            } else {
+                JOptionPane.showMessageDialog(frame, result.getMessage());
+            }
+        }, () -> bookButton.setEnabled(true));
+    }
 
-        // Use the Builder pattern to create MovieTicket
-        MovieTicket movieTicket = new MovieTicketBuilder()
-                .setGenre(genre)
-                .setTheaterType(theaterType)
-                .setTicketNumber(ticketNumber)
-                .build();
+    /**
+     * Offers to put the user on the waitlist of a sold-out showing
+     * The booking system books the next released seat for the user and reports it through the
+     * listener, so the user does not need to keep retrying
+     *
+     * @param genre       Movie genre
+     * @param theaterType Theater type
+     */
+    private void offerWaitlist(Genre genre, TheaterType theaterType) {
+        int choice = JOptionPane.showConfirmDialog(frame, BookingStatus.SOLD_OUT.getMessage()
+                + "\nJoin the waitlist and get the next released seat?", "Sold Out", JOptionPane.YES_NO_OPTION);
+        if (choice != JOptionPane.YES_OPTION) {
+            return;
+        }
+        // The listener runs on the thread that released the seat; show the ticket on the event thread
+        runInBackground(() -> ticketBookingSystem.joinWaitlist(genre, theaterType, (entry, booked) ->
+                        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(frame,
+                                "A seat was released for you on the waitlist!\n" + booked.getTicket()))),
+                entry -> {
+                    if (entry.isWaiting()) {
+                        JOptionPane.showMessageDialog(frame, "You are on the waitlist for " + genre + " in " + theaterType + ".");
+                    }
+                });
+    }
 
-        String message = ticketBookingSystem.bookTicket(genre, theaterType, ticketNumber);
-        JOptionPane.showMessageDialog(frame, message);
+    /**
+     * Receives availability changes from the booking system, on an inventory feed dispatcher thread
+     * Records the latest values and queues a single screen update for any number of changes;
+     * for the selected showing it also takes the seat snapshot here, off the event thread
+     *
+     * @param showingId        The showing ID
+     * @param availableTickets Free seats after the change
+     * @param capacity         Seat capacity of the showing
+     */
+    private void onAvailabilityChanged(int showingId, int availableTickets, int capacity) {
+        pendingAvailability.put(showingId, new int[]{availableTickets, capacity});
+        if (showingId == selectedShowingId) {
+            pendingSeatSnapshot.set(new Object[]{showingId, ticketBookingSystem.getSeatSnapshot(showingId)});
+        }
+        if (availabilityUpdateQueued.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::applyAvailabilityUpdates);
+        }
+    }
 
-        // Update display of booked tickets
-        updateBookedTicketsLabel(genre, theaterType);
+    /**
+     * Shows the pushed availability changes on the open screens, on the event thread
+     */
+    private void applyAvailabilityUpdates() {
+        // Clear the flag first, so changes arriving during the update queue another one
+        availabilityUpdateQueued.set(false);
+        for (Integer showingId : pendingAvailability.keySet()) {
+            int[] availability = pendingAvailability.remove(showingId);
+            if (availability == null) {
+                continue;
+            }
+            JTextField field = availableTicketFields.get(showingId);
+            if (field != null) {
+                field.setText(String.valueOf(availability[0]));
+            }
+        }
+        Object[] seats = pendingSeatSnapshot.getAndSet(null);
+        if (seats != null && (Integer) seats[0] == selectedShowingId) {
+            showSeats(selectedShowingId, (SeatMapSnapshot) seats[1]);
+        }
     }
 
     /**
@@ -316,18 +565,23 @@ public class MovieTicketBookingGUI {
     /**
      * Updates the label showing number of booked tickets
      *
-     * @param genre       Movie genre
-     * @param theaterType Theater type
+     * @param bookedCount Number of booked tickets of the selected showing
      */
-    private void updateBookedTicketsLabel(String genre, String theaterType) {
-        int bookedCount = ticketBookingSystem.getBookedTickets(genre, theaterType);
+    private void updateBookedTicketsLabel(int bookedCount) {
         bookedTicketsLabel.setText("Booked Tickets: " + bookedCount);
     }
 
     /**
      * Main method to launch the application
+     * With --server it starts the headless server.BookingServer instead of the window,
+     * passing the remaining arguments (such as --port 8080) on to it
      */
-    public static void main(String[] args) {
-        new MovieTicketBookingGUI();
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && "--server".equals(args[0])) {
+            BookingServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // Swing components must be created on the event thread
+        SwingUtilities.invokeLater(MovieTicketBookingGUI::new);
     }
-}
\ No newline at end of file
+}
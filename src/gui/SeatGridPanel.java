@@ -0,0 +1,167 @@
+package gui;
+
+import inventory.SeatMapSnapshot;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.function.IntConsumer;
+
+/**
+ * gui.SeatGridPanel draws every seat of a showing as a grid of numbered cells.
+ * It is fed whole inventory.SeatMapSnapshot copies instead of querying seats one by one; a new
+ * snapshot of the same showing is compared word by word with the previous one and only the
+ * cells of seats that changed are repainted. Painting itself only draws the cells inside the
+ * clip, so a single changed seat costs a single cell. Must only be used on the event thread.
+ */
+class SeatGridPanel extends JComponent {
+    private static final long serialVersionUID = 1L;
+
+    // Cell layout
+    private static final int COLUMNS = 10;
+    private static final int CELL_WIDTH = 40;
+    private static final int CELL_HEIGHT = 26;
+    private static final int GAP = 3;
+
+    // Cell colours
+    private static final Color FREE_COLOR = new Color(0x8FD18F);
+    private static final Color HELD_COLOR = new Color(0xF2C94C);
+    private static final Color BOOKED_COLOR = new Color(0xD46A6A);
+
+    // Shown seats, null before the first snapshot; not serialized, the next snapshot replaces it
+    private transient SeatMapSnapshot snapshot;
+
+    // Showing of the shown snapshot, -1 before the first one
+    private int showingId = -1;
+
+    /**
+     * Creates an empty grid
+     *
+     * @param onFreeSeatClicked Called with the ticket number of a free seat the user clicks
+     */
+    SeatGridPanel(IntConsumer onFreeSeatClicked) {
+        setToolTipText("");  // Enables getToolTipText(MouseEvent)
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int seat = seatAt(e.getX(), e.getY());
+                if (seat >= 0 && snapshot.isFree(seat)) {
+                    onFreeSeatClicked.accept(seat + 1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Shows a new snapshot, repainting only the seats that differ from the shown one
+     * A different showing or capacity repaints the whole grid
+     *
+     * @param showingId   Showing the snapshot belongs to
+     * @param newSnapshot The snapshot
+     */
+    void setSnapshot(int showingId, SeatMapSnapshot newSnapshot) {
+        SeatMapSnapshot previous = snapshot;
+        boolean sameShowing = previous != null && showingId == this.showingId
+                && previous.getCapacity() == newSnapshot.getCapacity();
+        // Snapshots taken off the event thread may arrive out of order, keep the newest
+        if (sameShowing && (int) (newSnapshot.getVersion() - previous.getVersion()) < 0) {
+            return;
+        }
+        snapshot = newSnapshot;
+        this.showingId = showingId;
+
+        if (!sameShowing) {
+            revalidate();  // The number of rows may have changed
+            repaint();
+            return;
+        }
+        for (int word = 0; word < newSnapshot.getWordCount(); word++) {
+            long changed = newSnapshot.changedSeats(previous, word);
+            while (changed != 0) {
+                int seat = (word << 6) + Long.numberOfTrailingZeros(changed);
+                changed &= changed - 1;
+                repaint(cellBounds(seat));
+            }
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int capacity = snapshot == null ? 0 : snapshot.getCapacity();
+        int rows = (capacity + COLUMNS - 1) / COLUMNS;
+        return new Dimension(COLUMNS * (CELL_WIDTH + GAP) + GAP, rows * (CELL_HEIGHT + GAP) + GAP);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        SeatMapSnapshot shown = snapshot;
+        if (shown == null) {
+            return;
+        }
+        // Only the rows inside the clip need drawing
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int firstRow = Math.max(0, (clip.y - GAP) / (CELL_HEIGHT + GAP));
+        int lastRow = (clip.y + clip.height) / (CELL_HEIGHT + GAP);
+
+        FontMetrics metrics = g.getFontMetrics();
+        int from = firstRow * COLUMNS;
+        int to = Math.min(shown.getCapacity(), (lastRow + 1) * COLUMNS);
+        for (int seat = from; seat < to; seat++) {
+            Rectangle cell = cellBounds(seat);
+            if (!cell.intersects(clip)) {
+                continue;
+            }
+            g.setColor(shown.isFree(seat) ? FREE_COLOR : shown.isHeld(seat) ? HELD_COLOR : BOOKED_COLOR);
+            g.fillRect(cell.x, cell.y, cell.width, cell.height);
+            g.setColor(Color.DARK_GRAY);
+            String number = String.valueOf(seat + 1);
+            g.drawString(number, cell.x + (cell.width - metrics.stringWidth(number)) / 2,
+                    cell.y + (cell.height + metrics.getAscent() - metrics.getDescent()) / 2);
+        }
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int seat = seatAt(e.getX(), e.getY());
+        if (seat < 0) {
+            return null;
+        }
+        String state = snapshot.isFree(seat) ? "free" : snapshot.isHeld(seat) ? "held" : "booked";
+        return "Ticket " + (seat + 1) + ": " + state;
+    }
+
+    /**
+     * Gets the area of a seat's cell
+     *
+     * @param seat Zero-based seat index
+     * @return The cell bounds
+     */
+    private static Rectangle cellBounds(int seat) {
+        return new Rectangle(GAP + (seat % COLUMNS) * (CELL_WIDTH + GAP),
+                GAP + (seat / COLUMNS) * (CELL_HEIGHT + GAP), CELL_WIDTH, CELL_HEIGHT);
+    }
+
+    /**
+     * Finds the seat whose cell contains a point
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return Zero-based seat index, -1 if the point is not on a seat
+     */
+    private int seatAt(int x, int y) {
+        if (snapshot == null || x < GAP || y < GAP) {
+            return -1;
+        }
+        int column = (x - GAP) / (CELL_WIDTH + GAP);
+        int row = (y - GAP) / (CELL_HEIGHT + GAP);
+        int seat = row * COLUMNS + column;
+        if (column >= COLUMNS || seat >= snapshot.getCapacity() || !cellBounds(seat).contains(x, y)) {
+            return -1;
+        }
+        return seat;
+    }
+}
@@ -0,0 +1,744 @@
+package inventory;
+
+import movie_factory_pattern.Genre;
+import theatre_factory_pattern.TheaterType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * inventory.BookingJournal is an append-only write-ahead journal of inventory changes.
+ * Every showing registration, seat booking, seat hold, seat release and cancellation is appended as a fixed-size
+ * record to a memory-mapped journal segment, so state survives restarts. Holds do not survive a
+ * restart: seats still held at the end of recovery are released.
+ * <p>
+ * Durability uses group commit: a background flusher forces the mapped segment to disk and
+ * wakes every booking waiting for its record, so many bookings share one fsync. With sync
+ * commit disabled, appends return immediately and are forced on the next flush.
+ * <p>
+ * A segment holds at most MAX_SEGMENT_SIZE bytes, appends then continue in the next segment.
+ * Every snapshotInterval records the journal starts a new segment and compacts the finished ones
+ * into a snapshot of all seat maps, so recovery only loads the snapshot and replays the records
+ * after it. The snapshot is built by replaying the previous snapshot and the finished segments
+ * into a separate inventory, never copied from the live seat maps: those also hold seats claimed
+ * by bookings that are not journaled yet or are rolled back without a record, such as the partial
+ * claims of a conflicting multi-seat booking, which must not survive a restart.
+ * <p>
+ * The journal only records changes; callers apply them to the inventory themselves. A change
+ * that takes a seat is journaled after the seat is claimed, one that frees a seat before the seat
+ * is freed, so the records of a seat always replay in the order its changes happened.
+ */
+public class BookingJournal implements Closeable {
+    // Size of one journal record in bytes: type, showing ID, argument, checksum
+    private static final int RECORD_SIZE = 16;
+
+    // Journal segments are mapped and grown in chunks of this many bytes
+    private static final int MAP_CHUNK = 16 * 1024 * 1024;
+
+    // Largest segment; a full segment is closed and appends continue in the next one, so
+    // offsets stay ints and a mapping never exceeds what a MappedByteBuffer can address
+    private static final int MAX_SEGMENT_SIZE = 64 * MAP_CHUNK;
+
+    // Record types, stored in the low byte of the first int
+    private static final int TYPE_REGISTER = 1;
+    private static final int TYPE_BOOK = 2;
+    private static final int TYPE_RELEASE = 3;
+    private static final int TYPE_HOLD = 4;
+    private static final int TYPE_CANCEL = 5;
+
+    // Mixed into record checksums and used to recognise snapshot files
+    private static final int CHECKSUM_SEED = 0x5EA7B00C;
+    private static final long SNAPSHOT_MAGIC = 0x534541544D415053L;
+
+    // Snapshots that also store the booking generations of seats; files with SNAPSHOT_MAGIC are still read
+    private static final long SNAPSHOT_MAGIC_GENERATIONS = 0x534541544D415032L;
+
+    // Longest time the flusher waits before forcing pending records
+    private static final long FLUSH_INTERVAL_MICROS = 500;
+
+    private final Path directory;             // Directory holding snapshot and journal segments
+    private final ShowingInventory inventory; // Inventory the journal records and restores
+    private final boolean syncCommit;         // Whether appends wait until their record is on disk
+    private final long snapshotInterval;      // Records between two snapshots, 0 disables snapshots
+
+    // Guards the mapped segment and the sequence counters below
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();  // Signalled after each force
+    private final Condition pending = lock.newCondition();  // Signalled when records are appended
+
+    // Held for a whole snapshot, so two snapshots never compact and delete segments at the same time
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    private FileChannel channel;      // Channel of the current segment
+    private MappedByteBuffer buffer;  // Mapping of the current segment
+    private int generation;           // Number of the current segment
+    private int position;             // Write offset within the current segment
+    private int flushedPosition;      // Offset up to which the current segment is forced
+    private long writtenSequence;     // Total records appended since open
+    private long flushedSequence;     // Total records forced to disk since open
+    private long recordsSinceSnapshot;
+    private boolean snapshotRunning;
+    private boolean closed;
+
+    private Thread flusher;
+
+    /**
+     * Creates a journal over a directory
+     * Call recover() before the inventory is used, then start()
+     *
+     * @param directory        Directory holding snapshot and journal segments, created if missing
+     * @param inventory        Inventory the journal records and restores
+     * @param syncCommit       true to make appends wait until their record is on disk
+     * @param snapshotInterval Records between two snapshots, 0 to disable snapshots
+     */
+    public BookingJournal(Path directory, ShowingInventory inventory, boolean syncCommit, long snapshotInterval) {
+        this.directory = directory;
+        this.inventory = inventory;
+        this.syncCommit = syncCommit;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Rebuilds the inventory from the latest snapshot and the journal segments written after it
+     * and opens the segment new records are appended to
+     *
+     * @throws IOException if the directory cannot be read or written
+     */
+    public void recover() throws IOException {
+        Files.createDirectories(directory);
+        int snapshotGeneration = loadSnapshot(inventory);
+        List<Integer> generations = listSegments();
+        int last = snapshotGeneration;
+        int lastEnd = 0;
+        for (int segment : generations) {
+            if (segment >= snapshotGeneration) {
+                lastEnd = replaySegment(inventory, segment);
+                last = segment;
+            }
+        }
+        // Checkouts in progress when the process stopped are abandoned
+        for (int i = 0; i < inventory.size(); i++) {
+            inventory.get(i).getSeatMap().releaseAllHolds();
+        }
+        openSegment(last, lastEnd);
+    }
+
+    /**
+     * Starts the background flusher that performs group commits and snapshots
+     */
+    public void start() {
+        flusher = new Thread(this::flushLoop, "booking-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Records the registration of a showing
+     *
+     * @param showing The registered showing
+     */
+    public void appendRegister(Showing showing) {
+        int type = TYPE_REGISTER | showing.getGenre().ordinal() << 8 | showing.getTheaterType().ordinal() << 16;
+        append(type, showing.getShowingId(), showing.getSeatMap().getCapacity());
+    }
+
+    /**
+     * Records a booked seat
+     *
+     * @param showingId The showing ID
+     * @param seat      Zero-based seat index
+     */
+    public void appendBook(int showingId, int seat) {
+        append(TYPE_BOOK, showingId, seat);
+    }
+
+    /**
+     * Records several seats booked together, sharing one group commit
+     *
+     * @param showingId The showing ID
+     * @param seats     Zero-based seat indices
+     */
+    public void appendBooks(int showingId, int[] seats) {
+        lock.lock();
+        try {
+            for (int seat : seats) {
+                appendLocked(TYPE_BOOK, showingId, seat);
+            }
+            awaitFlushLocked(writtenSequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a released seat
+     * Must be appended before the seat is freed, so it precedes any later booking of the seat
+     *
+     * @param showingId The showing ID
+     * @param seat      Zero-based seat index
+     */
+    public void appendRelease(int showingId, int seat) {
+        append(TYPE_RELEASE, showingId, seat);
+    }
+
+    /**
+     * Records the cancellation of a booked seat, whose booking generation was just advanced
+     * Must be appended before the seat is freed, so it precedes any later booking of the seat
+     *
+     * @param showingId  The showing ID
+     * @param seat       Zero-based seat index
+     * @param generation The new booking generation of the seat
+     */
+    public void appendCancel(int showingId, int seat, int generation) {
+        append(cancelType(generation), showingId, seat);
+    }
+
+    /**
+     * Records the cancellation of a booked seat and its booking for a waiting customer, sharing
+     * one group commit; the seat stays claimed in between
+     *
+     * @param showingId  The showing ID
+     * @param seat       Zero-based seat index
+     * @param generation The new booking generation of the seat
+     */
+    public void appendCancelAndBook(int showingId, int seat, int generation) {
+        lock.lock();
+        try {
+            appendLocked(cancelType(generation), showingId, seat);
+            appendLocked(TYPE_BOOK, showingId, seat);
+            awaitFlushLocked(writtenSequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the type field of a cancellation record, which carries the new booking generation
+     *
+     * @param generation The new booking generation of the seat
+     * @return The type field
+     */
+    private static int cancelType(int generation) {
+        return TYPE_CANCEL | (generation & 0xFFFFFF) << 8;
+    }
+
+    /**
+     * Records a held seat without waiting for the group commit
+     * A lost hold record only means the hold is gone after a restart, which happens anyway
+     *
+     * @param showingId The showing ID
+     * @param seat      Zero-based seat index
+     */
+    public void appendHold(int showingId, int seat) {
+        appendAsync(TYPE_HOLD, showingId, seat);
+    }
+
+    /**
+     * Records the release of a held seat without waiting for the group commit
+     * Any later booking of the seat waits for a group commit that also covers this record
+     *
+     * @param showingId The showing ID
+     * @param seat      Zero-based seat index
+     */
+    public void appendHoldRelease(int showingId, int seat) {
+        appendAsync(TYPE_RELEASE, showingId, seat);
+    }
+
+    /**
+     * Appends one record without waiting for the group commit
+     */
+    private void appendAsync(int type, int showingId, int argument) {
+        lock.lock();
+        try {
+            appendLocked(type, showingId, argument);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends one record and, with sync commit, waits for the group commit covering it
+     *
+     * @param type      Record type, with extra data in the upper bytes
+     * @param showingId The showing ID
+     * @param argument  Seat index or capacity
+     */
+    private void append(int type, int showingId, int argument) {
+        lock.lock();
+        try {
+            appendLocked(type, showingId, argument);
+            awaitFlushLocked(writtenSequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes one record into the mapped segment and notifies the flusher
+     * Must be called with the lock held
+     */
+    private void appendLocked(int type, int showingId, int argument) {
+        if (closed) {
+            throw new IllegalStateException("Booking journal is closed");
+        }
+        ensureCapacity();
+        buffer.putInt(position, type);
+        buffer.putInt(position + 4, showingId);
+        buffer.putInt(position + 8, argument);
+        buffer.putInt(position + 12, checksum(type, showingId, argument));
+        position += RECORD_SIZE;
+        writtenSequence++;
+        recordsSinceSnapshot++;
+        pending.signal();
+    }
+
+    /**
+     * With sync commit, waits until the group commit covering a record has forced it to disk
+     * Waiting releases the lock, so other bookings keep appending to the same group
+     * Must be called with the lock held
+     *
+     * @param sequence Sequence number of the record
+     */
+    private void awaitFlushLocked(long sequence) {
+        if (!syncCommit) {
+            return;
+        }
+        while (flushedSequence < sequence && !closed) {
+            flushed.awaitUninterruptibly();
+        }
+    }
+
+    /**
+     * Grows the mapping of the current segment when the next record does not fit, or starts the
+     * next segment once the current one reached MAX_SEGMENT_SIZE
+     * Recovery and snapshots replay every segment in order, so a segment may end anywhere
+     * Must be called with the lock held
+     */
+    private void ensureCapacity() {
+        if (position + RECORD_SIZE <= buffer.capacity()) {
+            return;
+        }
+        try {
+            if ((long) buffer.capacity() + MAP_CHUNK > MAX_SEGMENT_SIZE) {
+                // Force the full segment first, the flusher only tracks the current one
+                forceLocked();
+                channel.close();
+                openSegment(generation + 1, 0);
+            } else {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) buffer.capacity() + MAP_CHUNK);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot grow booking journal", e);
+        }
+    }
+
+    /**
+     * Flusher loop: waits for appended records, forces them in one go and wakes their waiters
+     * The force itself runs without the lock, so bookings keep filling the next group meanwhile
+     */
+    private void flushLoop() {
+        while (true) {
+            MappedByteBuffer target;
+            int segment;
+            int from;
+            int to;
+            long sequence;
+            lock.lock();
+            try {
+                while (writtenSequence == flushedSequence && !closed) {
+                    pending.awaitNanos(TimeUnit.MICROSECONDS.toNanos(FLUSH_INTERVAL_MICROS));
+                }
+                if (closed) {
+                    return;
+                }
+                target = buffer;
+                segment = generation;
+                from = flushedPosition;
+                to = position;
+                sequence = writtenSequence;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            if (to > from) {
+                target.force(from, to - from);
+            }
+
+            boolean snapshotDue;
+            lock.lock();
+            try {
+                // A snapshot may have switched segments and forced everything in the meantime
+                if (segment == generation && to > flushedPosition) {
+                    flushedPosition = to;
+                }
+                if (sequence > flushedSequence) {
+                    flushedSequence = sequence;
+                }
+                flushed.signalAll();
+                snapshotDue = snapshotInterval > 0 && recordsSinceSnapshot >= snapshotInterval && !snapshotRunning;
+                if (snapshotDue) {
+                    snapshotRunning = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (snapshotDue) {
+                // Write the snapshot on its own thread so group commits continue meanwhile
+                Thread snapshotter = new Thread(this::runSnapshot, "booking-journal-snapshot");
+                snapshotter.setDaemon(true);
+                snapshotter.start();
+            }
+        }
+    }
+
+    /**
+     * Takes a periodic snapshot, reporting failures instead of propagating them
+     */
+    private void runSnapshot() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            // The journal still holds every record, so recovery stays correct without the snapshot
+            System.err.println("Booking journal snapshot failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Forces the unflushed part of the current segment and wakes the waiting appends
+     * Must be called with the lock held
+     */
+    private void forceLocked() {
+        if (position > flushedPosition) {
+            buffer.force(flushedPosition, position - flushedPosition);
+            flushedPosition = position;
+        }
+        flushedSequence = writtenSequence;
+        flushed.signalAll();
+    }
+
+    /**
+     * Starts a new journal segment and compacts the finished segments into a new snapshot
+     * Only switching the segment takes the lock; the snapshot is built by replaying the previous
+     * snapshot and the finished segments into a separate inventory while bookings continue, and
+     * the finished segments are deleted once it is on disk
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            int snapshotGeneration;
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                snapshotRunning = true;
+                forceLocked();
+                snapshotGeneration = generation + 1;
+                channel.close();
+                openSegment(snapshotGeneration, 0);
+                recordsSinceSnapshot = 0;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                ShowingInventory compacted = new ShowingInventory();
+                int first = loadSnapshot(compacted);
+                for (int segment : listSegments()) {
+                    if (segment >= first && segment < snapshotGeneration) {
+                        replaySegment(compacted, segment);
+                    }
+                }
+                writeSnapshot(snapshotGeneration, compacted);
+                // Segments before the snapshot are no longer needed for recovery
+                for (int segment : listSegments()) {
+                    if (segment < snapshotGeneration) {
+                        Files.deleteIfExists(segmentPath(segment));
+                    }
+                }
+            } finally {
+                lock.lock();
+                try {
+                    snapshotRunning = false;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the snapshot file through a temporary file and an atomic rename
+     * Held seats are left out, their hold records after the snapshot restore them
+     *
+     * @param snapshotGeneration First journal segment not covered by the snapshot
+     * @param compacted          Inventory rebuilt from the records the snapshot covers
+     * @throws IOException if the snapshot cannot be written
+     */
+    private void writeSnapshot(int snapshotGeneration, ShowingInventory compacted) throws IOException {
+        Path temporary = directory.resolve("snapshot.tmp");
+        int count = compacted.size();
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeLong(SNAPSHOT_MAGIC_GENERATIONS);
+            out.writeInt(snapshotGeneration);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                Showing showing = compacted.get(i);
+                SeatMap seatMap = showing.getSeatMap();
+                long[] words = new long[seatMap.getWordCount()];
+                long[] held = new long[words.length];
+                seatMap.copyWords(words);
+                boolean anyHeld = seatMap.copyHeldWords(held);
+                int[] seatGenerations = new int[seatMap.getCapacity()];
+                out.writeByte(showing.getGenre().ordinal());
+                out.writeByte(showing.getTheaterType().ordinal());
+                out.writeInt(seatMap.getCapacity());
+                for (int w = 0; w < words.length; w++) {
+                    out.writeLong(anyHeld ? words[w] & ~held[w] : words[w]);
+                }
+                writeGenerations(out, seatMap.copyGenerations(seatGenerations) ? seatGenerations : null);
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temporary, directory.resolve("snapshot.bin"),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes the seats of a showing whose booking generation is not 0, as a count and seat and generation pairs
+     *
+     * @param out             The snapshot stream
+     * @param seatGenerations Generation of each seat, null if none is set
+     * @throws IOException if the snapshot cannot be written
+     */
+    private static void writeGenerations(DataOutputStream out, int[] seatGenerations) throws IOException {
+        int count = 0;
+        if (seatGenerations != null) {
+            for (int generation : seatGenerations) {
+                if (generation != 0) {
+                    count++;
+                }
+            }
+        }
+        out.writeInt(count);
+        for (int seat = 0; count > 0; seat++) {
+            if (seatGenerations[seat] != 0) {
+                out.writeInt(seat);
+                out.writeInt(seatGenerations[seat]);
+                count--;
+            }
+        }
+    }
+
+    /**
+     * Loads the snapshot file into an empty inventory if there is one
+     *
+     * @param target The inventory to load into
+     * @return First journal segment not covered by the snapshot, 0 without a snapshot
+     * @throws IOException if the snapshot exists but cannot be read
+     */
+    private int loadSnapshot(ShowingInventory target) throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        Genre[] genres = Genre.values();
+        TheaterType[] theaterTypes = TheaterType.values();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            long magic = in.readLong();
+            if (magic != SNAPSHOT_MAGIC && magic != SNAPSHOT_MAGIC_GENERATIONS) {
+                throw new IOException("Not a booking snapshot: " + path);
+            }
+            int snapshotGeneration = in.readInt();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Genre genre = genres[in.readByte()];
+                TheaterType theaterType = theaterTypes[in.readByte()];
+                SeatMap seatMap = target.register(genre, theaterType, in.readInt()).getSeatMap();
+                long[] words = new long[seatMap.getWordCount()];
+                for (int w = 0; w < words.length; w++) {
+                    words[w] = in.readLong();
+                }
+                seatMap.restoreWords(words);
+                if (magic == SNAPSHOT_MAGIC_GENERATIONS) {
+                    for (int pairs = in.readInt(); pairs > 0; pairs--) {
+                        seatMap.restoreGeneration(in.readInt(), in.readInt());
+                    }
+                }
+            }
+            return snapshotGeneration;
+        }
+    }
+
+    /**
+     * Replays the valid records of a journal segment into an inventory
+     * Stops at the first empty or torn record, which marks the end of the segment
+     *
+     * @param target  The inventory to replay into
+     * @param segment Segment number
+     * @return Offset just after the last valid record
+     * @throws IOException if the segment cannot be read
+     */
+    private int replaySegment(ShowingInventory target, int segment) throws IOException {
+        Genre[] genres = Genre.values();
+        TheaterType[] theaterTypes = TheaterType.values();
+        try (FileChannel in = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+            MappedByteBuffer records = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            int offset = 0;
+            while (offset + RECORD_SIZE <= records.capacity()) {
+                int type = records.getInt(offset);
+                int showingId = records.getInt(offset + 4);
+                int argument = records.getInt(offset + 8);
+                if (type == 0 || records.getInt(offset + 12) != checksum(type, showingId, argument)) {
+                    break;
+                }
+                applyRecord(target, type, showingId, argument, genres, theaterTypes);
+                offset += RECORD_SIZE;
+            }
+            return offset;
+        }
+    }
+
+    /**
+     * Applies one journal record to an inventory
+     * Records already reflected by the snapshot have no effect, so replay is idempotent
+     */
+    private static void applyRecord(ShowingInventory target, int type, int showingId, int argument,
+                                    Genre[] genres, TheaterType[] theaterTypes) {
+        switch (type & 0xFF) {
+            case TYPE_REGISTER:
+                if (showingId == target.size()) {
+                    target.register(genres[(type >>> 8) & 0xFF], theaterTypes[(type >>> 16) & 0xFF], argument);
+                }
+                break;
+            case TYPE_BOOK:
+                Showing booked = target.get(showingId);
+                if (booked != null) {
+                    // Either a direct booking or the confirmation of a hold
+                    booked.getSeatMap().tryBook(argument);
+                    booked.getSeatMap().confirmHold(argument);
+                }
+                break;
+            case TYPE_HOLD:
+                Showing held = target.get(showingId);
+                if (held != null) {
+                    held.getSeatMap().tryBook(argument);
+                    held.getSeatMap().markHeld(argument);
+                }
+                break;
+            case TYPE_RELEASE:
+                Showing released = target.get(showingId);
+                if (released != null) {
+                    released.getSeatMap().confirmHold(argument);
+                    released.getSeatMap().release(argument);
+                }
+                break;
+            case TYPE_CANCEL:
+                Showing cancelled = target.get(showingId);
+                if (cancelled != null) {
+                    // A seat handed to a waiting customer is booked again by the record after this one
+                    cancelled.getSeatMap().restoreGeneration(argument, type >>> 8);
+                    cancelled.getSeatMap().release(argument);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Opens (or creates) a journal segment for appending
+     * Must be called with the lock held or before the journal is shared
+     *
+     * @param segment Segment number
+     * @param offset  Offset just after the last valid record
+     * @throws IOException if the segment cannot be opened
+     */
+    private void openSegment(int segment, int offset) throws IOException {
+        channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), MAP_CHUNK);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        generation = segment;
+        position = offset;
+        flushedPosition = offset;
+    }
+
+    /**
+     * Lists the journal segment numbers in the directory in ascending order
+     *
+     * @return Segment numbers
+     * @throws IOException if the directory cannot be read
+     */
+    private List<Integer> listSegments() throws IOException {
+        List<Integer> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "journal-*.log")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.add(Integer.parseInt(name.substring("journal-".length(), name.length() - ".log".length())));
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve("journal-" + segment + ".log");
+    }
+
+    private static int checksum(int type, int showingId, int argument) {
+        int hash = CHECKSUM_SEED;
+        hash = (hash ^ type) * 0x01000193;
+        hash = (hash ^ showingId) * 0x01000193;
+        hash = (hash ^ argument) * 0x01000193;
+        // Zero marks the end of a segment, so a valid record never has a zero checksum
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Forces every pending record to disk, stops the flusher and closes the current segment
+     *
+     * @throws IOException if the segment cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            forceLocked();
+            closed = true;
+            pending.signalAll();
+            flushed.signalAll();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package inventory;
+
+import prototype_pattern.MovieTicket;
+import prototype_pattern.TicketHandle;
+
+/**
+ * inventory.BookingResult is the immutable outcome of a booking or cancellation request.
+ * It carries the status, the tickets that were booked or the seat that was held, and the availability of the showing
+ * right after the request, so callers need no follow-up availability query.
+ * <p>
+ * Outcomes without any context, such as an invalid selection, are shared constants.
+ * A successful result only records the booked seats; their tickets come from the showing's
+ * ticket pool when asked for, so callers that only need the status allocate no tickets.
+ * Callers that need no result at all book through
+ * singleton_pattern.TicketBookingSystem.bookTicketHandle, which allocates nothing on success.
+ * <p>
+ * Each booked seat keeps the booking generation it was booked under, so its ticket and handle
+ * name this booking and cancelling them can never cancel a later booking of the same seat.
+ */
+public class BookingResult {
+    // Shared result for requests that do not refer to a known showing
+    public static final BookingResult INVALID_SELECTION =
+            new BookingResult(BookingStatus.INVALID_SELECTION, null, -1, null, 0, null, 0, null, 0, 0);
+
+    // Shared results of requests turned away before reaching a showing, by BookingStatus ordinal
+    private static final BookingResult[] REJECTED = new BookingResult[BookingStatus.values().length];
+
+    static {
+        for (BookingStatus status : BookingStatus.values()) {
+            REJECTED[status.ordinal()] = new BookingResult(status, null, -1, null, 0, null, 0, null, 0, 0);
+        }
+    }
+
+    private final BookingStatus status;   // Outcome of the request
+    private final Showing showing;        // Showing of the booked seats, null unless the status is SUCCESS
+    private final int seat;               // First booked seat, -1 unless the status is SUCCESS
+    private final int[] seats;            // All booked seats when there are several, otherwise null
+    private final int generation;         // Booking generation of the first booked seat
+    private final int[] generations;      // Generations of all booked seats when there are several and any is not 0
+    private final int priceCents;         // Price of each booked ticket, or refund of a cancelled one, in cents
+    private final SeatHold hold;          // Seat hold, null unless the status is HELD
+    private final int availableTickets;   // Free seats of the showing after the request
+    private final int capacity;           // Seat capacity of the showing
+
+    private BookingResult(BookingStatus status, Showing showing, int seat, int[] seats, int generation,
+                          int[] generations, int priceCents, SeatHold hold, int availableTickets, int capacity) {
+        this.status = status;
+        this.showing = showing;
+        this.seat = seat;
+        this.seats = seats;
+        this.generation = generation;
+        this.generations = generations;
+        this.priceCents = priceCents;
+        this.hold = hold;
+        this.availableTickets = availableTickets;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates a successful result for a single booked seat of a known booking generation
+     *
+     * @param showing          The showing the seat was booked for
+     * @param seat             Zero-based index of the booked seat
+     * @param generation       Booking generation of the seat, read after claiming it
+     * @param priceCents       Price of the ticket in cents
+     * @param availableTickets Free seats of the showing after the booking
+     * @param capacity         Seat capacity of the showing
+     * @return The result
+     */
+    public static BookingResult success(Showing showing, int seat, int generation, int priceCents,
+                                        int availableTickets, int capacity) {
+        return new BookingResult(BookingStatus.SUCCESS, showing, seat, null, generation, null, priceCents, null,
+                availableTickets, capacity);
+    }
+
+    /**
+     * Creates a successful result for several booked seats of known booking generations
+     *
+     * @param showing          The showing the seats were booked for
+     * @param seats            Zero-based indices of the booked seats, not copied
+     * @param generations      Booking generation of each seat, not copied; null if all are 0
+     * @param priceCents       Price of each ticket in cents
+     * @param availableTickets Free seats of the showing after the booking
+     * @param capacity         Seat capacity of the showing
+     * @return The result
+     */
+    public static BookingResult success(Showing showing, int[] seats, int[] generations, int priceCents,
+                                        int availableTickets, int capacity) {
+        int first = generations == null ? 0 : generations[0];
+        if (seats.length == 1) {
+            return success(showing, seats[0], first, priceCents, availableTickets, capacity);
+        }
+        return new BookingResult(BookingStatus.SUCCESS, showing, seats[0], seats, first, generations, priceCents, null,
+                availableTickets, capacity);
+    }
+
+    /**
+     * Creates a result for a seat that was put on hold
+     *
+     * @param hold             The hold handle
+     * @param availableTickets Free seats of the showing after the hold
+     * @param capacity         Seat capacity of the showing
+     * @return The result
+     */
+    public static BookingResult held(SeatHold hold, int availableTickets, int capacity) {
+        return new BookingResult(BookingStatus.HELD, null, -1, null, 0, null, 0, hold, availableTickets, capacity);
+    }
+
+    /**
+     * Creates a result for a cancelled booking
+     *
+     * @param refundCents      Price refunded for the ticket in cents
+     * @param availableTickets Free seats of the showing after the cancellation
+     * @param capacity         Seat capacity of the showing
+     * @return The result
+     */
+    public static BookingResult cancelled(int refundCents, int availableTickets, int capacity) {
+        return new BookingResult(BookingStatus.CANCELLED, null, -1, null, 0, null, refundCents, null,
+                availableTickets, capacity);
+    }
+
+    /**
+     * Creates a failed result for a known showing
+     *
+     * @param status           Reason of the failure
+     * @param availableTickets Free seats of the showing
+     * @param capacity         Seat capacity of the showing
+     * @return The result
+     */
+    public static BookingResult failure(BookingStatus status, int availableTickets, int capacity) {
+        return new BookingResult(status, null, -1, null, 0, null, 0, null, availableTickets, capacity);
+    }
+
+    /**
+     * Gets the shared result of a request rejected before it reached a showing, such as by
+     * admission control; it carries no availability
+     *
+     * @param status Reason of the rejection
+     * @return The result
+     */
+    public static BookingResult rejected(BookingStatus status) {
+        return REJECTED[status.ordinal()];
+    }
+
+    public BookingStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks whether the tickets were booked
+     *
+     * @return true if the status is SUCCESS
+     */
+    public boolean isSuccess() {
+        return status.isSuccess();
+    }
+
+    /**
+     * Gets the first booked ticket
+     *
+     * @return The ticket, or null if nothing was booked
+     */
+    public MovieTicket getTicket() {
+        return showing == null ? null : showing.getTicket(seat + 1, priceCents, generation);
+    }
+
+    /**
+     * Gets a booked ticket
+     *
+     * @param index Index of the ticket, 0 to getTicketCount() - 1
+     * @return The ticket
+     */
+    public MovieTicket getTicket(int index) {
+        return showing.getTicket(seatAt(index) + 1, priceCents, generationAt(index));
+    }
+
+    /**
+     * Gets a booked ticket packed into a prototype_pattern.TicketHandle, without any allocation
+     *
+     * @param index Index of the ticket, 0 to getTicketCount() - 1
+     * @return The handle of the showing ID, ticket number and generation, which can cancel the booking
+     */
+    public long getTicketHandle(int index) {
+        return TicketHandle.pack(showing.getShowingId(), seatAt(index) + 1, generationAt(index));
+    }
+
+    /**
+     * Gets the number of booked tickets
+     *
+     * @return Number of tickets, 0 if nothing was booked
+     */
+    public int getTicketCount() {
+        return showing == null ? 0 : seats == null ? 1 : seats.length;
+    }
+
+    /**
+     * Gets all booked tickets
+     *
+     * @return A new array of the booked tickets, empty if nothing was booked
+     */
+    public MovieTicket[] getTickets() {
+        MovieTicket[] tickets = new MovieTicket[getTicketCount()];
+        for (int i = 0; i < tickets.length; i++) {
+            tickets[i] = getTicket(i);
+        }
+        return tickets;
+    }
+
+    /**
+     * Gets the price of each booked ticket
+     *
+     * @return The price in cents, 0 if nothing was booked or the tickets were not priced
+     */
+    public int getPriceCents() {
+        return priceCents;
+    }
+
+    /**
+     * Gets the amount refunded for a cancelled ticket
+     *
+     * @return The refund in cents, 0 unless the status is CANCELLED
+     */
+    public int getRefundCents() {
+        return status == BookingStatus.CANCELLED ? priceCents : 0;
+    }
+
+    /**
+     * Gets the price of all booked tickets
+     *
+     * @return The total in cents
+     */
+    public long getTotalPriceCents() {
+        return (long) priceCents * getTicketCount();
+    }
+
+    /**
+     * Gets the seat of a booked ticket
+     *
+     * @param index Index of the ticket
+     * @return Zero-based seat index
+     */
+    private int seatAt(int index) {
+        if (index < 0 || index >= getTicketCount()) {
+            throw new IndexOutOfBoundsException("Ticket " + index + " of " + getTicketCount());
+        }
+        return seats == null ? seat : seats[index];
+    }
+
+    /**
+     * Gets the booking generation of the seat of a booked ticket
+     *
+     * @param index Index of the ticket, already checked by seatAt
+     * @return The generation
+     */
+    private int generationAt(int index) {
+        return generations == null ? generation : generations[index];
+    }
+
+    /**
+     * Gets the seat hold created by the request
+     *
+     * @return The hold, or null if the request did not put a seat on hold
+     */
+    public SeatHold getHold() {
+        return hold;
+    }
+
+    public int getAvailableTickets() {
+        return availableTickets;
+    }
+
+    public int getBookedTickets() {
+        return capacity - availableTickets;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the message shown to users for this result
+     *
+     * @return The message
+     */
+    public String getMessage() {
+        switch (status) {
+            case SUCCESS:
+                return getTicketCount() > 1 ? "Tickets booked successfully!" : status.getMessage();
+            case INVALID_TICKET_NUMBER:
+                return "Ticket number must be between 1 and " + capacity + ".";
+            default:
+                return status.getMessage();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BookingResult [Status: " + status + ", Tickets: " + getTicketCount()
+                + ", Available: " + availableTickets + "/" + capacity + "]";
+    }
+}
@@ -0,0 +1,68 @@
+package inventory;
+
+/**
+ * inventory.BookingStatus enumerates the outcomes of a booking or cancellation request.
+ * Callers branch on the status instead of matching message strings.
+ */
+public enum BookingStatus {
+    SUCCESS("Ticket booked successfully!"),
+    HELD("Ticket held, please complete the booking before the hold expires."),
+    HOLD_EXPIRED("The hold on this ticket has expired."),
+    INVALID_SELECTION("Invalid selection."),
+    INVALID_TICKET_NUMBER("Ticket number is out of range."),
+    ALREADY_BOOKED("This ticket number is already booked."),
+    SOLD_OUT("No remaining tickets for this selection."),
+    NO_ADJACENT_SEATS("Not enough adjacent tickets remaining for this selection."),
+    CONTENDED("Tickets are being booked too quickly, please try again."),
+    RATE_LIMITED("Too many booking requests, please slow down."),
+    SHOWING_BUSY("This showing is very busy right now, please try again shortly."),
+    CANCELLED("Ticket cancelled, the price paid was refunded."),
+    NOT_CANCELLABLE("This ticket is not booked or was already cancelled.");
+
+    private static final BookingStatus[] VALUES = values();
+
+    // Default message shown to users for this outcome
+    private final String message;
+
+    BookingStatus(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Gets the default message shown to users for this outcome
+     *
+     * @return The message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Checks whether this status means the tickets were booked
+     *
+     * @return true for SUCCESS, false otherwise
+     */
+    public boolean isSuccess() {
+        return this == SUCCESS;
+    }
+
+    /**
+     * Encodes this status as the result of a booking that returns a ticket handle
+     * Ticket handles of real showings are never negative, so the two cannot be confused
+     *
+     * @return A negative value naming this status
+     */
+    public long asFailedHandle() {
+        return -1L - ordinal();
+    }
+
+    /**
+     * Gets the status of a booking that returned a ticket handle
+     *
+     * @param handle A prototype_pattern.TicketHandle, or a value from asFailedHandle
+     * @return SUCCESS for a ticket handle, otherwise the encoded status
+     */
+    public static BookingStatus ofHandle(long handle) {
+        return handle >= 0 ? SUCCESS : VALUES[(int) (-1L - handle)];
+    }
+}
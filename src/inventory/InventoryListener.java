@@ -0,0 +1,20 @@
+package inventory;
+
+/**
+ * inventory.InventoryListener is notified when the availability of a showing changes.
+ * Listeners are called on a dispatcher thread of the inventory feed, once per showing changed
+ * in a batch of seat changes, so bookings never wait for them; they must still hand slow
+ * work, such as GUI updates, to another thread to keep up with the feed.
+ */
+public interface InventoryListener {
+
+    /**
+     * Called after seats of a showing were booked, held or released
+     * Bursts of changes to the same showing may be reported once, with the latest availability
+     *
+     * @param showingId        The showing ID
+     * @param availableTickets Free seats of the showing after the change
+     * @param capacity         Seat capacity of the showing
+     */
+    void onAvailabilityChanged(int showingId, int availableTickets, int capacity);
+}
@@ -0,0 +1,118 @@
+package inventory;
+
+import movie_factory_pattern.Genre;
+import theatre_factory_pattern.TheaterType;
+
+/**
+ * inventory.InventorySnapshot is an immutable copy of the seat counts of every registered
+ * showing, taken in one pass over the inventory.
+ * <p>
+ * The counts of each showing come from a single consistent read of its seat map, so available,
+ * booked and held seats always add up to its capacity. Showings are read one after another
+ * without stopping bookings, so a snapshot taken while bookings run shows each showing as it
+ * was at a slightly different moment.
+ * <p>
+ * Counts are kept in flat arrays indexed by showing ID; reading them allocates nothing.
+ */
+public final class InventorySnapshot {
+    private final Genre[] genres;
+    private final TheaterType[] theaterTypes;
+    private final int[] capacities;
+    private final int[] available;
+    private final int[] held;
+
+    // Totals over all showings
+    private final long totalCapacity;
+    private final long totalAvailable;
+    private final long totalHeld;
+
+    /**
+     * Creates a snapshot from filled count arrays, which it takes over
+     */
+    InventorySnapshot(Genre[] genres, TheaterType[] theaterTypes, int[] capacities, int[] available, int[] held) {
+        this.genres = genres;
+        this.theaterTypes = theaterTypes;
+        this.capacities = capacities;
+        this.available = available;
+        this.held = held;
+        long capacitySum = 0;
+        long availableSum = 0;
+        long heldSum = 0;
+        for (int i = 0; i < capacities.length; i++) {
+            capacitySum += capacities[i];
+            availableSum += available[i];
+            heldSum += held[i];
+        }
+        this.totalCapacity = capacitySum;
+        this.totalAvailable = availableSum;
+        this.totalHeld = heldSum;
+    }
+
+    /**
+     * Gets the number of showings in the snapshot
+     * Showing IDs range from 0 to this value minus one
+     *
+     * @return Number of showings
+     */
+    public int getShowingCount() {
+        return capacities.length;
+    }
+
+    public Genre getGenre(int showingId) {
+        return genres[showingId];
+    }
+
+    public TheaterType getTheaterType(int showingId) {
+        return theaterTypes[showingId];
+    }
+
+    public int getCapacity(int showingId) {
+        return capacities[showingId];
+    }
+
+    /**
+     * Gets the seats of a showing that were neither booked nor held
+     *
+     * @param showingId The showing ID
+     * @return Number of available seats
+     */
+    public int getAvailableTickets(int showingId) {
+        return available[showingId];
+    }
+
+    /**
+     * Gets the booked seats of a showing, not counting held seats
+     *
+     * @param showingId The showing ID
+     * @return Number of booked seats
+     */
+    public int getBookedTickets(int showingId) {
+        return capacities[showingId] - available[showingId] - held[showingId];
+    }
+
+    public int getHeldTickets(int showingId) {
+        return held[showingId];
+    }
+
+    public long getTotalCapacity() {
+        return totalCapacity;
+    }
+
+    public long getTotalAvailable() {
+        return totalAvailable;
+    }
+
+    public long getTotalBooked() {
+        return totalCapacity - totalAvailable - totalHeld;
+    }
+
+    public long getTotalHeld() {
+        return totalHeld;
+    }
+
+    @Override
+    public String toString() {
+        return "InventorySnapshot [Showings: " + capacities.length + ", Available: " + totalAvailable
+                + "/" + totalCapacity + ", Held: " + totalHeld + "]";
+    }
+}
@@ -0,0 +1,117 @@
+package inventory;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * inventory.PaidPrices remembers what was paid for the current booking of each seat of a showing,
+ * so a cancelled booking is refunded its price whatever the seat costs now.
+ * <p>
+ * A showing only charges a handful of distinct prices, one per pricing tier and rule set, so each
+ * seat stores a one-byte index into a palette of the prices charged so far instead of the price
+ * itself. That keeps the cost per seat at a byte, next to the bit of the seat map. The palette
+ * grows copy-on-write under a lock, which only happens the first time a price is charged; seats
+ * sold at further prices once it is full keep their price in an overflow map.
+ * <p>
+ * Indexes are plain array stores. A booking records its price before it hands out its ticket
+ * handle, and a cancellation needs that handle, so it always reads the price of its own booking.
+ */
+final class PaidPrices {
+    // Largest palette, the last index marks a price kept in the overflow map
+    private static final int MAX_PALETTE = 255;
+    private static final byte OVERFLOW = (byte) MAX_PALETTE;
+
+    // Palette index of the price paid for each seat
+    private final byte[] indexes;
+
+    // Distinct prices charged so far, index 0 is the unpriced booking
+    private volatile int[] palette = {0};
+
+    // Prices of seats sold once the palette was full, created when it fills up
+    private volatile ConcurrentHashMap<Integer, Integer> overflow;
+
+    /**
+     * Creates paid prices where every seat is unpriced
+     *
+     * @param capacity Number of seats of the showing
+     */
+    PaidPrices(int capacity) {
+        this.indexes = new byte[capacity];
+    }
+
+    /**
+     * Remembers the price paid for a booked seat
+     *
+     * @param seat       Zero-based seat index
+     * @param priceCents The price in cents
+     */
+    void record(int seat, int priceCents) {
+        // Most bookings pay the price charged last; the rest is kept out of the inlined booking path
+        int[] current = palette;
+        int last = current.length - 1;
+        if (current[last] == priceCents) {
+            indexes[seat] = (byte) last;
+        } else {
+            recordOtherPrice(seat, priceCents);
+        }
+    }
+
+    /**
+     * Remembers a price other than the one charged last
+     *
+     * @param seat       Zero-based seat index
+     * @param priceCents The price in cents
+     */
+    private void recordOtherPrice(int seat, int priceCents) {
+        int[] current = palette;
+        for (int i = current.length - 2; i >= 0; i--) {
+            if (current[i] == priceCents) {
+                indexes[seat] = (byte) i;
+                return;
+            }
+        }
+        recordNewPrice(seat, priceCents);
+    }
+
+    /**
+     * Remembers a price missing from the palette, adding it if there is room
+     *
+     * @param seat       Zero-based seat index
+     * @param priceCents The price in cents
+     */
+    private synchronized void recordNewPrice(int seat, int priceCents) {
+        int[] current = palette;
+        for (int i = current.length - 1; i >= 0; i--) {
+            if (current[i] == priceCents) {
+                indexes[seat] = (byte) i;
+                return;
+            }
+        }
+        if (current.length < MAX_PALETTE) {
+            int[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = priceCents;
+            palette = grown;
+            indexes[seat] = (byte) current.length;
+            return;
+        }
+        if (overflow == null) {
+            overflow = new ConcurrentHashMap<>();
+        }
+        overflow.put(seat, priceCents);
+        indexes[seat] = OVERFLOW;
+    }
+
+    /**
+     * Gets the price paid for the current booking of a seat
+     *
+     * @param seat Zero-based seat index
+     * @return The price in cents
+     */
+    int get(int seat) {
+        byte index = indexes[seat];
+        if (index == OVERFLOW) {
+            return overflow.getOrDefault(seat, 0);
+        }
+        return palette[index & 0xFF];
+    }
+}
@@ -0,0 +1,81 @@
+package inventory;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * inventory.SeatHold is the handle of a seat held during checkout.
+ * The hold is either confirmed into a booking or released, by the customer or by expiry;
+ * a compare-and-set on its state decides which of them wins when they race.
+ */
+public class SeatHold {
+    // States of a hold
+    private static final int HELD = 0;
+    private static final int CONFIRMED = 1;
+    private static final int RELEASED = 2;
+
+    // Updater for state, avoids a separate AtomicInteger object per hold
+    private static final AtomicIntegerFieldUpdater<SeatHold> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(SeatHold.class, "state");
+
+    private final int showingId;      // Showing the seat belongs to
+    private final int ticketNumber;   // Held ticket number (1 to the showing's capacity)
+    private final long expiresAt;     // System.currentTimeMillis() at which the hold expires
+    private volatile int state = HELD;
+
+    /**
+     * Creates a hold in the held state
+     *
+     * @param showingId    The showing ID
+     * @param ticketNumber The held ticket number
+     * @param expiresAt    Expiry time in milliseconds since the epoch
+     */
+    public SeatHold(int showingId, int ticketNumber, long expiresAt) {
+        this.showingId = showingId;
+        this.ticketNumber = ticketNumber;
+        this.expiresAt = expiresAt;
+    }
+
+    public int getShowingId() {
+        return showingId;
+    }
+
+    public int getTicketNumber() {
+        return ticketNumber;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Checks whether the hold is still waiting to be confirmed or released
+     *
+     * @return true if the seat is still held
+     */
+    public boolean isActive() {
+        return state == HELD;
+    }
+
+    /**
+     * Moves the hold to the confirmed state
+     *
+     * @return true if the hold was still active, false if it was already confirmed or released
+     */
+    public boolean markConfirmed() {
+        return STATE.compareAndSet(this, HELD, CONFIRMED);
+    }
+
+    /**
+     * Moves the hold to the released state
+     *
+     * @return true if the hold was still active, false if it was already confirmed or released
+     */
+    public boolean markReleased() {
+        return STATE.compareAndSet(this, HELD, RELEASED);
+    }
+
+    @Override
+    public String toString() {
+        return "SeatHold [Showing: " + showingId + ", Ticket Number: " + ticketNumber + ", Expires At: " + expiresAt + "]";
+    }
+}
@@ -0,0 +1,719 @@
+package inventory;
+
+import prototype_pattern.TicketHandle;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * inventory.SeatMap tracks the booking status of every seat of a single showing.
+ * Seats are stored as bits packed into an AtomicLongArray, one bit per seat.
+ * <p>
+ * A seat is claimed with a single compare-and-set on the word holding its bit,
+ * so concurrent bookings of the same seat can never both succeed and bookings of
+ * different seats never wait on each other.
+ * <p>
+ * The booked count is kept next to the bitmap so availability queries are constant time,
+ * and a showing costs one bit per seat instead of one byte per seat.
+ * <p>
+ * A seat can also be held during checkout: it is claimed like a booking, so nobody else can
+ * take it, and additionally marked in a second bitmap that is only allocated for showings
+ * that ever had a hold. Confirming the hold clears the mark, releasing it frees the seat.
+ * <p>
+ * The claimed count shares a long with a change counter, so a single atomic add per claim or
+ * release maintains both; snapshot uses the counter to copy the bitmap without locking.
+ * <p>
+ * Each seat also has a booking generation, advanced whenever a booking of the seat is cancelled,
+ * so a cancellation names the booking it cancels and a stale one cannot free the seat of a later
+ * booking. Generations live in an array only allocated for showings that ever had a cancellation
+ * or a hold. A held seat also carries HELD_FLAG in its generation entry, so a cancellation checks
+ * the hold and the generation in the same compare-and-set and can never cancel a hold. Ticket
+ * handles keep 16 bits of the generation; instead of wrapping, a seat whose generation reached
+ * TicketHandle.GENERATION_MASK can no longer be cancelled, so a handle never matches a later
+ * booking of its seat.
+ */
+public class SeatMap {
+    // Number of seats stored in a single long word
+    private static final int BITS_PER_WORD = 64;
+
+    // Added to claimState by a claim and by a release: the low half counts claimed seats, the high half counts changes
+    private static final long CLAIM = 1L + (1L << 32);
+    private static final long RELEASE = -1L + (1L << 32);
+
+    // Set in the generation entry of a seat while it is held or a hold is claiming or freeing it
+    private static final int HELD_FLAG = Integer.MIN_VALUE;
+
+    // Copies a snapshot tries before it settles for a copy taken while seats changed
+    private static final int MAX_SNAPSHOT_ATTEMPTS = 64;
+
+    // Updaters for the claim counter and the lazy arrays, avoid separate atomic objects per showing
+    private static final AtomicLongFieldUpdater<SeatMap> CLAIM_STATE =
+            AtomicLongFieldUpdater.newUpdater(SeatMap.class, "claimState");
+    private static final AtomicReferenceFieldUpdater<SeatMap, AtomicLongArray> HELD_WORDS =
+            AtomicReferenceFieldUpdater.newUpdater(SeatMap.class, AtomicLongArray.class, "heldWords");
+    private static final AtomicReferenceFieldUpdater<SeatMap, AtomicIntegerArray> GENERATIONS =
+            AtomicReferenceFieldUpdater.newUpdater(SeatMap.class, AtomicIntegerArray.class, "generations");
+
+    // Total number of seats of the showing
+    private final int capacity;
+
+    // Packed claim bits, bit (seat % 64) of word (seat / 64) is set when the seat is booked or held
+    private final AtomicLongArray words;
+
+    // Packed hold bits, same layout as words, null until the first hold on this showing
+    private volatile AtomicLongArray heldWords;
+
+    // Booking generation per seat plus HELD_FLAG, null until the first cancellation or hold on this showing
+    private volatile AtomicIntegerArray generations;
+
+    // Number of set bits in words in the low 32 bits, number of claims and releases so far in
+    // the high 32 bits; updated after every successful claim or release
+    private volatile long claimState;
+
+    // Number of set bits in heldWords, only changed while synchronized on this seat map so
+    // readCounts can hold it still; holds are rare next to bookings, which never lock
+    private volatile int heldCount;
+
+    /**
+     * Creates an empty seat map where every seat is available
+     *
+     * @param capacity Number of seats of the showing
+     */
+    public SeatMap(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.words = new AtomicLongArray((capacity + BITS_PER_WORD - 1) / BITS_PER_WORD);
+    }
+
+    /**
+     * Gets the number of seats of the showing
+     *
+     * @return Total seat count
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Atomically claims a seat
+     * Retries only when another seat in the same word changed concurrently
+     *
+     * @param seat Zero-based seat index
+     * @return true if the seat was free and is now booked, false if it was already booked
+     */
+    public boolean tryBook(int seat) {
+        return claim(seat) >= 0;
+    }
+
+    /**
+     * Atomically claims a seat and tells how many seats were claimed before it
+     * The count is the one the claim itself added to, so concurrent claims cannot change it
+     *
+     * @param seat Zero-based seat index
+     * @return Number of claimed seats just before this claim, or -1 if the seat was already booked
+     */
+    public int claim(int seat) {
+        int index = seat / BITS_PER_WORD;
+        long mask = 1L << (seat % BITS_PER_WORD);
+        while (true) {
+            long current = words.get(index);
+            if ((current & mask) != 0) {
+                return -1;
+            }
+            if (words.compareAndSet(index, current, current | mask)) {
+                return (int) CLAIM_STATE.getAndAdd(this, CLAIM);
+            }
+        }
+    }
+
+    /**
+     * Atomically frees a booked seat
+     *
+     * @param seat Zero-based seat index
+     * @return true if the seat was booked and is now free, false if it was already free
+     */
+    public boolean release(int seat) {
+        int index = seat / BITS_PER_WORD;
+        long mask = 1L << (seat % BITS_PER_WORD);
+        while (true) {
+            long current = words.get(index);
+            if ((current & mask) == 0) {
+                return false;
+            }
+            if (words.compareAndSet(index, current, current & ~mask)) {
+                CLAIM_STATE.addAndGet(this, RELEASE);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically claims a seat and marks it as held
+     * Nobody else can book the seat until the hold is confirmed or released. HELD_FLAG is set
+     * before the seat is claimed, so no cancellation can slip in between the claim and the hold.
+     * A flag left on a free seat belongs to a hold that is still claiming or releasing it, and
+     * this waits for it instead of failing
+     *
+     * @param seat Zero-based seat index
+     * @return true if the seat was free and is now held, false if it was already taken
+     */
+    public boolean tryHold(int seat) {
+        AtomicIntegerArray current = generationArray();
+        while (true) {
+            int value = current.get(seat);
+            if (isBooked(seat)) {
+                return false;
+            }
+            if ((value & HELD_FLAG) != 0) {
+                // A hold is between setting its flag and claiming the seat, or between freeing
+                // the seat and clearing its flag, rare and short
+                Thread.yield();
+                continue;
+            }
+            if (current.compareAndSet(seat, value, value | HELD_FLAG)) {
+                break;
+            }
+        }
+        if (!tryBook(seat)) {
+            clearHeldFlag(current, seat);
+            return false;
+        }
+        if (setBit(heldBitmap(), seat, true)) {
+            addHeld(1);
+        }
+        return true;
+    }
+
+    /**
+     * Turns a held seat into a booked seat
+     *
+     * @param seat Zero-based seat index
+     * @return true if the seat was held, false otherwise
+     */
+    public boolean confirmHold(int seat) {
+        if (!clearHeldBit(seat)) {
+            return false;
+        }
+        clearHeldFlag(generations, seat);
+        return true;
+    }
+
+    /**
+     * Frees a held seat
+     * The seat is freed before HELD_FLAG is cleared, so it is never booked and cancellable
+     * without being the hold's; a tryHold of the seat in between waits for the flag to clear
+     *
+     * @param seat Zero-based seat index
+     * @return true if the seat was held and is now free, false otherwise
+     */
+    public boolean releaseHold(int seat) {
+        if (!clearHeldBit(seat)) {
+            return false;
+        }
+        release(seat);
+        clearHeldFlag(generations, seat);
+        return true;
+    }
+
+    /**
+     * Clears the bit of a seat in the held bitmap
+     *
+     * @param seat Zero-based seat index
+     * @return true if the seat was held, false otherwise
+     */
+    private boolean clearHeldBit(int seat) {
+        AtomicLongArray held = heldWords;
+        if (held == null || !setBit(held, seat, false)) {
+            return false;
+        }
+        addHeld(-1);
+        return true;
+    }
+
+    /**
+     * Changes the held count
+     *
+     * @param delta 1 for a new hold, -1 for a confirmed or released one
+     */
+    private synchronized void addHeld(int delta) {
+        heldCount += delta;
+    }
+
+    /**
+     * Clears HELD_FLAG of a seat; only the hold that set it clears it
+     *
+     * @param current The generation array
+     * @param seat    Zero-based seat index
+     */
+    private static void clearHeldFlag(AtomicIntegerArray current, int seat) {
+        current.getAndUpdate(seat, value -> value & ~HELD_FLAG);
+    }
+
+    /**
+     * Gets the booking generation of a seat, the number of its bookings that were cancelled
+     * A booking reads it right after claiming the seat: only cancelling a booking advances it,
+     * and the seat is claimed until the booking is cancelled
+     *
+     * @param seat Zero-based seat index
+     * @return The generation, 0 if no booking of the showing was ever cancelled
+     */
+    public int getGeneration(int seat) {
+        AtomicIntegerArray current = generations;
+        return current == null ? 0 : current.get(seat) & ~HELD_FLAG;
+    }
+
+    /**
+     * Wins the right to cancel a booking of a seat by advancing its generation
+     * Of several cancellations of the same booking exactly one succeeds, and a cancellation of an
+     * older booking of a seat that was booked again fails. The seat stays claimed, so nobody can
+     * book it in between; the caller then frees it with release or hands it to another customer.
+     * The compare-and-set that advances the generation also checks HELD_FLAG, so a held seat is
+     * never cancelled; while a hold is only claiming or freeing the seat, this waits for it
+     *
+     * @param seat       Zero-based seat index
+     * @param generation Generation of the booking, compared on the bits a TicketHandle keeps
+     * @return The new generation of the seat, or -1 if the seat is not booked by that booking or
+     * its generation reached TicketHandle.GENERATION_MASK
+     */
+    public int tryCancel(int seat, int generation) {
+        if (!isBooked(seat)) {
+            return -1;
+        }
+        AtomicIntegerArray current = generationArray();
+        while (true) {
+            int value = current.get(seat);
+            if ((value & HELD_FLAG) != 0) {
+                if (isHeld(seat)) {
+                    return -1;
+                }
+                // A hold is between setting its flag and marking the seat, rare and short
+                Thread.yield();
+                continue;
+            }
+            if (((value ^ generation) & TicketHandle.GENERATION_MASK) != 0 || !isBooked(seat)
+                    || value == TicketHandle.GENERATION_MASK) {
+                return -1;
+            }
+            if (current.compareAndSet(seat, value, value + 1)) {
+                return value + 1;
+            }
+        }
+    }
+
+    /**
+     * Gets the generation array, allocating it on the first cancellation or hold of this showing
+     *
+     * @return The generation array
+     */
+    private AtomicIntegerArray generationArray() {
+        AtomicIntegerArray current = generations;
+        if (current == null) {
+            GENERATIONS.compareAndSet(this, null, new AtomicIntegerArray(capacity));
+            current = generations;
+        }
+        return current;
+    }
+
+    /**
+     * Checks whether a seat is held
+     *
+     * @param seat Zero-based seat index
+     * @return true if the seat is held, false otherwise
+     */
+    public boolean isHeld(int seat) {
+        AtomicLongArray held = heldWords;
+        return held != null && (held.get(seat / BITS_PER_WORD) & (1L << (seat % BITS_PER_WORD))) != 0;
+    }
+
+    /**
+     * Gets the held bitmap, allocating it on the first hold of this showing
+     *
+     * @return The held bitmap
+     */
+    private AtomicLongArray heldBitmap() {
+        AtomicLongArray held = heldWords;
+        if (held == null) {
+            HELD_WORDS.compareAndSet(this, null, new AtomicLongArray(words.length()));
+            held = heldWords;
+        }
+        return held;
+    }
+
+    /**
+     * Atomically sets or clears one bit of a bitmap
+     *
+     * @param bitmap The bitmap
+     * @param seat   Zero-based seat index
+     * @param value  true to set the bit, false to clear it
+     * @return true if the bit changed, false if it already had the value
+     */
+    private static boolean setBit(AtomicLongArray bitmap, int seat, boolean value) {
+        int index = seat / BITS_PER_WORD;
+        long mask = 1L << (seat % BITS_PER_WORD);
+        while (true) {
+            long current = bitmap.get(index);
+            if (((current & mask) != 0) == value) {
+                return false;
+            }
+            long updated = value ? current | mask : current & ~mask;
+            if (bitmap.compareAndSet(index, current, updated)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Claims a set of seats all-or-nothing
+     * Seats are claimed one by one; if any of them is already booked, the seats claimed
+     * so far by this call are released again and nothing stays booked
+     *
+     * @param seats Zero-based seat indices, must all be within the capacity
+     * @return true if every seat was claimed, false if none was
+     */
+    public boolean tryBookAll(int[] seats) {
+        return claimAll(seats) >= 0;
+    }
+
+    /**
+     * Claims a set of seats all-or-nothing and tells how many seats were claimed before them
+     *
+     * @param seats Zero-based seat indices, must all be within the capacity
+     * @return Number of claimed seats just before the first seat was claimed, or -1 if none was claimed
+     */
+    public int claimAll(int[] seats) {
+        int claimedBefore = (int) claimState;
+        for (int i = 0; i < seats.length; i++) {
+            int claimed = claim(seats[i]);
+            if (claimed == -1) {
+                // Roll back the seats claimed before the conflict
+                for (int j = 0; j < i; j++) {
+                    release(seats[j]);
+                }
+                return -1;
+            }
+            if (i == 0) {
+                claimedBefore = claimed;
+            }
+        }
+        return claimedBefore;
+    }
+
+    /**
+     * Finds the lowest-numbered run of adjacent free seats
+     *
+     * @param count Number of adjacent seats needed
+     * @return Zero-based index of the first seat of the run, or -1 if no run is long enough
+     */
+    public int findContiguousFree(int count) {
+        int seat = nextFreeSeat(0);
+        while (seat != -1) {
+            int end = nextBookedSeat(seat);
+            if (end - seat >= count) {
+                return seat;
+            }
+            seat = nextFreeSeat(end);
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a seat is taken, either booked or held
+     *
+     * @param seat Zero-based seat index
+     * @return true if the seat is booked or held, false otherwise
+     */
+    public boolean isBooked(int seat) {
+        return (words.get(seat / BITS_PER_WORD) & (1L << (seat % BITS_PER_WORD))) != 0;
+    }
+
+    /**
+     * Finds the first free seat at or after the given seat
+     * Skips fully booked words 64 seats at a time
+     *
+     * @param fromSeat Zero-based seat index to start searching from
+     * @return Zero-based index of the next free seat, or -1 if there is none
+     */
+    public int nextFreeSeat(int fromSeat) {
+        if (fromSeat < 0) {
+            fromSeat = 0;
+        }
+        if (fromSeat >= capacity) {
+            return -1;
+        }
+        int index = fromSeat / BITS_PER_WORD;
+        // Ignore the seats before fromSeat in its own word
+        long free = ~words.get(index) & (-1L << (fromSeat % BITS_PER_WORD));
+        while (true) {
+            if (free != 0) {
+                int seat = index * BITS_PER_WORD + Long.numberOfTrailingZeros(free);
+                return seat < capacity ? seat : -1;
+            }
+            if (++index == words.length()) {
+                return -1;
+            }
+            free = ~words.get(index);
+        }
+    }
+
+    /**
+     * Finds the first booked seat at or after the given seat
+     *
+     * @param fromSeat Zero-based seat index to start searching from
+     * @return Zero-based index of the next booked seat, or the capacity if there is none
+     */
+    private int nextBookedSeat(int fromSeat) {
+        if (fromSeat >= capacity) {
+            return capacity;
+        }
+        int index = fromSeat / BITS_PER_WORD;
+        long booked = words.get(index) & (-1L << (fromSeat % BITS_PER_WORD));
+        while (true) {
+            if (booked != 0) {
+                return Math.min(index * BITS_PER_WORD + Long.numberOfTrailingZeros(booked), capacity);
+            }
+            if (++index == words.length()) {
+                return capacity;
+            }
+            booked = words.get(index);
+        }
+    }
+
+    /**
+     * Gets the number of booked seats, not counting held seats
+     * Constant time, read from the counters maintained by the claim, hold and release methods
+     *
+     * @return Number of booked seats
+     */
+    public int getBookedCount() {
+        return (int) claimState - heldCount;
+    }
+
+    /**
+     * Gets the number of held seats
+     *
+     * @return Number of held seats
+     */
+    public int getHeldCount() {
+        return heldCount;
+    }
+
+    /**
+     * Gets the number of seats that are still free, neither booked nor held
+     *
+     * @return Number of available seats
+     */
+    public int getAvailableCount() {
+        return capacity - (int) claimState;
+    }
+
+    /**
+     * Reads the claimed and held seat counts as they were at one instant
+     * The held count is read between two reads of claimState; if no claim or release completed
+     * in between, the pair existed at the moment the held count was read. Confirming a hold only
+     * changes the held count, so it cannot tear the pair either. Under a constant stream of
+     * claims and releases it gives up after MAX_SNAPSHOT_ATTEMPTS tries and reads claimState
+     * while holding the lock that every change of the held count takes, so the held count stands
+     * still and the pair existed at the moment claimState was read; bookings are not blocked
+     *
+     * @return The claimed count in the high 32 bits and the held count in the low 32 bits
+     */
+    long readCounts() {
+        long before = claimState;
+        for (int attempt = 1; attempt < MAX_SNAPSHOT_ATTEMPTS; attempt++) {
+            int held = heldCount;
+            long after = claimState;
+            if (before == after) {
+                return packCounts(after, held);
+            }
+            before = after;
+        }
+        synchronized (this) {
+            return packCounts(claimState, heldCount);
+        }
+    }
+
+    /**
+     * Packs a claim state and a held count into the value returned by readCounts
+     */
+    private static long packCounts(long claimState, int held) {
+        return ((long) (int) claimState << 32) | (held & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Takes a snapshot of every seat without locking
+     * Copies both bitmaps and keeps the copy only if no claim or release completed meanwhile and
+     * the copied bits agree with the counters, so the copy is a state the seat map really was in
+     * rather than a mix of words from different moments. Multi-seat bookings claim their seats one
+     * at a time, so a snapshot may show part of one in progress. Under a constant stream of changes
+     * it gives up after MAX_SNAPSHOT_ATTEMPTS copies and returns the last one, which is still
+     * exact for each 64-seat word
+     *
+     * @return The snapshot
+     */
+    public SeatMapSnapshot snapshot() {
+        int wordCount = words.length();
+        long[] claimed = new long[wordCount];
+        long[] held = new long[wordCount];
+        long after = 0;
+        for (int attempt = 0; attempt < MAX_SNAPSHOT_ATTEMPTS; attempt++) {
+            long before = claimState;
+            int heldBefore = heldCount;
+            copyWords(claimed);
+            if (!copyHeldWords(held)) {
+                Arrays.fill(held, 0L);
+            }
+            after = claimState;
+            if (before == after && heldBefore == heldCount
+                    && bitCount(claimed) == (int) after && bitCount(held) == heldBefore) {
+                break;
+            }
+            Thread.onSpinWait();
+        }
+        return new SeatMapSnapshot(capacity, claimed, held, after >>> 32);
+    }
+
+    /**
+     * Counts the set bits of copied bitmap words
+     *
+     * @param bitmap The words
+     * @return Number of set bits
+     */
+    private static int bitCount(long[] bitmap) {
+        int count = 0;
+        for (long word : bitmap) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of long words backing the bitmap
+     *
+     * @return Number of words
+     */
+    int getWordCount() {
+        return words.length();
+    }
+
+    /**
+     * Copies the bitmap words into an array, one atomic read per word
+     * Used by inventory.BookingJournal to write snapshots
+     *
+     * @param destination Array of at least getWordCount() longs
+     */
+    void copyWords(long[] destination) {
+        for (int i = 0; i < words.length(); i++) {
+            destination[i] = words.get(i);
+        }
+    }
+
+    /**
+     * Copies the held bitmap words into an array
+     *
+     * @param destination Array of at least getWordCount() longs
+     * @return false if this showing never had a hold and nothing was copied
+     */
+    boolean copyHeldWords(long[] destination) {
+        AtomicLongArray held = heldWords;
+        if (held == null) {
+            return false;
+        }
+        for (int i = 0; i < held.length(); i++) {
+            destination[i] = held.get(i);
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the bitmap with previously copied words and recounts the claimed seats
+     * Only used while recovering, before the seat map is visible to bookings
+     *
+     * @param source Words previously produced by copyWords
+     */
+    void restoreWords(long[] source) {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, source[i]);
+        }
+        claimState = countBookedSeats();
+    }
+
+    /**
+     * Copies the booking generations of all seats into an array
+     *
+     * @param destination Array of at least getCapacity() ints
+     * @return false if no booking of this showing was ever cancelled and nothing was copied
+     */
+    boolean copyGenerations(int[] destination) {
+        AtomicIntegerArray current = generations;
+        if (current == null) {
+            return false;
+        }
+        for (int i = 0; i < capacity; i++) {
+            destination[i] = current.get(i) & ~HELD_FLAG;
+        }
+        return true;
+    }
+
+    /**
+     * Sets the booking generation of a seat
+     * Only used while recovering, before the seat map is visible to bookings
+     *
+     * @param seat       Zero-based seat index
+     * @param generation The generation
+     */
+    void restoreGeneration(int seat, int generation) {
+        if (generation != 0 || generations != null) {
+            generationArray().getAndUpdate(seat, value -> (value & HELD_FLAG) | generation);
+        }
+    }
+
+    /**
+     * Marks a claimed seat as held without claiming it
+     * Only used while replaying the journal
+     *
+     * @param seat Zero-based seat index
+     */
+    void markHeld(int seat) {
+        AtomicIntegerArray current = generationArray();
+        if (setBit(heldBitmap(), seat, true)) {
+            addHeld(1);
+            current.getAndUpdate(seat, value -> value | HELD_FLAG);
+        }
+    }
+
+    /**
+     * Frees every held seat, used at the end of recovery since holds do not survive restarts
+     */
+    void releaseAllHolds() {
+        AtomicLongArray held = heldWords;
+        if (held == null) {
+            return;
+        }
+        for (int i = 0; i < held.length(); i++) {
+            long bits = held.get(i);
+            while (bits != 0) {
+                releaseHold(i * BITS_PER_WORD + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * Recounts the taken seats, booked or held, from the bitmap using population counts
+     * Intended for verification and recovery
+     *
+     * @return Number of set bits in the bitmap
+     */
+    public int countBookedSeats() {
+        int count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+}
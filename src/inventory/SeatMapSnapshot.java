@@ -0,0 +1,111 @@
+package inventory;
+
+/**
+ * inventory.SeatMapSnapshot is an immutable copy of the seat bitmaps of a showing.
+ * It is taken without locking by SeatMap.snapshot, so readers such as a seat grid can look at
+ * every seat of a showing without a lookup per seat, and compare two snapshots word by word to
+ * find the seats that changed.
+ */
+public final class SeatMapSnapshot {
+    private final int capacity;
+    private final long[] claimedWords;  // Booked or held seats, one bit per seat
+    private final long[] heldWords;     // Seats among the claimed ones that are only held
+    private final long version;         // Claims and releases the showing had when copied
+
+    /**
+     * Creates a snapshot from words copied by SeatMap.snapshot, which hands them over
+     *
+     * @param capacity     Seat capacity of the showing
+     * @param claimedWords Copied claim bitmap
+     * @param heldWords    Copied held bitmap
+     * @param version      Change counter at the time of the copy
+     */
+    SeatMapSnapshot(int capacity, long[] claimedWords, long[] heldWords, long version) {
+        this.capacity = capacity;
+        this.claimedWords = claimedWords;
+        this.heldWords = heldWords;
+        this.version = version;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the change counter of the showing at the time of the copy
+     * It only grows, by one per claim or release, wrapping after 2^32 changes
+     *
+     * @return The version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks if a seat is booked
+     *
+     * @param seat Zero-based seat index
+     * @return true if the seat is booked, false if it is free or only held
+     */
+    public boolean isBooked(int seat) {
+        return bit(claimedWords, seat) && !bit(heldWords, seat);
+    }
+
+    /**
+     * Checks if a seat is held during checkout
+     *
+     * @param seat Zero-based seat index
+     * @return true if the seat is held
+     */
+    public boolean isHeld(int seat) {
+        return bit(heldWords, seat);
+    }
+
+    /**
+     * Checks if a seat is free
+     *
+     * @param seat Zero-based seat index
+     * @return true if the seat is neither booked nor held
+     */
+    public boolean isFree(int seat) {
+        return !bit(claimedWords, seat);
+    }
+
+    /**
+     * Gets the number of free seats in the snapshot
+     *
+     * @return Free seats
+     */
+    public int getAvailableCount() {
+        int claimed = 0;
+        for (long word : claimedWords) {
+            claimed += Long.bitCount(word);
+        }
+        return capacity - claimed;
+    }
+
+    /**
+     * Gets the number of 64-seat words of the snapshot
+     *
+     * @return Number of words
+     */
+    public int getWordCount() {
+        return claimedWords.length;
+    }
+
+    /**
+     * Finds the seats of a word whose state differs from another snapshot of the same showing
+     *
+     * @param other     The other snapshot, with the same capacity
+     * @param wordIndex Index of the word, seats 64 * wordIndex to 64 * wordIndex + 63
+     * @return Bits set for the seats that are free, held or booked in only one of the snapshots
+     */
+    public long changedSeats(SeatMapSnapshot other, int wordIndex) {
+        return (claimedWords[wordIndex] ^ other.claimedWords[wordIndex])
+                | (heldWords[wordIndex] ^ other.heldWords[wordIndex]);
+    }
+
+    private static boolean bit(long[] bitmap, int seat) {
+        return (bitmap[seat >>> 6] & (1L << seat)) != 0;
+    }
+}
@@ -0,0 +1,186 @@
+package inventory;
+
+import builder_pattern.MovieTicketBuilder;
+import movie_factory_pattern.Genre;
+import prototype_pattern.MovieTicket;
+import theatre_factory_pattern.TheaterType;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * inventory.Showing describes one registered showing: its ID, what is played and where,
+ * and the seat map holding its booking status.
+ * <p>
+ * It also pools the tickets of its seats: tickets are immutable values, so the ticket of a seat
+ * is built once and handed out again whenever the seat is booked or its ticket is asked for at
+ * the same price and booking generation.
+ * <p>
+ * It remembers the price paid for each booked seat in inventory.PaidPrices, so a cancelled
+ * booking is refunded what was paid for it.
+ * <p>
+ * Customers waiting for a seat of the showing queue in its own inventory.Waitlist.
+ */
+public class Showing {
+    // Updater for the ticket pool, created when the first ticket is asked for
+    private static final AtomicReferenceFieldUpdater<Showing, MovieTicket[]> TICKETS =
+            AtomicReferenceFieldUpdater.newUpdater(Showing.class, MovieTicket[].class, "tickets");
+
+    private final int showingId;           // Dense showing ID, index into inventory.ShowingInventory
+    private final Genre genre;             // Genre of the movie shown
+    private final TheaterType theaterType; // Type of theater the showing runs in
+    private final SeatMap seatMap;         // Booking status of the showing's seats
+
+    // Updater for the waitlist, created when the first customer joins it
+    private static final AtomicReferenceFieldUpdater<Showing, Waitlist> WAITLIST =
+            AtomicReferenceFieldUpdater.newUpdater(Showing.class, Waitlist.class, "waitlist");
+
+    // Updater for the paid prices, created when the first priced seat is booked
+    private static final AtomicReferenceFieldUpdater<Showing, PaidPrices> PAID_PRICES =
+            AtomicReferenceFieldUpdater.newUpdater(Showing.class, PaidPrices.class, "paidPrices");
+
+    // Ticket per seat, filled in as tickets are asked for; null until the first one
+    private volatile MovieTicket[] tickets;
+
+    // Customers waiting for a seat; null until the first one joins
+    private volatile Waitlist waitlist;
+
+    // Price paid for the current booking of each seat; null until the first priced booking
+    private volatile PaidPrices paidPrices;
+
+    /**
+     * Creates a showing with an empty seat map
+     *
+     * @param showingId   The showing ID
+     * @param genre       Genre of the movie shown
+     * @param theaterType Type of theater
+     * @param capacity    Number of seats of the auditorium
+     */
+    public Showing(int showingId, Genre genre, TheaterType theaterType, int capacity) {
+        this.showingId = showingId;
+        this.genre = genre;
+        this.theaterType = theaterType;
+        this.seatMap = new SeatMap(capacity);
+    }
+
+    public int getShowingId() {
+        return showingId;
+    }
+
+    public Genre getGenre() {
+        return genre;
+    }
+
+    public TheaterType getTheaterType() {
+        return theaterType;
+    }
+
+    public SeatMap getSeatMap() {
+        return seatMap;
+    }
+
+    /**
+     * Gets the waitlist of the showing, creating it for the first customer
+     *
+     * @return The waitlist
+     */
+    public Waitlist getWaitlist() {
+        Waitlist current = waitlist;
+        if (current == null) {
+            WAITLIST.compareAndSet(this, null, new Waitlist());
+            current = waitlist;
+        }
+        return current;
+    }
+
+    /**
+     * Gets the waitlist of the showing if anyone ever joined it
+     *
+     * @return The waitlist, or null if nobody joined it yet
+     */
+    public Waitlist getWaitlistIfCreated() {
+        return waitlist;
+    }
+
+    /**
+     * Remembers the price paid for a booked seat, for refunds
+     * Must be called before the booking hands out its ticket
+     *
+     * @param seat       Zero-based seat index
+     * @param priceCents The price in cents
+     */
+    public void recordPaidPrice(int seat, int priceCents) {
+        PaidPrices prices = paidPrices;
+        if (prices == null) {
+            if (priceCents == 0) {
+                return;
+            }
+            prices = createPaidPrices();
+        }
+        prices.record(seat, priceCents);
+    }
+
+    /**
+     * Creates the paid prices for the first priced booking
+     * Kept out of recordPaidPrice so the booking path it is inlined into stays small
+     *
+     * @return The paid prices
+     */
+    private PaidPrices createPaidPrices() {
+        PAID_PRICES.compareAndSet(this, null, new PaidPrices(seatMap.getCapacity()));
+        return paidPrices;
+    }
+
+    /**
+     * Gets the price paid for the current booking of a seat
+     *
+     * @param seat Zero-based seat index
+     * @return The price in cents, 0 if the seat was booked unpriced
+     */
+    public int getPaidPrice(int seat) {
+        PaidPrices prices = paidPrices;
+        return prices == null ? 0 : prices.get(seat);
+    }
+
+    /**
+     * Gets the unpriced ticket of a seat
+     *
+     * @param ticketNumber The ticket number (1 to the capacity)
+     * @return The ticket
+     */
+    public MovieTicket getTicket(int ticketNumber) {
+        return getTicket(ticketNumber, 0, 0);
+    }
+
+    /**
+     * Gets the ticket of one booking of a seat, building it with the Builder pattern when the
+     * pool holds no ticket of the seat at that price and generation
+     * Two threads asking for a new seat at once may both build it; either ticket is equal
+     *
+     * @param ticketNumber The ticket number (1 to the capacity)
+     * @param priceCents   The price paid for the ticket in cents
+     * @param generation   The booking generation of the seat
+     * @return The ticket
+     */
+    public MovieTicket getTicket(int ticketNumber, int priceCents, int generation) {
+        MovieTicket[] pool = tickets;
+        if (pool == null) {
+            TICKETS.compareAndSet(this, null, new MovieTicket[seatMap.getCapacity()]);
+            pool = tickets;
+        }
+        // Tickets are immutable with final fields, so the plain array store publishes them safely
+        // A seat is mostly asked for by its current booking, so the pool keeps the latest one
+        MovieTicket ticket = pool[ticketNumber - 1];
+        if (ticket == null || ticket.getPriceCents() != priceCents || ticket.getGeneration() != generation) {
+            ticket = new MovieTicketBuilder()
+                    .setGenre(genre)
+                    .setTheaterType(theaterType)
+                    .setTicketNumber(ticketNumber)
+                    .setShowingId(showingId)
+                    .setPriceCents(priceCents)
+                    .setGeneration(generation)
+                    .build();
+            pool[ticketNumber - 1] = ticket;
+        }
+        return ticket;
+    }
+}
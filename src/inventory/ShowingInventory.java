@@ -0,0 +1,166 @@
+package inventory;
+
+import movie_factory_pattern.Genre;
+import prototype_pattern.TicketHandle;
+import theatre_factory_pattern.TheaterType;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * inventory.ShowingInventory holds every registered inventory.Showing, indexed by showing ID.
+ * Showing IDs are dense integers handed out on registration, so a lookup is a single
+ * array access and the catalogue only costs one reference per showing plus the showing.
+ * <p>
+ * Registration is rare and synchronized; lookups read a volatile array and never lock.
+ * <p>
+ * Bulk snapshots of all seat counts are read in one pass; with PARALLEL_THRESHOLD showings or
+ * more the pass is split across the common fork-join pool.
+ */
+public class ShowingInventory {
+    // Showings from which snapshots are taken in parallel, and the slice each fork-join task reads
+    private static final int PARALLEL_THRESHOLD = 8192;
+    private static final int SLICE_SIZE = 2048;
+
+    // Initial length of the showing table, doubled whenever it fills up
+    private static final int INITIAL_SIZE = 16;
+
+    // Showings indexed by showing ID, replaced by a larger copy when it grows
+    private volatile Showing[] showings = new Showing[INITIAL_SIZE];
+
+    // Number of registered showings, also the next showing ID to hand out
+    private int showingCount;
+
+    /**
+     * Registers a new showing with its own seat capacity
+     *
+     * @param genre       Genre of the movie shown
+     * @param theaterType Type of theater
+     * @param capacity    Number of seats of the auditorium
+     * @return The new showing
+     * @throws IllegalStateException if the showing IDs a ticket handle can hold are used up
+     */
+    public synchronized Showing register(Genre genre, TheaterType theaterType, int capacity) {
+        if (showingCount > TicketHandle.MAX_SHOWING_ID) {
+            throw new IllegalStateException("No showing ID left, ticket handles hold at most "
+                    + TicketHandle.MAX_SHOWING_ID);
+        }
+        Showing showing = new Showing(showingCount, genre, theaterType, capacity);
+        Showing[] current = showings;
+        if (showingCount == current.length) {
+            Showing[] grown = new Showing[current.length * 2];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            current = grown;
+        }
+        current[showingCount++] = showing;
+        // Volatile write publishes the new showing to lock-free readers
+        showings = current;
+        return showing;
+    }
+
+    /**
+     * Gets a showing by its ID
+     *
+     * @param showingId The showing ID
+     * @return The showing, or null if no showing has this ID
+     */
+    public Showing get(int showingId) {
+        Showing[] current = showings;
+        if (showingId < 0 || showingId >= current.length) {
+            return null;
+        }
+        return current[showingId];
+    }
+
+    /**
+     * Gets the number of registered showings
+     * Showing IDs range from 0 to this value minus one
+     *
+     * @return Number of registered showings
+     */
+    public synchronized int size() {
+        return showingCount;
+    }
+
+    /**
+     * Takes a snapshot of the seat counts of every registered showing
+     * Large inventories are read in parallel on the common fork-join pool
+     *
+     * @return The snapshot
+     */
+    public InventorySnapshot snapshot() {
+        // Registered showings are published by the volatile write of the array, in ID order
+        Showing[] current = showings;
+        int count = 0;
+        while (count < current.length && current[count] != null) {
+            count++;
+        }
+        SnapshotSlice all = new SnapshotSlice(current, 0, count, new Genre[count], new TheaterType[count],
+                new int[count], new int[count], new int[count]);
+        if (count >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            ForkJoinPool.commonPool().invoke(all);
+        } else {
+            all.read(0, count);
+        }
+        return new InventorySnapshot(all.genres, all.theaterTypes, all.capacities, all.available, all.held);
+    }
+
+    /**
+     * Fills the snapshot arrays for a range of showing IDs, splitting large ranges in halves
+     */
+    private static final class SnapshotSlice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // Only read by the running task, never serialized
+        private final transient Showing[] showings;
+        private final int from;
+        private final int to;
+        private final Genre[] genres;
+        private final TheaterType[] theaterTypes;
+        private final int[] capacities;
+        private final int[] available;
+        private final int[] held;
+
+        SnapshotSlice(Showing[] showings, int from, int to, Genre[] genres, TheaterType[] theaterTypes,
+                      int[] capacities, int[] available, int[] held) {
+            this.showings = showings;
+            this.from = from;
+            this.to = to;
+            this.genres = genres;
+            this.theaterTypes = theaterTypes;
+            this.capacities = capacities;
+            this.available = available;
+            this.held = held;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SLICE_SIZE) {
+                read(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(slice(from, middle), slice(middle, to));
+        }
+
+        private SnapshotSlice slice(int sliceFrom, int sliceTo) {
+            return new SnapshotSlice(showings, sliceFrom, sliceTo, genres, theaterTypes, capacities, available, held);
+        }
+
+        /**
+         * Reads the showings of a range into the arrays
+         */
+        void read(int readFrom, int readTo) {
+            for (int id = readFrom; id < readTo; id++) {
+                Showing showing = showings[id];
+                SeatMap seatMap = showing.getSeatMap();
+                long counts = seatMap.readCounts();
+                genres[id] = showing.getGenre();
+                theaterTypes[id] = showing.getTheaterType();
+                capacities[id] = seatMap.getCapacity();
+                available[id] = seatMap.getCapacity() - (int) (counts >>> 32);
+                held[id] = (int) counts;
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package inventory;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * inventory.Waitlist is the first-come, first-served queue of customers waiting for a seat of
+ * one sold-out showing.
+ * <p>
+ * Each showing has its own waitlist, created on first use, so a busy showing never slows the
+ * waitlists of others. The queue is a lock-free ConcurrentLinkedQueue: joining is one CAS at
+ * the tail and serving one CAS at the head. Cancelled entries are not searched for and
+ * unlinked, which would cost a scan of the queue; the head skips them when it reaches them.
+ * The number of waiting entries is kept in a LongAdder, so joins and cancellations of a
+ * popular showing do not contend on one counter.
+ */
+public class Waitlist {
+    private final ConcurrentLinkedQueue<WaitlistEntry> queue = new ConcurrentLinkedQueue<>();
+    private final LongAdder waiting = new LongAdder();
+
+    /**
+     * Adds a customer at the end of the waitlist
+     *
+     * @param showingId The showing ID
+     * @param listener  Told when the customer got a ticket
+     * @return The customer's entry
+     */
+    public WaitlistEntry join(int showingId, WaitlistListener listener) {
+        WaitlistEntry entry = new WaitlistEntry(showingId, this, listener);
+        waiting.increment();
+        queue.offer(entry);
+        return entry;
+    }
+
+    /**
+     * Takes the first waiting entry off the waitlist and marks it served
+     *
+     * @return The entry, or null if nobody is waiting
+     */
+    public WaitlistEntry serveNext() {
+        WaitlistEntry entry;
+        while ((entry = queue.poll()) != null) {
+            // Skips entries cancelled while queued; loses against a concurrent cancel
+            if (entry.markServed()) {
+                waiting.decrement();
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether any entry is still waiting, dropping cancelled entries at the head
+     *
+     * @return true if an entry may be waiting
+     */
+    public boolean hasWaiting() {
+        WaitlistEntry head;
+        while ((head = queue.peek()) != null && !head.isWaiting()) {
+            queue.remove(head);
+        }
+        return head != null;
+    }
+
+    /**
+     * Called when a waiting entry was cancelled
+     */
+    void left() {
+        waiting.decrement();
+    }
+
+    /**
+     * Gets the number of customers waiting
+     * Approximate while customers join, leave or are served
+     *
+     * @return Number of waiting entries
+     */
+    public int size() {
+        return (int) Math.max(0, waiting.sum());
+    }
+}
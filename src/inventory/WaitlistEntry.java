@@ -0,0 +1,95 @@
+package inventory;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * inventory.WaitlistEntry is a customer's place in the waitlist of a showing.
+ * The entry is either served with a seat or cancelled by the customer; a compare-and-set on
+ * its state decides which of them wins when they race, so a cancelled entry never gets a seat.
+ */
+public class WaitlistEntry {
+    // States of an entry
+    private static final int WAITING = 0;
+    private static final int SERVED = 1;
+    private static final int CANCELLED = 2;
+
+    // Updater for state, avoids a separate AtomicInteger object per entry
+    private static final AtomicIntegerFieldUpdater<WaitlistEntry> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(WaitlistEntry.class, "state");
+
+    private final int showingId;               // Showing waited for
+    private final Waitlist waitlist;           // Waitlist the entry is queued in
+    private final WaitlistListener listener;   // Told when the entry gets its ticket
+    private volatile int state = WAITING;
+
+    WaitlistEntry(int showingId, Waitlist waitlist, WaitlistListener listener) {
+        this.showingId = showingId;
+        this.waitlist = waitlist;
+        this.listener = listener;
+    }
+
+    public int getShowingId() {
+        return showingId;
+    }
+
+    /**
+     * Checks whether the entry is still waiting for a seat
+     *
+     * @return true if the entry was neither served nor cancelled
+     */
+    public boolean isWaiting() {
+        return state == WAITING;
+    }
+
+    /**
+     * Checks whether the entry got a ticket
+     *
+     * @return true if a seat was booked for the entry
+     */
+    public boolean isServed() {
+        return state == SERVED;
+    }
+
+    /**
+     * Leaves the waitlist
+     * The entry stays queued until the waitlist reaches it and skips it
+     *
+     * @return true if the entry was still waiting, false if it was already served or cancelled
+     */
+    public boolean cancel() {
+        if (!STATE.compareAndSet(this, WAITING, CANCELLED)) {
+            return false;
+        }
+        waitlist.left();
+        return true;
+    }
+
+    /**
+     * Moves the entry to the served state, before its seat is booked
+     *
+     * @return true if the entry was still waiting
+     */
+    boolean markServed() {
+        return STATE.compareAndSet(this, WAITING, SERVED);
+    }
+
+    /**
+     * Tells the customer about the booked ticket
+     * A failing listener must not take down the thread that freed the seat
+     *
+     * @param result The successful booking result
+     */
+    public void notifyBooked(BookingResult result) {
+        try {
+            listener.onTicketBooked(this, result);
+        } catch (RuntimeException e) {
+            System.err.println("Waitlist listener failed: " + e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WaitlistEntry [Showing: " + showingId + ", State: "
+                + (state == WAITING ? "waiting" : state == SERVED ? "served" : "cancelled") + "]";
+    }
+}
@@ -0,0 +1,17 @@
+package inventory;
+
+/**
+ * inventory.WaitlistListener is told when a waitlisted customer got a ticket.
+ * It is called on the thread that freed the seat, such as the hold expiry thread, so it must
+ * return quickly and hand slow work, such as GUI updates or messages, to another thread.
+ */
+public interface WaitlistListener {
+
+    /**
+     * Called once the seat handed to the waitlist entry is booked
+     *
+     * @param entry  The served waitlist entry
+     * @param result Successful result with the booked ticket and the remaining availability
+     */
+    void onTicketBooked(WaitlistEntry entry, BookingResult result);
+}
@@ -0,0 +1,397 @@
+package metrics;
+
+import inventory.BookingStatus;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * metrics.BookingMetrics counts bookings by outcome, cancellations and their refunds, logins and adapter calls, and records
+ * their latencies in metrics.LatencyHistogram instances.
+ * <p>
+ * Counters are LongAdder instances, which stripe under contention, so booking threads never
+ * fight over a shared counter. Everything is static and guarded by the ENABLED constant, read
+ * once from the system property booking.metrics.enabled (default false): while it is off the JIT
+ * removes the timing and counting code from the instrumented methods altogether. Even sampled,
+ * recording costs about as much as an uncontended single-seat booking, so metrics are turned on
+ * where they are read: server.BookingServer and the embedded server of server.LoadGenerator
+ * enable them unless the property is set.
+ * <p>
+ * Every booking is counted, but only one in booking.metrics.sampleEvery (default 8) bookings,
+ * cancellations and adapter calls is timed: reading the clock twice costs more than the booking itself.
+ * Logins take milliseconds and are always timed.
+ * <p>
+ * The metrics can be read through JMX, as the MXBean "booking:type=BookingMetrics", or as
+ * text from dump().
+ */
+public final class BookingMetrics {
+    // Whether the instrumented methods record anything
+    public static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("booking.metrics.enabled", "false"));
+
+    // Returned by startTimer for calls that are not timed
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    // One in SAMPLE_MASK + 1 bookings and adapter calls is timed
+    private static final int SAMPLE_MASK =
+            Integer.highestOneBit(Math.max(1, Integer.getInteger("booking.metrics.sampleEvery", 8))) - 1;
+
+    // Name of the MXBean
+    public static final String OBJECT_NAME = "booking:type=BookingMetrics";
+
+    private static final BookingStatus[] STATUSES = BookingStatus.values();
+
+    // Outcomes of bookings of one or more seats and admission rejections, by BookingStatus ordinal
+    private static final LongAdder[] BOOKINGS = new LongAdder[STATUSES.length];
+    private static final LatencyHistogram BOOKING_LATENCY = new LatencyHistogram();
+
+    private static final LongAdder CANCELLATIONS_SUCCEEDED = new LongAdder();
+    private static final LongAdder CANCELLATIONS_FAILED = new LongAdder();
+    private static final LongAdder REFUNDED_CENTS = new LongAdder();
+    private static final LatencyHistogram CANCELLATION_LATENCY = new LatencyHistogram();
+
+    private static final LongAdder LOGINS_SUCCEEDED = new LongAdder();
+    private static final LongAdder LOGINS_FAILED = new LongAdder();
+    private static final LatencyHistogram LOGIN_LATENCY = new LatencyHistogram();
+
+    private static final LongAdder ADAPTER_CALLS = new LongAdder();
+    private static final LatencyHistogram ADAPTER_LATENCY = new LatencyHistogram();
+
+    static {
+        for (int i = 0; i < BOOKINGS.length; i++) {
+            BOOKINGS[i] = new LongAdder();
+        }
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+            } catch (JMException | SecurityException e) {
+                System.err.println("Cannot register booking metrics with JMX: " + e);
+            }
+        }
+    }
+
+    private BookingMetrics() {
+    }
+
+    /**
+     * Starts timing a booking or adapter call, if it is one of the sampled ones
+     *
+     * @return System.nanoTime() at the start, or NOT_TIMED
+     */
+    public static long startTimer() {
+        if ((ThreadLocalRandom.current().nextInt() & SAMPLE_MASK) != 0) {
+            return NOT_TIMED;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the outcome of a booking and, if it was timed, its latency
+     *
+     * @param status Outcome of the booking
+     * @param start  Value returned by startTimer
+     */
+    public static void recordBooking(BookingStatus status, long start) {
+        BOOKINGS[status.ordinal()].increment();
+        if (start != NOT_TIMED) {
+            BOOKING_LATENCY.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records a booking rejected before it reached a showing, such as by admission control
+     *
+     * @param status Reason of the rejection
+     */
+    public static void recordRejection(BookingStatus status) {
+        BOOKINGS[status.ordinal()].increment();
+    }
+
+    /**
+     * Records the outcome of a cancellation and, if it was timed, its latency
+     *
+     * @param status      CANCELLED, or why the ticket could not be cancelled
+     * @param refundCents Amount refunded in cents
+     * @param start       Value returned by startTimer
+     */
+    public static void recordCancellation(BookingStatus status, int refundCents, long start) {
+        if (status == BookingStatus.CANCELLED) {
+            CANCELLATIONS_SUCCEEDED.increment();
+            REFUNDED_CENTS.add(refundCents);
+        } else {
+            CANCELLATIONS_FAILED.increment();
+        }
+        if (start != NOT_TIMED) {
+            CANCELLATION_LATENCY.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records the outcome and latency of a login
+     *
+     * @param succeeded Whether the login created a session
+     * @param start     System.nanoTime() when the login started
+     */
+    public static void recordLogin(boolean succeeded, long start) {
+        (succeeded ? LOGINS_SUCCEEDED : LOGINS_FAILED).increment();
+        LOGIN_LATENCY.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Records a call through adapter_pattern.MovieBooking and, if it was timed, its latency
+     *
+     * @param start Value returned by startTimer
+     */
+    public static void recordAdapterCall(long start) {
+        ADAPTER_CALLS.increment();
+        if (start != NOT_TIMED) {
+            ADAPTER_LATENCY.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Gets the number of bookings with an outcome
+     *
+     * @param status The outcome
+     * @return Number of bookings that ended with it
+     */
+    public static long getBookings(BookingStatus status) {
+        return BOOKINGS[status.ordinal()].sum();
+    }
+
+    /**
+     * Gets the number of booking attempts with any outcome
+     *
+     * @return Number of recorded bookings
+     */
+    public static long getBookingAttempts() {
+        long attempts = 0;
+        for (LongAdder bookings : BOOKINGS) {
+            attempts += bookings.sum();
+        }
+        return attempts;
+    }
+
+    public static LatencyHistogram getBookingLatency() {
+        return BOOKING_LATENCY;
+    }
+
+    public static long getCancellationsSucceeded() {
+        return CANCELLATIONS_SUCCEEDED.sum();
+    }
+
+    public static long getCancellationsFailed() {
+        return CANCELLATIONS_FAILED.sum();
+    }
+
+    public static long getRefundedCents() {
+        return REFUNDED_CENTS.sum();
+    }
+
+    public static LatencyHistogram getCancellationLatency() {
+        return CANCELLATION_LATENCY;
+    }
+
+    public static long getLoginsSucceeded() {
+        return LOGINS_SUCCEEDED.sum();
+    }
+
+    public static long getLoginsFailed() {
+        return LOGINS_FAILED.sum();
+    }
+
+    public static LatencyHistogram getLoginLatency() {
+        return LOGIN_LATENCY;
+    }
+
+    public static long getAdapterCalls() {
+        return ADAPTER_CALLS.sum();
+    }
+
+    public static LatencyHistogram getAdapterLatency() {
+        return ADAPTER_LATENCY;
+    }
+
+    /**
+     * Gets all metrics as text, one per line, in the format "name value"
+     *
+     * @return The text dump
+     */
+    public static String dump() {
+        StringBuilder text = new StringBuilder(1024);
+        text.append("booking.metrics.enabled ").append(ENABLED).append('\n');
+        text.append("booking.metrics.sampleEvery ").append(SAMPLE_MASK + 1).append('\n');
+        text.append("booking.attempts ").append(getBookingAttempts()).append('\n');
+        for (BookingStatus status : STATUSES) {
+            text.append("booking.status.").append(status.name().toLowerCase(Locale.ROOT)).append(' ')
+                    .append(getBookings(status)).append('\n');
+        }
+        appendLatency(text, "booking.latency", BOOKING_LATENCY);
+        text.append("cancel.succeeded ").append(getCancellationsSucceeded()).append('\n');
+        text.append("cancel.failed ").append(getCancellationsFailed()).append('\n');
+        text.append("cancel.refunded.cents ").append(getRefundedCents()).append('\n');
+        appendLatency(text, "cancel.latency", CANCELLATION_LATENCY);
+        text.append("login.succeeded ").append(getLoginsSucceeded()).append('\n');
+        text.append("login.failed ").append(getLoginsFailed()).append('\n');
+        appendLatency(text, "login.latency", LOGIN_LATENCY);
+        text.append("adapter.calls ").append(getAdapterCalls()).append('\n');
+        appendLatency(text, "adapter.latency", ADAPTER_LATENCY);
+        return text.toString();
+    }
+
+    /**
+     * Clears all counters and histograms
+     */
+    public static void reset() {
+        for (LongAdder bookings : BOOKINGS) {
+            bookings.reset();
+        }
+        BOOKING_LATENCY.reset();
+        CANCELLATIONS_SUCCEEDED.reset();
+        CANCELLATIONS_FAILED.reset();
+        REFUNDED_CENTS.reset();
+        CANCELLATION_LATENCY.reset();
+        LOGINS_SUCCEEDED.reset();
+        LOGINS_FAILED.reset();
+        LOGIN_LATENCY.reset();
+        ADAPTER_CALLS.reset();
+        ADAPTER_LATENCY.reset();
+    }
+
+    /**
+     * Appends the count, mean, percentiles and maximum of a histogram in microseconds
+     */
+    private static void appendLatency(StringBuilder text, String name, LatencyHistogram histogram) {
+        text.append(name).append(".count ").append(histogram.getCount()).append('\n');
+        text.append(name).append(".mean.us ").append(format(histogram.getMean())).append('\n');
+        text.append(name).append(".p50.us ").append(format(histogram.getValueAtPercentile(50))).append('\n');
+        text.append(name).append(".p90.us ").append(format(histogram.getValueAtPercentile(90))).append('\n');
+        text.append(name).append(".p99.us ").append(format(histogram.getValueAtPercentile(99))).append('\n');
+        text.append(name).append(".p99.9.us ").append(format(histogram.getValueAtPercentile(99.9))).append('\n');
+        text.append(name).append(".max.us ").append(format(histogram.getMax())).append('\n');
+    }
+
+    private static String format(double nanos) {
+        return String.format(Locale.ROOT, "%.3f", micros(nanos));
+    }
+
+    private static double micros(double nanos) {
+        return nanos / TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    /**
+     * The MXBean, reading the static metrics
+     */
+    private static final class Bean implements BookingMetricsMXBean {
+        @Override
+        public long getBookingAttempts() {
+            return BookingMetrics.getBookingAttempts();
+        }
+
+        @Override
+        public long getBookingsSucceeded() {
+            return getBookings(BookingStatus.SUCCESS);
+        }
+
+        @Override
+        public long getBookingsAlreadyBooked() {
+            return getBookings(BookingStatus.ALREADY_BOOKED);
+        }
+
+        @Override
+        public long getBookingsSoldOut() {
+            return getBookings(BookingStatus.SOLD_OUT);
+        }
+
+        @Override
+        public long getBookingsInvalid() {
+            return getBookings(BookingStatus.INVALID_SELECTION) + getBookings(BookingStatus.INVALID_TICKET_NUMBER);
+        }
+
+        @Override
+        public double getBookingConflictRate() {
+            long attempts = BookingMetrics.getBookingAttempts();
+            return attempts == 0 ? 0 : (double) getBookings(BookingStatus.ALREADY_BOOKED) / attempts;
+        }
+
+        @Override
+        public double getBookingLatencyP50Micros() {
+            return micros(BOOKING_LATENCY.getValueAtPercentile(50));
+        }
+
+        @Override
+        public double getBookingLatencyP99Micros() {
+            return micros(BOOKING_LATENCY.getValueAtPercentile(99));
+        }
+
+        @Override
+        public double getBookingLatencyP999Micros() {
+            return micros(BOOKING_LATENCY.getValueAtPercentile(99.9));
+        }
+
+        @Override
+        public double getBookingLatencyMaxMicros() {
+            return micros(BOOKING_LATENCY.getMax());
+        }
+
+        @Override
+        public long getCancellationsSucceeded() {
+            return BookingMetrics.getCancellationsSucceeded();
+        }
+
+        @Override
+        public long getRefundedCents() {
+            return BookingMetrics.getRefundedCents();
+        }
+
+        @Override
+        public double getCancellationLatencyP99Micros() {
+            return micros(CANCELLATION_LATENCY.getValueAtPercentile(99));
+        }
+
+        @Override
+        public long getLoginsSucceeded() {
+            return BookingMetrics.getLoginsSucceeded();
+        }
+
+        @Override
+        public long getLoginsFailed() {
+            return BookingMetrics.getLoginsFailed();
+        }
+
+        @Override
+        public double getLoginLatencyP50Micros() {
+            return micros(LOGIN_LATENCY.getValueAtPercentile(50));
+        }
+
+        @Override
+        public double getLoginLatencyP99Micros() {
+            return micros(LOGIN_LATENCY.getValueAtPercentile(99));
+        }
+
+        @Override
+        public long getAdapterCalls() {
+            return BookingMetrics.getAdapterCalls();
+        }
+
+        @Override
+        public double getAdapterLatencyP99Micros() {
+            return micros(ADAPTER_LATENCY.getValueAtPercentile(99));
+        }
+
+        @Override
+        public String dump() {
+            return BookingMetrics.dump();
+        }
+
+        @Override
+        public void reset() {
+            BookingMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package metrics;
+
+/**
+ * metrics.BookingMetricsMXBean is the JMX view of metrics.BookingMetrics, registered as
+ * "booking:type=BookingMetrics" when metrics are enabled. Latencies are in microseconds and,
+ * for bookings, cancellations and adapter calls, come from the sampled calls only.
+ */
+public interface BookingMetricsMXBean {
+
+    long getBookingAttempts();
+
+    long getBookingsSucceeded();
+
+    long getBookingsAlreadyBooked();
+
+    long getBookingsSoldOut();
+
+    long getBookingsInvalid();
+
+    /**
+     * Gets the share of booking attempts that found the seat already booked
+     *
+     * @return Conflicts divided by attempts, 0 before the first attempt
+     */
+    double getBookingConflictRate();
+
+    double getBookingLatencyP50Micros();
+
+    double getBookingLatencyP99Micros();
+
+    double getBookingLatencyP999Micros();
+
+    double getBookingLatencyMaxMicros();
+
+    long getCancellationsSucceeded();
+
+    long getRefundedCents();
+
+    double getCancellationLatencyP99Micros();
+
+    long getLoginsSucceeded();
+
+    long getLoginsFailed();
+
+    double getLoginLatencyP50Micros();
+
+    double getLoginLatencyP99Micros();
+
+    long getAdapterCalls();
+
+    double getAdapterLatencyP99Micros();
+
+    /**
+     * Gets all metrics as text, one per line
+     *
+     * @return The text dump
+     */
+    String dump();
+
+    /**
+     * Clears all counters and histograms
+     */
+    void reset();
+}
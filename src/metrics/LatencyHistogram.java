@@ -0,0 +1,168 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * metrics.LatencyHistogram records latencies in logarithmic buckets, in the style of an HDR histogram.
+ * Each power of two is split into SUB_BUCKETS linear buckets, so any recorded value is known to
+ * within 1/SUB_BUCKETS (12.5%) of itself, from nanoseconds to hours, in a few hundred counters.
+ * <p>
+ * Recording is lock-free, allocates nothing and costs one atomic increment; the maximum is
+ * only written when it grows. The counters are striped: each thread adds to
+ * one of several copies of the bucket array, chosen by its thread ID, so threads recording
+ * similar latencies do not all hit the same cache line. Reads sum the stripes and are only
+ * approximately consistent while values are being recorded.
+ */
+public class LatencyHistogram {
+    // Linear buckets per power of two
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Buckets covering every non-negative long
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    // Number of stripes, a power of two close to the number of processors
+    private static final int STRIPES =
+            Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1), 64);
+
+    // Bucket counts of all stripes, stripe after stripe
+    private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a latency
+     *
+     * @param nanos The latency in nanoseconds, negative values count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        int stripe = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+        counts.getAndIncrement(stripe * BUCKETS + bucketOf(value));
+        max.accumulate(value);
+    }
+
+    /**
+     * Gets the number of recorded latencies
+     *
+     * @return The count
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the mean of the recorded latencies
+     * Computed from the bucket midpoints, so it is as precise as the buckets
+     *
+     * @return The mean in nanoseconds, 0 if nothing was recorded
+     */
+    public double getMean() {
+        double total = 0;
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount != 0) {
+                int bucket = i % BUCKETS;
+                total += bucketCount * (lowerBoundOf(bucket) + upperBoundOf(bucket)) / 2.0;
+                count += bucketCount;
+            }
+        }
+        return count == 0 ? 0 : total / count;
+    }
+
+    /**
+     * Gets the largest recorded latency
+     *
+     * @return The maximum in nanoseconds, 0 if nothing was recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets a percentile of the recorded latencies
+     *
+     * @param percentile The percentile, 0 to 100
+     * @return Upper bound of the bucket holding the percentile in nanoseconds, 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] merged = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long bucketCount = counts.get(i);
+            merged[i % BUCKETS] += bucketCount;
+            count += bucketCount;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += merged[bucket];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(bucket), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears all recorded latencies
+     * Values recorded while resetting may be partly kept
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        max.reset();
+    }
+
+    /**
+     * Gets the bucket of a value
+     * Values below SUB_BUCKETS get a bucket each; above, the top SUB_BUCKET_BITS + 1 bits pick the bucket
+     *
+     * @param value Non-negative value
+     * @return Bucket index
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Gets the smallest value of a bucket
+     *
+     * @param bucket Bucket index
+     * @return The smallest value that falls into the bucket
+     */
+    static long lowerBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        return ((long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1)))) << shift;
+    }
+
+    /**
+     * Gets the largest value of a bucket
+     *
+     * @param bucket Bucket index
+     * @return The largest value that falls into the bucket
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        return lowerBoundOf(bucket) + (1L << shift) - 1;
+    }
+}
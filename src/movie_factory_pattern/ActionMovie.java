@@ -7,6 +7,21 @@ package movie_factory_pattern;
  */
 public class ActionMovie extends Movie {
 
+    /**
+     * Creates an action movie
+     *
+     * @param title           The title of the movie
+     * @param durationMinutes The running time in minutes
+     */
+    public ActionMovie(String title, int durationMinutes) {
+        super(title, durationMinutes);
+    }
+
+    @Override
+    public Genre getGenre() {
+        return Genre.ACTION;
+    }
+
     /**
      * Implementation of the abstract showDetails method from Movie class
      * Displays specific details related to action movies
@@ -14,6 +29,6 @@ public class ActionMovie extends Movie {
      */
     @Override
     public void showDetails() {
-        System.out.println("Action Movie details");
+        System.out.println("Action Movie details: " + this);
     }
-}
\ No newline at end of file
+}
@@ -7,6 +7,21 @@ package movie_factory_pattern;
  */
 public class ComedyMovie extends Movie {
 
+    /**
+     * Creates a comedy movie
+     *
+     * @param title           The title of the movie
+     * @param durationMinutes The running time in minutes
+     */
+    public ComedyMovie(String title, int durationMinutes) {
+        super(title, durationMinutes);
+    }
+
+    @Override
+    public Genre getGenre() {
+        return Genre.COMEDY;
+    }
+
     /**
      * Implementation of the abstract showDetails method from Movie class
      * Displays specific details related to comedy movies
@@ -14,6 +29,6 @@ public class ComedyMovie extends Movie {
      */
     @Override
     public void showDetails() {
-        System.out.println("Comedy Movie details");
+        System.out.println("Comedy Movie details: " + this);
     }
-}
\ No newline at end of file
+}
@@ -3,8 +3,18 @@ package movie_factory_pattern;
 // DramaMovie class that extends the base class Movie
 public class DramaMovie extends Movie {
 
+    // Constructor to create a drama movie with its title and running time in minutes
+    public DramaMovie(String title, int durationMinutes) {
+        super(title, durationMinutes);
+    }
+
+    @Override
+    public Genre getGenre() {
+        return Genre.DRAMA;
+    }
+
     // Method to display details specific to Drama movies
     public void showDetails() {
-        System.out.println("Drama Movie details"); // Prints details about the drama movie
+        System.out.println("Drama Movie details: " + this); // Prints details about the drama movie
     }
 }
@@ -0,0 +1,76 @@
+package movie_factory_pattern;
+
+/**
+ * Genre enumerates the movie genres supported by the booking system.
+ * Genre names coming from the GUI or other String based callers are resolved to a Genre
+ * once, so the booking path can work with the enum and its ordinal instead of strings.
+ */
+public enum Genre {
+    ACTION("Action"),
+    COMEDY("Comedy"),
+    DRAMA("Drama");
+
+    private static final Genre[] VALUES = values();
+
+    // Name shown to users (e.g., "Action")
+    private final String displayName;
+
+    Genre(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Gets the name shown to users
+     *
+     * @return The display name of the genre
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Resolves a genre name to its Genre, matching the display name exactly
+     *
+     * @param name The genre name (e.g., "Action", "Comedy", "Drama")
+     * @return The matching Genre, or null if the name is not recognized
+     */
+    public static Genre fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (Genre genre : VALUES) {
+            if (genre.displayName.equals(name)) {
+                return genre;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolves a genre name to its Genre, ignoring case
+     *
+     * @param name The genre name (e.g., "Action", "Comedy", "Drama")
+     * @return The matching Genre, or null if the name is not recognized
+     */
+    public static Genre fromNameIgnoreCase(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (Genre genre : VALUES) {
+            if (genre.displayName.equalsIgnoreCase(name)) {
+                return genre;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the display name, so the enum can be shown directly in combo boxes
+     *
+     * @return The display name of the genre
+     */
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
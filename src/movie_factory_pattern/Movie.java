@@ -1,8 +1,44 @@
 package movie_factory_pattern;
 
 // Abstract base class representing a general Movie
+// Movies are immutable catalogue entries: the factory and the catalogue share one instance per title between all callers
 public abstract class Movie {
+    private final String title;          // Title shown to users
+    private final int durationMinutes;   // Running time in minutes
+
+    /**
+     * Constructor to initialize a Movie with its catalogue details.
+     *
+     * @param title           The title of the movie.
+     * @param durationMinutes The running time in minutes.
+     */
+    protected Movie(String title, int durationMinutes) {
+        if (title == null || title.isBlank()) {
+            throw new IllegalArgumentException("Movie title must not be blank");
+        }
+        if (durationMinutes < 1) {
+            throw new IllegalArgumentException("Movie duration must be positive");
+        }
+        this.title = title;
+        this.durationMinutes = durationMinutes;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    // Abstract method that must be implemented by subclasses to tell their genre
+    public abstract Genre getGenre();
 
     // Abstract method that must be implemented by subclasses to display movie details
     public abstract void showDetails();
+
+    @Override
+    public String toString() {
+        return title + " (" + getGenre() + ", " + durationMinutes + " min)";
+    }
 }
@@ -1,28 +1,61 @@
 package movie_factory_pattern;
 
-// Factory class to create Movie objects based on genre
+import singleton_pattern.ShowtimeCatalogue;
+
+// Factory class to create Movie objects based on genre or title
+// Movies are immutable catalogue entries, so the factory looks them up in singleton_pattern.ShowtimeCatalogue
+// and hands out the catalogue's shared instance instead of allocating one per call (Flyweight pattern)
 public class MovieFactory {
 
+    /**
+     * Factory method to create a Movie object based on the provided genre name or title.
+     * A genre name resolves to the default movie of the genre, anything else is looked up as a
+     * title in the catalogue.
+     *
+     * @param name The genre of the movie (e.g., "Action", "Comedy", "Drama") or a movie title.
+     * @return A Movie object corresponding to the name, or null if it is neither a genre nor a title.
+     */
+    public static Movie createMovie(String name) {
+        Genre resolved = Genre.fromNameIgnoreCase(name);
+        return resolved != null ? createMovie(resolved) : ShowtimeCatalogue.getInstance().findMovie(name);
+    }
+
     /**
      * Factory method to create a Movie object based on the provided genre.
+     * Returns the catalogue's default movie of the genre, so repeated calls allocate nothing.
      *
-     * @param genre The genre of the movie (e.g., "Action", "Comedy", "Drama").
-     * @return A Movie object corresponding to the genre, or null if the genre is not recognized.
+     * @param genre The genre of the movie.
+     * @return A Movie object corresponding to the genre.
      */
-    public static Movie createMovie(String genre) {
-        // Check if the genre is "Action" (case-insensitive) and return an ActionMovie instance
-        if (genre.equalsIgnoreCase("Action")) {
-            return new ActionMovie();
-        }
-        // Check if the genre is "Comedy" (case-insensitive) and return a ComedyMovie instance
-        else if (genre.equalsIgnoreCase("Comedy")) {
-            return new ComedyMovie();
-        }
-        // Check if the genre is "Drama" (case-insensitive) and return a DramaMovie instance
-        else if (genre.equalsIgnoreCase("Drama")) {
-            return new DramaMovie();
+    public static Movie createMovie(Genre genre) {
+        return ShowtimeCatalogue.getInstance().getDefaultMovie(genre);
+    }
+
+    /**
+     * Factory method to create a Movie object with a title and add it to the catalogue.
+     * Returns the movie already in the catalogue if the title was created before.
+     *
+     * @param genre           The genre of the movie.
+     * @param title           The title of the movie.
+     * @param durationMinutes The running time in minutes.
+     * @return The catalogue's Movie object with this title.
+     * @throws IllegalArgumentException if the title is taken by a movie of another genre or duration.
+     */
+    public static Movie createMovie(Genre genre, String title, int durationMinutes) {
+        Movie movie;
+        switch (genre) {
+            case ACTION:
+                movie = new ActionMovie(title, durationMinutes);
+                break;
+            case COMEDY:
+                movie = new ComedyMovie(title, durationMinutes);
+                break;
+            case DRAMA:
+                movie = new DramaMovie(title, durationMinutes);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown genre: " + genre);
         }
-        // Return null if the genre is not recognized
-        return null;
+        return ShowtimeCatalogue.getInstance().addMovie(movie);
     }
 }
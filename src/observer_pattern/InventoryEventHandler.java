@@ -0,0 +1,34 @@
+package observer_pattern;
+
+/**
+ * observer_pattern.InventoryEventHandler is a subscriber of the observer_pattern.InventoryFeed (Observer pattern).
+ * All methods of a subscription are called on its own dispatcher thread, one at a time.
+ */
+public interface InventoryEventHandler {
+
+    /**
+     * Called for each seat change, in publication order
+     *
+     * @param type      What happened to the seat
+     * @param showingId The showing ID
+     * @param seat      Zero-based seat index, the ticket number minus one
+     * @param sequence  Position of the event in the feed
+     */
+    void onEvent(InventoryEventType type, int showingId, int seat, long sequence);
+
+    /**
+     * Called after the events delivered in one go, before the dispatcher waits for more
+     * Lets handlers that aggregate events act once per batch instead of once per event
+     */
+    default void onBatchEnd() {
+    }
+
+    /**
+     * Called when the subscriber fell more than the feed's capacity behind and events were
+     * overwritten before it could read them; it should re-read the state it tracks
+     *
+     * @param lostEvents Number of events that were skipped
+     */
+    default void onEventsLost(long lostEvents) {
+    }
+}
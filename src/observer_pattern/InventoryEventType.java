@@ -0,0 +1,24 @@
+package observer_pattern;
+
+/**
+ * observer_pattern.InventoryEventType lists the seat changes published on the observer_pattern.InventoryFeed.
+ */
+public enum InventoryEventType {
+    BOOKED,     // A free seat was booked
+    HELD,       // A free seat was held during checkout
+    CONFIRMED,  // A held seat was booked
+    RELEASED;   // A booked or held seat became free again
+
+    // Cached values() array, values() allocates a new array on each call
+    private static final InventoryEventType[] VALUES = values();
+
+    /**
+     * Gets the event type with an ordinal
+     *
+     * @param ordinal The ordinal
+     * @return The event type
+     */
+    static InventoryEventType fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
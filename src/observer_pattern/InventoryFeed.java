@@ -0,0 +1,241 @@
+package observer_pattern;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * observer_pattern.InventoryFeed publishes seat changes to any number of subscribers (Observer pattern).
+ * <p>
+ * Events go into a fixed ring buffer of packed longs, so publishing allocates nothing: the
+ * booking thread claims a sequence number, writes the event into its slot and stamps the slot
+ * with the sequence number. Each subscriber has its own dispatcher thread that follows the
+ * ring at its own pace and parks while there is nothing new; publishers only wake parked
+ * subscribers. When nobody subscribes, publishing costs a single volatile read.
+ * <p>
+ * Bookings never wait for subscribers. A subscriber that falls more than the capacity behind
+ * loses the overwritten events and is told so through InventoryEventHandler.onEventsLost, so
+ * it can re-read the state it tracks.
+ */
+public class InventoryFeed {
+    // Bits of a slot stamp holding the event type, the rest holds the sequence number plus one
+    private static final int TYPE_BITS = 3;
+
+    // Stamp of a slot while a publisher writes it
+    private static final long BUSY = -1;
+
+    // Maximum events delivered before a subscriber calls onBatchEnd
+    private static final int MAX_BATCH = 1024;
+
+    // Longest park of an idle subscriber, a safety net in case a wake-up is missed
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final int capacity;
+    private final int mask;
+
+    // Two longs per event: the stamp, then showing ID and seat
+    private final AtomicLongArray slots;
+
+    // Next sequence number to hand out
+    private final AtomicLong cursor = new AtomicLong();
+
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    // Number of subscribers parked waiting for events
+    private final AtomicInteger parkedSubscribers = new AtomicInteger();
+
+    /**
+     * Creates an empty feed
+     *
+     * @param capacity Number of events kept for slow subscribers, rounded up to a power of two
+     */
+    public InventoryFeed(int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicLongArray(this.capacity * 2);
+    }
+
+    /**
+     * Publishes a seat change to all subscribers
+     *
+     * @param type      What happened to the seat
+     * @param showingId The showing ID
+     * @param seat      Zero-based seat index
+     */
+    public void publish(InventoryEventType type, int showingId, int seat) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        long sequence = cursor.getAndIncrement();
+        int base = (int) (sequence & mask) << 1;
+
+        // Take the slot exclusively; give up if a publisher a full ring ahead already wrote it
+        long current;
+        do {
+            current = slots.get(base);
+            if (current == BUSY) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (sequenceOf(current) > sequence) {
+                return;  // Lapped, subscribers see the loss
+            }
+            if (slots.compareAndSet(base, current, BUSY)) {
+                break;
+            }
+        } while (true);
+
+        slots.set(base + 1, ((long) showingId << 32) | (seat & 0xFFFFFFFFL));
+        slots.set(base, ((sequence + 1) << TYPE_BITS) | type.ordinal());
+
+        if (parkedSubscribers.get() > 0) {
+            for (Subscription subscription : subscriptions) {
+                if (subscription.parked) {
+                    LockSupport.unpark(subscription.dispatcher);
+                }
+            }
+        }
+    }
+
+    /**
+     * Subscribes a handler to the events published from now on
+     *
+     * @param name    Name of the subscriber, used for its dispatcher thread
+     * @param handler The handler, called on the dispatcher thread
+     * @return The subscription, close it to unsubscribe
+     */
+    public Subscription subscribe(String name, InventoryEventHandler handler) {
+        Subscription subscription = new Subscription(name, handler);
+        subscriptions.add(subscription);
+        subscription.dispatcher.start();
+        return subscription;
+    }
+
+    /**
+     * Gets the sequence number the next event will get
+     *
+     * @return Number of events published so far while anyone subscribed
+     */
+    public long getPublishedCount() {
+        return cursor.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the sequence number of a slot stamp
+     *
+     * @param stamp The stamp
+     * @return The sequence number, -1 for a slot never written
+     */
+    private static long sequenceOf(long stamp) {
+        return (stamp >>> TYPE_BITS) - 1;
+    }
+
+    /**
+     * A subscriber's position in the feed and its dispatcher thread
+     */
+    public final class Subscription implements AutoCloseable {
+        private final InventoryEventHandler handler;
+        private final Thread dispatcher;
+        private long nextSequence;            // Next event to deliver, only used by the dispatcher
+        private volatile boolean parked;      // Set while the dispatcher is parked or about to park
+        private volatile boolean running = true;
+
+        private Subscription(String name, InventoryEventHandler handler) {
+            this.handler = handler;
+            this.nextSequence = cursor.get();
+            this.dispatcher = new Thread(this::dispatch, "inventory-feed-" + name);
+            this.dispatcher.setDaemon(true);
+        }
+
+        /**
+         * Stops delivering events and ends the dispatcher thread
+         */
+        @Override
+        public void close() {
+            running = false;
+            subscriptions.remove(this);
+            LockSupport.unpark(dispatcher);
+        }
+
+        /**
+         * Dispatcher loop: delivers batches of events and parks while there are none
+         */
+        private void dispatch() {
+            while (running) {
+                if (deliverBatch()) {
+                    try {
+                        handler.onBatchEnd();
+                    } catch (RuntimeException e) {
+                        System.err.println("Inventory feed subscriber failed: " + e);
+                    }
+                    continue;
+                }
+                if (nextSequence < cursor.get()) {
+                    Thread.yield();  // The next event is claimed but not written yet
+                    continue;
+                }
+                // Announce the park before the last check, so a publisher either sees it or we see its event
+                parked = true;
+                parkedSubscribers.incrementAndGet();
+                if (running && nextSequence >= cursor.get()) {
+                    LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                }
+                parkedSubscribers.decrementAndGet();
+                parked = false;
+            }
+        }
+
+        /**
+         * Delivers the published events after nextSequence, up to MAX_BATCH of them
+         *
+         * @return true if any event was delivered or lost
+         */
+        private boolean deliverBatch() {
+            boolean delivered = false;
+            for (int count = 0; count < MAX_BATCH && nextSequence < cursor.get(); ) {
+                int base = (int) (nextSequence & mask) << 1;
+                long stamp = slots.get(base);
+                if (stamp == BUSY || sequenceOf(stamp) < nextSequence) {
+                    break;  // Not written yet
+                }
+                if (sequenceOf(stamp) > nextSequence) {
+                    // Overwritten by a publisher a full ring ahead; skip to the oldest event still kept
+                    long resumeAt = Math.max(nextSequence + 1, cursor.get() - capacity);
+                    notifyLost(resumeAt - nextSequence);
+                    nextSequence = resumeAt;
+                    delivered = true;
+                    continue;
+                }
+                long payload = slots.get(base + 1);
+                if (slots.get(base) != stamp) {
+                    continue;  // Overwritten while reading, the next pass reports the loss
+                }
+                nextSequence++;
+                count++;
+                delivered = true;
+                try {
+                    handler.onEvent(InventoryEventType.fromOrdinal((int) (stamp & ((1 << TYPE_BITS) - 1))),
+                            (int) (payload >>> 32), (int) payload, nextSequence - 1);
+                } catch (RuntimeException e) {
+                    System.err.println("Inventory feed subscriber failed: " + e);
+                }
+            }
+            return delivered;
+        }
+
+        private void notifyLost(long lostEvents) {
+            try {
+                handler.onEventsLost(lostEvents);
+            } catch (RuntimeException e) {
+                System.err.println("Inventory feed subscriber failed: " + e);
+            }
+        }
+    }
+}
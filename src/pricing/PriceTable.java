@@ -0,0 +1,318 @@
+package pricing;
+
+import movie_factory_pattern.Genre;
+import theatre_factory_pattern.TheaterType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * pricing.PriceTable is an immutable, precompiled set of ticket price rules.
+ * <p>
+ * The rules are a base price per genre and theater type, a surcharge per theater type (such as
+ * for IMAX), optional fixed base prices of single showings, and occupancy tiers that scale the
+ * base price as a showing fills up. When the table is built, every combination of base price
+ * and tier is multiplied out into flat int arrays, so pricing a ticket is a tier scan over a few
+ * thresholds and one array read, plus a binary search over the showings with a fixed price: no
+ * allocation, no arithmetic on the rules.
+ * <p>
+ * Tables are read from text files with one rule per line; blank lines and lines starting with
+ * # are ignored:
+ * <pre>
+ * base Action Cinema 1200     # base price in cents of a genre in a theater type
+ * surcharge IMAX 400          # added to every base price of the theater type
+ * tier 80 125                 # from 80% occupancy on, charge 125% of the base price
+ * showing 7 2500              # showing 7 has a base price of 2500 cents, surcharge included
+ * </pre>
+ * Base prices not given are 0 and a table without tiers charges 100% at any occupancy.
+ */
+public final class PriceTable {
+    private static final int THEATER_TYPES = TheaterType.values().length;
+
+    // Lowest occupancy, in per mille, of each tier, ascending; the first is always 0
+    private final int[] tierStartsPerMille;
+
+    // Price in cents of each genre and theater type in each tier,
+    // at [(genre ordinal * THEATER_TYPES + theater type ordinal) * tiers + tier]
+    private final int[] prices;
+
+    // IDs of the showings with a fixed base price, ascending
+    private final int[] showingIds;
+
+    // Price in cents of those showings in each tier, at [index in showingIds * tiers + tier]
+    private final int[] showingPrices;
+
+    private PriceTable(int[] tierStartsPerMille, int[] prices, int[] showingIds, int[] showingPrices) {
+        this.tierStartsPerMille = tierStartsPerMille;
+        this.prices = prices;
+        this.showingIds = showingIds;
+        this.showingPrices = showingPrices;
+    }
+
+    /**
+     * Gets the price of a ticket
+     *
+     * @param showingId   The showing ID
+     * @param genre       Genre of the showing
+     * @param theaterType Theater type of the showing
+     * @param booked      Seats of the showing booked before this ticket
+     * @param capacity    Seat capacity of the showing
+     * @return The price in cents
+     */
+    public int priceOf(int showingId, Genre genre, TheaterType theaterType, int booked, int capacity) {
+        int tiers = tierStartsPerMille.length;
+        // Compares booked / capacity against each tier start by cross-multiplying, without a division
+        long bookedPerMille = (long) booked * 1000;
+        int tier = tiers - 1;
+        while (tier > 0 && (long) tierStartsPerMille[tier] * capacity > bookedPerMille) {
+            tier--;
+        }
+        int showingIndex = showingIds.length == 0 ? -1 : Arrays.binarySearch(showingIds, showingId);
+        if (showingIndex >= 0) {
+            return showingPrices[showingIndex * tiers + tier];
+        }
+        return prices[(genre.ordinal() * THEATER_TYPES + theaterType.ordinal()) * tiers + tier];
+    }
+
+    /**
+     * Gets the default rules: Action 12.00, Comedy 11.00, Drama 10.00, IMAX 4.00 extra, and
+     * 10%, 25% and 50% more from 50%, 80% and 95% occupancy
+     *
+     * @return The default table
+     */
+    public static PriceTable defaults() {
+        return new Builder()
+                .setBasePrice(Genre.ACTION, 1200)
+                .setBasePrice(Genre.COMEDY, 1100)
+                .setBasePrice(Genre.DRAMA, 1000)
+                .setSurcharge(TheaterType.IMAX, 400)
+                .addTier(50, 110)
+                .addTier(80, 125)
+                .addTier(95, 150)
+                .build();
+    }
+
+    /**
+     * Reads a table from a rules file
+     *
+     * @param file The rules file
+     * @return The table
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public static PriceTable load(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        try {
+            return parse(file.toString(), lines);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Compiles a table from rule lines
+     *
+     * @param source Where the lines come from, for error messages
+     * @param lines  The rule lines
+     * @return The table
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public static PriceTable parse(String source, List<String> lines) {
+        Builder builder = new Builder();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comment = line.indexOf('#');
+            String[] fields = (comment >= 0 ? line.substring(0, comment) : line).trim().split("\\s+");
+            if (fields[0].isEmpty()) {
+                continue;
+            }
+            try {
+                switch (fields[0]) {
+                    case "base" -> {
+                        expectFields(fields, 4);
+                        builder.setBasePrice(genre(fields[1]), theaterType(fields[2]), Integer.parseInt(fields[3]));
+                    }
+                    case "surcharge" -> {
+                        expectFields(fields, 3);
+                        builder.setSurcharge(theaterType(fields[1]), Integer.parseInt(fields[2]));
+                    }
+                    case "tier" -> {
+                        expectFields(fields, 3);
+                        builder.addTier(Integer.parseInt(fields[1]), Integer.parseInt(fields[2]));
+                    }
+                    case "showing" -> {
+                        expectFields(fields, 3);
+                        builder.setShowingPrice(Integer.parseInt(fields[1]), Integer.parseInt(fields[2]));
+                    }
+                    default -> throw new IllegalArgumentException("unknown rule " + fields[0]);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(source + " line " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void expectFields(String[] fields, int count) {
+        if (fields.length != count) {
+            throw new IllegalArgumentException(fields[0] + " takes " + (count - 1) + " values");
+        }
+    }
+
+    private static Genre genre(String name) {
+        Genre genre = Genre.fromName(name);
+        if (genre == null) {
+            throw new IllegalArgumentException("unknown genre " + name);
+        }
+        return genre;
+    }
+
+    private static TheaterType theaterType(String name) {
+        TheaterType theaterType = TheaterType.fromName(name);
+        if (theaterType == null) {
+            throw new IllegalArgumentException("unknown theater type " + name);
+        }
+        return theaterType;
+    }
+
+    /**
+     * Collects price rules and compiles them into a table
+     */
+    public static final class Builder {
+        private final int[] basePrices = new int[Genre.values().length * THEATER_TYPES];
+        private final int[] surcharges = new int[THEATER_TYPES];
+        private final List<int[]> tiers = new ArrayList<>();    // {from percent, percent of base}
+        private final Map<Integer, Integer> showingBasePrices = new TreeMap<>();
+
+        /**
+         * Sets the base price of a genre in every theater type
+         *
+         * @param genre      The genre
+         * @param priceCents Base price in cents
+         * @return The builder instance for method chaining
+         */
+        public Builder setBasePrice(Genre genre, int priceCents) {
+            for (TheaterType theaterType : TheaterType.values()) {
+                setBasePrice(genre, theaterType, priceCents);
+            }
+            return this;
+        }
+
+        /**
+         * Sets the base price of a genre in a theater type
+         *
+         * @param genre       The genre
+         * @param theaterType The theater type
+         * @param priceCents  Base price in cents
+         * @return The builder instance for method chaining
+         */
+        public Builder setBasePrice(Genre genre, TheaterType theaterType, int priceCents) {
+            basePrices[genre.ordinal() * THEATER_TYPES + theaterType.ordinal()] = checkPrice(priceCents);
+            return this;
+        }
+
+        /**
+         * Sets the amount added to the base prices of a theater type
+         *
+         * @param theaterType The theater type
+         * @param priceCents  Surcharge in cents
+         * @return The builder instance for method chaining
+         */
+        public Builder setSurcharge(TheaterType theaterType, int priceCents) {
+            surcharges[theaterType.ordinal()] = checkPrice(priceCents);
+            return this;
+        }
+
+        /**
+         * Adds an occupancy tier
+         *
+         * @param fromPercent   Occupancy from which the tier applies, 0 to 100
+         * @param percentOfBase Price charged in the tier, in percent of the base price
+         * @return The builder instance for method chaining
+         */
+        public Builder addTier(int fromPercent, int percentOfBase) {
+            if (fromPercent < 0 || fromPercent > 100 || percentOfBase < 0) {
+                throw new IllegalArgumentException("tier needs an occupancy of 0 to 100 and a non-negative percentage");
+            }
+            tiers.add(new int[]{fromPercent, percentOfBase});
+            return this;
+        }
+
+        /**
+         * Fixes the base price of a single showing, replacing its genre price and surcharge
+         *
+         * @param showingId  The showing ID
+         * @param priceCents Base price in cents, which may be 0, or -1 to use the genre price again
+         * @return The builder instance for method chaining
+         */
+        public Builder setShowingPrice(int showingId, int priceCents) {
+            if (showingId < 0) {
+                throw new IllegalArgumentException("showing ID must not be negative");
+            }
+            if (priceCents == -1) {
+                showingBasePrices.remove(showingId);
+            } else {
+                showingBasePrices.put(showingId, checkPrice(priceCents));
+            }
+            return this;
+        }
+
+        /**
+         * Multiplies out every base price and tier into a table
+         *
+         * @return The table
+         */
+        public PriceTable build() {
+            // Sort the tiers by occupancy and make sure one starts at 0%
+            List<int[]> sorted = new ArrayList<>(tiers);
+            sorted.sort((a, b) -> Integer.compare(a[0], b[0]));
+            if (sorted.isEmpty() || sorted.get(0)[0] > 0) {
+                sorted.add(0, new int[]{0, 100});
+            }
+            int tierCount = sorted.size();
+            int[] tierStarts = new int[tierCount];
+            for (int t = 0; t < tierCount; t++) {
+                tierStarts[t] = sorted.get(t)[0] * 10;
+            }
+
+            int[] prices = new int[basePrices.length * tierCount];
+            for (int combination = 0; combination < basePrices.length; combination++) {
+                int base = basePrices[combination] + surcharges[combination % THEATER_TYPES];
+                for (int t = 0; t < tierCount; t++) {
+                    prices[combination * tierCount + t] = scale(base, sorted.get(t)[1]);
+                }
+            }
+            int[] showingIds = new int[showingBasePrices.size()];
+            int[] showingPrices = new int[showingIds.length * tierCount];
+            int index = 0;
+            for (Map.Entry<Integer, Integer> showing : showingBasePrices.entrySet()) {  // Ascending by ID
+                showingIds[index] = showing.getKey();
+                for (int t = 0; t < tierCount; t++) {
+                    showingPrices[index * tierCount + t] = scale(showing.getValue(), sorted.get(t)[1]);
+                }
+                index++;
+            }
+            return new PriceTable(tierStarts, prices, showingIds, showingPrices);
+        }
+
+        private static int checkPrice(int priceCents) {
+            if (priceCents < 0) {
+                throw new IllegalArgumentException("prices must not be negative");
+            }
+            return priceCents;
+        }
+
+        /**
+         * Applies a percentage to a price, rounding to the nearest cent
+         */
+        private static int scale(int priceCents, int percent) {
+            return Math.toIntExact(((long) priceCents * percent + 50) / 100);
+        }
+    }
+}
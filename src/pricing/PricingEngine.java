@@ -0,0 +1,94 @@
+package pricing;
+
+import inventory.Showing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * pricing.PricingEngine prices tickets from demand: the genre, the theater type and how full
+ * the showing already is.
+ * <p>
+ * The rules live in an immutable pricing.PriceTable behind a volatile field. Pricing reads the
+ * field once and looks the price up in the table's precompiled arrays, so it never allocates,
+ * locks or waits. Reloading parses and compiles a new table on the caller's thread, then swaps
+ * it in with a single write: bookings in flight finish with the old table, later ones use the
+ * new one, and no booking is ever held up by a reload.
+ * <p>
+ * When the system property booking.pricing.file is set, the rules are loaded from that file;
+ * otherwise pricing.PriceTable.defaults() applies.
+ */
+public class PricingEngine {
+    private volatile PriceTable table;
+
+    /**
+     * Creates an engine with the rules configured by system properties
+     *
+     * @throws UncheckedIOException if booking.pricing.file is set but cannot be loaded
+     */
+    public PricingEngine() {
+        String file = System.getProperty("booking.pricing.file");
+        try {
+            this.table = file == null ? PriceTable.defaults() : PriceTable.load(Paths.get(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load pricing rules", e);
+        }
+    }
+
+    /**
+     * Creates an engine with the given rules
+     *
+     * @param table The price table
+     */
+    public PricingEngine(PriceTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Gets the price of the next ticket of a showing
+     *
+     * @param showing The showing
+     * @param booked  Seats of the showing booked before this ticket
+     * @return The price in cents
+     */
+    public int priceOf(Showing showing, int booked) {
+        return table.priceOf(showing.getShowingId(), showing.getGenre(), showing.getTheaterType(),
+                booked, showing.getSeatMap().getCapacity());
+    }
+
+    /**
+     * Gets the price the next ticket of a showing would have right now
+     *
+     * @param showing The showing
+     * @return The price in cents
+     */
+    public int currentPriceOf(Showing showing) {
+        return priceOf(showing, showing.getSeatMap().getCapacity() - showing.getSeatMap().getAvailableCount());
+    }
+
+    public PriceTable getTable() {
+        return table;
+    }
+
+    /**
+     * Replaces the rules; bookings priced from now on use the new table
+     *
+     * @param table The new price table
+     */
+    public void reload(PriceTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Loads new rules from a file and replaces the current ones
+     * The old rules stay in force if the file cannot be read or is malformed
+     *
+     * @param file The rules file
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public void reload(Path file) throws IOException {
+        reload(PriceTable.load(file));
+    }
+}
@@ -1,10 +1,16 @@
 package prototype_pattern;
 
+import java.util.Objects;
+
 // MovieTicket class implements the TicketPrototype interface, supporting cloning of ticket objects
-public class MovieTicket implements TicketPrototype {
-    private String genre;        // Genre of the movie (e.g., Action, Drama)
-    private String theaterType;  // Type of theater (e.g., IMAX, Standard)
-    private int ticketNumber;    // Unique ticket number
+// Tickets are immutable values, so a clone is the ticket itself and tickets can be shared freely
+public final class MovieTicket implements TicketPrototype {
+    private final String genre;        // Genre of the movie (e.g., Action, Drama)
+    private final String theaterType;  // Type of theater (e.g., IMAX, Standard)
+    private final int ticketNumber;    // Unique ticket number
+    private final int showingId;       // Showing the ticket is for, -1 if not known
+    private final int priceCents;      // Price paid for the ticket in cents, 0 if not priced
+    private final int generation;      // Booking generation of the seat, 0 for its first booking
 
     /**
      * Constructor to initialize a MovieTicket with its details.
@@ -14,19 +20,122 @@ public class MovieTicket implements TicketPrototype {
      * @param ticketNumber The unique ticket number.
      */
     public MovieTicket(String genre, String theaterType, int ticketNumber) {
+        this(genre, theaterType, ticketNumber, -1);
+    }
+
+    /**
+     * Constructor to initialize a MovieTicket for a known showing.
+     *
+     * @param genre        The genre of the movie.
+     * @param theaterType  The type of theater.
+     * @param ticketNumber The unique ticket number.
+     * @param showingId    The showing the ticket is for.
+     */
+    public MovieTicket(String genre, String theaterType, int ticketNumber, int showingId) {
+        this(genre, theaterType, ticketNumber, showingId, 0);
+    }
+
+    /**
+     * Constructor to initialize a priced MovieTicket for a known showing.
+     *
+     * @param genre        The genre of the movie.
+     * @param theaterType  The type of theater.
+     * @param ticketNumber The unique ticket number.
+     * @param showingId    The showing the ticket is for.
+     * @param priceCents   The price paid for the ticket in cents.
+     */
+    public MovieTicket(String genre, String theaterType, int ticketNumber, int showingId, int priceCents) {
+        this(genre, theaterType, ticketNumber, showingId, priceCents, 0);
+    }
+
+    /**
+     * Constructor to initialize a priced MovieTicket for one booking of a seat.
+     *
+     * @param genre        The genre of the movie.
+     * @param theaterType  The type of theater.
+     * @param ticketNumber The unique ticket number.
+     * @param showingId    The showing the ticket is for.
+     * @param priceCents   The price paid for the ticket in cents.
+     * @param generation   The booking generation of the seat, the number of earlier bookings of it that were cancelled.
+     */
+    public MovieTicket(String genre, String theaterType, int ticketNumber, int showingId, int priceCents,
+                       int generation) {
         this.genre = genre;
         this.theaterType = theaterType;
         this.ticketNumber = ticketNumber;
+        this.showingId = showingId;
+        this.priceCents = priceCents;
+        this.generation = generation;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public String getTheaterType() {
+        return theaterType;
+    }
+
+    public int getTicketNumber() {
+        return ticketNumber;
+    }
+
+    public int getShowingId() {
+        return showingId;
+    }
+
+    public int getPriceCents() {
+        return priceCents;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the booking of the ticket packed into a prototype_pattern.TicketHandle
+     *
+     * @return The handle of the showing ID, ticket number and generation
+     */
+    @Override
+    public long getHandle() {
+        return TicketHandle.pack(showingId, ticketNumber, generation);
     }
 
     /**
      * Creates a clone of the current MovieTicket instance.
+     * The ticket is immutable, so the clone is the ticket itself and no object is allocated.
      *
-     * @return A new MovieTicket object with the same attributes as the original.
+     * @return This ticket, equal to any copy of it.
      */
     @Override
     public TicketPrototype cloneTicket() {
-        return new MovieTicket(this.genre, this.theaterType, this.ticketNumber);
+        return this;
+    }
+
+    /**
+     * Compares tickets by value.
+     *
+     * @param o The other object.
+     * @return true if o is a ticket with the same attributes.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MovieTicket)) {
+            return false;
+        }
+        MovieTicket other = (MovieTicket) o;
+        return ticketNumber == other.ticketNumber && showingId == other.showingId && priceCents == other.priceCents
+                && generation == other.generation
+                && Objects.equals(genre, other.genre) && Objects.equals(theaterType, other.theaterType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(genre, theaterType, ticketNumber, showingId, priceCents, generation);
     }
 
     /**
@@ -36,6 +145,10 @@ public class MovieTicket implements TicketPrototype {
      */
     @Override
     public String toString() {
-        return "Ticket [Genre: " + genre + ", Theater: " + theaterType + ", Ticket Number: " + ticketNumber + "]";
+        String ticket = "Ticket [Genre: " + genre + ", Theater: " + theaterType + ", Ticket Number: " + ticketNumber;
+        if (priceCents == 0) {
+            return ticket + "]";
+        }
+        return ticket + ", Price: " + String.format("%d.%02d", priceCents / 100, priceCents % 100) + "]";
     }
 }
@@ -0,0 +1,101 @@
+package prototype_pattern;
+
+/**
+ * prototype_pattern.TicketHandle packs a booked ticket into a single long: the showing ID in the
+ * high 24 bits, the ticket number in the next 24 bits and the booking generation of the seat in
+ * the low 16 bits.
+ * A handle is a plain value, so high-rate paths can pass, store and compare tickets without
+ * allocating a MovieTicket; MovieTicket.getHandle converts the other way.
+ * <p>
+ * The generation counts the earlier bookings of the seat that were cancelled, so a handle names
+ * one booking rather than a seat: once the booking is cancelled and the seat booked again, the
+ * old handle no longer matches. Only the low 16 bits of the generation are kept; the generation
+ * never wraps, since inventory.SeatMap refuses to cancel a booking of a seat whose generation
+ * reached GENERATION_MASK, so no handle ever names two bookings.
+ */
+public final class TicketHandle {
+    // Bits of each part of a handle
+    private static final int TICKET_BITS = 24;
+    private static final int GENERATION_BITS = 16;
+
+    // Largest showing ID and ticket number a handle can hold, inventory.ShowingInventory registers no more showings
+    public static final int MAX_SHOWING_ID = (1 << (64 - TICKET_BITS - GENERATION_BITS - 1)) - 1;
+    public static final int MAX_TICKET_NUMBER = (1 << TICKET_BITS) - 1;
+
+    // Mask of the generation bits
+    public static final int GENERATION_MASK = (1 << GENERATION_BITS) - 1;
+
+    private TicketHandle() {
+    }
+
+    /**
+     * Packs the first booking of a seat into a handle
+     *
+     * @param showingId    The showing ID, -1 to MAX_SHOWING_ID
+     * @param ticketNumber The ticket number, 0 to MAX_TICKET_NUMBER
+     * @return The handle
+     */
+    public static long pack(int showingId, int ticketNumber) {
+        return pack(showingId, ticketNumber, 0);
+    }
+
+    /**
+     * Packs a booking into a handle
+     *
+     * @param showingId    The showing ID, -1 to MAX_SHOWING_ID
+     * @param ticketNumber The ticket number, 0 to MAX_TICKET_NUMBER
+     * @param generation   Booking generation of the seat, only its low 16 bits are kept
+     * @return The handle
+     */
+    public static long pack(int showingId, int ticketNumber, int generation) {
+        if (showingId < -1 || showingId > MAX_SHOWING_ID) {
+            throw new IllegalArgumentException("Showing ID does not fit a ticket handle: " + showingId);
+        }
+        if (ticketNumber < 0 || ticketNumber > MAX_TICKET_NUMBER) {
+            throw new IllegalArgumentException("Ticket number does not fit a ticket handle: " + ticketNumber);
+        }
+        return ((long) showingId << (TICKET_BITS + GENERATION_BITS))
+                | ((long) ticketNumber << GENERATION_BITS)
+                | (generation & GENERATION_MASK);
+    }
+
+    /**
+     * Gets the showing ID of a handle
+     *
+     * @param handle The handle
+     * @return The showing ID
+     */
+    public static int showingId(long handle) {
+        return (int) (handle >> (TICKET_BITS + GENERATION_BITS));
+    }
+
+    /**
+     * Gets the ticket number of a handle
+     *
+     * @param handle The handle
+     * @return The ticket number
+     */
+    public static int ticketNumber(long handle) {
+        return (int) (handle >>> GENERATION_BITS) & MAX_TICKET_NUMBER;
+    }
+
+    /**
+     * Gets the booking generation of a handle
+     *
+     * @param handle The handle
+     * @return The low 16 bits of the generation
+     */
+    public static int generation(long handle) {
+        return (int) handle & GENERATION_MASK;
+    }
+
+    /**
+     * Describes a handle for logs
+     *
+     * @param handle The handle
+     * @return The showing ID, ticket number and generation
+     */
+    public static String toString(long handle) {
+        return "Showing " + showingId(handle) + ", Ticket " + ticketNumber(handle) + ", Booking " + generation(handle);
+    }
+}
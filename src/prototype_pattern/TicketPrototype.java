@@ -5,8 +5,17 @@ public interface TicketPrototype {
 
     /**
      * Method to create a clone of the implementing ticket object.
+     * Immutable tickets may return themselves, since no copy could differ from the original;
+     * callers must not rely on the clone being a distinct instance.
      *
-     * @return A new instance of the ticket object with the same properties as the original.
+     * @return A ticket object with the same properties as the original, possibly the original itself.
      */
     TicketPrototype cloneTicket();
+
+    /**
+     * Method to identify the booking the ticket was issued for.
+     *
+     * @return A prototype_pattern.TicketHandle naming the booking, which can be used to cancel it.
+     */
+    long getHandle();
 }
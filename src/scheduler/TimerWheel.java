@@ -0,0 +1,139 @@
+package scheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * scheduler.TimerWheel is a hashed timing wheel that fires a callback for items whose deadline passed.
+ * Items are pushed onto lock-free per-bucket stacks, so scheduling costs one allocation and one
+ * compare-and-set no matter how many items are outstanding, and no task is created per item.
+ * <p>
+ * A single daemon thread advances the wheel one bucket per tick, fires the due items of that
+ * bucket and pushes the others back for a later revolution. Items fire no earlier than their
+ * deadline and normally within two ticks after it. Cancelled items are not removed; the callback
+ * is expected to ignore items that are no longer relevant.
+ *
+ * @param <T> Type of the scheduled items
+ */
+public class TimerWheel<T> {
+
+    /**
+     * Scheduled item, also the node of its bucket's stack
+     */
+    private static final class Entry<T> {
+        final T item;
+        final long deadline;  // System.nanoTime() at which the item is due
+        Entry<T> next;
+
+        Entry(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+
+    private final long tickNanos;                         // Duration of one tick
+    private final int mask;                               // Bucket count minus one
+    private final AtomicReferenceArray<Entry<T>> buckets; // Stack head of each bucket
+    private final Consumer<T> onExpired;                  // Called for each due item
+    private final long startTime;                         // System.nanoTime() of tick zero
+
+    // Last tick whose bucket has been processed
+    private volatile long processedTick = -1;
+
+    /**
+     * Creates a timer wheel and starts its ticker thread
+     *
+     * @param name        Name of the ticker thread
+     * @param tick        Duration of one tick
+     * @param unit        Unit of tick
+     * @param bucketCount Number of buckets, rounded up to a power of two
+     * @param onExpired   Callback for each item whose deadline passed, runs on the ticker thread
+     */
+    public TimerWheel(String name, long tick, TimeUnit unit, int bucketCount, Consumer<T> onExpired) {
+        this.tickNanos = unit.toNanos(tick);
+        int size = Integer.highestOneBit(Math.max(bucketCount - 1, 1)) << 1;
+        this.mask = size - 1;
+        this.buckets = new AtomicReferenceArray<>(size);
+        this.onExpired = onExpired;
+        this.startTime = System.nanoTime();
+
+        Thread ticker = new Thread(this::run, name);
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * Schedules an item to expire after a delay
+     *
+     * @param item  The item
+     * @param delay Delay until the item is due
+     * @param unit  Unit of delay
+     */
+    public void schedule(T item, long delay, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(delay);
+        push(new Entry<>(item, deadline));
+    }
+
+    /**
+     * Pushes an entry onto the bucket of its deadline tick
+     * Entries due at or before the next tick go two ticks ahead instead, so the ticker cannot
+     * drain their bucket between reading processedTick and the push
+     *
+     * @param entry The entry
+     */
+    private void push(Entry<T> entry) {
+        long tick = Math.max((entry.deadline - startTime) / tickNanos, processedTick + 2);
+        int index = (int) (tick & mask);
+        Entry<T> head;
+        do {
+            head = buckets.get(index);
+            entry.next = head;
+        } while (!buckets.compareAndSet(index, head, entry));
+    }
+
+    /**
+     * Ticker loop: processes every tick that has fully elapsed, then sleeps until the next tick
+     */
+    private void run() {
+        while (true) {
+            long now = System.nanoTime();
+            long currentTick = (now - startTime) / tickNanos;
+            while (processedTick < currentTick - 1) {
+                long tick = processedTick + 1;
+                processBucket((int) (tick & mask), now);
+                processedTick = tick;
+            }
+            long nextTickAt = startTime + (currentTick + 1) * tickNanos;
+            try {
+                TimeUnit.NANOSECONDS.sleep(Math.max(nextTickAt - System.nanoTime(), 0));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Takes every entry of a bucket, fires the due ones and re-schedules the rest
+     *
+     * @param index Bucket index
+     * @param now   Current System.nanoTime()
+     */
+    private void processBucket(int index, long now) {
+        Entry<T> entry = buckets.getAndSet(index, null);
+        while (entry != null) {
+            Entry<T> next = entry.next;
+            if (entry.deadline <= now) {
+                try {
+                    onExpired.accept(entry.item);
+                } catch (RuntimeException e) {
+                    // One failing callback must not stop the wheel
+                    System.err.println("Timer wheel callback failed: " + e);
+                }
+            } else {
+                push(entry);
+            }
+            entry = next;
+        }
+    }
+}
@@ -0,0 +1,533 @@
+package server;
+
+import adapter_pattern.MovieBooking;
+import adapter_pattern.TicketBookingAdapter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import decorator_pattern.AdmissionControlledBooking;
+import decorator_pattern.AdmissionPolicy;
+import inventory.BookingResult;
+import inventory.InventorySnapshot;
+import metrics.BookingMetrics;
+import movie_factory_pattern.Genre;
+import pricing.PriceTable;
+import prototype_pattern.MovieTicket;
+import session.Role;
+import session.Session;
+import singleton_pattern.SessionManager;
+import singleton_pattern.TicketBookingSystem;
+import theatre_factory_pattern.TheaterType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * server.BookingServer is the headless HTTP/JSON front end of the booking system.
+ * It runs on the JDK's built-in HTTP server and handles every request on its own virtual
+ * thread, so tens of thousands of concurrent clients need no thread pool tuning; a request
+ * waiting on the booking journal only parks its virtual thread.
+ * <p>
+ * Endpoints:
+ * <ul>
+ * <li>POST /login {"username", "password"}: returns {"token", "roles"}; answers 429 when the
+ * client or username exceeds its login rate and 503 when too many password checks are waiting,
+ * see server.LoginThrottle</li>
+ * <li>POST /logout: ends the session of the bearer token</li>
+ * <li>POST /book {"genre", "theaterType", "ticketNumber"} or {"showingId", "ticketNumber"}:
+ * books a ticket through adapter_pattern.MovieBooking, needs the user role; answers 429 when
+ * the user or showing exceeds its rate and 503 when the showing's queue is full; each ticket
+ * carries its prototype_pattern.TicketHandle as a decimal string</li>
+ * <li>POST /cancel {"handle"}: cancels the booking of a ticket handle and returns the refund,
+ * needs the admin role since bookings do not record their customer and handles can be guessed</li>
+ * <li>GET /availability, optionally ?genre=..&amp;theaterType=.. or ?showingId=..:
+ * availability of one showing, or of every default showing</li>
+ * <li>POST /showings {"genre", "theaterType", "capacity"}: registers a showing, needs the admin role</li>
+ * <li>GET /inventory: seat counts of every showing and their totals from one
+ * inventory.InventorySnapshot, needs the admin role</li>
+ * <li>GET /metrics: text dump of metrics.BookingMetrics, needs the admin role</li>
+ * <li>POST /pricing with pricing.PriceTable rule lines as a text body: replaces the pricing
+ * rules without pausing bookings, needs the admin role</li>
+ * </ul>
+ * Authenticated endpoints expect the header "Authorization: Bearer &lt;token&gt;".
+ * <p>
+ * Bookings pass a decorator_pattern.AdmissionControlledBooking configured by the
+ * booking.admission.* system properties, with the session's user charged for each request.
+ */
+public class BookingServer {
+    // Default TCP port
+    public static final int DEFAULT_PORT = 8080;
+
+    // Largest request body accepted, the API only takes small JSON objects
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    static {
+        // Send small responses at once; with Nagle's algorithm each keep-alive request waits
+        // about 40 ms for the client's delayed ACK. Must be set before the first HttpServer
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final TicketBookingSystem ticketBookingSystem = TicketBookingSystem.getInstance();
+    private final AdmissionControlledBooking movieBooking = new AdmissionControlledBooking(
+            new TicketBookingAdapter(), ticketBookingSystem::getShowingId, ticketBookingSystem::isShowing,
+            AdmissionPolicy.fromSystemProperties());
+    private final SessionManager sessionManager = SessionManager.getInstance();
+    private final LoginThrottle loginThrottle = LoginThrottle.fromSystemProperties();
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server bound to an address; it accepts requests once started
+     *
+     * @param address Address and port to listen on, port 0 picks a free port
+     * @throws IOException if the address cannot be bound
+     */
+    public BookingServer(InetSocketAddress address) throws IOException {
+        httpServer = HttpServer.create(address, 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/login", exchange -> handle(exchange, "POST", this::login));
+        httpServer.createContext("/logout", exchange -> handle(exchange, "POST", this::logout));
+        httpServer.createContext("/book", exchange -> handle(exchange, "POST", this::book));
+        httpServer.createContext("/cancel", exchange -> handle(exchange, "POST", this::cancel));
+        httpServer.createContext("/availability", exchange -> handle(exchange, "GET", this::availability));
+        httpServer.createContext("/showings", exchange -> handle(exchange, "POST", this::registerShowing));
+        httpServer.createContext("/inventory", exchange -> handle(exchange, "GET", this::inventory));
+        httpServer.createContext("/metrics", exchange -> handle(exchange, "GET", this::metrics));
+        httpServer.createContext("/pricing", exchange -> handle(exchange, "POST", this::reloadPricing));
+    }
+
+    /**
+     * Starts accepting requests
+     */
+    public void start() {
+        httpServer.start();
+    }
+
+    /**
+     * Stops accepting requests and waits for running requests to finish
+     *
+     * @param delaySeconds Maximum time to wait for running requests
+     */
+    public void stop(int delaySeconds) {
+        httpServer.stop(delaySeconds);
+        executor.close();
+    }
+
+    /**
+     * Gets the port the server listens on
+     *
+     * @return The port
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * A response of an endpoint: HTTP status code, body and its content type
+     */
+    private static final class Response {
+        final int status;
+        final String body;
+        final String contentType;
+
+        Response(int status, String body) {
+            this(status, body, "application/json; charset=utf-8");
+        }
+
+        Response(int status, String body, String contentType) {
+            this.status = status;
+            this.body = body;
+            this.contentType = contentType;
+        }
+    }
+
+    /**
+     * Handles one endpoint request
+     */
+    private interface Endpoint {
+        Response handle(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Runs an endpoint and sends its response, turning bad input into 400 and failures into 500
+     *
+     * @param exchange The HTTP exchange
+     * @param method   The only HTTP method the endpoint accepts
+     * @param endpoint The endpoint
+     */
+    private void handle(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+        Response response;
+        try {
+            if (!method.equals(exchange.getRequestMethod())) {
+                response = error(405, "Method not allowed, use " + method);
+            } else {
+                response = endpoint.handle(exchange);
+            }
+        } catch (IllegalArgumentException e) {
+            response = error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Request " + exchange.getRequestURI() + " failed: " + e);
+            response = error(500, "Internal error");
+        }
+        try (exchange) {
+            byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", response.contentType);
+            exchange.sendResponseHeaders(response.status, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        }
+    }
+
+    private Response login(HttpExchange exchange) throws IOException {
+        Map<String, Object> request = readJson(exchange);
+        String username = stringMember(request, "username");
+        String password = stringMember(request, "password");
+        if (!loginThrottle.tryAcquire(exchange.getRemoteAddress().getAddress().getHostAddress(), username)) {
+            return error(429, "Too many login attempts");
+        }
+        if (!loginThrottle.enter()) {
+            return error(503, "Too many logins in progress");
+        }
+        String token;
+        try {
+            token = sessionManager.login(username, password.toCharArray());
+        } finally {
+            loginThrottle.exit();
+        }
+        if (token == null) {
+            return error(401, "Invalid username or password");
+        }
+        Session session = sessionManager.getSession(token);
+        if (session == null) {
+            return error(401, "Session expired");
+        }
+        StringBuilder roles = new StringBuilder("[");
+        for (Role role : Role.values()) {
+            if (session.hasRole(role)) {
+                roles.append(roles.length() > 1 ? "," : "").append(Json.quote(role.name()));
+            }
+        }
+        return new Response(200, "{\"token\":" + Json.quote(token) + ",\"roles\":" + roles.append(']') + "}");
+    }
+
+    private Response logout(HttpExchange exchange) {
+        String token = bearerToken(exchange);
+        if (sessionManager.getSession(token) == null) {
+            return error(401, "Not logged in");
+        }
+        sessionManager.logoutSession(token);
+        return new Response(204, "");
+    }
+
+    private Response book(HttpExchange exchange) throws IOException {
+        Session session = sessionManager.getSession(bearerToken(exchange));
+        if (session == null) {
+            return error(401, "Not logged in");
+        }
+        if (!session.hasRole(Role.USER)) {
+            return error(403, "User role required");
+        }
+        Map<String, Object> request = readJson(exchange);
+        int ticketNumber = intMember(request, "ticketNumber");
+        MovieBooking userBooking = movieBooking.forUser(session.getUsername());
+        BookingResult result;
+        if (request.containsKey("showingId")) {
+            result = userBooking.bookTicket(intMember(request, "showingId"), ticketNumber);
+        } else {
+            result = userBooking.bookTicket(Genre.fromName(stringMember(request, "genre")),
+                    TheaterType.fromName(stringMember(request, "theaterType")), ticketNumber);
+        }
+        return new Response(statusCode(result), toJson(result));
+    }
+
+    private Response cancel(HttpExchange exchange) throws IOException {
+        Session session = sessionManager.getSession(bearerToken(exchange));
+        if (session == null) {
+            return error(401, "Not logged in");
+        }
+        if (!session.hasRole(Role.ADMIN)) {
+            return error(403, "Admin role required");
+        }
+        // A decimal string, JSON numbers lose precision beyond 53 bits in most clients
+        long handle = Long.parseLong(stringMember(readJson(exchange), "handle"));
+        BookingResult result = ticketBookingSystem.cancelTicket(handle);
+        return new Response(statusCode(result), toJson(result));
+    }
+
+    private Response availability(HttpExchange exchange) {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        if (query.containsKey("showingId")) {
+            int showingId = parseInt(query.get("showingId"), "showingId");
+            if (showingId < 0 || showingId >= ticketBookingSystem.getShowingCount()) {
+                return error(404, "Unknown showing");
+            }
+            return new Response(200, availabilityJson(showingId, null, null));
+        }
+        if (query.containsKey("genre") || query.containsKey("theaterType")) {
+            Genre genre = Genre.fromName(query.get("genre"));
+            TheaterType theaterType = TheaterType.fromName(query.get("theaterType"));
+            if (genre == null || theaterType == null) {
+                return error(404, "Unknown genre or theater type");
+            }
+            return new Response(200, availabilityJson(ticketBookingSystem.getShowingId(genre, theaterType), genre, theaterType));
+        }
+        StringBuilder json = new StringBuilder("[");
+        for (Genre genre : Genre.values()) {
+            for (TheaterType theaterType : TheaterType.values()) {
+                json.append(json.length() > 1 ? "," : "")
+                        .append(availabilityJson(ticketBookingSystem.getShowingId(genre, theaterType), genre, theaterType));
+            }
+        }
+        return new Response(200, json.append(']').toString());
+    }
+
+    private Response registerShowing(HttpExchange exchange) throws IOException {
+        Session session = sessionManager.getSession(bearerToken(exchange));
+        if (session == null) {
+            return error(401, "Not logged in");
+        }
+        if (!session.hasRole(Role.ADMIN)) {
+            return error(403, "Admin role required");
+        }
+        Map<String, Object> request = readJson(exchange);
+        Genre genre = Genre.fromName(stringMember(request, "genre"));
+        TheaterType theaterType = TheaterType.fromName(stringMember(request, "theaterType"));
+        int capacity = intMember(request, "capacity");
+        if (genre == null || theaterType == null) {
+            throw new IllegalArgumentException("Unknown genre or theater type");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int showingId = ticketBookingSystem.registerShowing(genre, theaterType, capacity);
+        return new Response(201, "{\"showingId\":" + showingId + "}");
+    }
+
+    private Response inventory(HttpExchange exchange) {
+        Session session = sessionManager.getSession(bearerToken(exchange));
+        if (session == null) {
+            return error(401, "Not logged in");
+        }
+        if (!session.hasRole(Role.ADMIN)) {
+            return error(403, "Admin role required");
+        }
+        InventorySnapshot snapshot = ticketBookingSystem.getInventorySnapshot();
+        StringBuilder json = new StringBuilder(128 + snapshot.getShowingCount() * 128)
+                .append("{\"totalCapacity\":").append(snapshot.getTotalCapacity())
+                .append(",\"totalAvailable\":").append(snapshot.getTotalAvailable())
+                .append(",\"totalBooked\":").append(snapshot.getTotalBooked())
+                .append(",\"totalHeld\":").append(snapshot.getTotalHeld())
+                .append(",\"showings\":[");
+        for (int id = 0; id < snapshot.getShowingCount(); id++) {
+            json.append(id > 0 ? "," : "")
+                    .append("{\"showingId\":").append(id)
+                    .append(",\"genre\":").append(Json.quote(snapshot.getGenre(id).getDisplayName()))
+                    .append(",\"theaterType\":").append(Json.quote(snapshot.getTheaterType(id).getDisplayName()))
+                    .append(",\"capacity\":").append(snapshot.getCapacity(id))
+                    .append(",\"availableTickets\":").append(snapshot.getAvailableTickets(id))
+                    .append(",\"bookedTickets\":").append(snapshot.getBookedTickets(id))
+                    .append(",\"heldTickets\":").append(snapshot.getHeldTickets(id)).append('}');
+        }
+        return new Response(200, json.append("]}").toString());
+    }
+
+    private Response metrics(HttpExchange exchange) {
+        Session session = sessionManager.getSession(bearerToken(exchange));
+        if (session == null) {
+            return error(401, "Not logged in");
+        }
+        if (!session.hasRole(Role.ADMIN)) {
+            return error(403, "Admin role required");
+        }
+        return new Response(200, BookingMetrics.dump(), "text/plain; charset=utf-8");
+    }
+
+    private Response reloadPricing(HttpExchange exchange) throws IOException {
+        Session session = sessionManager.getSession(bearerToken(exchange));
+        if (session == null) {
+            return error(401, "Not logged in");
+        }
+        if (!session.hasRole(Role.ADMIN)) {
+            return error(403, "Admin role required");
+        }
+        // Compiled here, on the admin's request thread; bookings only see the finished table
+        PriceTable table = PriceTable.parse("request", readBody(exchange).lines().toList());
+        ticketBookingSystem.getPricingEngine().reload(table);
+        return new Response(204, "");
+    }
+
+    /**
+     * Maps a booking outcome to an HTTP status code
+     *
+     * @param result The booking result
+     * @return 200 on success, 400 for invalid input, 429 or 503 when admission control turned the
+     * request away, 409 when the seats are not available or the ticket cannot be cancelled
+     */
+    private static int statusCode(BookingResult result) {
+        switch (result.getStatus()) {
+            case SUCCESS:
+            case HELD:
+            case CANCELLED:
+                return 200;
+            case INVALID_SELECTION:
+            case INVALID_TICKET_NUMBER:
+                return 400;
+            case RATE_LIMITED:
+                return 429;
+            case SHOWING_BUSY:
+                return 503;
+            default:
+                return 409;
+        }
+    }
+
+    private static String toJson(BookingResult result) {
+        StringBuilder json = new StringBuilder(128)
+                .append("{\"status\":").append(Json.quote(result.getStatus().name()))
+                .append(",\"success\":").append(result.isSuccess())
+                .append(",\"message\":").append(Json.quote(result.getMessage()))
+                .append(",\"tickets\":[");
+        for (int i = 0; i < result.getTicketCount(); i++) {
+            MovieTicket ticket = result.getTicket(i);
+            json.append(i > 0 ? "," : "")
+                    .append("{\"genre\":").append(Json.quote(ticket.getGenre()))
+                    .append(",\"theaterType\":").append(Json.quote(ticket.getTheaterType()))
+                    .append(",\"ticketNumber\":").append(ticket.getTicketNumber())
+                    .append(",\"priceCents\":").append(ticket.getPriceCents())
+                    .append(",\"handle\":").append(Json.quote(Long.toString(result.getTicketHandle(i)))).append('}');
+        }
+        return json.append("],\"totalPriceCents\":").append(result.getTotalPriceCents())
+                .append(",\"refundCents\":").append(result.getRefundCents())
+                .append(",\"availableTickets\":").append(result.getAvailableTickets())
+                .append(",\"capacity\":").append(result.getCapacity()).append('}').toString();
+    }
+
+    private String availabilityJson(int showingId, Genre genre, TheaterType theaterType) {
+        StringBuilder json = new StringBuilder(128).append("{\"showingId\":").append(showingId);
+        if (genre != null) {
+            json.append(",\"genre\":").append(Json.quote(genre.getDisplayName()))
+                    .append(",\"theaterType\":").append(Json.quote(theaterType.getDisplayName()));
+        }
+        return json.append(",\"availableTickets\":").append(ticketBookingSystem.getAvailableTickets(showingId))
+                .append(",\"bookedTickets\":").append(ticketBookingSystem.getBookedTickets(showingId))
+                .append(",\"capacity\":").append(ticketBookingSystem.getCapacity(showingId))
+                .append(",\"priceCents\":").append(ticketBookingSystem.getPriceCents(showingId)).append('}').toString();
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, "{\"error\":" + Json.quote(message) + "}");
+    }
+
+    /**
+     * Reads the request body as a JSON object
+     *
+     * @param exchange The HTTP exchange
+     * @return The members of the object
+     * @throws IllegalArgumentException if the body is too large or not a JSON object
+     */
+    private static Map<String, Object> readJson(HttpExchange exchange) throws IOException {
+        return Json.parseObject(readBody(exchange));
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body too large");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String stringMember(Map<String, Object> object, String name) {
+        Object value = object.get(name);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException(name + " must be a string");
+        }
+        return (String) value;
+    }
+
+    private static int intMember(Map<String, Object> object, String name) {
+        Object value = object.get(name);
+        if (!(value instanceof Long) || (Long) value != ((Long) value).intValue()) {
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+        return ((Long) value).intValue();
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+    }
+
+    /**
+     * Gets the token of the Authorization header
+     *
+     * @param exchange The HTTP exchange
+     * @return The bearer token, or null if there is none
+     */
+    private static String bearerToken(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        return authorization.substring(BEARER_PREFIX.length()).trim();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Starts the server and keeps it running until the JVM exits
+     *
+     * @param args Optional --port &lt;port&gt; (default 8080) and --host &lt;address&gt; (default all addresses)
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        String host = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--host" -> host = args[++i];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        // The server serves /metrics, so it records metrics unless they were turned off explicitly
+        if (System.getProperty("booking.metrics.enabled") == null) {
+            System.setProperty("booking.metrics.enabled", "true");
+        }
+        BookingServer server = new BookingServer(host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port));
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1), "booking-server-shutdown"));
+        System.out.println("Booking server listening on port " + server.getPort());
+    }
+}
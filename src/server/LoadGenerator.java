@@ -0,0 +1,244 @@
+package server;
+
+import metrics.BookingMetrics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * server.LoadGenerator drives a server.BookingServer with many concurrent simulated clients.
+ * Each client runs on its own virtual thread and loops over booking a random seat and, every
+ * few requests, querying availability, until the test duration ends. Latencies are recorded
+ * per client and merged at the end into throughput and latency percentiles.
+ * <p>
+ * Without --url it starts a server on a free local port in the same JVM, so it runs locally
+ * with a single command:
+ * <pre>
+ * java -cp out server.LoadGenerator [--url http://host:port] [--clients 10000] [--seconds 10]
+ *      [--capacity 1000000] [--username user --password user123 --admin admin --adminPassword admin123]
+ * </pre>
+ * The admin account registers a showing of the given capacity for the run; all clients share
+ * the session of one user login, since a login is a deliberately slow password hash. With the
+ * embedded server the server-side metrics.BookingMetrics are printed after the results, so they
+ * are on unless booking.metrics.enabled is set, and the per-user rate limit is off unless
+ * booking.admission.userRate is set.
+ */
+public class LoadGenerator {
+    // One in this many requests of a client is an availability query instead of a booking
+    private static final int AVAILABILITY_EVERY = 4;
+
+    // Initial latency slots per client, doubled when full
+    private static final int INITIAL_SAMPLES = 1024;
+
+    private final HttpClient client;
+    private final String baseUrl;
+
+    /**
+     * @param client  The HTTP client shared by all simulated clients
+     * @param baseUrl Base URL of the server, such as http://localhost:8080
+     */
+    private LoadGenerator(HttpClient client, String baseUrl) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int clients = 10_000;
+        int seconds = 10;
+        int capacity = 1_000_000;
+        String username = "user";
+        String password = "user123";
+        String admin = "admin";
+        String adminPassword = "admin123";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url" -> url = args[++i];
+                case "--clients" -> clients = Integer.parseInt(args[++i]);
+                case "--seconds" -> seconds = Integer.parseInt(args[++i]);
+                case "--capacity" -> capacity = Integer.parseInt(args[++i]);
+                case "--username" -> username = args[++i];
+                case "--password" -> password = args[++i];
+                case "--admin" -> admin = args[++i];
+                case "--adminPassword" -> adminPassword = args[++i];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        BookingServer embedded = null;
+        if (url == null) {
+            // All clients share one login, so the per-user rate limit would throttle the whole test
+            if (System.getProperty("booking.admission.userRate") == null) {
+                System.setProperty("booking.admission.userRate", "0");
+            }
+            if (System.getProperty("booking.metrics.enabled") == null) {
+                System.setProperty("booking.metrics.enabled", "true");
+            }
+            embedded = new BookingServer(new InetSocketAddress("localhost", 0));
+            embedded.start();
+            url = "http://localhost:" + embedded.getPort();
+            System.out.println("Started embedded booking server at " + url);
+        }
+
+        try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .build();
+            LoadGenerator generator = new LoadGenerator(httpClient, url);
+            String adminToken = generator.login(admin, adminPassword);
+            int showingId = generator.registerShowing(adminToken, capacity);
+            String userToken = generator.login(username, password);
+            generator.run(userToken, showingId, capacity, clients, seconds);
+            if (embedded != null) {
+                // The embedded server shares this JVM, so its side of the run can be shown too
+                System.out.print("Server metrics:\n" + BookingMetrics.dump());
+            }
+        } finally {
+            if (embedded != null) {
+                embedded.stop(0);
+            }
+        }
+    }
+
+    /**
+     * Runs the simulated clients and prints the results
+     *
+     * @param token     Session token the clients book with
+     * @param showingId Showing the clients book seats of
+     * @param capacity  Seats of that showing
+     * @param clients   Number of concurrent clients
+     * @param seconds   Test duration
+     */
+    private void run(String token, int showingId, int capacity, int clients, int seconds) throws InterruptedException {
+        long[][] latencies = new long[clients][];
+        int[] sampleCounts = new int[clients];
+        LongAdder booked = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder throttled = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+
+        Thread[] threads = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            final int clientIndex = c;
+            threads[c] = Thread.ofVirtual().name("load-client-" + c).start(() -> {
+                long[] samples = new long[INITIAL_SAMPLES];
+                int count = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    long begin = System.nanoTime();
+                    try {
+                        if (count % AVAILABILITY_EVERY == AVAILABILITY_EVERY - 1) {
+                            send(get("/availability?showingId=" + showingId));
+                        } else {
+                            int ticketNumber = random.nextInt(capacity) + 1;
+                            HttpResponse<String> response = send(post("/book", token,
+                                    "{\"showingId\":" + showingId + ",\"ticketNumber\":" + ticketNumber + "}"));
+                            if (response.statusCode() == 200) {
+                                booked.increment();
+                            } else if (response.statusCode() == 409) {
+                                rejected.increment();
+                            } else if (response.statusCode() == 429 || response.statusCode() == 503) {
+                                throttled.increment();
+                            } else {
+                                errors.increment();
+                            }
+                        }
+                    } catch (IOException e) {
+                        errors.increment();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, samples.length * 2);
+                    }
+                    samples[count++] = System.nanoTime() - begin;
+                }
+                latencies[clientIndex] = samples;
+                sampleCounts[clientIndex] = count;
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int total = 0;
+        for (int count : sampleCounts) {
+            total += count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            if (latencies[c] != null) {
+                System.arraycopy(latencies[c], 0, all, offset, sampleCounts[c]);
+                offset += sampleCounts[c];
+            }
+        }
+        Arrays.sort(all, 0, offset);
+
+        System.out.printf("%d clients, %.1f s: %d requests, %.0f requests/s%n",
+                clients, elapsed / 1e9, offset, offset * 1e9 / elapsed);
+        System.out.printf("Bookings: %d booked, %d rejected as taken, %d turned away by admission control, %d errors%n",
+                booked.sum(), rejected.sum(), throttled.sum(), errors.sum());
+        System.out.printf("Latency ms: p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+                percentile(all, offset, 0.50), percentile(all, offset, 0.90), percentile(all, offset, 0.99),
+                percentile(all, offset, 0.999), offset == 0 ? 0 : all[offset - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, int count, double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(count - 1, (long) (count * fraction))] / 1e6;
+    }
+
+    private String login(String username, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(post("/login", null,
+                "{\"username\":" + Json.quote(username) + ",\"password\":" + Json.quote(password) + "}"));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login of " + username + " failed: " + response.body());
+        }
+        return (String) Json.parseObject(response.body()).get("token");
+    }
+
+    private int registerShowing(String adminToken, int capacity) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(post("/showings", adminToken,
+                "{\"genre\":\"Action\",\"theaterType\":\"IMAX\",\"capacity\":" + capacity + "}"));
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Cannot register showing: " + response.body());
+        }
+        Map<String, Object> body = Json.parseObject(response.body());
+        return ((Long) body.get("showingId")).intValue();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, String json) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
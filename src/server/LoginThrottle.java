@@ -0,0 +1,102 @@
+package server;
+
+import decorator_pattern.TokenBucketMap;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * server.LoginThrottle bounds the CPU the unauthenticated /login endpoint can consume.
+ * Every password check is a PBKDF2 hash costing about a second of CPU, so without limits a
+ * flood of logins would occupy every core and starve bookings.
+ * <p>
+ * A login passes three checks before its password is checked:
+ * <ol>
+ * <li>the decorator_pattern.TokenBucketMap of client addresses, so one client cannot flood the endpoint,</li>
+ * <li>the token bucket map of usernames, so guessing one user's password from many addresses is slow too,</li>
+ * <li>a fair semaphore of maxConcurrent password checks; a login that does not get its turn within
+ * maxWaitMillis is turned away, so waiting logins cannot pile up either.</li>
+ * </ol>
+ * The limits come from booking.login.* system properties: clientRate (default 2 per second),
+ * clientBurst (10), userRate (1), userBurst (5), maxConcurrent (the number of processors) and
+ * maxWaitMillis (2000). A rate of 0 switches that limit off. Behind a proxy every client has the
+ * proxy's address, so raise the client limits there.
+ */
+final class LoginThrottle {
+    // Clients and usernames whose buckets are kept before the buckets idle longest are dropped
+    private static final int MAX_TRACKED_KEYS = 100_000;
+
+    private final TokenBucketMap clientBuckets;     // null if the client rate is unlimited
+    private final TokenBucketMap userBuckets;       // null if the user rate is unlimited
+    private final Semaphore turns;                  // Fair, one permit per concurrent password check
+    private final long maxWaitMillis;               // Longest wait for a turn before giving up
+
+    /**
+     * Creates a throttle
+     *
+     * @param clientRate    Sustained logins per second of one client address, 0 for no limit
+     * @param clientBurst   Logins one client address may make at once
+     * @param userRate      Sustained logins per second of one username, 0 for no limit
+     * @param userBurst     Logins of one username allowed at once
+     * @param maxConcurrent Password checks running at the same time, positive
+     * @param maxWaitMillis Longest wait for a turn before the login is turned away
+     */
+    LoginThrottle(double clientRate, int clientBurst, double userRate, int userBurst, int maxConcurrent,
+                  long maxWaitMillis) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be positive");
+        }
+        this.clientBuckets = clientRate > 0 ? new TokenBucketMap(clientRate, clientBurst, MAX_TRACKED_KEYS) : null;
+        this.userBuckets = userRate > 0 ? new TokenBucketMap(userRate, userBurst, MAX_TRACKED_KEYS) : null;
+        this.turns = new Semaphore(maxConcurrent, true);
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Creates a throttle from the booking.login.* system properties
+     *
+     * @return The throttle
+     */
+    static LoginThrottle fromSystemProperties() {
+        return new LoginThrottle(
+                Double.parseDouble(System.getProperty("booking.login.clientRate", "2")),
+                Integer.getInteger("booking.login.clientBurst", 10),
+                Double.parseDouble(System.getProperty("booking.login.userRate", "1")),
+                Integer.getInteger("booking.login.userBurst", 5),
+                Integer.getInteger("booking.login.maxConcurrent", Runtime.getRuntime().availableProcessors()),
+                Long.getLong("booking.login.maxWaitMillis", 2000L));
+    }
+
+    /**
+     * Charges a login attempt to its client address and username
+     *
+     * @param clientAddress The client's address
+     * @param username      The username the client tries to log in as
+     * @return true if the attempt is within both rates
+     */
+    boolean tryAcquire(String clientAddress, String username) {
+        return (clientBuckets == null || clientBuckets.tryAcquire(clientAddress))
+                && (userBuckets == null || userBuckets.tryAcquire(username));
+    }
+
+    /**
+     * Waits for a turn to check a password; a successful call must be followed by exit
+     *
+     * @return true if the login got its turn, false if it waited maxWaitMillis or was interrupted
+     */
+    boolean enter() {
+        try {
+            return turns.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Ends the turn taken by enter
+     */
+    void exit() {
+        turns.release();
+    }
+}
@@ -0,0 +1,136 @@
+package session;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * session.Authenticator checks usernames and passwords against a session.CredentialStore.
+ * <p>
+ * A password check costs a full PBKDF2 hash, hundreds of milliseconds by design. Credentials
+ * verified within the last CACHE_TTL_MILLIS are remembered as a keyed SHA-256 digest, so a
+ * client logging in again, or a server re-checking the same credentials, does not pay for
+ * the slow hash again. The digest key is random per process and the cache is bounded; a
+ * cached entry is only used while the store still returns the same account instance, so
+ * changed or removed accounts are never served from the cache.
+ */
+public class Authenticator {
+    // How long a verified password is remembered
+    private static final long CACHE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    // Maximum number of remembered verifications; when full, expired ones are swept and, if
+    // that frees nothing, further ones are not cached
+    private static final int MAX_CACHE_ENTRIES = 10_000;
+
+    // Hash checked for unknown users, so their logins take as long as those of existing users
+    private static final String UNKNOWN_USER_HASH =
+            "pbkdf2-sha256$600000$dK0l0CDnpIfe/XwM32PTDQ==$eDiFtN9SpI4cdgPqlL9D2gLEO2zz1qsewcw/oL8AHT8=";
+
+    /**
+     * A remembered successful verification
+     */
+    private static final class CachedVerification {
+        final UserAccount account;  // Account the password was verified against
+        final byte[] digest;        // Keyed digest of username and password
+        final long expiresAt;       // System.currentTimeMillis() after which the entry is ignored
+
+        CachedVerification(UserAccount account, byte[] digest, long expiresAt) {
+            this.account = account;
+            this.digest = digest;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final CredentialStore credentialStore;
+    private final ConcurrentHashMap<String, CachedVerification> cache = new ConcurrentHashMap<>();
+    private final byte[] digestKey = new byte[32];
+
+    /**
+     * @param credentialStore Store the accounts are looked up in
+     */
+    public Authenticator(CredentialStore credentialStore) {
+        this.credentialStore = credentialStore;
+        new SecureRandom().nextBytes(digestKey);
+    }
+
+    /**
+     * Checks a username and password
+     *
+     * @param username The username
+     * @param password The password
+     * @return The account, or null if the user does not exist or the password is wrong
+     */
+    public UserAccount authenticate(String username, char[] password) {
+        UserAccount account = credentialStore.findUser(username);
+        if (account == null) {
+            PasswordHasher.verify(password, UNKNOWN_USER_HASH);
+            return null;
+        }
+
+        byte[] digest = digest(username, password);
+        long now = System.currentTimeMillis();
+        CachedVerification cached = cache.get(username);
+        if (cached != null) {
+            if (cached.account == account && cached.expiresAt > now && MessageDigest.isEqual(cached.digest, digest)) {
+                return account;
+            }
+            if (cached.account != account || cached.expiresAt <= now) {
+                cache.remove(username, cached);
+            }
+        }
+
+        if (!PasswordHasher.verify(password, account.getPasswordHash())) {
+            return null;
+        }
+        if (cache.size() >= MAX_CACHE_ENTRIES) {
+            sweepExpired(now);
+        }
+        if (cache.size() < MAX_CACHE_ENTRIES) {
+            cache.put(username, new CachedVerification(account, digest, now + CACHE_TTL_MILLIS));
+        }
+        return account;
+    }
+
+    /**
+     * Removes the expired verifications, so users who never log in again do not keep the cache full
+     * Only runs when the cache is full and after a full password hash, which costs far more
+     *
+     * @param now System.currentTimeMillis()
+     */
+    private void sweepExpired(long now) {
+        cache.values().removeIf(cached -> cached.expiresAt <= now);
+    }
+
+    /**
+     * Computes the keyed digest of a username and password
+     *
+     * @param username The username
+     * @param password The password
+     * @return SHA-256 of key, username, a separator and password
+     */
+    private byte[] digest(String username, char[] password) {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java SE runtime is required to provide SHA-256
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        sha256.update(digestKey);
+        sha256.update(username.getBytes(StandardCharsets.UTF_8));
+        sha256.update((byte) 0);
+        ByteBuffer encoded = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        sha256.update(encoded.duplicate());
+        // Do not leave a copy of the password in the encoder's buffer
+        if (encoded.hasArray()) {
+            Arrays.fill(encoded.array(), (byte) 0);
+        }
+        return sha256.digest();
+    }
+}
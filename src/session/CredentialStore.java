@@ -0,0 +1,17 @@
+package session;
+
+/**
+ * session.CredentialStore is the repository of user accounts that logins are checked against.
+ * Implementations only look accounts up; verifying the password is up to session.Authenticator.
+ */
+public interface CredentialStore {
+
+    /**
+     * Finds the account of a user
+     * Returns the same instance until the account changes, which lets callers cache by identity
+     *
+     * @param username The username
+     * @return The account, or null if there is no such user
+     */
+    UserAccount findUser(String username);
+}
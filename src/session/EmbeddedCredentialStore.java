@@ -0,0 +1,60 @@
+package session;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * session.EmbeddedCredentialStore keeps user accounts in memory.
+ * It starts with the built-in demo accounts "admin" (admin and user roles) and "user"
+ * (user role), stored only as password hashes; more accounts can be added at runtime.
+ */
+public class EmbeddedCredentialStore implements CredentialStore {
+    // Hashes of the demo passwords admin123 and user123
+    private static final String ADMIN_HASH =
+            "pbkdf2-sha256$600000$ubgQWvnV7Qj1mFwkVKlILw==$ZXzJIhFtNk7OdYoap0ccmNT4QqYonkgBfvQ9xF1S4AM=";
+    private static final String USER_HASH =
+            "pbkdf2-sha256$600000$HhTY37CCuG3Vp33bNzG02g==$V/iG8z2X8ZJepGCQFpAO/4XraPlaK5pDY0uR8PDPy1Q=";
+
+    private final ConcurrentHashMap<String, UserAccount> accounts = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a store with the demo accounts
+     */
+    public EmbeddedCredentialStore() {
+        accounts.put("admin", new UserAccount("admin", ADMIN_HASH, Role.ADMIN, Role.USER));
+        accounts.put("user", new UserAccount("user", USER_HASH, Role.USER));
+    }
+
+    /**
+     * Adds a user or replaces an existing one, hashing the password
+     *
+     * @param username The username
+     * @param password The password, hashed with PasswordHasher.DEFAULT_ITERATIONS
+     * @param roles    Roles of the user
+     */
+    public void addUser(String username, char[] password, Role... roles) {
+        put(new UserAccount(username, PasswordHasher.hash(password, PasswordHasher.DEFAULT_ITERATIONS), roles));
+    }
+
+    /**
+     * Adds an account or replaces the account of the same user
+     *
+     * @param account The account
+     */
+    public void put(UserAccount account) {
+        accounts.put(account.getUsername(), account);
+    }
+
+    /**
+     * Removes a user
+     *
+     * @param username The username
+     */
+    public void removeUser(String username) {
+        accounts.remove(username);
+    }
+
+    @Override
+    public UserAccount findUser(String username) {
+        return username == null ? null : accounts.get(username);
+    }
+}
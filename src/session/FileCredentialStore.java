@@ -0,0 +1,64 @@
+package session;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * session.FileCredentialStore reads user accounts from a local text file once at startup.
+ * Each line holds one account as username:roles:hash, where roles is a comma separated list
+ * of role names and hash is an encoded hash printed by session.PasswordHasher, for example
+ * <pre>
+ * admin:ADMIN,USER:pbkdf2-sha256$600000$...$...
+ * </pre>
+ * Blank lines and lines starting with # are ignored.
+ */
+public class FileCredentialStore implements CredentialStore {
+    // Accounts by username, never modified after loading
+    private final Map<String, UserAccount> accounts;
+
+    private FileCredentialStore(Map<String, UserAccount> accounts) {
+        this.accounts = accounts;
+    }
+
+    /**
+     * Loads the accounts of a credentials file
+     *
+     * @param file The credentials file
+     * @return The store
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public static FileCredentialStore load(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        Map<String, UserAccount> accounts = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(":", 3);
+            if (fields.length != 3 || fields[0].isEmpty()) {
+                throw new IOException(file + " line " + (i + 1) + ": expected username:roles:hash");
+            }
+            String[] roleNames = fields[1].split(",");
+            Role[] roles = new Role[roleNames.length];
+            for (int r = 0; r < roleNames.length; r++) {
+                roles[r] = Role.fromName(roleNames[r].trim());
+                if (roles[r] == null) {
+                    throw new IOException(file + " line " + (i + 1) + ": unknown role " + roleNames[r]);
+                }
+            }
+            accounts.put(fields[0], new UserAccount(fields[0], fields[2], roles));
+        }
+        return new FileCredentialStore(accounts);
+    }
+
+    @Override
+    public UserAccount findUser(String username) {
+        return username == null ? null : accounts.get(username);
+    }
+}
@@ -0,0 +1,100 @@
+package session;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * session.PasswordHasher hashes passwords with salted PBKDF2-HMAC-SHA256.
+ * The iteration count makes each hash deliberately slow, so leaked hashes cannot be brute
+ * forced cheaply; it is stored with the hash, so it can be raised without invalidating
+ * existing accounts.
+ * <p>
+ * Encoded hashes have the form pbkdf2-sha256$iterations$salt$hash with Base64 salt and hash.
+ * Run this class with a password as argument to print its encoded hash for a credentials file.
+ */
+public final class PasswordHasher {
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String SCHEME = "pbkdf2-sha256";
+
+    // Iterations of new hashes, the OWASP recommendation for PBKDF2-HMAC-SHA256
+    public static final int DEFAULT_ITERATIONS = 600_000;
+
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private PasswordHasher() {
+    }
+
+    /**
+     * Hashes a password with a new random salt
+     *
+     * @param password   The password
+     * @param iterations PBKDF2 iterations
+     * @return The encoded hash
+     */
+    public static String hash(char[] password, int iterations) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return SCHEME + "$" + iterations + "$" + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(pbkdf2(password, salt, iterations));
+    }
+
+    /**
+     * Checks a password against an encoded hash in constant time
+     *
+     * @param password    The password to check
+     * @param encodedHash Hash created by hash
+     * @return true if the password matches
+     * @throws IllegalArgumentException if the encoded hash is malformed
+     */
+    public static boolean verify(char[] password, String encodedHash) {
+        String[] parts = encodedHash.split("\\$");
+        if (parts.length != 4 || !SCHEME.equals(parts[0])) {
+            throw new IllegalArgumentException("Unsupported password hash format");
+        }
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] expected = decoder.decode(parts[3]);
+        byte[] actual = pbkdf2(password, decoder.decode(parts[2]), Integer.parseInt(parts[1]));
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * Derives the PBKDF2 hash of a password
+     *
+     * @param password   The password
+     * @param salt       The salt
+     * @param iterations PBKDF2 iterations
+     * @return The derived hash
+     */
+    private static byte[] pbkdf2(char[] password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            // Every Java SE runtime is required to provide PBKDF2WithHmacSHA256
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Prints the encoded hash of a password, for adding users to a credentials file
+     *
+     * @param args The password
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: java session.PasswordHasher <password>");
+            System.exit(1);
+        }
+        System.out.println(hash(args[0].toCharArray(), DEFAULT_ITERATIONS));
+    }
+}
@@ -0,0 +1,40 @@
+package session;
+
+/**
+ * session.Role lists the roles a user can have.
+ * A user's roles are stored as a bitmask with one bit per role, so checking a role on a
+ * session is a single AND instead of a string comparison.
+ */
+public enum Role {
+    USER,
+    ADMIN;
+
+    private static final Role[] VALUES = values();
+
+    /**
+     * Gets the bit of this role in a roles bitmask
+     *
+     * @return The bit
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Finds a role by name, ignoring case
+     *
+     * @param name The role name (e.g., "admin")
+     * @return The role, or null if the name is not recognized
+     */
+    public static Role fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (Role role : VALUES) {
+            if (role.name().equalsIgnoreCase(name)) {
+                return role;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,81 @@
+package session;
+
+/**
+ * session.Session is a logged-in user's session, identified by a random token.
+ * It only changes by recording when it was last used, which drives its idle timeout.
+ * The user's roles are copied in at login as a bitmask, so role checks need no lookup.
+ */
+public class Session {
+    // Minimum time between two updates of lastAccessedAt, so a busy session is not written on every request
+    private static final long TOUCH_GRANULARITY_MILLIS = 1000;
+
+    private final String token;           // Random token the client presents on every request
+    private final String username;        // User the session belongs to
+    private final int roles;              // Bitmask of Role.mask() values
+    private final long createdAt;         // System.currentTimeMillis() at login
+    private volatile long lastAccessedAt; // System.currentTimeMillis() of the last validation
+
+    /**
+     * Creates a session that was just used
+     *
+     * @param token    The session token
+     * @param username The logged-in user
+     * @param roles    Roles bitmask of the user
+     * @param now      Current time in milliseconds since the epoch
+     */
+    Session(String token, String username, int roles, long now) {
+        this.token = token;
+        this.username = username;
+        this.roles = roles;
+        this.createdAt = now;
+        this.lastAccessedAt = now;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public int getRoles() {
+        return roles;
+    }
+
+    /**
+     * Checks whether the session's user has a role
+     *
+     * @param role The role
+     * @return true if the role's bit is set
+     */
+    public boolean hasRole(Role role) {
+        return (roles & role.mask()) != 0;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getLastAccessedAt() {
+        return lastAccessedAt;
+    }
+
+    /**
+     * Records that the session was used, at most once per TOUCH_GRANULARITY_MILLIS
+     * The idle timeout may therefore end up to that much earlier than exact
+     *
+     * @param now Current time in milliseconds since the epoch
+     */
+    void touch(long now) {
+        if (now - lastAccessedAt >= TOUCH_GRANULARITY_MILLIS) {
+            lastAccessedAt = now;
+        }
+    }
+
+    @Override
+    public String toString() {
+        // The token is a credential and is deliberately left out
+        return "Session{username=" + username + ", createdAt=" + createdAt + ", lastAccessedAt=" + lastAccessedAt + "}";
+    }
+}
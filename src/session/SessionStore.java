@@ -0,0 +1,174 @@
+package session;
+
+import scheduler.TimerWheel;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * session.SessionStore keeps the live sessions of many concurrent users, keyed by token.
+ * Validating a token is a single concurrent hash map lookup plus an expiry check, so it
+ * never locks and costs the same with a hundred or with hundreds of thousands of sessions.
+ * <p>
+ * Memory stays bounded: at most maxSessions sessions exist, further logins are refused until
+ * sessions expire or log out. Idle sessions are swept incrementally by a scheduler.TimerWheel,
+ * which checks each session when its idle timeout could have passed and reschedules it if it
+ * was used since, so there is never a scan over all sessions.
+ */
+public class SessionStore {
+    // Random bytes per token, 256 bits cannot be guessed
+    private static final int TOKEN_BYTES = 32;
+
+    // Bucket count of the expiry wheel
+    private static final int WHEEL_BUCKETS = 1024;
+
+    // One generator per thread, so logins do not contend on a shared SecureRandom
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+    private static final Base64.Encoder TOKEN_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger sessionCount = new AtomicInteger(); // Sessions stored or being created
+    private final long idleTimeoutMillis;
+    private final int maxSessions;
+    private final TimerWheel<Session> expiryWheel;
+
+    /**
+     * Creates a session store
+     *
+     * @param idleTimeout Time without validation after which a session expires
+     * @param unit        Unit of idleTimeout
+     * @param maxSessions Maximum number of live sessions
+     */
+    public SessionStore(long idleTimeout, TimeUnit unit, int maxSessions) {
+        this.idleTimeoutMillis = unit.toMillis(idleTimeout);
+        this.maxSessions = maxSessions;
+        // About 64 ticks per idle timeout, between 10 ms and one second each
+        long tickMillis = Math.max(10, Math.min(1000, idleTimeoutMillis / 64));
+        this.expiryWheel = new TimerWheel<>("session-expiry", tickMillis, TimeUnit.MILLISECONDS, WHEEL_BUCKETS, this::checkExpiry);
+    }
+
+    /**
+     * Creates a session for a user who has been authenticated
+     *
+     * @param username The user
+     * @param roles    Roles bitmask of the user
+     * @return The new session, or null if the store already holds maxSessions sessions
+     */
+    public Session create(String username, int roles) {
+        // Reserve a slot first so concurrent logins cannot exceed the bound
+        int count;
+        do {
+            count = sessionCount.get();
+            if (count >= maxSessions) {
+                return null;
+            }
+        } while (!sessionCount.compareAndSet(count, count + 1));
+
+        Session session = new Session(newToken(), username, roles, System.currentTimeMillis());
+        sessions.put(session.getToken(), session);
+        expiryWheel.schedule(session, idleTimeoutMillis, TimeUnit.MILLISECONDS);
+        return session;
+    }
+
+    /**
+     * Looks up the session of a token and records that it was used
+     *
+     * @param token The session token, may be null
+     * @return The session, or null if the token is unknown, logged out or expired
+     */
+    public Session validate(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        // The sweep may lag behind by a tick, so check the timeout here as well
+        if (now - session.getLastAccessedAt() >= idleTimeoutMillis) {
+            remove(session);
+            return null;
+        }
+        session.touch(now);
+        return session;
+    }
+
+    /**
+     * Ends a session
+     *
+     * @param token The session token, may be null
+     * @return true if the session was live
+     */
+    public boolean invalidate(String token) {
+        if (token == null) {
+            return false;
+        }
+        Session session = sessions.get(token);
+        return session != null && remove(session);
+    }
+
+    /**
+     * Gets the number of live sessions, including expired ones not swept yet
+     *
+     * @return Number of sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    /**
+     * Called by the expiry wheel when a session's idle timeout may have passed
+     * Removes the session if it has been idle long enough, otherwise checks it again when
+     * its timeout counted from the last use passes
+     *
+     * @param session The session
+     */
+    private void checkExpiry(Session session) {
+        if (sessions.get(session.getToken()) != session) {
+            return;  // Already logged out or removed on validation
+        }
+        long remaining = session.getLastAccessedAt() + idleTimeoutMillis - System.currentTimeMillis();
+        if (remaining <= 0) {
+            remove(session);
+        } else {
+            expiryWheel.schedule(session, remaining, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Removes a session and frees its slot, once even if called concurrently
+     *
+     * @param session The session
+     * @return true if this call removed it
+     */
+    private boolean remove(Session session) {
+        if (sessions.remove(session.getToken(), session)) {
+            sessionCount.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Generates a random URL-safe session token
+     *
+     * @return The token
+     */
+    private static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.get().nextBytes(bytes);
+        return TOKEN_ENCODER.encodeToString(bytes);
+    }
+}
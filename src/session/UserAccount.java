@@ -0,0 +1,53 @@
+package session;
+
+/**
+ * session.UserAccount is an immutable user record of a session.CredentialStore:
+ * the username, the encoded password hash and the roles bitmask.
+ */
+public final class UserAccount {
+    private final String username;
+    private final String passwordHash;  // Encoded by session.PasswordHasher
+    private final int roles;            // Bitmask of Role.mask() values
+
+    /**
+     * @param username     The username
+     * @param passwordHash Encoded password hash created by PasswordHasher.hash
+     * @param roles        Roles of the user
+     */
+    public UserAccount(String username, String passwordHash, Role... roles) {
+        this.username = username;
+        this.passwordHash = passwordHash;
+        int mask = 0;
+        for (Role role : roles) {
+            mask |= role.mask();
+        }
+        this.roles = mask;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    public int getRoles() {
+        return roles;
+    }
+
+    /**
+     * Checks whether the user has a role
+     *
+     * @param role The role
+     * @return true if the role's bit is set
+     */
+    public boolean hasRole(Role role) {
+        return (roles & role.mask()) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return "UserAccount{username=" + username + ", roles=" + Integer.toBinaryString(roles) + "}";
+    }
+}
@@ -0,0 +1,139 @@
+package shard;
+
+import inventory.BookingResult;
+import inventory.Showing;
+import singleton_pattern.TicketBookingSystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * shard.BookingNode is one booking node of a sharded inventory: it owns the showings the
+ * shard.ShardRouter assigns to it and books their seats.
+ * <p>
+ * The showings are showings of the singleton_pattern.TicketBookingSystem, and a node books them
+ * through the booking system's own booking path, handing it the owned inventory.Showing. So a
+ * ticket booked through a shard is priced, journaled, published to the inventory feed and
+ * cancellable by its handle like any other, and its seat can go to waiting customers.
+ * <p>
+ * Nodes run inside the router's JVM and are called on the caller's thread. A showing moves
+ * between nodes by handing over its inventory.Showing, seat map included, by reference: the
+ * seat map is lock-free, so bookings that reach the old owner during the move claim seats in
+ * the very same bitmap and nothing is lost or booked twice. Nodes in separate processes would
+ * instead ship a seat map snapshot and fence the old owner; this class is the in-JVM stand-in.
+ * <p>
+ * Booking methods return null for showings the node does not own, so the router can retry
+ * with its current ring.
+ */
+public class BookingNode {
+    private final String name;
+
+    // Books the owned showings
+    private final TicketBookingSystem bookingSystem = TicketBookingSystem.getInstance();
+
+    // Owned showings, by showing ID
+    private final ConcurrentHashMap<Integer, Showing> showings = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a node without showings
+     *
+     * @param name Name of the node, places it on the hash ring and must be unique
+     */
+    public BookingNode(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Books a ticket of an owned showing through the booking system
+     *
+     * @param showingId    The showing ID
+     * @param ticketNumber Specific ticket number (1 to the showing's capacity)
+     * @return Result with the booking status, or null if the node does not own the showing
+     */
+    public BookingResult bookTicket(int showingId, int ticketNumber) {
+        Showing showing = showings.get(showingId);
+        return showing == null ? null : bookingSystem.bookTicket(showing, ticketNumber);
+    }
+
+    /**
+     * Books several tickets of an owned showing all-or-nothing through the booking system
+     *
+     * @param showingId     The showing ID
+     * @param ticketNumbers Specific ticket numbers (1 to the showing's capacity)
+     * @return Result with the booking status, or null if the node does not own the showing
+     */
+    public BookingResult bookTickets(int showingId, int[] ticketNumbers) {
+        Showing showing = showings.get(showingId);
+        return showing == null ? null : bookingSystem.bookTickets(showing, ticketNumbers);
+    }
+
+    /**
+     * Books the lowest-numbered run of adjacent tickets of an owned showing through the booking system
+     *
+     * @param showingId The showing ID
+     * @param count     Number of adjacent tickets to book
+     * @return Result with the booking status, or null if the node does not own the showing
+     */
+    public BookingResult bookContiguousTickets(int showingId, int count) {
+        Showing showing = showings.get(showingId);
+        return showing == null ? null : bookingSystem.bookContiguousTickets(showing, count);
+    }
+
+    /**
+     * Gets the number of available tickets of an owned showing
+     *
+     * @param showingId The showing ID
+     * @return Number of available tickets, -1 if the node does not own the showing
+     */
+    public int getAvailableTickets(int showingId) {
+        Showing showing = showings.get(showingId);
+        return showing == null ? -1 : showing.getSeatMap().getAvailableCount();
+    }
+
+    /**
+     * Gets the number of showings the node owns
+     *
+     * @return Number of owned showings
+     */
+    public int getShowingCount() {
+        return showings.size();
+    }
+
+    /**
+     * Takes ownership of a showing
+     *
+     * @param showing The showing, with its current seat map
+     */
+    void adopt(Showing showing) {
+        showings.put(showing.getShowingId(), showing);
+    }
+
+    /**
+     * Gives up ownership of a showing
+     * Bookings already past the ownership check still complete on the shared seat map
+     *
+     * @param showingId The showing ID
+     */
+    void release(int showingId) {
+        showings.remove(showingId);
+    }
+
+    /**
+     * Gets the owned showings
+     *
+     * @return A copy of the owned showings
+     */
+    List<Showing> getShowings() {
+        return new ArrayList<>(showings.values());
+    }
+
+    @Override
+    public String toString() {
+        return "BookingNode [" + name + ", Showings: " + showings.size() + "]";
+    }
+}
@@ -0,0 +1,147 @@
+package shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * shard.ConsistentHashRing maps showing IDs to the booking node that owns them.
+ * Every node is placed on a 64-bit hash ring at many points (virtual nodes), and a showing
+ * belongs to the first node point at or after the showing's hash. Adding or removing a node
+ * therefore only moves the showings next to that node's points, about 1/N of them, and the
+ * virtual nodes spread the showings evenly over the nodes.
+ * <p>
+ * A ring is immutable: adding or removing a node creates a new ring, so lookups need no locking.
+ * The points are kept in a sorted long array searched with a binary search.
+ */
+public final class ConsistentHashRing {
+    private final List<BookingNode> nodes;
+    private final int virtualNodes;
+    private final long[] points;        // Sorted hashes of all virtual nodes
+    private final BookingNode[] owners; // Node of each point
+
+    /**
+     * Creates a ring of nodes
+     *
+     * @param nodes        The nodes, at least one, with distinct names
+     * @param virtualNodes Points per node on the ring
+     */
+    public ConsistentHashRing(List<BookingNode> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one node");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        this.virtualNodes = virtualNodes;
+
+        // Sort the points together with their owners through one array of indices
+        int count = nodes.size() * virtualNodes;
+        long[] unsorted = new long[count];
+        Integer[] order = new Integer[count];
+        for (int n = 0; n < nodes.size(); n++) {
+            long nodeHash = hash(nodes.get(n).getName());
+            for (int v = 0; v < virtualNodes; v++) {
+                int index = n * virtualNodes + v;
+                unsorted[index] = mix(nodeHash ^ (v * 0x9e3779b97f4a7c15L));
+                order[index] = index;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(unsorted[a], unsorted[b]));
+        points = new long[count];
+        owners = new BookingNode[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = unsorted[order[i]];
+            owners[i] = nodes.get(order[i] / virtualNodes);
+        }
+    }
+
+    /**
+     * Gets the node owning a showing
+     *
+     * @param showingId The showing ID
+     * @return The owner
+     */
+    public BookingNode ownerOf(int showingId) {
+        int index = Arrays.binarySearch(points, mix(showingId));
+        if (index < 0) {
+            index = -index - 1;  // Insertion point: the first point after the hash
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * Creates a ring with one more node
+     *
+     * @param node The node to add
+     * @return The new ring
+     */
+    public ConsistentHashRing withNode(BookingNode node) {
+        for (BookingNode existing : nodes) {
+            if (existing.getName().equals(node.getName())) {
+                throw new IllegalArgumentException("Node " + node.getName() + " is already on the ring");
+            }
+        }
+        List<BookingNode> grown = new ArrayList<>(nodes);
+        grown.add(node);
+        return new ConsistentHashRing(grown, virtualNodes);
+    }
+
+    /**
+     * Creates a ring without a node
+     *
+     * @param node The node to remove
+     * @return The new ring
+     */
+    public ConsistentHashRing withoutNode(BookingNode node) {
+        List<BookingNode> shrunk = new ArrayList<>(nodes);
+        if (!shrunk.remove(node)) {
+            throw new IllegalArgumentException("Node " + node.getName() + " is not on the ring");
+        }
+        return new ConsistentHashRing(shrunk, virtualNodes);
+    }
+
+    /**
+     * Gets the nodes of the ring
+     *
+     * @return Unmodifiable list of the nodes
+     */
+    public List<BookingNode> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Hashes a node name: 64-bit FNV-1a over its UTF-8 bytes, then mixed
+     * Unlike String.hashCode, names that differ in one character, such as "node-1" and
+     * "node-2", get unrelated hashes
+     *
+     * @param name The name
+     * @return The hash
+     */
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Scrambles a key into a well-spread 64-bit hash (the finalizer of MurmurHash3)
+     *
+     * @param key The key
+     * @return The hash
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,282 @@
+package shard;
+
+import adapter_pattern.MovieBooking;
+import inventory.BookingResult;
+import inventory.Showing;
+import movie_factory_pattern.Genre;
+import theatre_factory_pattern.TheaterType;
+
+import singleton_pattern.TicketBookingSystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * shard.ShardRouter implements adapter_pattern.MovieBooking over an inventory partitioned
+ * between several shard.BookingNode instances, each owning a share of the showings.
+ * <p>
+ * Showings are assigned to nodes by a shard.ConsistentHashRing of their showing IDs. Bookings
+ * read the current ring from a volatile field and go straight to the owner, without locking.
+ * Registering showings and adding or removing nodes are rare and synchronized; a rebalance
+ * moves only the showings whose owner changes:
+ * <ol>
+ * <li>the new owner adopts the showing,</li>
+ * <li>the new ring is published,</li>
+ * <li>the old owner releases the showing.</li>
+ * </ol>
+ * So at every moment the owner in any ring a booking may have read either still holds the
+ * showing or the booking finds it gone and retries with the newer ring. Both owners share the
+ * showing's lock-free seat map during the move, so no booking is lost or doubled.
+ * <p>
+ * Showings are registered with the singleton_pattern.TicketBookingSystem and booked through it
+ * by their owner, so the router books only the showings registered through it. The typed
+ * MovieBooking methods book the booking system's default showings, which every router owns too.
+ */
+public class ShardRouter implements MovieBooking {
+    // Points per node on the hash ring, enough to spread showings within a few percent
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    // Current assignment of showings to nodes
+    private volatile ConsistentHashRing ring;
+
+    // Registers the showings the nodes own and looks them up
+    private final TicketBookingSystem bookingSystem = TicketBookingSystem.getInstance();
+
+    // IDs of the showings the nodes own; only read when a booking finds no owner
+    private final Set<Integer> showingIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a router over a set of nodes, owning the booking system's default showings
+     *
+     * @param nodes        The nodes, at least one
+     * @param virtualNodes Points per node on the hash ring
+     */
+    public ShardRouter(List<BookingNode> nodes, int virtualNodes) {
+        ring = new ConsistentHashRing(nodes, virtualNodes);
+        for (Genre genre : Genre.values()) {
+            for (TheaterType theaterType : TheaterType.values()) {
+                adopt(bookingSystem.getShowingId(genre, theaterType));
+            }
+        }
+    }
+
+    /**
+     * Creates a router over a set of nodes with DEFAULT_VIRTUAL_NODES points per node
+     *
+     * @param nodes The nodes, at least one
+     */
+    public ShardRouter(List<BookingNode> nodes) {
+        this(nodes, DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Registers a new showing with the booking system and hands it to the node owning its ID
+     *
+     * @param genre       Genre of the movie shown
+     * @param theaterType Type of theater
+     * @param capacity    Number of seats of the auditorium
+     * @return The showing ID of the new showing
+     */
+    public synchronized int registerShowing(Genre genre, TheaterType theaterType, int capacity) {
+        int showingId = bookingSystem.registerShowing(genre, theaterType, capacity);
+        adopt(showingId);
+        return showingId;
+    }
+
+    /**
+     * Hands a showing of the booking system to the node owning its ID
+     * Must be called while holding the router's lock, or from the constructor
+     *
+     * @param showingId The showing ID
+     */
+    private void adopt(int showingId) {
+        Showing showing = bookingSystem.getShowing(showingId);
+        ring.ownerOf(showingId).adopt(showing);
+        showingIds.add(showingId);
+    }
+
+    /**
+     * Adds a node and moves the showings it now owns to it
+     *
+     * @param node The node, with a name not used by another node
+     */
+    public synchronized void addNode(BookingNode node) {
+        rebalance(ring.withNode(node));
+    }
+
+    /**
+     * Removes a node after moving all its showings to the remaining nodes
+     *
+     * @param node The node
+     */
+    public synchronized void removeNode(BookingNode node) {
+        rebalance(ring.withoutNode(node));
+    }
+
+    /**
+     * Switches to a new ring, handing over every showing whose owner changes
+     * Must be called while holding the router's lock
+     *
+     * @param newRing The new ring
+     */
+    private void rebalance(ConsistentHashRing newRing) {
+        ConsistentHashRing oldRing = ring;
+        List<Showing> moved = new ArrayList<>();
+        List<BookingNode> previousOwners = new ArrayList<>();
+        for (BookingNode node : oldRing.getNodes()) {
+            for (Showing showing : node.getShowings()) {
+                BookingNode newOwner = newRing.ownerOf(showing.getShowingId());
+                if (newOwner != node) {
+                    newOwner.adopt(showing);
+                    moved.add(showing);
+                    previousOwners.add(node);
+                }
+            }
+        }
+        // Publish only after every new owner holds its showings, release only after publishing
+        ring = newRing;
+        for (int i = 0; i < moved.size(); i++) {
+            previousOwners.get(i).release(moved.get(i).getShowingId());
+        }
+    }
+
+    /**
+     * Books a ticket of a showing on the node owning it
+     *
+     * @param showingId    The showing ID
+     * @param ticketNumber Specific ticket number (1 to the showing's capacity)
+     * @return Result with the booking status, the booked ticket and the remaining availability
+     */
+    @Override
+    public BookingResult bookTicket(int showingId, int ticketNumber) {
+        BookingResult result;
+        while ((result = ring.ownerOf(showingId).bookTicket(showingId, ticketNumber)) == null) {
+            if (!awaitMove(showingId)) {
+                return BookingResult.INVALID_SELECTION;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Books several tickets of a showing all-or-nothing on the node owning it
+     *
+     * @param showingId     The showing ID
+     * @param ticketNumbers Specific ticket numbers (1 to the showing's capacity)
+     * @return Result with the booking status, the booked tickets and the remaining availability
+     */
+    public BookingResult bookTickets(int showingId, int[] ticketNumbers) {
+        BookingResult result;
+        while ((result = ring.ownerOf(showingId).bookTickets(showingId, ticketNumbers)) == null) {
+            if (!awaitMove(showingId)) {
+                return BookingResult.INVALID_SELECTION;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Books the lowest-numbered run of adjacent tickets of a showing on the node owning it
+     *
+     * @param showingId The showing ID
+     * @param count     Number of adjacent tickets to book
+     * @return Result with the booking status, the booked tickets and the remaining availability
+     */
+    public BookingResult bookContiguousTickets(int showingId, int count) {
+        BookingResult result;
+        while ((result = ring.ownerOf(showingId).bookContiguousTickets(showingId, count)) == null) {
+            if (!awaitMove(showingId)) {
+                return BookingResult.INVALID_SELECTION;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public BookingResult bookTicket(Genre genre, TheaterType theaterType, int ticketNumber) {
+        return bookTicket(getShowingId(genre, theaterType), ticketNumber);
+    }
+
+    @Override
+    public BookingResult bookTickets(Genre genre, TheaterType theaterType, int[] ticketNumbers) {
+        return bookTickets(getShowingId(genre, theaterType), ticketNumbers);
+    }
+
+    @Override
+    public BookingResult bookContiguousTickets(Genre genre, TheaterType theaterType, int count) {
+        return bookContiguousTickets(getShowingId(genre, theaterType), count);
+    }
+
+    /**
+     * Gets the number of available tickets of a showing from the node owning it
+     *
+     * @param showingId The showing ID
+     * @return Number of available tickets, 0 if invalid selection
+     */
+    public int getAvailableTickets(int showingId) {
+        int available;
+        while ((available = ring.ownerOf(showingId).getAvailableTickets(showingId)) < 0) {
+            if (!awaitMove(showingId)) {
+                return 0;
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Gets the showing ID of the default showing for a genre and theater type
+     *
+     * @param genre       Movie genre
+     * @param theaterType Theater type
+     * @return The showing ID, -1 if genre or theater type is null
+     */
+    public int getShowingId(Genre genre, TheaterType theaterType) {
+        return bookingSystem.getShowingId(genre, theaterType);
+    }
+
+    /**
+     * Gets the node currently owning a showing
+     *
+     * @param showingId The showing ID
+     * @return The owner
+     */
+    public BookingNode ownerOf(int showingId) {
+        return ring.ownerOf(showingId);
+    }
+
+    /**
+     * Gets the current nodes
+     *
+     * @return Unmodifiable list of the nodes
+     */
+    public List<BookingNode> getNodes() {
+        return ring.getNodes();
+    }
+
+    /**
+     * Gets the number of showings the nodes own
+     *
+     * @return Number of showings registered through the router, plus the default showings
+     */
+    public int getShowingCount() {
+        return showingIds.size();
+    }
+
+    /**
+     * Called when the owner in the ring a request read did not hold the showing
+     * Either the showing moved meanwhile and the ring read next has its new owner, or the
+     * router has no such showing
+     *
+     * @param showingId The showing ID
+     * @return true to retry with the current ring, false if the router has no such showing
+     */
+    private boolean awaitMove(int showingId) {
+        if (!showingIds.contains(showingId)) {
+            return false;
+        }
+        Thread.onSpinWait();
+        return true;
+    }
+}
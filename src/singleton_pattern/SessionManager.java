@@ -1,88 +1,195 @@
 package singleton_pattern;
 
+import metrics.BookingMetrics;
+import session.Authenticator;
+import session.CredentialStore;
+import session.EmbeddedCredentialStore;
+import session.FileCredentialStore;
+import session.Role;
+import session.Session;
+import session.SessionStore;
+import session.UserAccount;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
 /**
  * singleton_pattern.SessionManager class implements the Singleton pattern to manage user sessions
  * and authentication in the Movie Ticket Booking System.
  * This ensures only one session management instance exists throughout the application.
+ * <p>
+ * Each login creates its own token-based session.Session in a session.SessionStore, so many
+ * users can be logged in concurrently; callers pass the token back on every request. The
+ * methods taking a token are named after the session (isAdminSession, getSessionUser), so code
+ * written against the old username-based methods fails to compile instead of getting false.
+ * <p>
+ * Credentials are checked by a session.Authenticator against the accounts of the file named
+ * by the system property session.credentials.file, or of a session.EmbeddedCredentialStore
+ * with the demo accounts when it is not set. The user's roles are stored on the session, so
+ * role checks are bitmask tests without touching the credential store.
  */
 public class SessionManager {
-    // Single instance of singleton_pattern.SessionManager (Singleton pattern)
-    private static SessionManager instance;
+    /**
+     * Holder class for the single instance of singleton_pattern.SessionManager (Singleton pattern)
+     * The JVM initializes it exactly once, on the first call to getInstance()
+     */
+    private static class Holder {
+        private static final SessionManager INSTANCE = new SessionManager();
+    }
 
-    // Stores the currently logged-in user's username
-    private String loggedInUser;
+    // Idle timeout of a session, overridable by the session.idleTimeoutMinutes system property
+    private static final long DEFAULT_IDLE_TIMEOUT_MINUTES = 30;
+
+    // Maximum number of live sessions, overridable by the session.maxSessions system property
+    private static final int DEFAULT_MAX_SESSIONS = 500_000;
+
+    // Live sessions of all logged-in users, keyed by token
+    private final SessionStore sessionStore;
+
+    // Checks usernames and passwords against the credential store
+    private final Authenticator authenticator;
 
     /**
      * Private constructor to prevent instantiation from outside
      * Part of Singleton pattern implementation
      */
     private SessionManager() {
+        sessionStore = new SessionStore(
+                Long.getLong("session.idleTimeoutMinutes", DEFAULT_IDLE_TIMEOUT_MINUTES), TimeUnit.MINUTES,
+                Integer.getInteger("session.maxSessions", DEFAULT_MAX_SESSIONS));
+        authenticator = new Authenticator(openCredentialStore());
+    }
+
+    /**
+     * Opens the credential store configured by the session.credentials.file system property
+     *
+     * @return The accounts of that file, or the embedded demo accounts if it is not set
+     */
+    private static CredentialStore openCredentialStore() {
+        String file = System.getProperty("session.credentials.file");
+        if (file == null) {
+            return new EmbeddedCredentialStore();
+        }
+        try {
+            return FileCredentialStore.load(Paths.get(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load credentials from " + file, e);
+        }
     }
 
     /**
      * Gets the single instance of singleton_pattern.SessionManager
-     * Creates a new instance if none exists (lazy initialization)
+     * The instance is created lazily and thread-safely by class initialization of Holder
      *
      * @return The singleton instance of singleton_pattern.SessionManager
      */
     public static SessionManager getInstance() {
-        if (instance == null) {
-            instance = new SessionManager();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
     /**
      * Authenticates user credentials and establishes a user session
-     * Supports two types of users: admin and regular user
+     * Every login gets its own session, so any number of users can be logged in at once
      *
      * @param username The username attempting to login
      * @param password The password for authentication
-     * @return true if login successful, false otherwise
+     * @return The session token, or null if the credentials are wrong or too many sessions are live
      */
-    public boolean login(String username, String password) {
-        // Check credentials for both admin and regular user
-        if (("admin".equals(username) && "admin123".equals(password)) ||
-                ("user".equals(username) && "user123".equals(password))) {
-            loggedInUser = username;
-            return true;
+    public String login(String username, char[] password) {
+        long start = BookingMetrics.ENABLED ? System.nanoTime() : 0;
+        String token = null;
+        UserAccount account = authenticator.authenticate(username, password);
+        if (account != null) {
+            Session session = sessionStore.create(username, account.getRoles());
+            token = session == null ? null : session.getToken();
+        }
+        if (BookingMetrics.ENABLED) {
+            BookingMetrics.recordLogin(token != null, start);
         }
-        return false;
+        return token;
+    }
+
+    /**
+     * Authenticates user credentials given as a String and establishes a user session
+     *
+     * @param username The username attempting to login
+     * @param password The password for authentication
+     * @return The session token, or null if the credentials are wrong or too many sessions are live
+     */
+    public String login(String username, String password) {
+        return login(username, password.toCharArray());
+    }
+
+    /**
+     * Gets the live session of a token and extends its idle timeout
+     *
+     * @param token The session token returned by login
+     * @return The session, or null if the token is unknown, logged out or expired
+     */
+    public Session getSession(String token) {
+        return sessionStore.validate(token);
+    }
+
+    /**
+     * Checks if a session token belongs to a logged-in user
+     *
+     * @param token The session token returned by login
+     * @return true if the session is live, false otherwise
+     */
+    public boolean isLiveSession(String token) {
+        return sessionStore.validate(token) != null;
+    }
+
+    /**
+     * Gets the username of a session
+     *
+     * @param token The session token returned by login
+     * @return String containing the username, or null if the session is not live
+     */
+    public String getSessionUser(String token) {
+        Session session = sessionStore.validate(token);
+        return session == null ? null : session.getUsername();
     }
 
     /**
-     * Checks if there is currently a logged-in user
+     * Checks if the user of a session has a role
      *
-     * @return true if a user is logged in, false otherwise
+     * @param token The session token returned by login
+     * @param role  The role
+     * @return true if the session is live and its user has the role
      */
-    public boolean isLoggedIn() {
-        return loggedInUser != null;
+    public boolean hasRole(String token, Role role) {
+        Session session = sessionStore.validate(token);
+        return session != null && session.hasRole(role);
     }
 
     /**
-     * Gets the username of the currently logged-in user
+     * Checks if the user of a session has admin privileges
      *
-     * @return String containing the username, or null if no user is logged in
+     * @param token The session token returned by login
+     * @return true if the session is live and its user is an admin, false otherwise
      */
-    public String getLoggedInUser() {
-        return loggedInUser;
+    public boolean isAdminSession(String token) {
+        return hasRole(token, Role.ADMIN);
     }
 
     /**
-     * Checks if the given username has admin privileges
+     * Ends a user session
      *
-     * @param username The username to check for admin status
-     * @return true if the user is an admin, false otherwise
+     * @param token The session token returned by login
      */
-    public boolean isAdmin(String username) {
-        return "admin".equals(username);
+    public void logoutSession(String token) {
+        sessionStore.invalidate(token);
     }
 
     /**
-     * Ends the current user session
-     * Clears the logged-in user information
+     * Gets the number of live sessions
+     *
+     * @return Number of sessions
      */
-    public void logout() {
-        loggedInUser = null;
+    public int getSessionCount() {
+        return sessionStore.size();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,565 @@
+package singleton_pattern;
+
+import catalogue.CatalogueLog;
+import catalogue.IntervalIndex;
+import catalogue.Showtime;
+import catalogue.TitleTrie;
+import movie_factory_pattern.ActionMovie;
+import movie_factory_pattern.ComedyMovie;
+import movie_factory_pattern.DramaMovie;
+import movie_factory_pattern.Genre;
+import movie_factory_pattern.Movie;
+import theatre_factory_pattern.CinemaHall;
+import theatre_factory_pattern.IMAXTheater;
+import theatre_factory_pattern.Theater;
+import theatre_factory_pattern.TheaterType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * singleton_pattern.ShowtimeCatalogue is the catalogue of movies, theaters and their
+ * showtimes, implemented with the Singleton pattern.
+ * <p>
+ * Movies have titles and running times, theaters have numbered screens with their own seat
+ * capacity, and each catalogue.Showtime plays a movie on a screen from a start time. Scheduling
+ * a showtime registers a showing with the screen's capacity in
+ * singleton_pattern.TicketBookingSystem, so its seats are booked by its showing ID.
+ * <p>
+ * Queries never scan the catalogue:
+ * <ul>
+ * <li>showtimes are kept in a catalogue.IntervalIndex per genre and theater type, so "what is
+ * playing around 8pm in IMAX" is
+ * {@code findPlaying(null, TheaterType.IMAX, today.atTime(19, 30), today.atTime(20, 30))},
+ * a few binary searches plus the matching showtimes;</li>
+ * <li>titles are kept in a catalogue.TitleTrie for prefix search;</li>
+ * <li>movies, theaters and showings are also found by exact title, name or showing ID.</li>
+ * </ul>
+ * Every index is immutable and replaced when the catalogue changes, so queries read volatile
+ * fields and never lock; changes are rare and synchronized. scheduleAll adds many showtimes with
+ * one merge per index, and titles are added to the trie along their path only.
+ * <p>
+ * The catalogue starts with one movie per genre and one single-screen theater of 50 seats per
+ * theater type, which movie_factory_pattern.MovieFactory and
+ * theatre_factory_pattern.TheaterFactory hand out by genre or type.
+ * <p>
+ * When the booking journal is on (booking.journal.dir), added movies, theaters and showtimes are
+ * also written to a catalogue.CatalogueLog in the journal directory and restored on startup with
+ * the showing IDs their seats were registered under, so a restart finds the showtimes with their
+ * recovered bookings. Scheduling a showtime identical to one already in the catalogue returns that
+ * showtime, so code that schedules a fixed programme on every startup keeps its showings.
+ */
+public class ShowtimeCatalogue {
+    /**
+     * Holder class for the singleton instance (initialization-on-demand holder idiom)
+     * The JVM initializes it exactly once, on the first call to getInstance()
+     */
+    private static class Holder {
+        private static final ShowtimeCatalogue INSTANCE = new ShowtimeCatalogue();
+    }
+
+    private static final int THEATER_TYPES = TheaterType.values().length;
+
+    // Running time of the default movies and seats of the default theaters
+    private static final int DEFAULT_DURATION_MINUTES = 120;
+    private static final int DEFAULT_SCREEN_CAPACITY = 50;
+
+    // Default movie per genre and default theater per theater type, by ordinal
+    private final Movie[] defaultMovies = new Movie[Genre.values().length];
+    private final Theater[] defaultTheaters = new Theater[THEATER_TYPES];
+
+    // Movies by lower-cased title and theaters by lower-cased name
+    private final ConcurrentHashMap<String, Movie> moviesByTitle = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Theater> theatersByName = new ConcurrentHashMap<>();
+
+    // Showtimes by showing ID and by movie
+    private final ConcurrentHashMap<Integer, Showtime> showtimesByShowingId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Movie, IntervalIndex> showtimesByMovie = new ConcurrentHashMap<>();
+
+    // Showtimes per genre and theater type, at [genre ordinal * THEATER_TYPES + theater type ordinal]
+    // Replaced by a copy on every change, so a query sees all combinations at the same point
+    private volatile IntervalIndex[] showtimesByKind;
+
+    // Prefix tree of all titles, extended when a movie is added
+    private volatile TitleTrie titles = TitleTrie.EMPTY;
+
+    // Log of catalogue changes, null if the journal is off; set after the log was replayed, so
+    // the replayed changes are not written again. Only used while synchronized
+    private CatalogueLog log;
+
+    /**
+     * Private constructor for Singleton pattern
+     * Registers the default movies and theaters and restores the catalogue log
+     */
+    private ShowtimeCatalogue() {
+        IntervalIndex[] empty = new IntervalIndex[defaultMovies.length * THEATER_TYPES];
+        Arrays.fill(empty, IntervalIndex.EMPTY);
+        showtimesByKind = empty;
+        initializeDefaults();
+        log = openLog();
+    }
+
+    /**
+     * Gets the singleton instance of singleton_pattern.ShowtimeCatalogue
+     *
+     * @return The singleton instance
+     */
+    public static ShowtimeCatalogue getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private void initializeDefaults() {
+        for (Genre genre : Genre.values()) {
+            defaultMovies[genre.ordinal()] = addMovie(newMovie(genre, genre.getDisplayName() + " Movie", DEFAULT_DURATION_MINUTES));
+        }
+        defaultTheaters[TheaterType.CINEMA.ordinal()] = addTheater(new CinemaHall("Cinema Hall", DEFAULT_SCREEN_CAPACITY));
+        defaultTheaters[TheaterType.IMAX.ordinal()] = addTheater(new IMAXTheater("IMAX Theater", DEFAULT_SCREEN_CAPACITY));
+    }
+
+    /**
+     * Opens the catalogue log of the booking journal directory and restores its changes
+     * A showtime is only restored if the booking journal still has its showing
+     *
+     * @return The log, or null if booking.journal.dir is not set
+     */
+    private CatalogueLog openLog() {
+        String directory = System.getProperty("booking.journal.dir");
+        if (directory == null) {
+            return null;
+        }
+        TicketBookingSystem ticketBookingSystem = TicketBookingSystem.getInstance();
+        List<Showtime> recovered = new ArrayList<>();
+        CatalogueLog.Visitor visitor = new CatalogueLog.Visitor() {
+            @Override
+            public void movie(Genre genre, String title, int durationMinutes) {
+                addMovie(newMovie(genre, title, durationMinutes));
+            }
+
+            @Override
+            public void theater(TheaterType type, String name, int[] screenCapacities) {
+                addTheater(newTheater(type, name, screenCapacities));
+            }
+
+            @Override
+            public void showtime(int showingId, String movieTitle, String theaterName, int screen, long startMinute) {
+                Movie movie = findMovie(movieTitle);
+                Theater theater = findTheater(theaterName);
+                if (movie == null || theater == null || screen < 1 || screen > theater.getScreenCount()
+                        || !ticketBookingSystem.isShowing(showingId)
+                        || ticketBookingSystem.getCapacity(showingId) != theater.getScreenCapacity(screen)) {
+                    System.err.println("Catalogue log names showing " + showingId
+                            + " which the booking journal does not have, skipped");
+                    return;
+                }
+                recovered.add(new Showtime(showingId, movie, theater, screen, Showtime.toDateTime(startMinute)));
+            }
+        };
+        try {
+            CatalogueLog opened = CatalogueLog.open(Paths.get(directory),
+                    Boolean.parseBoolean(System.getProperty("booking.journal.sync", "true")), visitor);
+            index(recovered);
+            return opened;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot recover catalogue log from " + directory, e);
+        }
+    }
+
+    private static Movie newMovie(Genre genre, String title, int durationMinutes) {
+        return switch (genre) {
+            case ACTION -> new ActionMovie(title, durationMinutes);
+            case COMEDY -> new ComedyMovie(title, durationMinutes);
+            case DRAMA -> new DramaMovie(title, durationMinutes);
+        };
+    }
+
+    private static Theater newTheater(TheaterType type, String name, int[] screenCapacities) {
+        return switch (type) {
+            case CINEMA -> new CinemaHall(name, screenCapacities);
+            case IMAX -> new IMAXTheater(name, screenCapacities);
+        };
+    }
+
+    /**
+     * Adds a movie to the catalogue
+     * Titles are unique ignoring case; adding a title again returns the movie already there
+     *
+     * @param movie The movie
+     * @return The catalogue's movie with this title
+     * @throws IllegalArgumentException if the title is taken by a movie of another genre or duration
+     */
+    public synchronized Movie addMovie(Movie movie) {
+        String key = key(movie.getTitle());
+        Movie existing = moviesByTitle.get(key);
+        if (existing != null) {
+            if (existing.getGenre() != movie.getGenre() || existing.getDurationMinutes() != movie.getDurationMinutes()) {
+                throw new IllegalArgumentException("Catalogue already has " + existing);
+            }
+            return existing;
+        }
+        if (log != null) {
+            write(() -> log.appendMovie(movie));
+        }
+        moviesByTitle.put(key, movie);
+        titles = titles.with(movie);
+        return movie;
+    }
+
+    /**
+     * Adds a theater to the catalogue
+     * Names are unique ignoring case; adding a name again returns the theater already there
+     *
+     * @param theater The theater
+     * @return The catalogue's theater with this name
+     * @throws IllegalArgumentException if the name is taken by a theater of another type
+     */
+    public synchronized Theater addTheater(Theater theater) {
+        Theater existing = theatersByName.get(key(theater.getName()));
+        if (existing == null) {
+            if (log != null) {
+                write(() -> log.appendTheater(theater));
+            }
+            theatersByName.put(key(theater.getName()), theater);
+            return theater;
+        }
+        if (existing.getType() != theater.getType()) {
+            throw new IllegalArgumentException("Catalogue already has " + existing);
+        }
+        return existing;
+    }
+
+    /**
+     * Schedules a movie on a screen and registers the showing of its seats
+     *
+     * @param movie   A movie of the catalogue
+     * @param theater A theater of the catalogue
+     * @param screen  The screen number, from 1
+     * @param start   Start of the screening
+     * @return The showtime with the showing ID of its seats; the showtime already in the
+     * catalogue if it plays the same movie on the same screen at the same start
+     * @throws IllegalArgumentException if the movie or theater is not in the catalogue, the
+     *                                  screen does not exist or it is busy at that time
+     */
+    public Showtime schedule(Movie movie, Theater theater, int screen, LocalDateTime start) {
+        return scheduleAll(List.of(new Screening(movie, theater, screen, start))).get(0);
+    }
+
+    /**
+     * Schedules many screenings at once, merging them into each index in one pass
+     * Checks every screening before scheduling any, so on failure nothing is scheduled
+     *
+     * @param screenings The screenings
+     * @return The showtime of each screening, in the order of the screenings; the showtime
+     * already in the catalogue for a screening identical to it
+     * @throws IllegalArgumentException if a movie or theater is not in the catalogue, a screen
+     *                                  does not exist or it is busy at that time, also with
+     *                                  another screening of the list
+     */
+    public synchronized List<Showtime> scheduleAll(List<Screening> screenings) {
+        Showtime[] showtimes = new Showtime[screenings.size()];
+        List<Screening> pending = new ArrayList<>();
+        List<Integer> pendingPositions = new ArrayList<>();
+        for (int i = 0; i < showtimes.length; i++) {
+            Screening screening = screenings.get(i);
+            showtimes[i] = existingShowtime(screening);
+            if (showtimes[i] == null) {
+                pending.add(screening);
+                pendingPositions.add(i);
+            }
+        }
+        checkNoOverlap(pending);
+
+        TicketBookingSystem ticketBookingSystem = TicketBookingSystem.getInstance();
+        List<Showtime> added = new ArrayList<>(pending.size());
+        try {
+            for (int i = 0; i < pending.size(); i++) {
+                Screening screening = pending.get(i);
+                int showingId = ticketBookingSystem.registerShowing(screening.movie.getGenre(),
+                        screening.theater.getType(), screening.theater.getScreenCapacity(screening.screen));
+                Showtime showtime = new Showtime(showingId, screening.movie, screening.theater, screening.screen, screening.start);
+                if (log != null) {
+                    write(() -> log.appendShowtime(showtime));
+                }
+                added.add(showtime);
+                showtimes[pendingPositions.get(i)] = showtime;
+            }
+        } finally {
+            // Showtimes written to the log are published even if a later one failed
+            index(added);
+        }
+        return Arrays.asList(showtimes);
+    }
+
+    /**
+     * Checks a screening against the catalogue
+     *
+     * @param screening The screening
+     * @return The showtime identical to the screening, or null if it is free to be scheduled
+     * @throws IllegalArgumentException if the screening cannot be scheduled
+     */
+    private Showtime existingShowtime(Screening screening) {
+        Movie movie = screening.movie;
+        Theater theater = screening.theater;
+        if (moviesByTitle.get(key(movie.getTitle())) != movie || theatersByName.get(key(theater.getName())) != theater) {
+            throw new IllegalArgumentException("Movie and theater must be added to the catalogue first");
+        }
+        theater.getScreenCapacity(screening.screen);  // Checks the screen number
+
+        // The screen must be free for the whole screening
+        long from = Showtime.toMinute(screening.start);
+        long to = from + movie.getDurationMinutes();
+        for (Showtime other : findByMinutes(null, theater.getType(), from, to, false)) {
+            if (other.getTheater() == theater && other.getScreen() == screening.screen) {
+                if (other.getMovie() == movie && Showtime.toMinute(other.getStart()) == from) {
+                    return other;
+                }
+                throw new IllegalArgumentException("Screen " + screening.screen + " of " + theater.getName() + " is busy with " + other);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks that no two screenings play on the same screen at the same time
+     * Sorts the screenings by screen and start, so only neighbours need comparing
+     *
+     * @param screenings Screenings each free in the catalogue
+     * @throws IllegalArgumentException if two screenings overlap
+     */
+    private static void checkNoOverlap(List<Screening> screenings) {
+        Screening[] sorted = screenings.toArray(new Screening[0]);
+        Arrays.sort(sorted, Comparator.<Screening, String>comparing(screening -> key(screening.theater.getName()))
+                .thenComparingInt(screening -> screening.screen)
+                .thenComparingLong(screening -> Showtime.toMinute(screening.start)));
+        for (int i = 1; i < sorted.length; i++) {
+            Screening previous = sorted[i - 1];
+            Screening next = sorted[i];
+            if (previous.theater == next.theater && previous.screen == next.screen
+                    && Showtime.toMinute(previous.start) + previous.movie.getDurationMinutes() > Showtime.toMinute(next.start)) {
+                throw new IllegalArgumentException("Screen " + next.screen + " of " + next.theater.getName()
+                        + " is busy with " + previous.movie.getTitle() + " at " + previous.start);
+            }
+        }
+    }
+
+    /**
+     * Adds showtimes to the indexes, one merge per changed index
+     *
+     * @param added The showtimes
+     */
+    private void index(List<Showtime> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        List<List<Showtime>> byKind = new ArrayList<>();
+        for (int kind = 0; kind < showtimesByKind.length; kind++) {
+            byKind.add(new ArrayList<>());
+        }
+        HashMap<Movie, List<Showtime>> byMovie = new HashMap<>();
+        for (Showtime showtime : added) {
+            byKind.get(kindOf(showtime.getMovie().getGenre(), showtime.getTheater().getType())).add(showtime);
+            byMovie.computeIfAbsent(showtime.getMovie(), movie -> new ArrayList<>()).add(showtime);
+        }
+        IntervalIndex[] updated = showtimesByKind.clone();
+        for (int kind = 0; kind < updated.length; kind++) {
+            updated[kind] = updated[kind].withAll(byKind.get(kind));
+        }
+        showtimesByKind = updated;
+        byMovie.forEach((movie, showtimes) ->
+                showtimesByMovie.merge(movie, IntervalIndex.EMPTY.withAll(showtimes), (current, more) -> current.withAll(showtimes)));
+        for (Showtime showtime : added) {
+            showtimesByShowingId.put(showtime.getShowingId(), showtime);
+        }
+    }
+
+    /**
+     * Writes a record to the catalogue log
+     *
+     * @param write Appends the record
+     * @throws UncheckedIOException if the record cannot be written
+     */
+    private static void write(LogWrite write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write catalogue log", e);
+        }
+    }
+
+    /**
+     * Appends one record to the catalogue log
+     */
+    @FunctionalInterface
+    private interface LogWrite {
+        void run() throws IOException;
+    }
+
+    /**
+     * A screening to schedule: a movie on a screen of a theater from a start time
+     */
+    public static final class Screening {
+        private final Movie movie;
+        private final Theater theater;
+        private final int screen;
+        private final LocalDateTime start;
+
+        /**
+         * @param movie   A movie of the catalogue
+         * @param theater A theater of the catalogue
+         * @param screen  The screen number, from 1
+         * @param start   Start of the screening
+         */
+        public Screening(Movie movie, Theater theater, int screen, LocalDateTime start) {
+            this.movie = movie;
+            this.theater = theater;
+            this.screen = screen;
+            this.start = start;
+        }
+    }
+
+    /**
+     * Finds the showtimes running at any point of a time range
+     *
+     * @param genre       Genre of the movies, null for any
+     * @param theaterType Type of the theaters, null for any
+     * @param from        Start of the range, inclusive
+     * @param to          End of the range, exclusive
+     * @return The showtimes by start
+     */
+    public List<Showtime> findPlaying(Genre genre, TheaterType theaterType, LocalDateTime from, LocalDateTime to) {
+        return findByMinutes(genre, theaterType, Showtime.toMinute(from), Showtime.toMinute(to), false);
+    }
+
+    /**
+     * Finds the showtimes starting in a time range
+     *
+     * @param genre       Genre of the movies, null for any
+     * @param theaterType Type of the theaters, null for any
+     * @param from        Start of the range, inclusive
+     * @param to          End of the range, exclusive
+     * @return The showtimes by start
+     */
+    public List<Showtime> findStarting(Genre genre, TheaterType theaterType, LocalDateTime from, LocalDateTime to) {
+        return findByMinutes(genre, theaterType, Showtime.toMinute(from), Showtime.toMinute(to), true);
+    }
+
+    /**
+     * Collects the showtimes of the matching genre and theater type indexes
+     *
+     * @param startingOnly true to match showtimes starting in the range, false for any overlap
+     */
+    private List<Showtime> findByMinutes(Genre genre, TheaterType theaterType, long from, long to, boolean startingOnly) {
+        IntervalIndex[] indexes = showtimesByKind;
+        List<Showtime> found = new ArrayList<>();
+        int sources = 0;
+        for (int g = 0; g < defaultMovies.length; g++) {
+            if (genre != null && genre.ordinal() != g) {
+                continue;
+            }
+            for (int t = 0; t < THEATER_TYPES; t++) {
+                if (theaterType != null && theaterType.ordinal() != t) {
+                    continue;
+                }
+                int before = found.size();
+                if (startingOnly) {
+                    indexes[g * THEATER_TYPES + t].collectStarting(from, to, found);
+                } else {
+                    indexes[g * THEATER_TYPES + t].collectOverlapping(from, to, found);
+                }
+                sources += found.size() > before ? 1 : 0;
+            }
+        }
+        // Each index is sorted; only results merged from several indexes need sorting
+        if (sources > 1) {
+            found.sort(Comparator.comparing(Showtime::getStart));
+        }
+        return found;
+    }
+
+    /**
+     * Gets the showtimes of a movie
+     *
+     * @param movie The movie
+     * @return The showtimes by start as an unmodifiable list, empty if the movie is not scheduled
+     */
+    public List<Showtime> getShowtimes(Movie movie) {
+        return showtimesByMovie.getOrDefault(movie, IntervalIndex.EMPTY).getShowtimes();
+    }
+
+    /**
+     * Gets the showtime of a showing
+     *
+     * @param showingId The showing ID
+     * @return The showtime, or null if the showing was not scheduled through the catalogue
+     */
+    public Showtime getShowtime(int showingId) {
+        return showtimesByShowingId.get(showingId);
+    }
+
+    /**
+     * Finds the movies whose title starts with a prefix, ignoring case
+     *
+     * @param prefix The title prefix
+     * @param limit  Maximum number of movies returned
+     * @return The movies by title
+     */
+    public List<Movie> findMovies(String prefix, int limit) {
+        return titles.find(prefix, limit);
+    }
+
+    /**
+     * Gets a movie by its title, ignoring case
+     *
+     * @param title The title
+     * @return The movie, or null if the catalogue has no such title
+     */
+    public Movie findMovie(String title) {
+        return title == null ? null : moviesByTitle.get(key(title));
+    }
+
+    /**
+     * Gets a theater by its name, ignoring case
+     *
+     * @param name The name
+     * @return The theater, or null if the catalogue has no such name
+     */
+    public Theater findTheater(String name) {
+        return name == null ? null : theatersByName.get(key(name));
+    }
+
+    /**
+     * Gets the default movie of a genre
+     *
+     * @param genre The genre
+     * @return The movie
+     */
+    public Movie getDefaultMovie(Genre genre) {
+        return defaultMovies[genre.ordinal()];
+    }
+
+    /**
+     * Gets the default theater of a theater type
+     *
+     * @param theaterType The theater type
+     * @return The theater
+     */
+    public Theater getDefaultTheater(TheaterType theaterType) {
+        return defaultTheaters[theaterType.ordinal()];
+    }
+
+    private static int kindOf(Genre genre, TheaterType theaterType) {
+        return genre.ordinal() * THEATER_TYPES + theaterType.ordinal();
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,61 +1,244 @@
 package singleton_pattern;
 
+import inventory.BookingJournal;
+import inventory.BookingResult;
+import inventory.BookingStatus;
+import inventory.InventoryListener;
+import inventory.InventorySnapshot;
+import inventory.SeatHold;
+import inventory.SeatMap;
+import inventory.SeatMapSnapshot;
+import inventory.Showing;
+import inventory.ShowingInventory;
+import inventory.Waitlist;
+import inventory.WaitlistEntry;
+import inventory.WaitlistListener;
+import metrics.BookingMetrics;
+import movie_factory_pattern.Genre;
+import observer_pattern.InventoryEventHandler;
+import observer_pattern.InventoryEventType;
+import observer_pattern.InventoryFeed;
+import pricing.PricingEngine;
+import prototype_pattern.TicketHandle;
+import prototype_pattern.TicketPrototype;
+import scheduler.TimerWheel;
+import theatre_factory_pattern.TheaterType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 /**
  * singleton_pattern.TicketBookingSystem implements the core ticket booking functionality using the Singleton pattern.
- * Manages ticket inventory and booking status for different movie genres and theater types.
- * Uses multi-dimensional arrays to track available tickets and booking status.
+ * Manages ticket inventory and booking status for every showing, keyed by showing ID.
+ * Each showing has its own inventory.SeatMap with the capacity of its auditorium, so each seat
+ * is claimed atomically and concurrent bookings are safe without a global lock.
+ * <p>
+ * The genre and theater type combinations shown by the GUI are registered as default showings
+ * of 50 seats; further showings can be registered with any capacity.
+ * <p>
+ * Genre and theater names are resolved to Genre and TheaterType once at the edge; the methods
+ * taking a showing ID are the string-free booking path, the String overloads are thin adapters.
+ * Booking methods report their outcome as an inventory.BookingResult carrying the booked
+ * tickets and the remaining availability.
+ * <p>
+ * When the system property booking.journal.dir is set, every change is written to an
+ * inventory.BookingJournal in that directory and the inventory is rebuilt from it on startup.
+ * booking.journal.sync (default true) makes bookings wait for their group commit, and
+ * booking.journal.snapshotInterval (default 1000000) sets the records between snapshots.
+ * <p>
+ * Seats can be held during checkout. Holds expire through a scheduler.TimerWheel, which scales
+ * to millions of outstanding holds without a scheduled task per hold; expiry only uses
+ * compare-and-set operations, so it never blocks bookings of the same showing.
+ * <p>
+ * Every seat change is published on an observer_pattern.InventoryFeed, a bounded ring buffer
+ * with any number of subscribers (capacity set by booking.feed.capacity, default 65536), so
+ * screens, metrics and external listeners get incremental updates without polling showings.
+ * inventory.InventoryListener instances get the resulting availability changes per showing.
+ * <p>
+ * Customers can wait for sold-out showings in a per-showing inventory.Waitlist; seats
+ * released later are booked for them in order and reported through inventory.WaitlistListener.
+ * <p>
+ * Booked tickets are priced by a pricing.PricingEngine from the occupancy of the showing before
+ * the booking, as counted by the seat map when the request claimed its first seat, so concurrent
+ * bookings cannot raise it; all tickets of one request get the same price. The paid price is
+ * recorded before the booking is journaled or published, so a cancellation always refunds it.
+ * Its rules can be reloaded while bookings run.
+ * <p>
+ * A booked ticket is cancelled through its prototype_pattern.TicketHandle, which names the
+ * booking by the seat's booking generation. Winning the cancellation is one compare-and-set on
+ * that generation, so a cancellation costs about as much as a booking, concurrent or repeated
+ * cancellations of one booking refund it once, and a stale handle cannot cancel a later booking
+ * of the seat. The price paid is refunded and the seat goes to the waitlist or becomes free.
  */
 public class TicketBookingSystem {
-    // Singleton instance
-    private static TicketBookingSystem instance;
+    /**
+     * Holder class for the singleton instance (initialization-on-demand holder idiom)
+     * The JVM initializes it exactly once, on the first call to getInstance()
+     */
+    private static class Holder {
+        private static final TicketBookingSystem INSTANCE = new TicketBookingSystem();
+    }
+
+    // Capacity of the default genre and theater type showings
+    private static final int DEFAULT_CAPACITY = 50;
+
+    // Number of times a contiguous booking retries when another booking takes part of the found run
+    private static final int MAX_CONTIGUOUS_ATTEMPTS = 8;
+
+    // Tick and bucket count of the hold expiry wheel, one revolution is about 102 seconds
+    private static final long HOLD_TICK_MILLIS = 100;
+    private static final int HOLD_WHEEL_BUCKETS = 1024;
+
+    // All registered showings, indexed by showing ID
+    private final ShowingInventory inventory = new ShowingInventory();
+
+    // Write-ahead journal of inventory changes, null when durability is disabled
+    private final BookingJournal journal;
+
+    // Expires seat holds whose checkout was not completed in time
+    private final TimerWheel<SeatHold> holdExpiryWheel =
+            new TimerWheel<>("seat-hold-expiry", HOLD_TICK_MILLIS, TimeUnit.MILLISECONDS, HOLD_WHEEL_BUCKETS, this::releaseHold);
+
+    // Feed of seat changes, events kept for slow subscribers overridable by the booking.feed.capacity system property
+    private final InventoryFeed inventoryFeed = new InventoryFeed(Integer.getInteger("booking.feed.capacity", 1 << 16));
 
-    // 2D array to track available tickets for each genre and theater type
-    // First dimension (3): Movie genres (Action, Comedy, Drama)
-    // Second dimension (2): Theater types (Cinema, IMAX)
-    private int[][] availableTickets = new int[3][2];
+    // Prices booked tickets, rules loaded from booking.pricing.file if set
+    private final PricingEngine pricingEngine = new PricingEngine();
 
-    // 3D array to track individual ticket numbers' booking status
-    // First dimension (3): Movie genres (Action, Comedy, Drama)
-    // Second dimension (2): Theater types (Cinema, IMAX)
-    // Third dimension (50): Individual ticket numbers (1-50)
-    private boolean[][][] bookedTicketNumbers = new boolean[3][2][50];
+    // Feed subscriptions of the registered inventory listeners
+    private final ConcurrentHashMap<InventoryListener, InventoryFeed.Subscription> listenerSubscriptions = new ConcurrentHashMap<>();
+
+    // 2D array mapping genre and theater type to the showing ID of their default showing
+    // First dimension: Genre ordinal (Action, Comedy, Drama)
+    // Second dimension: TheaterType ordinal (Cinema, IMAX)
+    private final int[][] defaultShowingIds = new int[Genre.values().length][TheaterType.values().length];
 
     /**
      * Private constructor for Singleton pattern
      * Initializes the ticket inventory
      */
     private TicketBookingSystem() {
+        journal = openJournal();
         initializeTickets();
     }
 
     /**
      * Gets the singleton instance of singleton_pattern.TicketBookingSystem
-     * Creates new instance if none exists (lazy initialization)
+     * The instance is created lazily and thread-safely by class initialization of Holder,
+     * so later calls are a plain static field read without any locking
      *
      * @return The singleton instance of singleton_pattern.TicketBookingSystem
      */
     public static TicketBookingSystem getInstance() {
-        if (instance == null) {
-            instance = new TicketBookingSystem();
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Opens the booking journal configured by system properties and replays it into the inventory
+     *
+     * @return The journal, or null if booking.journal.dir is not set
+     */
+    private BookingJournal openJournal() {
+        String directory = System.getProperty("booking.journal.dir");
+        if (directory == null) {
+            return null;
         }
-        return instance;
+        BookingJournal opened = new BookingJournal(Paths.get(directory), inventory,
+                Boolean.parseBoolean(System.getProperty("booking.journal.sync", "true")),
+                Long.getLong("booking.journal.snapshotInterval", 1_000_000L));
+        try {
+            opened.recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot recover booking journal from " + directory, e);
+        }
+        opened.start();
+        // Force pending records when the JVM exits normally
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                opened.close();
+            } catch (IOException e) {
+                System.err.println("Cannot close booking journal: " + e.getMessage());
+            }
+        }, "booking-journal-shutdown"));
+        return opened;
     }
 
     /**
      * Initializes the ticket inventory
-     * Sets available tickets to 50 for each genre and theater type combination
+     * Registers a 50 seat showing for each genre and theater type combination, unless it was
+     * already recovered from the journal: defaults are registered before any other showing, so
+     * the first recovered 50 seat showing of a genre and theater type is its default
      */
     private void initializeTickets() {
-        for (int i = 0; i < 3; i++) {            // Iterate through genres
-            for (int j = 0; j < 2; j++) {        // Iterate through theater types
-                availableTickets[i][j] = 50;     // Set initial capacity to 50
+        for (int[] showingIds : defaultShowingIds) {
+            Arrays.fill(showingIds, -1);
+        }
+        int missing = Genre.values().length * TheaterType.values().length;
+        for (int showingId = 0; showingId < inventory.size() && missing > 0; showingId++) {
+            Showing showing = inventory.get(showingId);
+            int[] showingIds = defaultShowingIds[showing.getGenre().ordinal()];
+            if (showingIds[showing.getTheaterType().ordinal()] == -1 && showing.getSeatMap().getCapacity() == DEFAULT_CAPACITY) {
+                showingIds[showing.getTheaterType().ordinal()] = showingId;
+                missing--;
             }
         }
+        for (Genre genre : Genre.values()) {                  // Iterate through genres
+            for (TheaterType theater : TheaterType.values()) { // Iterate through theater types
+                if (defaultShowingIds[genre.ordinal()][theater.ordinal()] == -1) {
+                    defaultShowingIds[genre.ordinal()][theater.ordinal()] = registerShowing(genre, theater, DEFAULT_CAPACITY);
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers a new showing
+     * Synchronized so registrations are journaled in the order of their showing IDs, which is the
+     * order recovery registers them again
+     *
+     * @param genre       Genre of the movie shown
+     * @param theaterType Type of theater
+     * @param capacity    Number of seats of the auditorium
+     * @return The showing ID of the new showing
+     */
+    public synchronized int registerShowing(Genre genre, TheaterType theaterType, int capacity) {
+        Showing showing = inventory.register(genre, theaterType, capacity);
+        if (journal != null) {
+            journal.appendRegister(showing);
+        }
+        return showing.getShowingId();
+    }
+
+    /**
+     * Gets the showing ID of the default showing for a genre and theater type
+     *
+     * @param genre       Movie genre ("Action", "Comedy", "Drama")
+     * @param theaterType Theater type ("Cinema", "IMAX")
+     * @return The showing ID, -1 if invalid selection
+     */
+    public int getShowingId(String genre, String theaterType) {
+        return getShowingId(Genre.fromName(genre), TheaterType.fromName(theaterType));
+    }
+
+    /**
+     * Gets the showing ID of the default showing for a genre and theater type
+     *
+     * @param genre       Movie genre
+     * @param theaterType Theater type
+     * @return The showing ID, -1 if genre or theater type is null
+     */
+    public int getShowingId(Genre genre, TheaterType theaterType) {
+        if (genre == null || theaterType == null) return -1;
+        return defaultShowingIds[genre.ordinal()][theaterType.ordinal()];
     }
 
     /**
      * Processes a ticket booking request
-     * Validates the request and updates booking status if successful
      *
      * @param genre        Movie genre ("Action", "Comedy", "Drama")
      * @param theaterType  Theater type ("Cinema", "IMAX")
@@ -63,33 +246,796 @@ public class TicketBookingSystem {
      * @return String message indicating booking status or error
      */
     public String bookTicket(String genre, String theaterType, int ticketNumber) {
-        // Get array indices for genre and theater type
-        int genreIndex = getGenreIndex(genre);
-        int theaterIndex = getTheaterIndex(theaterType);
+        return bookTicket(getShowingId(genre, theaterType), ticketNumber).getMessage();
+    }
+
+    /**
+     * Processes a ticket booking request for the default showing of a genre and theater type
+     *
+     * @param genre        Movie genre
+     * @param theaterType  Theater type
+     * @param ticketNumber Specific ticket number (1-50)
+     * @return Result with the booking status, the booked ticket and the remaining availability
+     */
+    public BookingResult bookTicket(Genre genre, TheaterType theaterType, int ticketNumber) {
+        return bookTicket(getShowingId(genre, theaterType), ticketNumber);
+    }
+
+    /**
+     * Processes a ticket booking request for a showing
+     * Validates the request and atomically claims the seat if it is still free
+     *
+     * @param showingId    The showing ID
+     * @param ticketNumber Specific ticket number (1 to the showing's capacity)
+     * @return Result with the booking status, the booked ticket and the remaining availability
+     */
+    public BookingResult bookTicket(int showingId, int ticketNumber) {
+        return bookTicket(inventory.get(showingId), ticketNumber);
+    }
+
+    /**
+     * Processes a ticket booking request for a showing already looked up, such as by the
+     * shard.BookingNode owning it
+     *
+     * @param showing      A showing of this booking system, null for an invalid selection
+     * @param ticketNumber Specific ticket number (1 to the showing's capacity)
+     * @return Result with the booking status, the booked ticket and the remaining availability
+     */
+    public BookingResult bookTicket(Showing showing, int ticketNumber) {
+        if (!BookingMetrics.ENABLED) {
+            return claimTicket(showing, ticketNumber);
+        }
+        long start = BookingMetrics.startTimer();
+        BookingResult result = claimTicket(showing, ticketNumber);
+        BookingMetrics.recordBooking(result.getStatus(), start);
+        return result;
+    }
+
+    /**
+     * Processes a ticket booking request without creating a result, for callers that only need
+     * the status and the ticket: a successful booking allocates nothing
+     *
+     * @param showing      A showing of this booking system, null for an invalid selection
+     * @param ticketNumber Specific ticket number (1 to the showing's capacity)
+     * @return The prototype_pattern.TicketHandle of the booked ticket, or the negative
+     *         BookingStatus.asFailedHandle of the failure; BookingStatus.ofHandle tells them apart
+     */
+    public long bookTicketHandle(Showing showing, int ticketNumber) {
+        if (!BookingMetrics.ENABLED) {
+            return claimTicketHandle(showing, ticketNumber);
+        }
+        long start = BookingMetrics.startTimer();
+        long handle = claimTicketHandle(showing, ticketNumber);
+        BookingMetrics.recordBooking(BookingStatus.ofHandle(handle), start);
+        return handle;
+    }
+
+    /**
+     * Books a ticket for a showing as a handle, without recording metrics
+     *
+     * @param showing      The showing, null for an invalid selection
+     * @param ticketNumber Specific ticket number (1 to the showing's capacity)
+     * @return The handle of the booked ticket, or the failed handle of the status
+     */
+    private long claimTicketHandle(Showing showing, int ticketNumber) {
+        if (showing == null) {
+            return BookingStatus.INVALID_SELECTION.asFailedHandle();
+        }
+        int showingId = showing.getShowingId();
+        SeatMap seatMap = showing.getSeatMap();
+        BookingStatus rejected = checkTicket(seatMap, ticketNumber);
+        if (rejected != null) {
+            return rejected.asFailedHandle();
+        }
+
+        // Claim the seat; fails if another booking took it in the meantime
+        int seat = ticketNumber - 1;
+        int claimedBefore = seatMap.claim(seat);
+        if (claimedBefore == -1) {
+            return BookingStatus.ALREADY_BOOKED.asFailedHandle();
+        }
+        showing.recordPaidPrice(seat, pricingEngine.priceOf(showing, claimedBefore));
+        long handle = TicketHandle.pack(showingId, ticketNumber, seatMap.getGeneration(seat));
+        if (journal != null) {
+            journal.appendBook(showingId, seat);
+        }
+        inventoryFeed.publish(InventoryEventType.BOOKED, showingId, seat);
+        return handle;
+    }
+
+    /**
+     * Books a ticket for a showing, without recording metrics
+     *
+     * @param showing      The showing, null for an invalid selection
+     * @param ticketNumber Specific ticket number (1 to the showing's capacity)
+     * @return Result with the booking status, the booked ticket and the remaining availability
+     */
+    private BookingResult claimTicket(Showing showing, int ticketNumber) {
+        // Validate showing selection
+        if (showing == null) {
+            return BookingResult.INVALID_SELECTION;
+        }
+        int showingId = showing.getShowingId();
+        SeatMap seatMap = showing.getSeatMap();
+        BookingStatus rejected = checkTicket(seatMap, ticketNumber);
+        if (rejected != null) {
+            return failure(rejected, seatMap);
+        }
+
+        // Claim the seat; fails if another booking took it in the meantime
+        int claimedBefore = seatMap.claim(ticketNumber - 1);
+        if (claimedBefore == -1) {
+            return failure(BookingStatus.ALREADY_BOOKED, seatMap);
+        }
+        BookingResult result = success(showing, ticketNumber - 1, claimedBefore);
+        if (journal != null) {
+            journal.appendBook(showingId, ticketNumber - 1);
+        }
+        inventoryFeed.publish(InventoryEventType.BOOKED, showingId, ticketNumber - 1);
+        return result;
+    }
+
+    /**
+     * Books several tickets of the default showing for a genre and theater type all-or-nothing
+     *
+     * @param genre         Movie genre ("Action", "Comedy", "Drama")
+     * @param theaterType   Theater type ("Cinema", "IMAX")
+     * @param ticketNumbers Specific ticket numbers (1-50)
+     * @return String message indicating booking status or error
+     */
+    public String bookTickets(String genre, String theaterType, int[] ticketNumbers) {
+        return bookTickets(getShowingId(genre, theaterType), ticketNumbers).getMessage();
+    }
+
+    /**
+     * Books several tickets of the default showing for a genre and theater type all-or-nothing
+     *
+     * @param genre         Movie genre
+     * @param theaterType   Theater type
+     * @param ticketNumbers Specific ticket numbers (1-50)
+     * @return Result with the booking status, the booked tickets and the remaining availability
+     */
+    public BookingResult bookTickets(Genre genre, TheaterType theaterType, int[] ticketNumbers) {
+        return bookTickets(getShowingId(genre, theaterType), ticketNumbers);
+    }
+
+    /**
+     * Books several tickets of a showing all-or-nothing
+     * Either every requested seat is claimed, or the seats claimed before a conflict are
+     * released again and none stays booked
+     *
+     * @param showingId     The showing ID
+     * @param ticketNumbers Specific ticket numbers (1 to the showing's capacity)
+     * @return Result with the booking status, the booked tickets and the remaining availability
+     */
+    public BookingResult bookTickets(int showingId, int[] ticketNumbers) {
+        return bookTickets(inventory.get(showingId), ticketNumbers);
+    }
+
+    /**
+     * Books several tickets of a showing already looked up all-or-nothing, such as by the
+     * shard.BookingNode owning it
+     *
+     * @param showing       A showing of this booking system, null for an invalid selection
+     * @param ticketNumbers Specific ticket numbers (1 to the showing's capacity)
+     * @return Result with the booking status, the booked tickets and the remaining availability
+     */
+    public BookingResult bookTickets(Showing showing, int[] ticketNumbers) {
+        if (!BookingMetrics.ENABLED) {
+            return claimTickets(showing, ticketNumbers);
+        }
+        long start = BookingMetrics.startTimer();
+        BookingResult result = claimTickets(showing, ticketNumbers);
+        BookingMetrics.recordBooking(result.getStatus(), start);
+        return result;
+    }
+
+    /**
+     * Books several tickets of a showing all-or-nothing, without recording metrics
+     *
+     * @param showing       The showing, null for an invalid selection
+     * @param ticketNumbers Specific ticket numbers (1 to the showing's capacity)
+     * @return Result with the booking status, the booked tickets and the remaining availability
+     */
+    private BookingResult claimTickets(Showing showing, int[] ticketNumbers) {
+        // Validate showing selection
+        if (showing == null || ticketNumbers.length == 0) {
+            return BookingResult.INVALID_SELECTION;
+        }
+        SeatMap seatMap = showing.getSeatMap();
+
+        // Validate every ticket number before claiming anything
+        int[] seats = new int[ticketNumbers.length];
+        for (int i = 0; i < ticketNumbers.length; i++) {
+            if (ticketNumbers[i] < 1 || ticketNumbers[i] > seatMap.getCapacity()) {
+                return failure(BookingStatus.INVALID_TICKET_NUMBER, seatMap);
+            }
+            seats[i] = ticketNumbers[i] - 1;
+        }
+
+        // Check if enough tickets are still available
+        if (seatMap.getAvailableCount() < seats.length) {
+            return failure(BookingStatus.SOLD_OUT, seatMap);
+        }
+
+        // Claim all seats; rolls back if any of them is already booked
+        int claimedBefore = seatMap.claimAll(seats);
+        if (claimedBefore == -1) {
+            return failure(BookingStatus.ALREADY_BOOKED, seatMap);
+        }
+        return successForSeats(showing, seats, claimedBefore);
+    }
+
+    /**
+     * Books the best run of adjacent tickets of the default showing for a genre and theater type
+     *
+     * @param genre       Movie genre ("Action", "Comedy", "Drama")
+     * @param theaterType Theater type ("Cinema", "IMAX")
+     * @param count       Number of adjacent tickets to book
+     * @return String message indicating booking status or error
+     */
+    public String bookContiguousTickets(String genre, String theaterType, int count) {
+        return bookContiguousTickets(getShowingId(genre, theaterType), count).getMessage();
+    }
+
+    /**
+     * Books the best run of adjacent tickets of the default showing for a genre and theater type
+     *
+     * @param genre       Movie genre
+     * @param theaterType Theater type
+     * @param count       Number of adjacent tickets to book
+     * @return Result with the booking status, the booked tickets and the remaining availability
+     */
+    public BookingResult bookContiguousTickets(Genre genre, TheaterType theaterType, int count) {
+        return bookContiguousTickets(getShowingId(genre, theaterType), count);
+    }
+
+    /**
+     * Books the best run of adjacent tickets of a showing
+     * Picks the lowest-numbered run of free seats long enough for the group and claims it
+     * all-or-nothing, searching again if another booking takes part of the run first
+     *
+     * @param showingId The showing ID
+     * @param count     Number of adjacent tickets to book
+     * @return Result with the booking status, the booked tickets and the remaining availability
+     */
+    public BookingResult bookContiguousTickets(int showingId, int count) {
+        return bookContiguousTickets(inventory.get(showingId), count);
+    }
+
+    /**
+     * Books the best run of adjacent tickets of a showing already looked up, such as by the
+     * shard.BookingNode owning it
+     *
+     * @param showing A showing of this booking system, null for an invalid selection
+     * @param count   Number of adjacent tickets to book
+     * @return Result with the booking status, the booked tickets and the remaining availability
+     */
+    public BookingResult bookContiguousTickets(Showing showing, int count) {
+        if (!BookingMetrics.ENABLED) {
+            return claimContiguousTickets(showing, count);
+        }
+        long start = BookingMetrics.startTimer();
+        BookingResult result = claimContiguousTickets(showing, count);
+        BookingMetrics.recordBooking(result.getStatus(), start);
+        return result;
+    }
+
+    /**
+     * Books the best run of adjacent tickets of a showing, without recording metrics
+     *
+     * @param showing The showing, null for an invalid selection
+     * @param count   Number of adjacent tickets to book
+     * @return Result with the booking status, the booked tickets and the remaining availability
+     */
+    private BookingResult claimContiguousTickets(Showing showing, int count) {
+        // Validate showing selection and group size
+        if (showing == null || count < 1 || count > showing.getSeatMap().getCapacity()) {
+            return BookingResult.INVALID_SELECTION;
+        }
+        SeatMap seatMap = showing.getSeatMap();
+
+        int[] seats = new int[count];
+        for (int attempt = 0; attempt < MAX_CONTIGUOUS_ATTEMPTS; attempt++) {
+            int first = seatMap.findContiguousFree(count);
+            if (first == -1) {
+                return failure(BookingStatus.NO_ADJACENT_SEATS, seatMap);
+            }
+            for (int i = 0; i < count; i++) {
+                seats[i] = first + i;
+            }
+            int claimedBefore = seatMap.claimAll(seats);
+            if (claimedBefore != -1) {
+                return successForSeats(showing, seats, claimedBefore);
+            }
+        }
+        return failure(BookingStatus.CONTENDED, seatMap);
+    }
+
+    /**
+     * Holds a ticket of the default showing for a genre and theater type during checkout
+     *
+     * @param genre        Movie genre
+     * @param theaterType  Theater type
+     * @param ticketNumber Specific ticket number (1-50)
+     * @param holdMillis   How long the seat stays held before it is released automatically
+     * @return Result with status HELD and the hold handle, or the reason the seat cannot be held
+     */
+    public BookingResult holdTicket(Genre genre, TheaterType theaterType, int ticketNumber, long holdMillis) {
+        return holdTicket(getShowingId(genre, theaterType), ticketNumber, holdMillis);
+    }
+
+    /**
+     * Holds a ticket of a showing during checkout
+     * The seat is claimed like a booking, so nobody else can take it, until the hold is
+     * confirmed with confirmHold or released by releaseHold or by expiry
+     *
+     * @param showingId    The showing ID
+     * @param ticketNumber Specific ticket number (1 to the showing's capacity)
+     * @param holdMillis   How long the seat stays held before it is released automatically
+     * @return Result with status HELD and the hold handle, or the reason the seat cannot be held
+     */
+    public BookingResult holdTicket(int showingId, int ticketNumber, long holdMillis) {
+        Showing showing = inventory.get(showingId);
+
+        // Validate showing selection
+        if (showing == null) {
+            return BookingResult.INVALID_SELECTION;
+        }
+        SeatMap seatMap = showing.getSeatMap();
+
+        // Validate ticket number range
+        if (ticketNumber < 1 || ticketNumber > seatMap.getCapacity()) {
+            return failure(BookingStatus.INVALID_TICKET_NUMBER, seatMap);
+        }
+
+        // Claim and mark the seat; fails if it is already booked or held
+        if (!seatMap.tryHold(ticketNumber - 1)) {
+            return failure(seatMap.getAvailableCount() == 0 ? BookingStatus.SOLD_OUT : BookingStatus.ALREADY_BOOKED, seatMap);
+        }
+        if (journal != null) {
+            journal.appendHold(showingId, ticketNumber - 1);
+        }
+        SeatHold hold = new SeatHold(showingId, ticketNumber, System.currentTimeMillis() + holdMillis);
+        inventoryFeed.publish(InventoryEventType.HELD, showingId, ticketNumber - 1);
+        holdExpiryWheel.schedule(hold, holdMillis, TimeUnit.MILLISECONDS);
+        return BookingResult.held(hold, seatMap.getAvailableCount(), seatMap.getCapacity());
+    }
+
+    /**
+     * Completes the checkout of a held seat and books it
+     *
+     * @param hold The hold handle returned by holdTicket
+     * @return Result with the booked ticket, or HOLD_EXPIRED if the hold was already released
+     */
+    public BookingResult confirmHold(SeatHold hold) {
+        Showing showing = inventory.get(hold.getShowingId());
+        if (showing == null) {
+            return BookingResult.INVALID_SELECTION;
+        }
+        SeatMap seatMap = showing.getSeatMap();
+
+        // Wins against a concurrent expiry or release, or reports that it lost
+        if (!hold.markConfirmed()) {
+            return failure(BookingStatus.HOLD_EXPIRED, seatMap);
+        }
+        seatMap.confirmHold(hold.getTicketNumber() - 1);
+        BookingResult result = success(showing, hold.getTicketNumber() - 1, claimedBesides(seatMap));
+        if (journal != null) {
+            journal.appendBook(hold.getShowingId(), hold.getTicketNumber() - 1);
+        }
+        inventoryFeed.publish(InventoryEventType.CONFIRMED, hold.getShowingId(), hold.getTicketNumber() - 1);
+        return result;
+    }
+
+    /**
+     * Releases a held seat so others can book it
+     * Also called by the expiry wheel when a hold times out. If customers wait for the showing,
+     * the seat goes straight to the first of them instead of becoming free
+     *
+     * @param hold The hold handle returned by holdTicket
+     * @return true if the seat was released, false if the hold was already confirmed or released
+     */
+    public boolean releaseHold(SeatHold hold) {
+        if (!hold.markReleased()) {
+            return false;
+        }
+        Showing showing = inventory.get(hold.getShowingId());
+        SeatMap seatMap = showing.getSeatMap();
+        int seat = hold.getTicketNumber() - 1;
+        Waitlist waitlist = showing.getWaitlistIfCreated();
+
+        // Hand the seat over without freeing it, so nobody can take it in between
+        WaitlistEntry next = waitlist == null ? null : waitlist.serveNext();
+        if (next != null) {
+            seatMap.confirmHold(seat);
+            BookingResult result = success(showing, seat, claimedBesides(seatMap));
+            if (journal != null) {
+                journal.appendBook(hold.getShowingId(), seat);
+            }
+            inventoryFeed.publish(InventoryEventType.CONFIRMED, hold.getShowingId(), seat);
+            notifyWaitlisted(next, result);
+            return true;
+        }
+
+        // Journal the release before freeing the seat, so it precedes any later booking of it
+        if (journal != null) {
+            journal.appendHoldRelease(hold.getShowingId(), seat);
+        }
+        seatMap.releaseHold(seat);
+        inventoryFeed.publish(InventoryEventType.RELEASED, hold.getShowingId(), seat);
+        // A customer may have joined after the waitlist was checked and before the seat was freed
+        if (waitlist != null) {
+            serveWaitlist(showing);
+        }
+        return true;
+    }
+
+    /**
+     * Cancels the booking of a ticket and refunds the price paid for it
+     *
+     * @param ticket A ticket returned by a booking
+     * @return Result with CANCELLED and the refund, or why the ticket could not be cancelled
+     */
+    public BookingResult cancelTicket(TicketPrototype ticket) {
+        return cancelTicket(ticket.getHandle());
+    }
+
+    /**
+     * Cancels the booking named by a ticket handle and refunds the price paid for it
+     * The seat is freed in constant time, or handed straight to the first customer waiting for
+     * the showing
+     *
+     * @param ticketHandle A prototype_pattern.TicketHandle returned by a booking
+     * @return Result with CANCELLED, the refund and the availability after the cancellation; or
+     * NOT_CANCELLABLE if the booking was already cancelled or the handle is stale
+     */
+    public BookingResult cancelTicket(long ticketHandle) {
+        if (!BookingMetrics.ENABLED) {
+            return cancelBooking(ticketHandle);
+        }
+        long start = BookingMetrics.startTimer();
+        BookingResult result = cancelBooking(ticketHandle);
+        BookingMetrics.recordCancellation(result.getStatus(), result.getRefundCents(), start);
+        return result;
+    }
+
+    /**
+     * Cancels a booking, without recording metrics
+     *
+     * @param ticketHandle The handle of the booking
+     * @return Result of the cancellation
+     */
+    private BookingResult cancelBooking(long ticketHandle) {
+        int showingId = TicketHandle.showingId(ticketHandle);
+        Showing showing = inventory.get(showingId);
+        if (showing == null) {
+            return BookingResult.INVALID_SELECTION;
+        }
+        SeatMap seatMap = showing.getSeatMap();
+        int ticketNumber = TicketHandle.ticketNumber(ticketHandle);
+        if (ticketNumber < 1 || ticketNumber > seatMap.getCapacity()) {
+            return failure(BookingStatus.INVALID_TICKET_NUMBER, seatMap);
+        }
+        int seat = ticketNumber - 1;
+
+        // Wins against concurrent cancellations of the same booking, or finds it already gone
+        int generation = seatMap.tryCancel(seat, TicketHandle.generation(ticketHandle));
+        if (generation == -1) {
+            return failure(BookingStatus.NOT_CANCELLABLE, seatMap);
+        }
+        // Read while the seat is still claimed, the next booking of it overwrites the price
+        int refund = showing.getPaidPrice(seat);
+        Waitlist waitlist = showing.getWaitlistIfCreated();
 
-        // Validate genre and theater selection
-        if (genreIndex == -1 || theaterIndex == -1) {
-            return "Invalid selection.";
+        // Hand the seat over without freeing it, so nobody can take it in between
+        WaitlistEntry next = waitlist == null ? null : waitlist.serveNext();
+        if (next != null) {
+            BookingResult result = success(showing, seat, claimedBesides(seatMap));
+            if (journal != null) {
+                journal.appendCancelAndBook(showingId, seat, generation);
+            }
+            inventoryFeed.publish(InventoryEventType.RELEASED, showingId, seat);
+            inventoryFeed.publish(InventoryEventType.BOOKED, showingId, seat);
+            notifyWaitlisted(next, result);
+            return BookingResult.cancelled(refund, seatMap.getAvailableCount(), seatMap.getCapacity());
+        }
+
+        // Journal the cancellation before freeing the seat, so it precedes any later booking of it
+        if (journal != null) {
+            journal.appendCancel(showingId, seat, generation);
+        }
+        seatMap.release(seat);
+        inventoryFeed.publish(InventoryEventType.RELEASED, showingId, seat);
+        // A customer may have joined after the waitlist was checked and before the seat was freed
+        if (waitlist != null) {
+            serveWaitlist(showing);
+        }
+        return BookingResult.cancelled(refund, seatMap.getAvailableCount(), seatMap.getCapacity());
+    }
+
+    /**
+     * Puts a customer on the waitlist of the default showing for a genre and theater type
+     *
+     * @param genre       Movie genre
+     * @param theaterType Theater type
+     * @param listener    Told when the customer got a ticket
+     * @return The waitlist entry, or null if invalid selection
+     */
+    public WaitlistEntry joinWaitlist(Genre genre, TheaterType theaterType, WaitlistListener listener) {
+        return joinWaitlist(getShowingId(genre, theaterType), listener);
+    }
+
+    /**
+     * Puts a customer on the waitlist of a showing
+     * Customers are served first come, first served: each seat released later, by a hold
+     * release or expiry or by a cancellation, is booked for the first waiting customer and reported to its listener
+     * instead of becoming free. If a seat is free right now, the customer is served before this
+     * method returns
+     *
+     * @param showingId The showing ID
+     * @param listener  Told when the customer got a ticket
+     * @return The waitlist entry, cancel it to leave the waitlist; null if the showing does not exist
+     */
+    public WaitlistEntry joinWaitlist(int showingId, WaitlistListener listener) {
+        Showing showing = inventory.get(showingId);
+        if (showing == null) {
+            return null;
+        }
+        WaitlistEntry entry = showing.getWaitlist().join(showingId, listener);
+        // A seat may have been freed before the entry was queued
+        serveWaitlist(showing);
+        return entry;
+    }
+
+    /**
+     * Gets the number of customers waiting for a showing
+     *
+     * @param showingId The showing ID
+     * @return Number of waiting customers, 0 if the showing does not exist
+     */
+    public int getWaitlistLength(int showingId) {
+        Showing showing = inventory.get(showingId);
+        Waitlist waitlist = showing == null ? null : showing.getWaitlistIfCreated();
+        return waitlist == null ? 0 : waitlist.size();
+    }
+
+    /**
+     * Books free seats of a showing for its waiting customers until either runs out
+     * Both a freed seat and a joining customer call this after publishing their side, so one of
+     * them always sees the other and no customer waits while a seat is free
+     *
+     * @param showing The showing
+     */
+    private void serveWaitlist(Showing showing) {
+        Waitlist waitlist = showing.getWaitlist();
+        SeatMap seatMap = showing.getSeatMap();
+        while (waitlist.hasWaiting()) {
+            int seat = seatMap.nextFreeSeat(0);
+            if (seat == -1) {
+                return;
+            }
+            int claimedBefore = seatMap.claim(seat);
+            if (claimedBefore == -1) {
+                continue;  // Taken by a concurrent booking, look again
+            }
+            WaitlistEntry next = waitlist.serveNext();
+            if (next == null) {
+                // The waiting customers cancelled or were served meanwhile; the loop checks for new ones.
+                // The claim was not journaled, and journal snapshots never copy live seats, so no record is needed
+                seatMap.release(seat);
+                continue;
+            }
+            BookingResult result = success(showing, seat, claimedBefore);
+            if (journal != null) {
+                journal.appendBook(showing.getShowingId(), seat);
+            }
+            inventoryFeed.publish(InventoryEventType.BOOKED, showing.getShowingId(), seat);
+            notifyWaitlisted(next, result);
+        }
+    }
+
+    /**
+     * Tells a served waitlist customer about its booked seat
+     *
+     * @param entry  The served entry
+     * @param result The result of booking the seat for the customer
+     */
+    private void notifyWaitlisted(WaitlistEntry entry, BookingResult result) {
+        if (BookingMetrics.ENABLED) {
+            BookingMetrics.recordBooking(result.getStatus(), BookingMetrics.NOT_TIMED);
+        }
+        entry.notifyBooked(result);
+    }
+
+    /**
+     * Takes an immutable snapshot of the seat counts of all showings in one pass
+     * Large inventories are read in parallel; use this instead of per-showing queries when
+     * showing many showings at once, such as on the admin dashboard
+     *
+     * @return The snapshot, indexed by showing ID
+     */
+    public InventorySnapshot getInventorySnapshot() {
+        return inventory.snapshot();
+    }
+
+    /**
+     * Gets the price the next ticket of a showing would have right now
+     *
+     * @param showingId The showing ID
+     * @return The price in cents, -1 if the showing does not exist
+     */
+    public int getPriceCents(int showingId) {
+        Showing showing = inventory.get(showingId);
+        return showing == null ? -1 : pricingEngine.currentPriceOf(showing);
+    }
+
+    /**
+     * Gets the engine pricing booked tickets, to reload its rules
+     *
+     * @return The pricing engine
+     */
+    public PricingEngine getPricingEngine() {
+        return pricingEngine;
+    }
+
+    /**
+     * Gets the feed of seat changes, for subscribers that track individual seats
+     *
+     * @return The inventory feed
+     */
+    public InventoryFeed getInventoryFeed() {
+        return inventoryFeed;
+    }
+
+    /**
+     * Registers a listener for availability changes of all showings
+     * The listener subscribes to the inventory feed and is called on its own dispatcher
+     * thread, once per showing changed in a batch of events, never on the booking thread
+     *
+     * @param listener The listener
+     */
+    public void addInventoryListener(InventoryListener listener) {
+        listenerSubscriptions.computeIfAbsent(listener, key ->
+                inventoryFeed.subscribe("listener-" + listenerSubscriptions.size(), new InventoryEventHandler() {
+                    // Showings changed by the events of the current batch
+                    private final BitSet changedShowings = new BitSet();
+
+                    @Override
+                    public void onEvent(InventoryEventType type, int showingId, int seat, long sequence) {
+                        changedShowings.set(showingId);
+                    }
+
+                    @Override
+                    public void onEventsLost(long lostEvents) {
+                        // Any showing may have changed, report them all
+                        changedShowings.set(0, inventory.size());
+                    }
+
+                    @Override
+                    public void onBatchEnd() {
+                        for (int id = changedShowings.nextSetBit(0); id >= 0; id = changedShowings.nextSetBit(id + 1)) {
+                            Showing showing = inventory.get(id);
+                            if (showing != null) {
+                                SeatMap seatMap = showing.getSeatMap();
+                                key.onAvailabilityChanged(id, seatMap.getAvailableCount(), seatMap.getCapacity());
+                            }
+                        }
+                        changedShowings.clear();
+                    }
+                }));
+    }
+
+    /**
+     * Removes a listener registered with addInventoryListener
+     *
+     * @param listener The listener
+     */
+    public void removeInventoryListener(InventoryListener listener) {
+        InventoryFeed.Subscription subscription = listenerSubscriptions.remove(listener);
+        if (subscription != null) {
+            subscription.close();
         }
+    }
+
+    /**
+     * Creates a failed result carrying the current availability of the showing
+     *
+     * @param status  Reason of the failure
+     * @param seatMap Seat map of the showing
+     * @return The result
+     */
+    private BookingResult failure(BookingStatus status, SeatMap seatMap) {
+        return BookingResult.failure(status, seatMap.getAvailableCount(), seatMap.getCapacity());
+    }
 
+    /**
+     * Checks a ticket number before claiming its seat
+     *
+     * @param seatMap      Seat map of the showing
+     * @param ticketNumber Specific ticket number (1 to the showing's capacity)
+     * @return The status to reject the booking with, or null if the seat may be claimed
+     */
+    private static BookingStatus checkTicket(SeatMap seatMap, int ticketNumber) {
         // Validate ticket number range
-        if (ticketNumber < 1 || ticketNumber > 50) {
-            return "Ticket number must be between 1 and 50.";
+        if (ticketNumber < 1 || ticketNumber > seatMap.getCapacity()) {
+            return BookingStatus.INVALID_TICKET_NUMBER;
         }
 
         // Check if ticket is already booked
-        if (bookedTicketNumbers[genreIndex][theaterIndex][ticketNumber - 1]) {
-            return "This ticket number is already booked.";
+        if (seatMap.isBooked(ticketNumber - 1)) {
+            return BookingStatus.ALREADY_BOOKED;
+        }
+
+        // Check if tickets are still available
+        if (seatMap.getAvailableCount() == 0) {
+            return BookingStatus.SOLD_OUT;
         }
+        return null;
+    }
 
-        // Process booking if tickets are available
-        if (availableTickets[genreIndex][theaterIndex] > 0) {
-            bookedTicketNumbers[genreIndex][theaterIndex][ticketNumber - 1] = true;
-            availableTickets[genreIndex][theaterIndex]--;
-            return "Ticket booked successfully!";
-        } else {
-            return "No remaining tickets for this selection.";
+    /**
+     * Creates a successful result for claimed seats, then journals and publishes them
+     * Remembers the price paid for each seat and the booking generation it was booked under
+     * before the booking is journaled or published
+     *
+     * @param showing       The showing the seats were booked for
+     * @param seats         Zero-based indices of the booked seats
+     * @param claimedBefore Claimed seats of the showing before the first of them, prices the booking
+     * @return The result
+     */
+    private BookingResult successForSeats(Showing showing, int[] seats, int claimedBefore) {
+        SeatMap seatMap = showing.getSeatMap();
+        int available = seatMap.getAvailableCount();
+        int price = pricingEngine.priceOf(showing, claimedBefore);
+        int[] generations = null;
+        for (int i = 0; i < seats.length; i++) {
+            showing.recordPaidPrice(seats[i], price);
+            int generation = seatMap.getGeneration(seats[i]);
+            if (generation != 0) {
+                if (generations == null) {
+                    generations = new int[seats.length];
+                }
+                generations[i] = generation;
+            }
+        }
+        BookingResult result = BookingResult.success(showing, seats, generations, price, available, seatMap.getCapacity());
+        if (journal != null) {
+            journal.appendBooks(showing.getShowingId(), seats);
         }
+        for (int seat : seats) {
+            inventoryFeed.publish(InventoryEventType.BOOKED, showing.getShowingId(), seat);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a successful result for a single claimed seat, priced from the occupancy before it
+     * Remembers the price paid for the seat and the booking generation it was booked under;
+     * called before the booking is journaled or published
+     *
+     * @param showing       The showing the seat was booked for
+     * @param seat          Zero-based index of the booked seat
+     * @param claimedBefore Claimed seats of the showing before this one, prices the booking
+     * @return The result
+     */
+    private BookingResult success(Showing showing, int seat, int claimedBefore) {
+        SeatMap seatMap = showing.getSeatMap();
+        int available = seatMap.getAvailableCount();
+        int price = pricingEngine.priceOf(showing, claimedBefore);
+        showing.recordPaidPrice(seat, price);
+        return BookingResult.success(showing, seat, seatMap.getGeneration(seat), price, available, seatMap.getCapacity());
+    }
+
+    /**
+     * Counts the claimed seats of a showing other than one that stays claimed while it changes
+     * hands, for pricing a confirmed hold or a seat passed to the waitlist
+     *
+     * @param seatMap The seat map
+     * @return Number of claimed seats minus one
+     */
+    private static int claimedBesides(SeatMap seatMap) {
+        return seatMap.getCapacity() - seatMap.getAvailableCount() - 1;
     }
 
     /**
@@ -100,10 +1046,30 @@ public class TicketBookingSystem {
      * @return Number of available tickets, 0 if invalid selection
      */
     public int getAvailableTickets(String genre, String theaterType) {
-        int genreIndex = getGenreIndex(genre);
-        int theaterIndex = getTheaterIndex(theaterType);
-        if (genreIndex == -1 || theaterIndex == -1) return 0;
-        return availableTickets[genreIndex][theaterIndex];
+        return getAvailableTickets(getShowingId(genre, theaterType));
+    }
+
+    /**
+     * Gets the number of available tickets for a specific genre and theater type
+     *
+     * @param genre       Movie genre
+     * @param theaterType Theater type
+     * @return Number of available tickets, 0 if invalid selection
+     */
+    public int getAvailableTickets(Genre genre, TheaterType theaterType) {
+        return getAvailableTickets(getShowingId(genre, theaterType));
+    }
+
+    /**
+     * Gets the number of available tickets for a showing
+     *
+     * @param showingId The showing ID
+     * @return Number of available tickets, 0 if invalid selection
+     */
+    public int getAvailableTickets(int showingId) {
+        Showing showing = inventory.get(showingId);
+        if (showing == null) return 0;
+        return showing.getSeatMap().getAvailableCount();
     }
 
     /**
@@ -114,54 +1080,119 @@ public class TicketBookingSystem {
      * @return Number of booked tickets, 0 if invalid selection
      */
     public int getBookedTickets(String genre, String theaterType) {
-        int genreIndex = getGenreIndex(genre);
-        int theaterIndex = getTheaterIndex(theaterType);
+        return getBookedTickets(getShowingId(genre, theaterType));
+    }
 
-        if (genreIndex == -1 || theaterIndex == -1) return 0;
+    /**
+     * Gets the number of booked tickets for a specific genre and theater type
+     *
+     * @param genre       Movie genre
+     * @param theaterType Theater type
+     * @return Number of booked tickets, 0 if invalid selection
+     */
+    public int getBookedTickets(Genre genre, TheaterType theaterType) {
+        return getBookedTickets(getShowingId(genre, theaterType));
+    }
 
-        // Count booked tickets
-        int bookedCount = 0;
-        for (int i = 0; i < 50; i++) {
-            if (bookedTicketNumbers[genreIndex][theaterIndex][i]) {
-                bookedCount++;
-            }
-        }
-        return bookedCount;
+    /**
+     * Gets the number of booked tickets for a showing
+     *
+     * @param showingId The showing ID
+     * @return Number of booked tickets, 0 if invalid selection
+     */
+    public int getBookedTickets(int showingId) {
+        Showing showing = inventory.get(showingId);
+        if (showing == null) return 0;
+        return showing.getSeatMap().getBookedCount();
+    }
+
+    /**
+     * Gets the seat capacity for a specific genre and theater type
+     *
+     * @param genre       Movie genre
+     * @param theaterType Theater type
+     * @return Number of seats, 0 if invalid selection
+     */
+    public int getCapacity(String genre, String theaterType) {
+        return getCapacity(getShowingId(genre, theaterType));
     }
 
     /**
-     * Converts genre string to array index
+     * Gets the seat capacity for a specific genre and theater type
      *
-     * @param genre Movie genre
-     * @return Array index (0-2) for genre, -1 if invalid
+     * @param genre       Movie genre
+     * @param theaterType Theater type
+     * @return Number of seats, 0 if invalid selection
      */
-    private int getGenreIndex(String genre) {
-        switch (genre) {
-            case "Action":
-                return 0;
-            case "Comedy":
-                return 1;
-            case "Drama":
-                return 2;
-            default:
-                return -1;
-        }
+    public int getCapacity(Genre genre, TheaterType theaterType) {
+        return getCapacity(getShowingId(genre, theaterType));
     }
 
     /**
-     * Converts theater type string to array index
+     * Gets the seat capacity of a showing
      *
-     * @param theater Theater type
-     * @return Array index (0-1) for theater type, -1 if invalid
+     * @param showingId The showing ID
+     * @return Number of seats, 0 if invalid selection
      */
-    private int getTheaterIndex(String theater) {
-        switch (theater) {
-            case "Cinema":
-                return 0;
-            case "IMAX":
-                return 1;
-            default:
-                return -1;
-        }
+    public int getCapacity(int showingId) {
+        Showing showing = inventory.get(showingId);
+        if (showing == null) return 0;
+        return showing.getSeatMap().getCapacity();
+    }
+
+    /**
+     * Gets the number of held tickets for a showing
+     *
+     * @param showingId The showing ID
+     * @return Number of held tickets, 0 if invalid selection
+     */
+    public int getHeldTickets(int showingId) {
+        Showing showing = inventory.get(showingId);
+        if (showing == null) return 0;
+        return showing.getSeatMap().getHeldCount();
+    }
+
+    /**
+     * Takes a consistent copy of every seat of a showing, without locking
+     * Costs a few array copies, however many seats the showing has
+     *
+     * @param showingId The showing ID
+     * @return The snapshot, null if invalid selection
+     */
+    public SeatMapSnapshot getSeatSnapshot(int showingId) {
+        Showing showing = inventory.get(showingId);
+        if (showing == null) return null;
+        return showing.getSeatMap().snapshot();
+    }
+
+    /**
+     * Checks if a showing ID belongs to a registered showing
+     *
+     * @param showingId The showing ID
+     * @return true if the showing exists
+     */
+    public boolean isShowing(int showingId) {
+        return inventory.get(showingId) != null;
+    }
+
+    /**
+     * Gets a registered showing, for shard.BookingNode instances that own it and book it
+     * through the booking methods taking a showing
+     *
+     * @param showingId The showing ID
+     * @return The showing, null if there is no such showing
+     */
+    public Showing getShowing(int showingId) {
+        return inventory.get(showingId);
+    }
+
+    /**
+     * Gets the number of registered showings
+     * Showing IDs range from 0 to this value minus one
+     *
+     * @return Number of registered showings
+     */
+    public int getShowingCount() {
+        return inventory.size();
     }
-}
\ No newline at end of file
+}
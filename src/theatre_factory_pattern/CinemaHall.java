@@ -3,10 +3,25 @@ package theatre_factory_pattern;
 // CinemaHall class that extends the base class Theater
 public class CinemaHall extends Theater {
 
+    /**
+     * Creates a cinema hall.
+     *
+     * @param name             The name of the theater.
+     * @param screenCapacities The seat capacity of each screen, screen 1 first.
+     */
+    public CinemaHall(String name, int... screenCapacities) {
+        super(name, screenCapacities);
+    }
+
+    @Override
+    public TheaterType getType() {
+        return TheaterType.CINEMA;
+    }
+
     /**
      * Displays the details specific to a Cinema Hall.
      */
     public void showDetails() {
-        System.out.println("Cinema Hall details"); // Prints details about the cinema hall
+        System.out.println("Cinema Hall details: " + this); // Prints details about the cinema hall
     }
 }
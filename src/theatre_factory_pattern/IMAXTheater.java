@@ -3,10 +3,25 @@ package theatre_factory_pattern;
 // IMAXTheater class that extends the base class Theater
 public class IMAXTheater extends Theater {
 
+    /**
+     * Creates an IMAX theater.
+     *
+     * @param name             The name of the theater.
+     * @param screenCapacities The seat capacity of each screen, screen 1 first.
+     */
+    public IMAXTheater(String name, int... screenCapacities) {
+        super(name, screenCapacities);
+    }
+
+    @Override
+    public TheaterType getType() {
+        return TheaterType.IMAX;
+    }
+
     /**
      * Displays the details specific to an IMAX Theater.
      */
     public void showDetails() {
-        System.out.println("IMAX Theater details"); // Prints details about the IMAX theater
+        System.out.println("IMAX Theater details: " + this); // Prints details about the IMAX theater
     }
 }
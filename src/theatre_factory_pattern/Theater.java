@@ -1,10 +1,68 @@
 package theatre_factory_pattern;
 
+import java.util.Arrays;
+
 // Abstract base class representing a general Theater
+// Theaters are immutable catalogue entries: the factory and the catalogue share one instance per name between all callers
 public abstract class Theater {
+    private final String name;               // Name shown to users
+    private final int[] screenCapacities;    // Seats of each screen, screen 1 first
+
+    /**
+     * Constructor to initialize a Theater with its screens.
+     *
+     * @param name             The name of the theater.
+     * @param screenCapacities The seat capacity of each screen, screen 1 first; copied.
+     */
+    protected Theater(String name, int... screenCapacities) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Theater name must not be blank");
+        }
+        if (screenCapacities.length == 0) {
+            throw new IllegalArgumentException("Theater needs at least one screen");
+        }
+        for (int capacity : screenCapacities) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Screen capacity must be positive");
+            }
+        }
+        this.name = name;
+        this.screenCapacities = screenCapacities.clone();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getScreenCount() {
+        return screenCapacities.length;
+    }
+
+    /**
+     * Gets the seats of a screen.
+     *
+     * @param screen The screen number, 1 to getScreenCount().
+     * @return The seat capacity of the screen.
+     */
+    public int getScreenCapacity(int screen) {
+        if (screen < 1 || screen > screenCapacities.length) {
+            throw new IllegalArgumentException("Screen must be between 1 and " + screenCapacities.length);
+        }
+        return screenCapacities[screen - 1];
+    }
+
+    /**
+     * Abstract method that must be implemented by subclasses to tell their type.
+     */
+    public abstract TheaterType getType();
 
     /**
      * Abstract method that must be implemented by subclasses to display theater details.
      */
     public abstract void showDetails();
+
+    @Override
+    public String toString() {
+        return name + " (" + getType() + ", screens " + Arrays.toString(screenCapacities) + ")";
+    }
 }
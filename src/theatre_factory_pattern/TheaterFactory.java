@@ -1,24 +1,58 @@
 package theatre_factory_pattern;
 
-// Factory class to create Theater objects based on the specified type
+import singleton_pattern.ShowtimeCatalogue;
+
+// Factory class to create Theater objects based on the specified type or name
+// Theaters are immutable catalogue entries, so the factory looks them up in singleton_pattern.ShowtimeCatalogue
+// and hands out the catalogue's shared instance instead of allocating one per call (Flyweight pattern)
 public class TheaterFactory {
 
     /**
-     * Factory method to create a Theater object based on the provided type.
+     * Factory method to create a Theater object based on the provided type or theater name.
+     * A type name resolves to the default theater of the type, anything else is looked up as a
+     * theater name in the catalogue.
      *
-     * @param type The type of theater (e.g., "Cinema", "IMAX").
-     * @return A Theater object corresponding to the type, or null if the type is not recognized.
+     * @param type The type of theater (e.g., "Cinema", "IMAX") or a theater name.
+     * @return A Theater object corresponding to the name, or null if it is neither a type nor a theater.
      */
     public static Theater createTheater(String type) {
-        // Check if the type is "Cinema" (case-insensitive) and return a CinemaHall instance
-        if (type.equalsIgnoreCase("Cinema")) {
-            return new CinemaHall();
-        }
-        // Check if the type is "IMAX" (case-insensitive) and return an IMAXTheater instance
-        else if (type.equalsIgnoreCase("IMAX")) {
-            return new IMAXTheater();
+        TheaterType resolved = TheaterType.fromNameIgnoreCase(type);
+        return resolved != null ? createTheater(resolved) : ShowtimeCatalogue.getInstance().findTheater(type);
+    }
+
+    /**
+     * Factory method to create a Theater object based on the provided type.
+     * Returns the catalogue's default theater of the type, so repeated calls allocate nothing.
+     *
+     * @param type The type of theater.
+     * @return A Theater object corresponding to the type.
+     */
+    public static Theater createTheater(TheaterType type) {
+        return ShowtimeCatalogue.getInstance().getDefaultTheater(type);
+    }
+
+    /**
+     * Factory method to create a Theater object with a name and screens and add it to the catalogue.
+     * Returns the theater already in the catalogue if the name was created before.
+     *
+     * @param type             The type of theater.
+     * @param name             The name of the theater.
+     * @param screenCapacities The seat capacity of each screen, screen 1 first.
+     * @return The catalogue's Theater object with this name.
+     * @throws IllegalArgumentException if the name is taken by a theater of another type.
+     */
+    public static Theater createTheater(TheaterType type, String name, int... screenCapacities) {
+        Theater theater;
+        switch (type) {
+            case CINEMA:
+                theater = new CinemaHall(name, screenCapacities);
+                break;
+            case IMAX:
+                theater = new IMAXTheater(name, screenCapacities);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown theater type: " + type);
         }
-        // Return null if the type is not recognized
-        return null;
+        return ShowtimeCatalogue.getInstance().addTheater(theater);
     }
 }
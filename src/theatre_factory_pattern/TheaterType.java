@@ -0,0 +1,75 @@
+package theatre_factory_pattern;
+
+/**
+ * TheaterType enumerates the theater types supported by the booking system.
+ * Theater type names coming from the GUI or other String based callers are resolved to a
+ * TheaterType once, so the booking path can work with the enum instead of strings.
+ */
+public enum TheaterType {
+    CINEMA("Cinema"),
+    IMAX("IMAX");
+
+    private static final TheaterType[] VALUES = values();
+
+    // Name shown to users (e.g., "Cinema")
+    private final String displayName;
+
+    TheaterType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Gets the name shown to users
+     *
+     * @return The display name of the theater type
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Resolves a theater type name to its TheaterType, matching the display name exactly
+     *
+     * @param name The theater type name (e.g., "Cinema", "IMAX")
+     * @return The matching TheaterType, or null if the name is not recognized
+     */
+    public static TheaterType fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (TheaterType type : VALUES) {
+            if (type.displayName.equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolves a theater type name to its TheaterType, ignoring case
+     *
+     * @param name The theater type name (e.g., "Cinema", "IMAX")
+     * @return The matching TheaterType, or null if the name is not recognized
+     */
+    public static TheaterType fromNameIgnoreCase(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (TheaterType type : VALUES) {
+            if (type.displayName.equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the display name, so the enum can be shown directly in combo boxes
+     *
+     * @return The display name of the theater type
+     */
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
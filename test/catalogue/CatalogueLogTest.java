@@ -0,0 +1,105 @@
+package catalogue;
+
+import movie_factory_pattern.ActionMovie;
+import movie_factory_pattern.DramaMovie;
+import movie_factory_pattern.Genre;
+import movie_factory_pattern.Movie;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import theatre_factory_pattern.IMAXTheater;
+import theatre_factory_pattern.Theater;
+import theatre_factory_pattern.TheaterType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the catalogue log and of the incremental catalogue indexes: a restart must replay the
+ * complete records with the showing IDs they were written with, and indexes extended in place
+ * must equal indexes built from scratch.
+ */
+class CatalogueLogTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysRecordsInOrderAndCutsATornTail() throws IOException {
+        Movie movie = new ActionMovie("Heat", 170);
+        Theater theater = new IMAXTheater("Grand", 120, 80);
+        try (CatalogueLog log = CatalogueLog.open(directory, false, new Recorder())) {
+            log.appendMovie(movie);
+            log.appendTheater(theater);
+            log.appendShowtime(new Showtime(42, movie, theater, 2, LocalDateTime.of(2030, 1, 7, 20, 15)));
+        }
+        Path file = directory.resolve("catalogue.bin");
+        long complete = Files.size(file);
+        // A crash in the middle of the next record
+        Files.write(file, new byte[]{0, 0, 0, 30, 1, 2}, StandardOpenOption.APPEND);
+
+        Recorder recorder = new Recorder();
+        CatalogueLog.open(directory, false, recorder).close();
+        assertEquals(List.of(
+                "movie ACTION Heat 170",
+                "theater IMAX Grand [120, 80]",
+                "showtime 42 Heat Grand 2 " + Showtime.toMinute(LocalDateTime.of(2030, 1, 7, 20, 15))), recorder.records);
+        assertEquals(complete, Files.size(file));
+    }
+
+    @Test
+    void incrementalIndexesEqualIndexesBuiltAtOnce() {
+        Theater theater = new IMAXTheater("Grand", 100);
+        List<Movie> movies = new ArrayList<>();
+        List<Showtime> showtimes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Movie movie = new DramaMovie((i % 3 == 0 ? "The " : "Th") + (i * 7919 % 50), 60 + i);
+            movies.add(movie);
+            showtimes.add(new Showtime(i, movie, theater, 1, LocalDateTime.of(2030, 1, 7, 10, 0).plusMinutes(i * 37L % 300)));
+        }
+
+        IntervalIndex oneByOne = IntervalIndex.EMPTY;
+        for (Showtime showtime : showtimes) {
+            oneByOne = oneByOne.with(showtime);
+        }
+        IntervalIndex merged = IntervalIndex.EMPTY.withAll(showtimes.subList(0, 20)).withAll(showtimes.subList(20, 50));
+        assertEquals(oneByOne.getShowtimes(), merged.getShowtimes());
+
+        TitleTrie extended = TitleTrie.EMPTY;
+        for (Movie movie : movies) {
+            extended = extended.with(movie);
+        }
+        TitleTrie built = TitleTrie.of(movies);
+        for (String prefix : new String[]{"", "t", "th", "the ", "The 4", "Th1", "x"}) {
+            assertEquals(built.find(prefix, 100), extended.find(prefix, 100), "Prefix " + prefix);
+        }
+    }
+
+    /**
+     * Records the replayed records as strings
+     */
+    private static final class Recorder implements CatalogueLog.Visitor {
+        private final List<String> records = new ArrayList<>();
+
+        @Override
+        public void movie(Genre genre, String title, int durationMinutes) {
+            records.add("movie " + genre.name() + " " + title + " " + durationMinutes);
+        }
+
+        @Override
+        public void theater(TheaterType type, String name, int[] screenCapacities) {
+            records.add("theater " + type.name() + " " + name + " " + Arrays.toString(screenCapacities));
+        }
+
+        @Override
+        public void showtime(int showingId, String movieTitle, String theaterName, int screen, long startMinute) {
+            records.add("showtime " + showingId + " " + movieTitle + " " + theaterName + " " + screen + " " + startMinute);
+        }
+    }
+}
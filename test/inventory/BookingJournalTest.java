@@ -0,0 +1,121 @@
+package inventory;
+
+import movie_factory_pattern.Genre;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import theatre_factory_pattern.TheaterType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recovery tests of the booking journal: a restart must restore exactly the journaled changes,
+ * whatever the live seat maps held when a snapshot was taken.
+ */
+class BookingJournalTest {
+    private static final int CAPACITY = 100;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotLeavesOutClaimsThatWereNeverJournaled() throws IOException {
+        ShowingInventory inventory = new ShowingInventory();
+        BookingJournal journal = open(inventory);
+        Showing showing = register(inventory, journal);
+        SeatMap seatMap = showing.getSeatMap();
+
+        book(journal, showing, 1);
+        // A booking that claimed its seat but was not journaled yet when the process died
+        assertTrue(seatMap.tryBook(2));
+        // A multi-seat booking whose partial claim is held while it rolls back
+        assertTrue(seatMap.tryBook(3));
+        journal.snapshot();
+        seatMap.release(3);
+        book(journal, showing, 4);
+        journal.close();
+
+        SeatMap recovered = recover().get(showing.getShowingId()).getSeatMap();
+        assertTrue(recovered.isBooked(1));
+        assertFalse(recovered.isBooked(2));
+        assertFalse(recovered.isBooked(3));
+        assertTrue(recovered.isBooked(4));
+        assertEquals(2, recovered.getBookedCount());
+    }
+
+    @Test
+    void releaseJournaledBeforeASnapshotIsNotLostWhenTheSeatIsFreedAfterIt() throws IOException {
+        ShowingInventory inventory = new ShowingInventory();
+        BookingJournal journal = open(inventory);
+        Showing showing = register(inventory, journal);
+        SeatMap seatMap = showing.getSeatMap();
+
+        book(journal, showing, 5);
+        int generation = seatMap.tryCancel(5, 0);
+        journal.appendCancel(showing.getShowingId(), 5, generation);
+        // The snapshot runs between the cancellation record and the freeing of the seat
+        journal.snapshot();
+        seatMap.release(5);
+        journal.close();
+
+        SeatMap recovered = recover().get(showing.getShowingId()).getSeatMap();
+        assertFalse(recovered.isBooked(5));
+        assertEquals(1, recovered.getGeneration(5));
+    }
+
+    @Test
+    void consecutiveSnapshotsCompactEveryRecord() throws IOException {
+        ShowingInventory inventory = new ShowingInventory();
+        BookingJournal journal = open(inventory);
+        Showing showing = register(inventory, journal);
+        SeatMap seatMap = showing.getSeatMap();
+
+        for (int seat = 0; seat < 10; seat++) {
+            book(journal, showing, seat);
+        }
+        journal.snapshot();
+        int generation = seatMap.tryCancel(3, 0);
+        journal.appendCancelAndBook(showing.getShowingId(), 3, generation);
+        journal.appendHold(showing.getShowingId(), 20);
+        seatMap.tryHold(20);
+        journal.snapshot();
+        book(journal, showing, 30);
+        journal.snapshot();
+        journal.close();
+
+        SeatMap recovered = recover().get(showing.getShowingId()).getSeatMap();
+        assertEquals(11, recovered.getBookedCount());
+        assertTrue(recovered.isBooked(3));
+        assertEquals(1, recovered.getGeneration(3));
+        // Holds do not survive a restart
+        assertFalse(recovered.isBooked(20));
+        assertEquals(0, recovered.getHeldCount());
+    }
+
+    private BookingJournal open(ShowingInventory inventory) throws IOException {
+        BookingJournal journal = new BookingJournal(directory, inventory, false, 0);
+        journal.recover();
+        return journal;
+    }
+
+    private ShowingInventory recover() throws IOException {
+        ShowingInventory inventory = new ShowingInventory();
+        open(inventory).close();
+        return inventory;
+    }
+
+    private static Showing register(ShowingInventory inventory, BookingJournal journal) {
+        Showing showing = inventory.register(Genre.COMEDY, TheaterType.CINEMA, CAPACITY);
+        journal.appendRegister(showing);
+        return showing;
+    }
+
+    private static void book(BookingJournal journal, Showing showing, int seat) {
+        assertTrue(showing.getSeatMap().tryBook(seat));
+        journal.appendBook(showing.getShowingId(), seat);
+    }
+}
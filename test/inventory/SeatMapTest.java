@@ -0,0 +1,98 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+import prototype_pattern.TicketHandle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the seat map's hold and cancellation rules: a cancellation must never take a held
+ * seat, and a ticket handle must never match a later booking of its seat. Claims must each see
+ * the occupancy they added to, which bookings are priced from.
+ */
+class SeatMapTest {
+    private static final int HOLDS = 200_000;
+
+    @Test
+    void cancellationNeverTakesAHeldSeat() throws InterruptedException {
+        SeatMap seatMap = new SeatMap(64);
+        AtomicBoolean holding = new AtomicBoolean(true);
+        AtomicInteger cancelled = new AtomicInteger();
+
+        // Nothing is ever booked, so every cancellation that succeeds took a hold
+        Thread canceller = Thread.ofPlatform().start(() -> {
+            while (holding.get()) {
+                if (seatMap.tryCancel(0, seatMap.getGeneration(0)) != -1) {
+                    cancelled.incrementAndGet();
+                }
+            }
+        });
+        for (int i = 0; i < HOLDS; i++) {
+            assertTrue(seatMap.tryHold(0));
+            assertTrue(seatMap.releaseHold(0));
+        }
+        holding.set(false);
+        canceller.join();
+
+        assertEquals(0, cancelled.get());
+        assertEquals(0, seatMap.getGeneration(0));
+        assertFalse(seatMap.isBooked(0));
+    }
+
+    @Test
+    void confirmedHoldCanBeCancelled() {
+        SeatMap seatMap = new SeatMap(64);
+        assertTrue(seatMap.tryHold(3));
+        assertEquals(-1, seatMap.tryCancel(3, 0));
+        assertTrue(seatMap.confirmHold(3));
+        assertEquals(1, seatMap.tryCancel(3, 0));
+        assertEquals(1, seatMap.getGeneration(3));
+    }
+
+    @Test
+    void generationDoesNotWrap() {
+        SeatMap seatMap = new SeatMap(64);
+        seatMap.restoreGeneration(5, TicketHandle.GENERATION_MASK - 1);
+        assertTrue(seatMap.tryBook(5));
+        assertEquals(TicketHandle.GENERATION_MASK, seatMap.tryCancel(5, TicketHandle.GENERATION_MASK - 1));
+        // The booking after the last cancellation stays, a handle of generation 0 would match it otherwise
+        assertEquals(-1, seatMap.tryCancel(5, TicketHandle.GENERATION_MASK));
+        assertEquals(-1, seatMap.tryCancel(5, 0));
+        assertTrue(seatMap.isBooked(5));
+    }
+
+    @Test
+    void concurrentClaimsEachSeeTheOccupancyTheyAddedTo() throws InterruptedException {
+        int threads = 8;
+        int capacity = 40_000;
+        SeatMap seatMap = new SeatMap(capacity);
+        AtomicIntegerArray seen = new AtomicIntegerArray(capacity);
+        List<Thread> claimers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            claimers.add(Thread.ofPlatform().start(() -> {
+                for (int seat = first; seat < capacity; seat += threads) {
+                    int claimedBefore = seatMap.claim(seat);
+                    seen.incrementAndGet(claimedBefore);
+                }
+            }));
+        }
+        for (Thread claimer : claimers) {
+            claimer.join();
+        }
+        // Every count from 0 to capacity - 1 was seen by exactly one claim
+        for (int count = 0; count < capacity; count++) {
+            assertEquals(1, seen.get(count), "Claims that saw " + count + " claimed seats");
+        }
+        assertEquals(-1, seatMap.claim(0));
+        assertEquals(capacity, seatMap.claimAll(new int[0]));
+    }
+}
@@ -0,0 +1,38 @@
+package pricing;
+
+import movie_factory_pattern.Genre;
+import org.junit.jupiter.api.Test;
+import theatre_factory_pattern.TheaterType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the fixed showing prices of a price table: any showing ID may carry one, and a fixed
+ * price of 0 overrides the genre price like any other.
+ */
+class PriceTableTest {
+    @Test
+    void fixesPricesOfSparseShowingIds() {
+        PriceTable table = PriceTable.parse("test", List.of(
+                "base Action Cinema 1200",
+                "tier 50 200",
+                "showing 2000000000 1000",
+                "showing 7 0"));
+        assertEquals(1000, table.priceOf(2_000_000_000, Genre.ACTION, TheaterType.CINEMA, 0, 10));
+        assertEquals(2000, table.priceOf(2_000_000_000, Genre.ACTION, TheaterType.CINEMA, 5, 10));
+        assertEquals(0, table.priceOf(7, Genre.ACTION, TheaterType.CINEMA, 5, 10));
+        assertEquals(1200, table.priceOf(8, Genre.ACTION, TheaterType.CINEMA, 0, 10));
+    }
+
+    @Test
+    void unsetShowingPriceFallsBackToTheGenrePrice() {
+        PriceTable table = new PriceTable.Builder()
+                .setBasePrice(Genre.ACTION, 1200)
+                .setShowingPrice(3, 500)
+                .setShowingPrice(3, -1)
+                .build();
+        assertEquals(1200, table.priceOf(3, Genre.ACTION, TheaterType.CINEMA, 0, 10));
+    }
+}
@@ -0,0 +1,52 @@
+package shard;
+
+import inventory.BookingResult;
+import inventory.BookingStatus;
+import movie_factory_pattern.Genre;
+import org.junit.jupiter.api.Test;
+import singleton_pattern.TicketBookingSystem;
+import theatre_factory_pattern.TheaterType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the shard router: tickets booked through a node must be the booking system's own,
+ * priced and cancellable, wherever the showing moves.
+ */
+class ShardRouterTest {
+    @Test
+    void ticketsBookedThroughANodeArePricedAndCancellable() {
+        TicketBookingSystem system = TicketBookingSystem.getInstance();
+        BookingNode first = new BookingNode("node-1");
+        ShardRouter router = new ShardRouter(List.of(first, new BookingNode("node-2")));
+        int showingId = router.registerShowing(Genre.COMEDY, TheaterType.IMAX, 100);
+
+        BookingResult booked = router.bookTickets(showingId, new int[]{4, 5});
+        assertTrue(booked.isSuccess());
+        assertTrue(booked.getPriceCents() > 0);
+        assertEquals(98, system.getAvailableTickets(showingId));
+
+        // Move every showing to the other node, the ticket stays cancellable through the system
+        router.removeNode(first);
+        BookingResult cancelled = system.cancelTicket(booked.getTicketHandle(0));
+        assertEquals(BookingStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(booked.getPriceCents(), cancelled.getRefundCents());
+        assertEquals(99, router.getAvailableTickets(showingId));
+        assertTrue(router.bookTicket(showingId, 4).isSuccess());
+    }
+
+    @Test
+    void showingsNotRegisteredThroughTheRouterAreInvalid() {
+        TicketBookingSystem system = TicketBookingSystem.getInstance();
+        ShardRouter router = new ShardRouter(List.of(new BookingNode("node-1")));
+        int elsewhere = system.registerShowing(Genre.DRAMA, TheaterType.CINEMA, 10);
+
+        assertEquals(BookingStatus.INVALID_SELECTION, router.bookTicket(elsewhere, 1).getStatus());
+        assertEquals(BookingStatus.INVALID_SELECTION, router.bookContiguousTickets(-1, 2).getStatus());
+        assertTrue(router.bookTicket(Genre.DRAMA, TheaterType.CINEMA, 3).isSuccess());
+        assertEquals(0, router.getAvailableTickets(elsewhere));
+    }
+}
@@ -0,0 +1,73 @@
+package singleton_pattern;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Cold-start test of the holder-class singletons: thousands of threads call getInstance at the
+ * same moment and must all get the same instance.
+ * Surefire runs each test class in a fresh JVM, so the singletons are not initialized before the
+ * threads are released.
+ */
+class SingletonStartupTest {
+    private static final int THREADS = 2000;
+
+    @Test
+    void ticketBookingSystemIsCreatedOnceUnderAThunderingHerd() throws InterruptedException {
+        TicketBookingSystem first = assertSingleInstance(TicketBookingSystem::getInstance);
+        // A second initialization would have registered the default showings again
+        assertEquals(6, first.getShowingCount());
+    }
+
+    @Test
+    void sessionManagerIsCreatedOnceUnderAThunderingHerd() throws InterruptedException {
+        assertSingleInstance(SessionManager::getInstance);
+    }
+
+    /**
+     * Calls getInstance from THREADS threads released together and asserts they all got one instance
+     *
+     * @param getInstance The getInstance method
+     * @return The instance
+     */
+    private static <T> T assertSingleInstance(Supplier<T> getInstance) throws InterruptedException {
+        AtomicReferenceArray<T> instances = new AtomicReferenceArray<>(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                instances.set(thread, getInstance.get());
+            }));
+        }
+        ready.await();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        T first = instances.get(0);
+        assertNotNull(first);
+        for (int t = 1; t < THREADS; t++) {
+            assertSame(first, instances.get(t), "Instance seen by thread " + t);
+        }
+        return first;
+    }
+}
@@ -0,0 +1,143 @@
+package singleton_pattern;
+
+import inventory.BookingResult;
+import inventory.BookingStatus;
+import inventory.Showing;
+import movie_factory_pattern.Genre;
+import org.junit.jupiter.api.Test;
+import prototype_pattern.TicketHandle;
+import theatre_factory_pattern.TheaterType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stress test of the lock-free booking path: many threads race for every seat of one showing,
+ * and every seat must be sold exactly once.
+ */
+class TicketBookingSystemConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int CAPACITY = 20_000;
+
+    @Test
+    void concurrentSingleBookingsNeverSellASeatTwice() throws InterruptedException {
+        TicketBookingSystem system = TicketBookingSystem.getInstance();
+        int showingId = system.registerShowing(Genre.ACTION, TheaterType.CINEMA, CAPACITY);
+        AtomicIntegerArray sold = new AtomicIntegerArray(CAPACITY);
+
+        race(thread -> {
+            // Every thread tries every seat, in its own order, so each seat is contended
+            List<Integer> order = new ArrayList<>();
+            for (int ticketNumber = 1; ticketNumber <= CAPACITY; ticketNumber++) {
+                order.add(ticketNumber);
+            }
+            Collections.shuffle(order, new Random(thread));
+            for (int ticketNumber : order) {
+                if (system.bookTicket(showingId, ticketNumber).isSuccess()) {
+                    sold.incrementAndGet(ticketNumber - 1);
+                }
+            }
+        });
+
+        assertEverySeatSoldOnce(system, showingId, sold);
+    }
+
+    @Test
+    void concurrentHandleBookingsNeverSellASeatTwice() throws InterruptedException {
+        TicketBookingSystem system = TicketBookingSystem.getInstance();
+        int showingId = system.registerShowing(Genre.COMEDY, TheaterType.CINEMA, CAPACITY);
+        Showing showing = system.getShowing(showingId);
+        AtomicIntegerArray sold = new AtomicIntegerArray(CAPACITY);
+
+        race(thread -> {
+            for (int ticketNumber = 1; ticketNumber <= CAPACITY; ticketNumber++) {
+                long handle = system.bookTicketHandle(showing, ticketNumber);
+                if (BookingStatus.ofHandle(handle).isSuccess()) {
+                    sold.incrementAndGet(TicketHandle.ticketNumber(handle) - 1);
+                }
+            }
+        });
+
+        assertEverySeatSoldOnce(system, showingId, sold);
+        assertEquals(BookingStatus.INVALID_TICKET_NUMBER, BookingStatus.ofHandle(system.bookTicketHandle(showing, 0)));
+        assertEquals(BookingStatus.INVALID_SELECTION, BookingStatus.ofHandle(system.bookTicketHandle(null, 1)));
+    }
+
+    @Test
+    void concurrentMultiSeatBookingsNeverSellASeatTwice() throws InterruptedException {
+        TicketBookingSystem system = TicketBookingSystem.getInstance();
+        int showingId = system.registerShowing(Genre.DRAMA, TheaterType.IMAX, CAPACITY);
+        AtomicIntegerArray sold = new AtomicIntegerArray(CAPACITY);
+
+        race(thread -> {
+            // Overlapping pairs and contiguous groups force the all-or-nothing rollback
+            Random random = new Random(thread);
+            while (system.getAvailableTickets(showingId) > 0) {
+                BookingResult result;
+                if (random.nextBoolean()) {
+                    int first = 1 + random.nextInt(CAPACITY);
+                    int second = 1 + random.nextInt(CAPACITY);
+                    result = first == second ? system.bookTicket(showingId, first)
+                            : system.bookTickets(showingId, new int[]{first, second});
+                } else {
+                    result = system.bookContiguousTickets(showingId, 1 + random.nextInt(3));
+                }
+                for (int i = 0; result.isSuccess() && i < result.getTicketCount(); i++) {
+                    sold.incrementAndGet(result.getTicket(i).getTicketNumber() - 1);
+                }
+            }
+        });
+
+        assertEverySeatSoldOnce(system, showingId, sold);
+    }
+
+    /**
+     * Asserts that the threads sold every seat exactly once and that the counters agree
+     */
+    private static void assertEverySeatSoldOnce(TicketBookingSystem system, int showingId, AtomicIntegerArray sold) {
+        int total = 0;
+        for (int seat = 0; seat < CAPACITY; seat++) {
+            assertEquals(1, sold.get(seat), "Sales of seat " + seat);
+            total += sold.get(seat);
+        }
+        assertEquals(CAPACITY, total);
+        assertEquals(CAPACITY, system.getBookedTickets(showingId));
+        assertEquals(0, system.getAvailableTickets(showingId));
+        assertEquals(0, system.getSeatSnapshot(showingId).getAvailableCount());
+    }
+
+    /**
+     * Runs a task on THREADS threads released at the same moment and waits for all of them
+     */
+    private static void race(ThreadTask task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                task.run(thread);
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}